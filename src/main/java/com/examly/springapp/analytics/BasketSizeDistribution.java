@@ -0,0 +1,8 @@
+package com.examly.springapp.analytics;
+
+/**
+ * {@code orders[n]} delivered orders had {@code n} items; the last slot counts every order with
+ * {@code maxItems} or more.
+ */
+public record BasketSizeDistribution(int maxItems, long[] orders, double averageItems) {
+}
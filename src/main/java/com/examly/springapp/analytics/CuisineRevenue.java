@@ -0,0 +1,7 @@
+package com.examly.springapp.analytics;
+
+/**
+ * Delivered orders of one cuisine and what they were worth.
+ */
+public record CuisineRevenue(String cuisine, long orders, double revenue, double averageTicket) {
+}
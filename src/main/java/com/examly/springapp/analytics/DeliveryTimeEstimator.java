@@ -0,0 +1,132 @@
+package com.examly.springapp.analytics;
+
+import com.examly.springapp.cache.AvailabilityTimeline;
+import com.examly.springapp.entity.OrderEntity;
+import com.examly.springapp.entity.OrderStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates when an order will be delivered from the orders delivered before it. For every
+ * restaurant it keeps an exponentially weighted mean of the minutes from entering each status to
+ * delivery, per hour of the week the status was entered, and a restaurant-wide mean per status.
+ * The same statistics are kept across all restaurants as a fallback for restaurants with too few
+ * deliveries. Recording a delivery and estimating both take constant time.
+ */
+@Component
+public class DeliveryTimeEstimator {
+
+    public static final double ALPHA = 0.2;
+    public static final int MIN_SAMPLES = 3;
+
+    // PENDING through OUT_FOR_DELIVERY, in the order an order moves through them
+    private static final int STAGES = OrderStatus.DELIVERED.ordinal();
+    private static final int HOURS_PER_WEEK = 7 * 24;
+    private static final double[] DEFAULT_MINUTES = {45, 40, 30, 20, 15};
+    // Orders left open for more than a day say nothing about normal delivery times
+    private static final double MAX_MINUTES = 24 * 60;
+
+    private final ConcurrentHashMap<Long, Stats> restaurants = new ConcurrentHashMap<>();
+    private final Stats overall = new Stats();
+
+    /**
+     * Folds a delivered order into the statistics, one sample for every status it went through.
+     */
+    public void recordDelivery(long restaurantId, OrderEntity order) {
+        LocalDateTime[] enteredAt = new LocalDateTime[STAGES];
+        for (int stage = 0; stage < STAGES; stage++) {
+            enteredAt[stage] = order.getStatusChangedAt(OrderStatus.values()[stage]);
+        }
+        recordDelivery(restaurantId, enteredAt, order.getActualDeliveryTime());
+    }
+
+    /**
+     * Same as {@link #recordDelivery(long, OrderEntity)}, with {@code enteredAt} indexed by the
+     * ordinal of each status before {@link OrderStatus#DELIVERED}.
+     */
+    public void recordDelivery(long restaurantId, LocalDateTime[] enteredAt, LocalDateTime deliveredAt) {
+        if (deliveredAt == null) {
+            return;
+        }
+        Stats stats = restaurants.computeIfAbsent(restaurantId, id -> new Stats());
+        for (int stage = 0; stage < STAGES; stage++) {
+            if (enteredAt[stage] == null) {
+                continue;
+            }
+            double minutes = Duration.between(enteredAt[stage], deliveredAt).toMillis() / 60_000.0;
+            if (minutes < 0 || minutes > MAX_MINUTES) {
+                continue;
+            }
+            int hour = hourOfWeek(enteredAt[stage]);
+            stats.add(stage, hour, minutes);
+            overall.add(stage, hour, minutes);
+        }
+    }
+
+    public void remove(long restaurantId) {
+        restaurants.remove(restaurantId);
+    }
+
+    public LocalDateTime estimate(long restaurantId, OrderStatus status, LocalDateTime enteredAt) {
+        return estimate(restaurantId, status, enteredAt, LocalDateTime.now());
+    }
+
+    /**
+     * Estimated delivery time of an order that entered {@code status} at {@code enteredAt}, never
+     * earlier than {@code now}. Returns null for delivered and cancelled orders.
+     */
+    public LocalDateTime estimate(long restaurantId, OrderStatus status, LocalDateTime enteredAt, LocalDateTime now) {
+        int stage = status.ordinal();
+        if (stage >= STAGES || enteredAt == null) {
+            return null;
+        }
+        int hour = hourOfWeek(enteredAt);
+        double minutes = Double.NaN;
+        Stats stats = restaurants.get(restaurantId);
+        if (stats != null) {
+            minutes = stats.mean(stage, hour);
+        }
+        if (Double.isNaN(minutes)) {
+            minutes = overall.mean(stage, hour);
+        }
+        if (Double.isNaN(minutes)) {
+            minutes = DEFAULT_MINUTES[stage];
+        }
+        LocalDateTime eta = enteredAt.plusSeconds(Math.round(minutes * 60));
+        return eta.isBefore(now) ? now : eta;
+    }
+
+    private static int hourOfWeek(LocalDateTime time) {
+        return AvailabilityTimeline.minuteOfWeek(time) / 60;
+    }
+
+    private static final class Stats {
+
+        private final double[] hourlyMeans = new double[STAGES * HOURS_PER_WEEK];
+        private final int[] hourlyCounts = new int[STAGES * HOURS_PER_WEEK];
+        private final double[] means = new double[STAGES];
+        private final int[] counts = new int[STAGES];
+
+        synchronized void add(int stage, int hour, double minutes) {
+            int cell = stage * HOURS_PER_WEEK + hour;
+            hourlyMeans[cell] = update(hourlyMeans[cell], hourlyCounts[cell]++, minutes);
+            means[stage] = update(means[stage], counts[stage]++, minutes);
+        }
+
+        // The hour's mean once it has enough samples, else the mean over the whole week, else NaN
+        synchronized double mean(int stage, int hour) {
+            int cell = stage * HOURS_PER_WEEK + hour;
+            if (hourlyCounts[cell] >= MIN_SAMPLES) {
+                return hourlyMeans[cell];
+            }
+            return counts[stage] >= MIN_SAMPLES ? means[stage] : Double.NaN;
+        }
+
+        private static double update(double mean, int count, double sample) {
+            return count == 0 ? sample : mean + ALPHA * (sample - mean);
+        }
+    }
+}
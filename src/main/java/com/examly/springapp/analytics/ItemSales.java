@@ -0,0 +1,7 @@
+package com.examly.springapp.analytics;
+
+/**
+ * Quantity and amount of one menu item sold in delivered orders.
+ */
+public record ItemSales(long menuItemId, long quantity, double revenue) {
+}
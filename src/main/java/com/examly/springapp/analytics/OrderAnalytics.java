@@ -0,0 +1,116 @@
+package com.examly.springapp.analytics;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Aggregates over the columnar order snapshot in {@link OrderColumnStore}, never the live order
+ * tables. Segments are scanned in parallel and their partial results merged through their
+ * dictionaries. Every aggregate covers delivered orders placed in {@code [from, to)}; a null bound
+ * leaves that side open. Orders appear here once the {@link OrderSnapshotExporter} has exported them.
+ */
+@Component
+public class OrderAnalytics {
+
+    public static final int MAX_BASKET_ITEMS = 20;
+
+    private final OrderColumnStore orderColumnStore;
+
+    public OrderAnalytics(OrderColumnStore orderColumnStore) {
+        this.orderColumnStore = orderColumnStore;
+    }
+
+    /**
+     * Cuisines by revenue, highest first.
+     */
+    public List<CuisineRevenue> revenueByCuisine(LocalDateTime from, LocalDateTime to) {
+        Map<String, long[]> totals = new HashMap<>();
+        for (var partial : scan(from, to, (segment, range) -> Map.entry(segment.cuisines(),
+                segment.deliveredByCuisine(range[0], range[1])))) {
+            String[] cuisines = partial.getKey();
+            for (int i = 0; i < cuisines.length; i++) {
+                long[] total = totals.computeIfAbsent(cuisines[i], cuisine -> new long[2]);
+                total[0] += partial.getValue()[0][i];
+                total[1] += partial.getValue()[1][i];
+            }
+        }
+        List<CuisineRevenue> revenue = new ArrayList<>();
+        totals.forEach((cuisine, total) -> {
+            if (total[0] > 0) {
+                revenue.add(new CuisineRevenue(cuisine, total[0], total[1] / 100.0, total[1] / 100.0 / total[0]));
+            }
+        });
+        revenue.sort(Comparator.comparingDouble(CuisineRevenue::revenue).reversed()
+                .thenComparing(CuisineRevenue::cuisine));
+        return revenue;
+    }
+
+    public BasketSizeDistribution basketSizes(LocalDateTime from, LocalDateTime to) {
+        long[] orders = new long[MAX_BASKET_ITEMS + 1];
+        for (long[] partial : scan(from, to,
+                (segment, range) -> segment.deliveredByBasketSize(range[0], range[1], MAX_BASKET_ITEMS))) {
+            for (int i = 0; i < orders.length; i++) {
+                orders[i] += partial[i];
+            }
+        }
+        long count = 0;
+        long items = 0;
+        for (int i = 0; i < orders.length; i++) {
+            count += orders[i];
+            items += i * orders[i];
+        }
+        return new BasketSizeDistribution(MAX_BASKET_ITEMS, orders, count == 0 ? 0 : (double) items / count);
+    }
+
+    public OrderHeatmap heatmap(LocalDateTime from, LocalDateTime to) {
+        long[][] orders = new long[7][24];
+        for (long[] partial : scan(from, to, (segment, range) -> segment.deliveredByHourOfWeek(range[0], range[1]))) {
+            for (int hour = 0; hour < partial.length; hour++) {
+                orders[hour / 24][hour % 24] += partial[hour];
+            }
+        }
+        return new OrderHeatmap(orders);
+    }
+
+    /**
+     * Up to {@code limit} menu items by quantity sold, highest first.
+     */
+    public List<ItemSales> topItems(LocalDateTime from, LocalDateTime to, int limit) {
+        Map<Long, long[]> totals = new HashMap<>();
+        for (var partial : scan(from, to, (segment, range) -> Map.entry(segment.itemIds(),
+                segment.deliveredByItem(range[0], range[1])))) {
+            long[] itemIds = partial.getKey();
+            for (int i = 0; i < itemIds.length; i++) {
+                if (partial.getValue()[0][i] > 0) {
+                    long[] total = totals.computeIfAbsent(itemIds[i], id -> new long[2]);
+                    total[0] += partial.getValue()[0][i];
+                    total[1] += partial.getValue()[1][i];
+                }
+            }
+        }
+        return totals.entrySet().stream()
+                .map(entry -> new ItemSales(entry.getKey(), entry.getValue()[0], entry.getValue()[1] / 100.0))
+                .sorted(Comparator.comparingLong(ItemSales::quantity).reversed()
+                        .thenComparingLong(ItemSales::menuItemId))
+                .limit(limit)
+                .toList();
+    }
+
+    private interface SegmentScan<T> {
+        T apply(OrderColumnSegment segment, long[] range);
+    }
+
+    private <T> List<T> scan(LocalDateTime from, LocalDateTime to, SegmentScan<T> scan) {
+        long[] range = {
+            from == null ? Long.MIN_VALUE : from.toEpochSecond(ZoneOffset.UTC),
+            to == null ? Long.MAX_VALUE : to.toEpochSecond(ZoneOffset.UTC)
+        };
+        return orderColumnStore.segments().parallelStream()
+                .filter(segment -> segment.overlaps(range[0], range[1]))
+                .map(segment -> scan.apply(segment, range))
+                .toList();
+    }
+}
@@ -0,0 +1,454 @@
+package com.examly.springapp.analytics;
+
+import com.examly.springapp.dto.OrderLineSale;
+import com.examly.springapp.dto.TerminalOrder;
+import com.examly.springapp.entity.OrderStatus;
+import com.examly.springapp.util.LongIntHashMap;
+
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * One immutable file of the columnar order snapshot, read through a memory mapping. Orders are
+ * sorted by order time and stored one column at a time, so a time range is a contiguous run of
+ * rows found by binary search. Restaurant and menu item IDs are replaced by indexes into per-file
+ * dictionaries, order times are seconds after the file's earliest order, and amounts are cents.
+ * All numbers are little-endian and every section starts on an 8-byte boundary:
+ * <pre>
+ * header           magic, version, rows, lines, restaurants, cuisines, items, unused (ints),
+ *                  first order second, last order second, export cutoff second, unused (longs)
+ * restaurant IDs   long per restaurant
+ * cuisine          int per restaurant, index into the cuisine names
+ * cuisine names    int length and UTF-8 bytes per cuisine
+ * item IDs         long per menu item
+ * order time       int per order
+ * restaurant       int per order
+ * quantity         int per order, items summed over its lines
+ * amount           long per order
+ * status           byte per order, 0 delivered and 1 cancelled
+ * line order       int per line, row of its order; lines are sorted by it
+ * line item        int per line
+ * line quantity    int per line
+ * line amount      long per line
+ * </pre>
+ */
+public final class OrderColumnSegment {
+
+    private static final int MAGIC = 0x4C4F434F;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final byte DELIVERED = 0;
+    private static final byte CANCELLED = 1;
+
+    private final Path path;
+    private final int rows;
+    private final int lines;
+    private final long firstSecond;
+    private final long lastSecond;
+    private final long cutoffSecond;
+    private final long[] restaurantIds;
+    private final int[] restaurantCuisines;
+    private final String[] cuisines;
+    private final long[] itemIds;
+    private final IntBuffer orderTime;
+    private final IntBuffer orderRestaurant;
+    private final IntBuffer orderQuantity;
+    private final LongBuffer orderCents;
+    private final ByteBuffer orderStatus;
+    private final IntBuffer lineOrder;
+    private final IntBuffer lineItem;
+    private final IntBuffer lineQuantity;
+    private final LongBuffer lineCents;
+
+    private OrderColumnSegment(Path path, ByteBuffer buffer) throws IOException {
+        this.path = path;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an order column segment: " + path);
+        }
+        rows = buffer.getInt(8);
+        lines = buffer.getInt(12);
+        int restaurantCount = buffer.getInt(16);
+        int cuisineCount = buffer.getInt(20);
+        int itemCount = buffer.getInt(24);
+        firstSecond = buffer.getLong(32);
+        lastSecond = buffer.getLong(40);
+        cutoffSecond = buffer.getLong(48);
+
+        int offset = HEADER_BYTES;
+        restaurantIds = new long[restaurantCount];
+        longs(buffer, offset, restaurantCount).get(restaurantIds);
+        offset = align(offset + 8 * restaurantCount);
+        restaurantCuisines = new int[restaurantCount];
+        ints(buffer, offset, restaurantCount).get(restaurantCuisines);
+        offset = align(offset + 4 * restaurantCount);
+        cuisines = new String[cuisineCount];
+        for (int i = 0; i < cuisineCount; i++) {
+            byte[] name = new byte[buffer.getInt(offset)];
+            buffer.get(offset + 4, name);
+            cuisines[i] = new String(name, StandardCharsets.UTF_8);
+            offset += 4 + name.length;
+        }
+        offset = align(offset);
+        itemIds = new long[itemCount];
+        longs(buffer, offset, itemCount).get(itemIds);
+        offset = align(offset + 8 * itemCount);
+
+        orderTime = ints(buffer, offset, rows);
+        offset = align(offset + 4 * rows);
+        orderRestaurant = ints(buffer, offset, rows);
+        offset = align(offset + 4 * rows);
+        orderQuantity = ints(buffer, offset, rows);
+        offset = align(offset + 4 * rows);
+        orderCents = longs(buffer, offset, rows);
+        offset = align(offset + 8 * rows);
+        orderStatus = buffer.slice(offset, rows);
+        offset = align(offset + rows);
+        lineOrder = ints(buffer, offset, lines);
+        offset = align(offset + 4 * lines);
+        lineItem = ints(buffer, offset, lines);
+        offset = align(offset + 4 * lines);
+        lineQuantity = ints(buffer, offset, lines);
+        offset = align(offset + 4 * lines);
+        lineCents = longs(buffer, offset, lines);
+    }
+
+    public static OrderColumnSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OrderColumnSegment(path, buffer.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public LocalDateTime cutoff() {
+        return LocalDateTime.ofEpochSecond(cutoffSecond, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Delivered orders and their amount in cents per cuisine, indexed like {@link #cuisines()}.
+     */
+    long[][] deliveredByCuisine(long fromSecond, long toSecond) {
+        long[] orders = new long[cuisines.length];
+        long[] cents = new long[cuisines.length];
+        int to = rowAt(toSecond);
+        for (int row = rowAt(fromSecond); row < to; row++) {
+            long delivered = 1 - orderStatus.get(row);
+            int cuisine = restaurantCuisines[orderRestaurant.get(row)];
+            orders[cuisine] += delivered;
+            cents[cuisine] += delivered * orderCents.get(row);
+        }
+        return new long[][] {orders, cents};
+    }
+
+    /**
+     * Delivered orders by number of items, with {@code maxItems} or more counted in the last slot.
+     */
+    long[] deliveredByBasketSize(long fromSecond, long toSecond, int maxItems) {
+        long[] orders = new long[maxItems + 1];
+        int to = rowAt(toSecond);
+        for (int row = rowAt(fromSecond); row < to; row++) {
+            orders[Math.min(orderQuantity.get(row), maxItems)] += 1 - orderStatus.get(row);
+        }
+        return orders;
+    }
+
+    /**
+     * Delivered orders by hour of the week, Monday midnight first.
+     */
+    long[] deliveredByHourOfWeek(long fromSecond, long toSecond) {
+        long[] orders = new long[7 * 24];
+        // The epoch fell on a Thursday, three days after a Monday
+        long mondayOffset = firstSecond + 3 * 86_400;
+        int to = rowAt(toSecond);
+        for (int row = rowAt(fromSecond); row < to; row++) {
+            long hours = Math.floorDiv(mondayOffset + orderTime.get(row), 3_600);
+            orders[(int) Math.floorMod(hours, 7 * 24)] += 1 - orderStatus.get(row);
+        }
+        return orders;
+    }
+
+    /**
+     * Quantity and amount in cents sold per menu item over delivered orders, indexed like {@link #itemIds()}.
+     */
+    long[][] deliveredByItem(long fromSecond, long toSecond) {
+        long[] quantities = new long[itemIds.length];
+        long[] cents = new long[itemIds.length];
+        int to = lineAt(rowAt(toSecond));
+        for (int line = lineAt(rowAt(fromSecond)); line < to; line++) {
+            long delivered = 1 - orderStatus.get(lineOrder.get(line));
+            int item = lineItem.get(line);
+            quantities[item] += delivered * lineQuantity.get(line);
+            cents[item] += delivered * lineCents.get(line);
+        }
+        return new long[][] {quantities, cents};
+    }
+
+    String[] cuisines() {
+        return cuisines;
+    }
+
+    long[] itemIds() {
+        return itemIds;
+    }
+
+    boolean overlaps(long fromSecond, long toSecond) {
+        return rows > 0 && firstSecond < toSecond && lastSecond >= fromSecond;
+    }
+
+    // First row placed at or after the given second
+    private int rowAt(long second) {
+        if (second <= firstSecond) {
+            return 0;
+        }
+        if (second > lastSecond) {
+            return rows;
+        }
+        long relative = second - firstSecond;
+        int low = 0;
+        int high = rows;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (orderTime.get(mid) < relative) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First line of the given row or any later one
+    private int lineAt(int row) {
+        int low = 0;
+        int high = lines;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lineOrder.get(mid) < row) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static IntBuffer ints(ByteBuffer buffer, int offset, int count) {
+        return buffer.slice(offset, 4 * count).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static LongBuffer longs(ByteBuffer buffer, int offset, int count) {
+        return buffer.slice(offset, 8 * count).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    /**
+     * Collects exported orders in memory and writes them out as one segment. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private final LongIntHashMap restaurantCodes = new LongIntHashMap();
+        private final LongIntHashMap itemCodes = new LongIntHashMap();
+        private final Map<String, Integer> cuisineCodes = new HashMap<>();
+        private long[] restaurantIds = new long[64];
+        private int[] restaurantCuisines = new int[64];
+        private long[] itemIds = new long[256];
+
+        private long[] times = new long[1024];
+        private int[] restaurants = new int[1024];
+        private int[] quantities = new int[1024];
+        private long[] cents = new long[1024];
+        private byte[] statuses = new byte[1024];
+        private int[] firstLines = new int[1025];
+        private int rows;
+
+        private int[] lineItems = new int[1024];
+        private int[] lineQuantities = new int[1024];
+        private long[] lineCents = new long[1024];
+        private int lines;
+
+        public void add(TerminalOrder order, List<OrderLineSale> orderLines) {
+            if (rows == times.length) {
+                int capacity = rows << 1;
+                times = Arrays.copyOf(times, capacity);
+                restaurants = Arrays.copyOf(restaurants, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                cents = Arrays.copyOf(cents, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                firstLines = Arrays.copyOf(firstLines, capacity + 1);
+            }
+            times[rows] = order.orderDate().toEpochSecond(ZoneOffset.UTC);
+            restaurants[rows] = restaurantCode(order.restaurantId(), order.cuisine());
+            cents[rows] = Math.round(order.totalAmount() * 100);
+            statuses[rows] = order.status() == OrderStatus.DELIVERED ? DELIVERED : CANCELLED;
+            int quantity = 0;
+            for (OrderLineSale line : orderLines) {
+                if (lines == lineItems.length) {
+                    lineItems = Arrays.copyOf(lineItems, lines << 1);
+                    lineQuantities = Arrays.copyOf(lineQuantities, lines << 1);
+                    lineCents = Arrays.copyOf(lineCents, lines << 1);
+                }
+                lineItems[lines] = itemCode(line.menuItemId());
+                lineQuantities[lines] = line.quantity();
+                lineCents[lines] = Math.round(line.subtotal() * 100);
+                quantity += line.quantity();
+                lines++;
+            }
+            quantities[rows] = quantity;
+            firstLines[++rows] = lines;
+        }
+
+        public int size() {
+            return rows;
+        }
+
+        public void write(Path path, LocalDateTime cutoff) throws IOException {
+            // Sort rows by time; the row index rides in the low bits
+            long first = rows == 0 ? 0 : Arrays.stream(times, 0, rows).min().getAsLong();
+            long[] order = new long[rows];
+            for (int row = 0; row < rows; row++) {
+                order[row] = (times[row] - first) << 32 | row;
+            }
+            Arrays.sort(order);
+            long last = rows == 0 ? 0 : first + (order[rows - 1] >>> 32);
+
+            String[] cuisines = new String[cuisineCodes.size()];
+            cuisineCodes.forEach((name, code) -> cuisines[code] = name);
+            byte[][] cuisineNames = new byte[cuisines.length][];
+            int cuisineBytes = 0;
+            for (int i = 0; i < cuisines.length; i++) {
+                cuisineNames[i] = cuisines[i].getBytes(StandardCharsets.UTF_8);
+                cuisineBytes += 4 + cuisineNames[i].length;
+            }
+            int restaurantCount = restaurantCodes.size();
+            int itemCount = itemCodes.size();
+            long size = (long) HEADER_BYTES + align(8 * restaurantCount) + align(4 * restaurantCount)
+                    + align(cuisineBytes) + align(8 * itemCount)
+                    + 3L * align(4 * rows) + align(8 * rows) + align(rows)
+                    + 3L * align(4 * lines) + align(8 * lines);
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Error: segment too large, " + size + " bytes");
+            }
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                ByteBuffer out = mapped.order(ByteOrder.LITTLE_ENDIAN);
+                out.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(lines)
+                        .putInt(restaurantCount).putInt(cuisines.length).putInt(itemCount).putInt(0)
+                        .putLong(first).putLong(last).putLong(cutoff.toEpochSecond(ZoneOffset.UTC)).putLong(0);
+                for (int i = 0; i < restaurantCount; i++) {
+                    out.putLong(restaurantIds[i]);
+                }
+                pad(out);
+                for (int i = 0; i < restaurantCount; i++) {
+                    out.putInt(restaurantCuisines[i]);
+                }
+                pad(out);
+                for (byte[] name : cuisineNames) {
+                    out.putInt(name.length).put(name);
+                }
+                pad(out);
+                for (int i = 0; i < itemCount; i++) {
+                    out.putLong(itemIds[i]);
+                }
+                pad(out);
+                for (long entry : order) {
+                    out.putInt((int) (entry >>> 32));
+                }
+                pad(out);
+                for (long entry : order) {
+                    out.putInt(restaurants[(int) entry]);
+                }
+                pad(out);
+                for (long entry : order) {
+                    out.putInt(quantities[(int) entry]);
+                }
+                pad(out);
+                for (long entry : order) {
+                    out.putLong(cents[(int) entry]);
+                }
+                for (long entry : order) {
+                    out.put(statuses[(int) entry]);
+                }
+                pad(out);
+                for (int row = 0; row < rows; row++) {
+                    for (int line = firstLines[(int) order[row]]; line < firstLines[(int) order[row] + 1]; line++) {
+                        out.putInt(row);
+                    }
+                }
+                pad(out);
+                putLines(out, order, lineItems);
+                putLines(out, order, lineQuantities);
+                for (long entry : order) {
+                    for (int line = firstLines[(int) entry]; line < firstLines[(int) entry + 1]; line++) {
+                        out.putLong(lineCents[line]);
+                    }
+                }
+                mapped.force();
+            }
+        }
+
+        private void putLines(ByteBuffer out, long[] order, int[] column) {
+            for (long entry : order) {
+                for (int line = firstLines[(int) entry]; line < firstLines[(int) entry + 1]; line++) {
+                    out.putInt(column[line]);
+                }
+            }
+            pad(out);
+        }
+
+        private static void pad(ByteBuffer out) {
+            while ((out.position() & 7) != 0) {
+                out.put((byte) 0);
+            }
+        }
+
+        private int restaurantCode(long restaurantId, String cuisine) {
+            int code = restaurantCodes.get(restaurantId);
+            if (code >= 0) {
+                return code;
+            }
+            code = restaurantCodes.size();
+            if (code == restaurantIds.length) {
+                restaurantIds = Arrays.copyOf(restaurantIds, code << 1);
+                restaurantCuisines = Arrays.copyOf(restaurantCuisines, code << 1);
+            }
+            restaurantIds[code] = restaurantId;
+            restaurantCuisines[code] = cuisineCodes.computeIfAbsent(cuisine == null ? "" : cuisine,
+                    name -> cuisineCodes.size());
+            restaurantCodes.put(restaurantId, code);
+            return code;
+        }
+
+        private int itemCode(long itemId) {
+            int code = itemCodes.get(itemId);
+            if (code >= 0) {
+                return code;
+            }
+            code = itemCodes.size();
+            if (code == itemIds.length) {
+                itemIds = Arrays.copyOf(itemIds, code << 1);
+            }
+            itemIds[code] = itemId;
+            itemCodes.put(itemId, code);
+            return code;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.examly.springapp.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Directory of {@link OrderColumnSegment} files plus a watermark file holding the cutoff of the last
+ * completed export. An export writes its segments under temporary names, renames them, and then
+ * moves the watermark; segments with a cutoff beyond the watermark belong to an export that did not
+ * finish and are deleted on startup, so no order is ever counted twice.
+ */
+@Component
+public class OrderColumnStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderColumnStore.class);
+
+    private static final String SUFFIX = ".cols";
+    private static final String WATERMARK = "watermark";
+
+    private final Path directory;
+    private volatile List<OrderColumnSegment> segments;
+    private volatile LocalDateTime watermark;
+    private long nextSegment;
+
+    public OrderColumnStore(@Value("${order-analytics.directory:order-analytics}") String directory) throws IOException {
+        this.directory = Paths.get(directory);
+        Files.createDirectories(this.directory);
+        Path watermarkFile = this.directory.resolve(WATERMARK);
+        watermark = Files.exists(watermarkFile)
+                ? LocalDateTime.parse(Files.readString(watermarkFile, StandardCharsets.UTF_8).trim()) : null;
+
+        List<Path> files;
+        try (Stream<Path> listed = Files.list(this.directory)) {
+            files = listed.sorted().toList();
+        }
+        List<OrderColumnSegment> opened = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                Files.delete(file);
+            } else if (name.endsWith(SUFFIX)) {
+                OrderColumnSegment segment = OrderColumnSegment.open(file);
+                nextSegment = Math.max(nextSegment, Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+                if (watermark == null || segment.cutoff().isAfter(watermark)) {
+                    logger.warn("Deleting {} left behind by an unfinished export", file);
+                    Files.delete(file);
+                } else {
+                    opened.add(segment);
+                }
+            }
+        }
+        segments = List.copyOf(opened);
+    }
+
+    public List<OrderColumnSegment> segments() {
+        return segments;
+    }
+
+    /**
+     * Cutoff of the last completed export, or null before the first one.
+     */
+    public LocalDateTime watermark() {
+        return watermark;
+    }
+
+    /**
+     * Writes a builder's orders to a temporary file to be {@linkplain #publish published} later.
+     */
+    public synchronized Path writeTemporary(OrderColumnSegment.Builder builder, LocalDateTime cutoff) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s.tmp", ++nextSegment, SUFFIX));
+        builder.write(file, cutoff);
+        return file;
+    }
+
+    /**
+     * Makes the given temporary segments visible and moves the watermark to {@code cutoff}.
+     */
+    public synchronized void publish(List<Path> temporaryFiles, LocalDateTime cutoff) throws IOException {
+        List<OrderColumnSegment> published = new ArrayList<>(segments);
+        for (Path temporary : temporaryFiles) {
+            String name = temporary.getFileName().toString();
+            Path file = temporary.resolveSibling(name.substring(0, name.length() - ".tmp".length()));
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            published.add(OrderColumnSegment.open(file));
+        }
+        Path watermarkTemporary = directory.resolve(WATERMARK + ".tmp");
+        Files.writeString(watermarkTemporary, cutoff.toString(), StandardCharsets.UTF_8);
+        Files.move(watermarkTemporary, directory.resolve(WATERMARK),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        segments = List.copyOf(published);
+        watermark = cutoff;
+    }
+}
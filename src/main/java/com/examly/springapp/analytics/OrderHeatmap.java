@@ -0,0 +1,7 @@
+package com.examly.springapp.analytics;
+
+/**
+ * Delivered orders by day of the week, Monday first, and hour of the day.
+ */
+public record OrderHeatmap(long[][] orders) {
+}
@@ -0,0 +1,130 @@
+package com.examly.springapp.analytics;
+
+import com.examly.springapp.dto.OrderLineSale;
+import com.examly.springapp.dto.TerminalOrder;
+import com.examly.springapp.repository.OrderItemRepository;
+import com.examly.springapp.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Copies orders that reached a terminal status into the {@link OrderColumnStore}, at startup and
+ * then every {@link #EXPORT_INTERVAL_MINUTES} minutes. Each export reads the orders delivered or
+ * cancelled since the previous export's cutoff, up to {@link #LAG_SECONDS} seconds ago so that
+ * transactions still in flight at the cutoff are picked up by the next export.
+ */
+@Component
+public class OrderSnapshotExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSnapshotExporter.class);
+
+    public static final long EXPORT_INTERVAL_MINUTES = 60;
+    public static final long LAG_SECONDS = 60;
+    private static final int ORDERS_PER_QUERY = 1_000;
+    private static final int ROWS_PER_SEGMENT = 1 << 20;
+    // MySQL's earliest DATETIME, before any order
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1000, 1, 1, 0, 0);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderColumnStore orderColumnStore;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "order-snapshot-exporter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderSnapshotExporter(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                                 OrderColumnStore orderColumnStore) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderColumnStore = orderColumnStore;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                export(LocalDateTime.now().minusSeconds(LAG_SECONDS));
+            } catch (Exception e) {
+                logger.warn("Order snapshot export failed", e);
+            }
+        }, 0, EXPORT_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Exports the orders that reached a terminal status after the current watermark and no later
+     * than {@code cutoff}, and returns how many it exported.
+     */
+    public synchronized int export(LocalDateTime cutoff) throws IOException {
+        long started = System.nanoTime();
+        cutoff = cutoff.truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime after = orderColumnStore.watermark();
+        if (after != null && !cutoff.isAfter(after)) {
+            return 0;
+        }
+        List<Path> written = new ArrayList<>();
+        OrderColumnSegment.Builder builder = new OrderColumnSegment.Builder();
+        int exported = 0;
+        for (boolean delivered : new boolean[] {true, false}) {
+            // Pages by (terminal time, ID); the first key excludes everything at the watermark itself
+            LocalDateTime afterTime = after != null ? after : EARLIEST;
+            long afterId = Long.MAX_VALUE;
+            while (true) {
+                PageRequest page = PageRequest.of(0, ORDERS_PER_QUERY);
+                List<TerminalOrder> orders = delivered
+                        ? orderRepository.findDeliveredOrders(afterTime, afterId, cutoff, page)
+                        : orderRepository.findCancelledOrders(afterTime, afterId, cutoff, page);
+                if (orders.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<OrderLineSale>> lines = orderItemRepository.findSalesByOrderIds(
+                        orders.stream().map(TerminalOrder::orderId).toList())
+                        .stream().collect(Collectors.groupingBy(OrderLineSale::orderId));
+                for (TerminalOrder order : orders) {
+                    builder.add(order, lines.getOrDefault(order.orderId(), List.of()));
+                    if (builder.size() == ROWS_PER_SEGMENT) {
+                        written.add(orderColumnStore.writeTemporary(builder, cutoff));
+                        builder = new OrderColumnSegment.Builder();
+                    }
+                }
+                exported += orders.size();
+                TerminalOrder last = orders.get(orders.size() - 1);
+                afterTime = last.terminalAt();
+                afterId = last.orderId();
+            }
+        }
+        if (builder.size() > 0) {
+            written.add(orderColumnStore.writeTemporary(builder, cutoff));
+        }
+        orderColumnStore.publish(written, cutoff);
+        if (exported > 0) {
+            logger.info("Exported {} terminal orders to {} analytics segments in {} ms",
+                    exported, written.size(), (System.nanoTime() - started) / 1_000_000);
+        }
+        return exported;
+    }
+}
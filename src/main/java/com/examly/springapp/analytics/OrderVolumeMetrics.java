@@ -0,0 +1,171 @@
+package com.examly.springapp.analytics;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Orders, cancellations and ticket totals per minute over the last {@link #MINUTES} minutes, per
+ * restaurant and across all restaurants. Each metric is a ring of longs indexed by minute; a slot
+ * packs the epoch minute it belongs to into its high bits, so rolling a slot over to a new minute
+ * and incrementing it is a single compare-and-set and no update ever takes a lock. The
+ * all-restaurants rings are striped by thread, like {@link java.util.concurrent.atomic.LongAdder},
+ * and summed when read. About once an hour the rings of restaurants without an order or cancellation
+ * in the last {@link #MINUTES} minutes are dropped, since they only hold expired slots.
+ */
+@Component
+public class OrderVolumeMetrics {
+
+    public static final int MINUTES = 24 * 60;
+
+    // 27 bits of epoch minute last until the 23rd century; 37 bits hold up to 1.3 billion in ticket totals
+    private static final int VALUE_BITS = 37;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    private static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+    private static final long EVICTION_INTERVAL_MINUTES = 60;
+
+    private final ConcurrentHashMap<Long, Rings> restaurants = new ConcurrentHashMap<>();
+    private final Rings[] overall = new Rings[STRIPES];
+    private final AtomicLong nextEvictionMinute = new AtomicLong();
+
+    public OrderVolumeMetrics() {
+        for (int i = 0; i < STRIPES; i++) {
+            overall[i] = new Rings();
+        }
+    }
+
+    public void recordOrder(long restaurantId, LocalDateTime createdAt, double totalAmount) {
+        long minute = epochMinute(createdAt);
+        long cents = Math.round(totalAmount * 100);
+        Rings rings;
+        do {
+            rings = restaurantRings(restaurantId, minute);
+            add(rings.orders, minute, 1);
+            add(rings.ticketCents, minute, cents);
+        } while (restaurants.get(restaurantId) != rings);
+        Rings stripe = stripe();
+        add(stripe.orders, minute, 1);
+        add(stripe.ticketCents, minute, cents);
+        evictIdle(minute);
+    }
+
+    public void recordCancellation(long restaurantId, LocalDateTime cancelledAt) {
+        long minute = epochMinute(cancelledAt);
+        Rings rings;
+        do {
+            rings = restaurantRings(restaurantId, minute);
+            add(rings.cancellations, minute, 1);
+        } while (restaurants.get(restaurantId) != rings);
+        add(stripe().cancellations, minute, 1);
+        evictIdle(minute);
+    }
+
+    public void remove(long restaurantId) {
+        restaurants.remove(restaurantId);
+    }
+
+    /**
+     * Number of restaurants that currently have rings.
+     */
+    public int size() {
+        return restaurants.size();
+    }
+
+    public OrderVolumeSeries series(long restaurantId, LocalDateTime now) {
+        Rings rings = restaurants.get(restaurantId);
+        return rings == null ? read(new Rings[0], now) : read(new Rings[] {rings}, now);
+    }
+
+    public OrderVolumeSeries overall(LocalDateTime now) {
+        return read(overall, now);
+    }
+
+    // The series ends with the minute containing now, oldest minute first
+    private static OrderVolumeSeries read(Rings[] sources, LocalDateTime now) {
+        long first = epochMinute(now) - MINUTES + 1;
+        long[] orders = new long[MINUTES];
+        long[] cancellations = new long[MINUTES];
+        long[] ticketCents = new long[MINUTES];
+        for (Rings rings : sources) {
+            sum(rings.orders, first, orders);
+            sum(rings.cancellations, first, cancellations);
+            sum(rings.ticketCents, first, ticketCents);
+        }
+        double[] averageTicket = new double[MINUTES];
+        for (int i = 0; i < MINUTES; i++) {
+            averageTicket[i] = orders[i] == 0 ? 0 : ticketCents[i] / 100.0 / orders[i];
+        }
+        return new OrderVolumeSeries(LocalDateTime.ofEpochSecond(first * 60, 0, ZoneOffset.UTC),
+                orders, cancellations, averageTicket);
+    }
+
+    private static void sum(AtomicLongArray ring, long first, long[] into) {
+        for (int i = 0; i < MINUTES; i++) {
+            long minute = first + i;
+            long slot = ring.get((int) (minute % MINUTES));
+            if (slot >>> VALUE_BITS == minute) {
+                into[i] += slot & VALUE_MASK;
+            }
+        }
+    }
+
+    private static void add(AtomicLongArray ring, long minute, long delta) {
+        int index = (int) (minute % MINUTES);
+        while (true) {
+            long slot = ring.get(index);
+            long slotMinute = slot >>> VALUE_BITS;
+            long next;
+            if (slotMinute == minute) {
+                next = slot + delta;
+            } else if (slotMinute < minute) {
+                next = minute << VALUE_BITS | delta;
+            } else {
+                // The slot already moved on to a minute 24 hours later
+                return;
+            }
+            if (ring.compareAndSet(index, slot, next)) {
+                return;
+            }
+        }
+    }
+
+    // An update that raced with the eviction of its rings is repeated on fresh ones by the caller
+    private Rings restaurantRings(long restaurantId, long minute) {
+        Rings rings = restaurants.computeIfAbsent(restaurantId, id -> new Rings());
+        rings.lastMinute.accumulateAndGet(minute, Math::max);
+        return rings;
+    }
+
+    private void evictIdle(long minute) {
+        long next = nextEvictionMinute.get();
+        if (minute < next || !nextEvictionMinute.compareAndSet(next, minute + EVICTION_INTERVAL_MINUTES)) {
+            return;
+        }
+        restaurants.forEach((restaurantId, rings) -> {
+            if (rings.lastMinute.get() <= minute - MINUTES) {
+                restaurants.remove(restaurantId, rings);
+            }
+        });
+    }
+
+    private Rings stripe() {
+        long id = Thread.currentThread().getId();
+        return overall[(int) (id ^ id >>> 16) & (STRIPES - 1)];
+    }
+
+    private static long epochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static final class Rings {
+
+        final AtomicLongArray orders = new AtomicLongArray(MINUTES);
+        final AtomicLongArray cancellations = new AtomicLongArray(MINUTES);
+        final AtomicLongArray ticketCents = new AtomicLongArray(MINUTES);
+        final AtomicLong lastMinute = new AtomicLong(Long.MIN_VALUE);
+    }
+}
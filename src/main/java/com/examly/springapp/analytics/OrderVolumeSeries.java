@@ -0,0 +1,10 @@
+package com.examly.springapp.analytics;
+
+import java.time.LocalDateTime;
+
+/**
+ * One value per minute starting at {@code start}, oldest first. Minutes without orders have an
+ * average ticket of zero.
+ */
+public record OrderVolumeSeries(LocalDateTime start, long[] orders, long[] cancellations, double[] averageTicket) {
+}
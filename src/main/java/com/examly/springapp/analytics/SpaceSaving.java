@@ -0,0 +1,115 @@
+package com.examly.springapp.analytics;
+
+import com.examly.springapp.util.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Weighted Space-Saving sketch over {@code long} items with a fixed number of counters. An item
+ * that arrives when every counter is taken replaces the smallest one and inherits its count as
+ * error, so a reported count never undercounts and overcounts by at most its error. Not
+ * thread-safe.
+ */
+public final class SpaceSaving {
+
+    private final long[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private final LongIntHashMap positions;
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        items = new long[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        positions = new LongIntHashMap(capacity);
+    }
+
+    public void add(long item, long weight) {
+        int i = positions.get(item);
+        if (i >= 0) {
+            counts[i] += weight;
+            siftDown(i);
+        } else if (size < items.length) {
+            set(size, item, weight, 0);
+            siftUp(size++);
+        } else {
+            positions.remove(items[0]);
+            set(0, item, counts[0] + weight, counts[0]);
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == items.length;
+    }
+
+    /**
+     * The count any item without a counter may have reached; zero until the sketch fills up.
+     */
+    public long minCount() {
+        return size == items.length ? counts[0] : 0;
+    }
+
+    public long count(long item) {
+        int i = positions.get(item);
+        return i >= 0 ? counts[i] : -1;
+    }
+
+    public long error(long item) {
+        int i = positions.get(item);
+        return i >= 0 ? errors[i] : -1;
+    }
+
+    public long[] items() {
+        return Arrays.copyOf(items, size);
+    }
+
+    private void set(int i, long item, long count, long error) {
+        items[i] = item;
+        counts[i] = count;
+        errors[i] = error;
+        positions.put(item, i);
+    }
+
+    // Min-heap on count, so the root is the counter to evict
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[parent] <= counts[i]) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[child + 1] < counts[child]) {
+                child++;
+            }
+            if (counts[child] >= counts[i]) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long item = items[a];
+        long count = counts[a];
+        long error = errors[a];
+        set(a, items[b], counts[b], errors[b]);
+        set(b, item, count, error);
+    }
+}
@@ -0,0 +1,71 @@
+package com.examly.springapp.analytics;
+
+import com.examly.springapp.dto.DailyItemSales;
+import com.examly.springapp.repository.OrderItemRepository;
+import com.examly.springapp.repository.OrderRepository;
+import com.examly.springapp.repository.RestaurantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Seeds the {@link TopItemsTracker} at startup with exact daily quantities for the last
+ * {@link TopItemsTracker#DAYS} days, summed by the database one range of restaurant IDs at a time.
+ */
+@Component
+public class TopItemsBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopItemsBackfill.class);
+    private static final long RESTAURANTS_PER_QUERY = 1_000;
+
+    private final RestaurantRepository restaurantRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TopItemsTracker topItemsTracker;
+
+    public TopItemsBackfill(RestaurantRepository restaurantRepository, OrderRepository orderRepository,
+                            OrderItemRepository orderItemRepository, TopItemsTracker topItemsTracker) {
+        this.restaurantRepository = restaurantRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.topItemsTracker = topItemsTracker;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long started = System.nanoTime();
+        long orderHorizon = orderRepository.findMaxId();
+        long maxRestaurantId = restaurantRepository.findMaxId();
+        LocalDate firstDay = LocalDate.now().minusDays(TopItemsTracker.DAYS - 1);
+        topItemsTracker.beginBackfill(orderHorizon);
+        int seeded = 0;
+        try {
+            for (long afterId = 0; afterId < maxRestaurantId; afterId += RESTAURANTS_PER_QUERY) {
+                List<DailyItemSales> sales = orderItemRepository.sumDailySales(afterId, afterId + RESTAURANTS_PER_QUERY,
+                        firstDay.atStartOfDay(), orderHorizon);
+                Map<Long, Map<LocalDate, List<DailyItemSales>>> byRestaurantDay = sales.stream()
+                        .collect(Collectors.groupingBy(DailyItemSales::restaurantId,
+                                Collectors.groupingBy(DailyItemSales::orderDay)));
+                for (var restaurant : byRestaurantDay.entrySet()) {
+                    for (var day : restaurant.getValue().entrySet()) {
+                        topItemsTracker.seed(restaurant.getKey(), day.getKey(),
+                                day.getValue().stream().mapToLong(DailyItemSales::menuItemId).toArray(),
+                                day.getValue().stream().mapToLong(DailyItemSales::quantity).toArray());
+                        seeded++;
+                    }
+                }
+            }
+        } finally {
+            topItemsTracker.endBackfill();
+        }
+        logger.info("Top items backfilled with {} restaurant days in {} ms",
+                seeded, (System.nanoTime() - started) / 1_000_000);
+    }
+}
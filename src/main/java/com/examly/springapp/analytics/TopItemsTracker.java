@@ -0,0 +1,174 @@
+package com.examly.springapp.analytics;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Best-selling menu items per restaurant, by quantity, over the last day, week or month. Every
+ * restaurant keeps one {@link SpaceSaving} sketch per calendar day for the last {@link #DAYS} days,
+ * so memory is bounded by {@code DAYS * COUNTERS_PER_DAY} counters per restaurant. A window is
+ * answered by merging its daily sketches.
+ */
+@Component
+public class TopItemsTracker {
+
+    public static final int DAYS = 30;
+    public static final int COUNTERS_PER_DAY = 32;
+
+    public enum Window {
+        DAY(1), WEEK(7), MONTH(30);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+
+        public int days() {
+            return days;
+        }
+    }
+
+    /**
+     * {@code quantity} may overcount by at most {@code maxError}; it is exact when {@code maxError} is zero.
+     */
+    public record TopItem(long menuItemId, long quantity, long maxError) {
+    }
+
+    private final ConcurrentHashMap<Long, DailySketches> restaurants = new ConcurrentHashMap<>();
+
+    private volatile long backfillHorizon = -1;
+
+    public void recordOrder(long restaurantId, long orderId, LocalDateTime orderDate,
+                            long[] menuItemIds, int[] quantities) {
+        // The backfill reads every order up to its horizon itself
+        if (orderId <= backfillHorizon) {
+            return;
+        }
+        DailySketches sketches = restaurants.computeIfAbsent(restaurantId, id -> new DailySketches());
+        long day = orderDate.toLocalDate().toEpochDay();
+        synchronized (sketches) {
+            for (int i = 0; i < menuItemIds.length; i++) {
+                sketches.add(day, menuItemIds[i], quantities[i]);
+            }
+        }
+    }
+
+    public void remove(long restaurantId) {
+        restaurants.remove(restaurantId);
+    }
+
+    /**
+     * Live orders with IDs up to {@code orderHorizon} are ignored until {@link #endBackfill()}.
+     */
+    public void beginBackfill(long orderHorizon) {
+        backfillHorizon = orderHorizon;
+    }
+
+    /**
+     * Seeds one restaurant day with exact quantities. Only the largest {@link #COUNTERS_PER_DAY} items
+     * are kept; any item left out sold no more than the smallest one kept.
+     */
+    public void seed(long restaurantId, LocalDate date, long[] menuItemIds, long[] quantities) {
+        Integer[] order = new Integer[menuItemIds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(quantities[b], quantities[a]));
+        DailySketches sketches = restaurants.computeIfAbsent(restaurantId, id -> new DailySketches());
+        synchronized (sketches) {
+            for (int i = 0; i < Math.min(order.length, COUNTERS_PER_DAY); i++) {
+                sketches.add(date.toEpochDay(), menuItemIds[order[i]], quantities[order[i]]);
+            }
+        }
+    }
+
+    public void endBackfill() {
+        backfillHorizon = -1;
+    }
+
+    public List<TopItem> top(long restaurantId, Window window, int limit) {
+        return top(restaurantId, window, limit, LocalDate.now());
+    }
+
+    /**
+     * Returns up to {@code limit} items with the highest quantity over the {@code window.days()} days
+     * ending with {@code today}, highest first.
+     */
+    public List<TopItem> top(long restaurantId, Window window, int limit, LocalDate today) {
+        DailySketches sketches = restaurants.get(restaurantId);
+        if (sketches == null) {
+            return List.of();
+        }
+        List<SpaceSaving> days = new ArrayList<>(window.days());
+        synchronized (sketches) {
+            for (long day = today.toEpochDay() - window.days() + 1; day <= today.toEpochDay(); day++) {
+                SpaceSaving sketch = sketches.get(day);
+                if (sketch != null) {
+                    days.add(sketch);
+                }
+            }
+            return merge(days, limit);
+        }
+    }
+
+    // An item a daily sketch does not track may still have sold up to that sketch's smallest count
+    private static List<TopItem> merge(List<SpaceSaving> days, int limit) {
+        Set<Long> candidates = new HashSet<>();
+        for (SpaceSaving day : days) {
+            for (long item : day.items()) {
+                candidates.add(item);
+            }
+        }
+        List<TopItem> merged = new ArrayList<>(candidates.size());
+        for (long item : candidates) {
+            long quantity = 0;
+            long error = 0;
+            for (SpaceSaving day : days) {
+                long count = day.count(item);
+                if (count >= 0) {
+                    quantity += count;
+                    error += day.error(item);
+                } else {
+                    quantity += day.minCount();
+                    error += day.minCount();
+                }
+            }
+            merged.add(new TopItem(item, quantity, error));
+        }
+        merged.sort(Comparator.comparingLong(TopItem::quantity).reversed()
+                .thenComparingLong(TopItem::maxError)
+                .thenComparingLong(TopItem::menuItemId));
+        return merged.subList(0, Math.min(limit, merged.size()));
+    }
+
+    /**
+     * Ring of daily sketches indexed by epoch day; a slot is reused once its day leaves the ring.
+     */
+    private static final class DailySketches {
+
+        private final SpaceSaving[] sketches = new SpaceSaving[DAYS];
+        private final long[] days = new long[DAYS];
+
+        void add(long day, long menuItemId, long quantity) {
+            int slot = (int) Math.floorMod(day, DAYS);
+            if (sketches[slot] == null || days[slot] != day) {
+                if (sketches[slot] != null && days[slot] > day) {
+                    return;
+                }
+                sketches[slot] = new SpaceSaving(COUNTERS_PER_DAY);
+                days[slot] = day;
+            }
+            sketches[slot].add(menuItemId, quantity);
+        }
+
+        SpaceSaving get(long day) {
+            int slot = (int) Math.floorMod(day, DAYS);
+            return sketches[slot] != null && days[slot] == day ? sketches[slot] : null;
+        }
+    }
+}
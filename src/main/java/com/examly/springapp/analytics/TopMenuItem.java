@@ -0,0 +1,6 @@
+package com.examly.springapp.analytics;
+
+import com.examly.springapp.entity.MenuItem;
+
+public record TopMenuItem(MenuItem menuItem, long quantity, long maxError) {
+}
@@ -1,5 +1,98 @@
 package com.examly.springapp.aspect;
 
+import com.examly.springapp.jdbc.QueryOrigin;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every call into a controller, service or repository bean and records it in
+ * {@link MethodMetrics}, counting the exceptions each method throws by type. Calls slower than
+ * {@code method-metrics.slow-call-millis} are logged. The innermost method on the stack is also the
+ * {@link QueryOrigin} that SQL statements are attributed to. The stats of each method are looked up by
+ * proxy class and {@link Method}, so a call costs two map lookups and no string building.
+ */
+@Aspect
+@Component
+// Outside the transaction interceptor, so commit time and the statements flushed at commit count too
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class LoggingAspect {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
+
+    private final MethodMetrics methodMetrics;
+    private final long slowCallNanos;
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Method, MethodMetrics.MethodStats>> stats =
+            new ConcurrentHashMap<>();
+
+    public LoggingAspect(MethodMetrics methodMetrics,
+                         @Value("${method-metrics.slow-call-millis:1000}") long slowCallMillis) {
+        this.methodMetrics = methodMetrics;
+        this.slowCallNanos = slowCallMillis * 1_000_000;
+    }
+
+    @Around("within(@org.springframework.web.bind.annotation.RestController *)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, MethodMetrics.Layer.CONTROLLER);
+    }
+
+    @Around("within(@org.springframework.stereotype.Service *)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, MethodMetrics.Layer.SERVICE);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, MethodMetrics.Layer.REPOSITORY);
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, MethodMetrics.Layer layer) throws Throwable {
+        MethodMetrics.MethodStats methodStats = stats(joinPoint, layer);
+        String caller = QueryOrigin.enter(methodStats.name());
+        long started = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            methodStats.recordError(e);
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            QueryOrigin.exit(caller);
+            methodStats.record(elapsed);
+            if (elapsed > slowCallNanos) {
+                logger.warn("Slow call to {} took {} ms", joinPoint.getSignature().toShortString(), elapsed / 1_000_000);
+            }
+        }
+    }
+
+    private MethodMetrics.MethodStats stats(ProceedingJoinPoint joinPoint, MethodMetrics.Layer layer) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return stats.computeIfAbsent(joinPoint.getThis().getClass(), type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, key -> methodMetrics.register(layer,
+                        typeName(joinPoint, layer) + "." + method.getName()));
+    }
+
+    // Repositories are proxies of their interface; everything else is named after the bean class
+    private static String typeName(ProceedingJoinPoint joinPoint, MethodMetrics.Layer layer) {
+        if (layer == MethodMetrics.Layer.REPOSITORY) {
+            for (Class<?> type : ClassUtils.getAllInterfacesForClass(joinPoint.getThis().getClass())) {
+                if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework.")) {
+                    return type.getSimpleName();
+                }
+            }
+        }
+        return ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName();
+    }
 }
@@ -0,0 +1,12 @@
+package com.examly.springapp.aspect;
+
+import java.util.Map;
+
+/**
+ * Point-in-time latency percentiles and error counts of one instrumented method.
+ */
+public record MethodLatency(String method, MethodMetrics.Layer layer, long calls, long errors,
+                            Map<String, Long> errorsByType, double totalMillis, double meanMillis,
+                            double p50Millis, double p90Millis, double p99Millis, double p999Millis,
+                            double maxMillis) {
+}
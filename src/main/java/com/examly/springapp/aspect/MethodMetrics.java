@@ -0,0 +1,94 @@
+package com.examly.springapp.aspect;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and error counts per instrumented method, filled in by {@link LoggingAspect}.
+ * Methods are named {@code Type.method}, so overloads share one entry.
+ */
+@Component
+public class MethodMetrics {
+
+    public enum Layer { CONTROLLER, SERVICE, REPOSITORY }
+
+    private final ConcurrentHashMap<String, MethodStats> methods = new ConcurrentHashMap<>();
+
+    public MethodStats register(Layer layer, String name) {
+        return methods.computeIfAbsent(name, key -> new MethodStats(layer, key));
+    }
+
+    /**
+     * Every method called at least once since the last reset, by total time spent, highest first.
+     */
+    public List<MethodLatency> snapshot(Layer layer) {
+        List<MethodLatency> latencies = new ArrayList<>();
+        for (MethodStats stats : methods.values()) {
+            if (layer == null || stats.layer == layer) {
+                MethodLatency latency = stats.snapshot();
+                if (latency.calls() > 0) {
+                    latencies.add(latency);
+                }
+            }
+        }
+        latencies.sort((a, b) -> Double.compare(b.totalMillis(), a.totalMillis()));
+        return latencies;
+    }
+
+    public void reset() {
+        methods.values().forEach(MethodStats::reset);
+    }
+
+    public static final class MethodStats {
+
+        private final Layer layer;
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        private MethodStats(Layer layer, String name) {
+            this.layer = layer;
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public void record(long nanos) {
+            latency.record(nanos);
+        }
+
+        public void recordError(Throwable error) {
+            errors.computeIfAbsent(error.getClass().getName(), type -> new LongAdder()).increment();
+        }
+
+        private void reset() {
+            latency.reset();
+            errors.values().forEach(LongAdder::reset);
+        }
+
+        private MethodLatency snapshot() {
+            LatencyHistogram.Snapshot snapshot = latency.snapshot();
+            Map<String, Long> errorsByType = new TreeMap<>();
+            errors.forEach((type, count) -> {
+                long sum = count.sum();
+                if (sum > 0) {
+                    errorsByType.put(type, sum);
+                }
+            });
+            return new MethodLatency(name, layer, snapshot.count(),
+                    errorsByType.values().stream().mapToLong(Long::longValue).sum(), errorsByType,
+                    snapshot.totalNanos() / 1e6, snapshot.meanNanos() / 1e6,
+                    snapshot.percentileNanos(50) / 1e6, snapshot.percentileNanos(90) / 1e6,
+                    snapshot.percentileNanos(99) / 1e6, snapshot.percentileNanos(99.9) / 1e6,
+                    snapshot.maxNanos() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.examly.springapp.cache;
+
+import com.examly.springapp.entity.MenuAvailabilityWindow;
+import com.examly.springapp.entity.MenuItem;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Weekly availability of a restaurant's menu compiled into sorted transition points.
+ * Each segment between two transitions carries a bitset over {@link MenuSnapshot} slots, so
+ * "what is orderable at time t" is a binary search plus a bit test.
+ */
+public final class AvailabilityTimeline {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    // Segment i covers [transitions[i], transitions[i + 1]) in minute-of-week; transitions[0] is always 0
+    private final int[] transitions;
+    private final long[][] segmentSlots;
+    private final int slotCount;
+
+    private AvailabilityTimeline(int[] transitions, long[][] segmentSlots, int slotCount) {
+        this.transitions = transitions;
+        this.segmentSlots = segmentSlots;
+        this.slotCount = slotCount;
+    }
+
+    /**
+     * Compiles the timeline for menu items given in slot order. An item scheduled by its own windows
+     * ignores its category's windows; an item with no windows at all follows its availability flag only.
+     */
+    public static AvailabilityTimeline compile(List<MenuItem> menuItems, List<MenuAvailabilityWindow> windows) {
+        Map<Long, List<int[]>> itemIntervals = new HashMap<>();
+        Map<String, List<int[]>> categoryIntervals = new HashMap<>();
+        TreeSet<Integer> boundaries = new TreeSet<>();
+        boundaries.add(0);
+
+        for (MenuAvailabilityWindow window : windows) {
+            List<int[]> intervals;
+            if (window.getMenuItem() != null) {
+                intervals = itemIntervals.computeIfAbsent(window.getMenuItem().getId(), id -> new ArrayList<>());
+            } else if (window.getCategory() != null) {
+                intervals = categoryIntervals.computeIfAbsent(window.getCategory(), category -> new ArrayList<>());
+            } else {
+                continue;
+            }
+            for (int[] interval : toWeekIntervals(window)) {
+                intervals.add(interval);
+                boundaries.add(interval[0]);
+                if (interval[1] < MINUTES_PER_WEEK) {
+                    boundaries.add(interval[1]);
+                }
+            }
+        }
+
+        int[] points = boundaries.stream().mapToInt(Integer::intValue).toArray();
+        int words = (menuItems.size() + 63) >>> 6;
+        long[][] segments = new long[points.length][words];
+
+        for (int slot = 0; slot < menuItems.size(); slot++) {
+            MenuItem menuItem = menuItems.get(slot);
+            if (!Boolean.TRUE.equals(menuItem.getAvailable())) {
+                continue;
+            }
+            List<int[]> intervals = itemIntervals.get(menuItem.getId());
+            if (intervals == null) {
+                intervals = categoryIntervals.get(menuItem.getCategory());
+            }
+            if (intervals == null) {
+                for (long[] segment : segments) {
+                    segment[slot >>> 6] |= 1L << slot;
+                }
+                continue;
+            }
+            for (int[] interval : intervals) {
+                int from = Arrays.binarySearch(points, interval[0]);
+                int to = interval[1] == MINUTES_PER_WEEK ? points.length : Arrays.binarySearch(points, interval[1]);
+                for (int segment = from; segment < to; segment++) {
+                    segments[segment][slot >>> 6] |= 1L << slot;
+                }
+            }
+        }
+        return merge(points, segments, menuItems.size());
+    }
+
+    public static int minuteOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    public boolean isAvailable(int slot, int minuteOfWeek) {
+        long[] segment = segmentSlots[segmentAt(minuteOfWeek)];
+        return (segment[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Returns the slots orderable at the given minute of the week, in ascending slot order.
+     */
+    public int[] availableSlots(int minuteOfWeek) {
+        long[] segment = segmentSlots[segmentAt(minuteOfWeek)];
+        int count = 0;
+        for (long word : segment) {
+            count += Long.bitCount(word);
+        }
+        int[] slots = new int[count];
+        int next = 0;
+        for (int w = 0; w < segment.length; w++) {
+            long word = segment[w];
+            while (word != 0) {
+                slots[next++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Returns the next minute of the week (wrapping) at which availability changes, or -1 if it never does.
+     */
+    public int nextTransitionAfter(int minuteOfWeek) {
+        if (transitions.length == 1) {
+            return -1;
+        }
+        int segment = segmentAt(minuteOfWeek);
+        return segment + 1 < transitions.length ? transitions[segment + 1] : transitions[0];
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    private int segmentAt(int minuteOfWeek) {
+        int index = Arrays.binarySearch(transitions, minuteOfWeek);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private static List<int[]> toWeekIntervals(MenuAvailabilityWindow window) {
+        int start = window.getStartTime().getHour() * 60 + window.getStartTime().getMinute();
+        int end = window.getEndTime().getHour() * 60 + window.getEndTime().getMinute();
+        int length = end > start ? end - start : end + MINUTES_PER_DAY - start;
+
+        List<int[]> intervals = new ArrayList<>();
+        int firstDay = window.getDayOfWeek() != null ? window.getDayOfWeek().getValue() - 1 : 0;
+        int lastDay = window.getDayOfWeek() != null ? firstDay : 6;
+        for (int day = firstDay; day <= lastDay; day++) {
+            int from = day * MINUTES_PER_DAY + start;
+            int to = from + length;
+            if (to <= MINUTES_PER_WEEK) {
+                intervals.add(new int[] {from, to});
+            } else {
+                intervals.add(new int[] {from, MINUTES_PER_WEEK});
+                intervals.add(new int[] {0, to - MINUTES_PER_WEEK});
+            }
+        }
+        return intervals;
+    }
+
+    // Drops transitions that do not change the available set
+    private static AvailabilityTimeline merge(int[] points, long[][] segments, int slotCount) {
+        int[] mergedPoints = new int[points.length];
+        long[][] mergedSegments = new long[points.length][];
+        int count = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (count > 0 && Arrays.equals(mergedSegments[count - 1], segments[i])) {
+                continue;
+            }
+            mergedPoints[count] = points[i];
+            mergedSegments[count] = segments[i];
+            count++;
+        }
+        return new AvailabilityTimeline(Arrays.copyOf(mergedPoints, count),
+                Arrays.copyOf(mergedSegments, count), slotCount);
+    }
+}
@@ -0,0 +1,101 @@
+package com.examly.springapp.cache;
+
+import com.examly.springapp.entity.MenuAvailabilityWindow;
+import com.examly.springapp.entity.MenuItem;
+import com.examly.springapp.util.LongIntHashMap;
+
+import java.util.List;
+
+/**
+ * Immutable, versioned view of the priceable menu of one restaurant.
+ * Menu item IDs map to slots in parallel price/name arrays, and the compiled
+ * {@link AvailabilityTimeline} answers which slots are orderable at a given time. A new snapshot
+ * replaces the old one whenever the restaurant's menu version changes.
+ */
+public final class MenuSnapshot {
+
+    private final long restaurantId;
+    private final long version;
+    private final LongIntHashMap slots;
+    private final long[] itemIds;
+    private final double[] prices;
+    private final String[] names;
+    private final AvailabilityTimeline availability;
+
+    private MenuSnapshot(long restaurantId, long version, LongIntHashMap slots,
+                         long[] itemIds, double[] prices, String[] names, AvailabilityTimeline availability) {
+        this.restaurantId = restaurantId;
+        this.version = version;
+        this.slots = slots;
+        this.itemIds = itemIds;
+        this.prices = prices;
+        this.names = names;
+        this.availability = availability;
+    }
+
+    public static MenuSnapshot of(long restaurantId, long version, List<MenuItem> menuItems,
+                                  List<MenuAvailabilityWindow> windows) {
+        int count = menuItems.size();
+        LongIntHashMap slots = new LongIntHashMap(count);
+        long[] itemIds = new long[count];
+        double[] prices = new double[count];
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            MenuItem menuItem = menuItems.get(i);
+            itemIds[i] = menuItem.getId();
+            prices[i] = menuItem.getPrice();
+            names[i] = menuItem.getName();
+            slots.put(itemIds[i], i);
+        }
+        return new MenuSnapshot(restaurantId, version, slots, itemIds, prices, names,
+                AvailabilityTimeline.compile(menuItems, windows));
+    }
+
+    /**
+     * Returns the slot of the given menu item, or -1 if it is not on this restaurant's menu.
+     */
+    public int slotOf(long menuItemId) {
+        return slots.get(menuItemId);
+    }
+
+    public long itemIdAt(int slot) {
+        return itemIds[slot];
+    }
+
+    public double priceAt(int slot) {
+        return prices[slot];
+    }
+
+    public String nameAt(int slot) {
+        return names[slot];
+    }
+
+    public boolean isOrderableAt(int slot, int minuteOfWeek) {
+        return availability.isAvailable(slot, minuteOfWeek);
+    }
+
+    public long[] orderableItemIdsAt(int minuteOfWeek) {
+        int[] orderable = availability.availableSlots(minuteOfWeek);
+        long[] ids = new long[orderable.length];
+        for (int i = 0; i < orderable.length; i++) {
+            ids[i] = itemIds[orderable[i]];
+        }
+        return ids;
+    }
+
+    public AvailabilityTimeline getAvailability() {
+        return availability;
+    }
+
+    public int size() {
+        return itemIds.length;
+    }
+
+    public long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
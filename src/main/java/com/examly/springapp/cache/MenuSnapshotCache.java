@@ -0,0 +1,51 @@
+package com.examly.springapp.cache;
+
+import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.repository.MenuAvailabilityWindowRepository;
+import com.examly.springapp.repository.MenuItemRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the current {@link MenuSnapshot} per restaurant. Snapshots are never mutated; a stale one is
+ * replaced wholesale when the caller's transaction observes a newer {@code Restaurant.menuVersion}.
+ */
+@Component
+public class MenuSnapshotCache {
+
+    private final ConcurrentHashMap<Long, MenuSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final MenuItemRepository menuItemRepository;
+    private final MenuAvailabilityWindowRepository availabilityWindowRepository;
+
+    public MenuSnapshotCache(MenuItemRepository menuItemRepository,
+                             MenuAvailabilityWindowRepository availabilityWindowRepository) {
+        this.menuItemRepository = menuItemRepository;
+        this.availabilityWindowRepository = availabilityWindowRepository;
+    }
+
+    /**
+     * Returns the snapshot matching the menu version of the given (transaction-bound) restaurant,
+     * loading the menu and its availability windows once from the database if the cached snapshot is
+     * missing or out of date.
+     */
+    public MenuSnapshot forRestaurant(Restaurant restaurant) {
+        Long restaurantId = restaurant.getId();
+        long version = restaurant.getMenuVersion();
+        MenuSnapshot current = snapshots.get(restaurantId);
+        if (current != null && current.getVersion() == version) {
+            return current;
+        }
+
+        MenuSnapshot fresh = MenuSnapshot.of(restaurantId, version,
+                menuItemRepository.findByRestaurantId(restaurantId),
+                availabilityWindowRepository.findByRestaurantId(restaurantId));
+        snapshots.merge(restaurantId, fresh,
+                (existing, candidate) -> existing.getVersion() >= candidate.getVersion() ? existing : candidate);
+        return fresh;
+    }
+
+    public void evict(Long restaurantId) {
+        snapshots.remove(restaurantId);
+    }
+}
@@ -1,5 +1,54 @@
 package com.examly.springapp.config;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Tunes the application's ObjectMapper, which Spring MVC's message converter shares, and with it its
+ * serializer caches, across all requests. Module beans are registered by Spring Boot's Jackson
+ * auto-configuration.
+ */
+@Configuration
 public class JacksonConfig {
-    
+
+    // Property accessors generated as lambdas through MethodHandles instead of called reflectively
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Module compactPageModule() {
+        return new SimpleModule("CompactPageModule").addSerializer(new PageSerializer());
+    }
+
+    // Null properties are left out, and properties without a view stay in every view
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer leanOutput() {
+        return builder -> builder
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .defaultViewInclusion(true);
+    }
+
+    // Binary encodings for clients that send Accept: application/cbor or application/x-jackson-smile. They
+    // replace Spring MVC's defaults, whose mappers would miss the modules and customizers above
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
 }
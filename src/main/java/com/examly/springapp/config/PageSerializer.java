@@ -0,0 +1,65 @@
+package com.examly.springapp.config;
+
+import com.examly.springapp.search.FacetedPage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.impl.PropertySerializerMap;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link Page} as its content followed by {@code page} with size, number, totalElements and
+ * totalPages, rather than every property of PageImpl with its Pageable and Sort, which also change
+ * between Spring Data versions. A {@link FacetedPage} adds its {@code cuisineFacets}. Content is written
+ * in the active view, with serializers looked up once per element class.
+ */
+public class PageSerializer extends StdSerializer<Page<?>> {
+
+    // Replaced, never mutated, so a racing lookup only repeats the work
+    private transient PropertySerializerMap contentSerializers = PropertySerializerMap.emptyForProperties();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PageSerializer() {
+        super((Class) Page.class);
+    }
+
+    @Override
+    public void serialize(Page<?> page, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(page);
+        generator.writeFieldName("content");
+        generator.writeStartArray(page.getContent(), page.getNumberOfElements());
+        for (Object element : page.getContent()) {
+            if (element == null) {
+                provider.defaultSerializeNull(generator);
+            } else {
+                contentSerializer(element.getClass(), provider).serialize(element, generator, provider);
+            }
+        }
+        generator.writeEndArray();
+        if (page instanceof FacetedPage<?> faceted) {
+            provider.defaultSerializeField("cuisineFacets", faceted.getCuisineFacets(), generator);
+        }
+        generator.writeObjectFieldStart("page");
+        generator.writeNumberField("size", page.getSize());
+        generator.writeNumberField("number", page.getNumber());
+        generator.writeNumberField("totalElements", page.getTotalElements());
+        generator.writeNumberField("totalPages", page.getTotalPages());
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private JsonSerializer<Object> contentSerializer(Class<?> type, SerializerProvider provider) throws JsonMappingException {
+        JsonSerializer<Object> serializer = contentSerializers.serializerFor(type);
+        if (serializer == null) {
+            PropertySerializerMap.SerializerAndMapResult result =
+                    contentSerializers.findAndAddSecondarySerializer(type, provider, null);
+            contentSerializers = result.map;
+            serializer = result.serializer;
+        }
+        return serializer;
+    }
+}
@@ -0,0 +1,18 @@
+package com.examly.springapp.config;
+
+/**
+ * Jackson views of the entities. Properties without a view are in every view; derived getters that
+ * repeat other properties or compute over collections are only in {@link Detail}, so list endpoints
+ * rendered with {@link Summary} skip them. Responses written without a view have every property.
+ */
+public final class Views {
+
+    private Views() {
+    }
+
+    public interface Summary {
+    }
+
+    public interface Detail extends Summary {
+    }
+}
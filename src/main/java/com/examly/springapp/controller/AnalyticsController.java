@@ -0,0 +1,113 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.jdbc.QueryBudget;
+import com.examly.springapp.service.AnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/analytics")
+@Tag(name = "Order Analytics", description = "Aggregates over delivered orders, refreshed hourly from the order history")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @GetMapping("/revenue-by-cuisine")
+    @QueryBudget(0)
+    @Operation(summary = "Get revenue by cuisine", description = "Retrieves order count, revenue and average ticket " +
+            "of delivered orders per cuisine, highest revenue first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Revenue retrieved"),
+        @ApiResponse(responseCode = "400", description = "Invalid date range")
+    })
+    public ResponseEntity<?> getRevenueByCuisine(
+            @Parameter(description = "Orders placed at or after (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Orders placed before (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(analyticsService.getRevenueByCuisine(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/basket-sizes")
+    @QueryBudget(0)
+    @Operation(summary = "Get basket size distribution", description = "Retrieves how many delivered orders contained " +
+            "each number of items; the last bucket counts every larger basket")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Distribution retrieved"),
+        @ApiResponse(responseCode = "400", description = "Invalid date range")
+    })
+    public ResponseEntity<?> getBasketSizes(
+            @Parameter(description = "Orders placed at or after (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Orders placed before (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(analyticsService.getBasketSizes(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/order-heatmap")
+    @QueryBudget(0)
+    @Operation(summary = "Get order heatmap", description = "Retrieves delivered orders by day of week (Monday first) " +
+            "and hour of day")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Heatmap retrieved"),
+        @ApiResponse(responseCode = "400", description = "Invalid date range")
+    })
+    public ResponseEntity<?> getOrderHeatmap(
+            @Parameter(description = "Orders placed at or after (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Orders placed before (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(analyticsService.getOrderHeatmap(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/top-items")
+    @QueryBudget(0)
+    @Operation(summary = "Get best-selling menu items", description = "Retrieves the menu items with the highest " +
+            "quantity sold in delivered orders across all restaurants")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Best-selling items retrieved"),
+        @ApiResponse(responseCode = "400", description = "Invalid date range or limit")
+    })
+    public ResponseEntity<?> getTopItems(
+            @Parameter(description = "Orders placed at or after (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Orders placed before (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+
+            @Parameter(description = "Maximum number of items to return", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(analyticsService.getTopItems(from, to, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.dto.FeedbackPage;
+import com.examly.springapp.entity.Feedback;
+import com.examly.springapp.entity.RatingSummary;
+import com.examly.springapp.jdbc.QueryBudget;
+import com.examly.springapp.service.FeedbackService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/feedback")
+@Tag(name = "Feedback Management", description = "Operations pertaining to restaurant reviews and ratings")
+public class FeedbackController {
+
+    private final FeedbackService feedbackService;
+
+    public FeedbackController(FeedbackService feedbackService) {
+        this.feedbackService = feedbackService;
+    }
+
+    @PostMapping
+    @QueryBudget(5)
+    @Operation(summary = "Submit feedback", description = "Submits a review with a 1-5 rating for a restaurant; " +
+            "restaurant and user are given as {\"id\": ...}")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Feedback submitted successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid input, or restaurant or user not found")
+    })
+    public ResponseEntity<?> submitFeedback(
+            @Parameter(description = "Feedback to submit", required = true)
+            @RequestBody Feedback feedback) {
+        try {
+            return ResponseEntity.status(201).body(feedbackService.submitFeedback(feedback));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/restaurant/{restaurantId}")
+    @QueryBudget(2)
+    @Operation(summary = "Get feedback by restaurant", description = "Retrieves a restaurant's feedback newest first, " +
+            "one keyset page at a time; pass nextCursor as before to continue")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Feedback page retrieved"),
+        @ApiResponse(responseCode = "400", description = "Invalid page size or restaurant not found")
+    })
+    public ResponseEntity<?> getFeedbackForRestaurant(
+            @Parameter(description = "ID of the restaurant", example = "1", required = true)
+            @PathVariable Long restaurantId,
+
+            @Parameter(description = "Only feedback older than this feedback ID")
+            @RequestParam(required = false) Long before,
+
+            @Parameter(description = "Number of items per page (max 100)", example = "10")
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            FeedbackPage page = feedbackService.getFeedbackForRestaurant(restaurantId, before, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/restaurant/{restaurantId}/summary")
+    @QueryBudget(1)
+    @Operation(summary = "Get rating summary", description = "Retrieves the rating count, average and 1-5 star histogram of a restaurant")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rating summary found"),
+        @ApiResponse(responseCode = "404", description = "Restaurant not found")
+    })
+    public ResponseEntity<RatingSummary> getRatingSummary(
+            @Parameter(description = "ID of the restaurant", example = "1", required = true)
+            @PathVariable Long restaurantId) {
+        try {
+            return ResponseEntity.ok(feedbackService.getRatingSummary(restaurantId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @QueryBudget(4)
+    @Operation(summary = "Delete feedback", description = "Deletes a review and removes its rating from the restaurant's summary")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Feedback deleted successfully"),
+        @ApiResponse(responseCode = "404", description = "Feedback not found")
+    })
+    public ResponseEntity<Void> deleteFeedback(
+            @Parameter(description = "ID of the feedback to be deleted", example = "1", required = true)
+            @PathVariable Long id) {
+        return feedbackService.deleteFeedback(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
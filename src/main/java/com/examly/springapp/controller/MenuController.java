@@ -1,6 +1,10 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.entity.MenuAvailabilityWindow;
 import com.examly.springapp.entity.MenuItem;
+import com.examly.springapp.jdbc.QueryBudget;
+import com.examly.springapp.repository.SparseResource;
+import com.examly.springapp.search.RecommendedMenuItem;
 import com.examly.springapp.service.MenuService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,9 +13,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -26,6 +32,7 @@ public class MenuController {
     }
 
     @PostMapping
+    @QueryBudget(4)
     @Operation(summary = "Add a new menu item", description = "Creates a new menu item in the system")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Menu item created successfully"),
@@ -38,9 +45,14 @@ public class MenuController {
     }
 
     @GetMapping("/restaurant/{restaurantId}")
+    @QueryBudget(2)
     @Operation(summary = "Get menu items by restaurant", 
                description = "Retrieves paginated and filtered menu items for a specific restaurant")
-    public ResponseEntity<Page<MenuItem>> getMenuItemsByRestaurant(
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Menu items retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested")
+    })
+    public ResponseEntity<?> getMenuItemsByRestaurant(
             @Parameter(description = "ID of the restaurant", example = "1", required = true)
             @PathVariable Long restaurantId,
             
@@ -71,14 +83,64 @@ public class MenuController {
             @RequestParam(required = false) Boolean glutenFree,
             
             @Parameter(description = "Filter by availability")
-            @RequestParam(required = false) Boolean available) {
+            @RequestParam(required = false) Boolean available,
+
+            @Parameter(description = "Comma-separated fields to return instead of whole menu items", example = "id,name,price")
+            @RequestParam(required = false) String fields) {
         
-        return ResponseEntity.ok(menuService.getMenuItemsByRestaurant(
-                restaurantId, page, size, sortBy, sortDir, 
-                category, vegetarian, vegan, glutenFree, available));
+        if (fields == null) {
+            return ResponseEntity.ok(menuService.getMenuItemsByRestaurant(
+                    restaurantId, page, size, sortBy, sortDir, 
+                    category, vegetarian, vegan, glutenFree, available));
+        }
+        try {
+            return ResponseEntity.ok(menuService.getMenuItemFieldsByRestaurant(
+                    SparseResource.MENU_ITEM.parse(fields), restaurantId, page, size, sortBy, sortDir,
+                    category, vegetarian, vegan, glutenFree, available));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/search")
+    @QueryBudget(1)
+    @Operation(summary = "Search menu items",
+               description = "Full-text search over dish names, descriptions and categories across all restaurants, ranked by relevance")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Search results retrieved"),
+        @ApiResponse(responseCode = "400", description = "Invalid page or page size")
+    })
+    public ResponseEntity<?> searchMenuItems(
+            @Parameter(description = "Search text; the words are matched as prefixes", required = true)
+            @RequestParam String q,
+
+            @Parameter(description = "Only vegetarian dishes")
+            @RequestParam(required = false) Boolean vegetarian,
+
+            @Parameter(description = "Only vegan dishes")
+            @RequestParam(required = false) Boolean vegan,
+
+            @Parameter(description = "Only gluten-free dishes")
+            @RequestParam(required = false) Boolean glutenFree,
+
+            @Parameter(description = "Restrict the search to one restaurant")
+            @RequestParam(required = false) Long restaurantId,
+
+            @Parameter(description = "Page number (0-based)", example = "0")
+            @RequestParam(defaultValue = "0") int page,
+
+            @Parameter(description = "Number of items per page (max 100)", example = "10")
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(menuService.searchMenuItems(
+                    q, vegetarian, vegan, glutenFree, restaurantId, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/restaurant/{restaurantId}/categories")
+    @QueryBudget(2)
     @Operation(summary = "Get menu categories by restaurant", 
                description = "Retrieves all distinct menu categories for a restaurant")
     public ResponseEntity<List<String>> getMenuCategoriesByRestaurant(
@@ -87,7 +149,66 @@ public class MenuController {
         return ResponseEntity.ok(menuService.getMenuCategoriesByRestaurant(restaurantId));
     }
 
+    @GetMapping("/restaurant/{restaurantId}/available")
+    @QueryBudget(4)
+    @Operation(summary = "Get orderable menu items",
+               description = "Retrieves the menu items of a restaurant that can be ordered at the given time (defaults to now)")
+    public ResponseEntity<List<MenuItem>> getOrderableMenuItems(
+            @Parameter(description = "ID of the restaurant", example = "1", required = true)
+            @PathVariable Long restaurantId,
+
+            @Parameter(description = "Point in time to check (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(menuService.getOrderableMenuItems(
+                restaurantId, at != null ? at : LocalDateTime.now()));
+    }
+
+    @GetMapping("/restaurant/{restaurantId}/schedules")
+    @QueryBudget(2)
+    @Operation(summary = "Get availability schedules",
+               description = "Retrieves the weekly availability windows of a restaurant's menu items and categories")
+    public ResponseEntity<List<MenuAvailabilityWindow>> getAvailabilityWindows(
+            @Parameter(description = "ID of the restaurant", example = "1", required = true)
+            @PathVariable Long restaurantId) {
+        return ResponseEntity.ok(menuService.getAvailabilityWindows(restaurantId));
+    }
+
+    @PostMapping("/restaurant/{restaurantId}/schedules")
+    @QueryBudget(3)
+    @Operation(summary = "Add an availability window",
+               description = "Schedules a menu item or a whole category as orderable within a weekly time window")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Availability window created successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid input data")
+    })
+    public ResponseEntity<MenuAvailabilityWindow> addAvailabilityWindow(
+            @Parameter(description = "ID of the restaurant", example = "1", required = true)
+            @PathVariable Long restaurantId,
+
+            @Parameter(description = "Availability window for a menu item or a category", required = true)
+            @RequestBody MenuAvailabilityWindow window) {
+        return ResponseEntity.status(201).body(menuService.addAvailabilityWindow(restaurantId, window));
+    }
+
+    @DeleteMapping("/schedules/{id}")
+    @QueryBudget(3)
+    @Operation(summary = "Delete an availability window", description = "Removes a weekly availability window")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Availability window deleted successfully"),
+        @ApiResponse(responseCode = "404", description = "Availability window not found")
+    })
+    public ResponseEntity<String> deleteAvailabilityWindow(
+            @Parameter(description = "ID of the availability window to be deleted", example = "1", required = true)
+            @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(menuService.deleteAvailabilityWindow(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
+    @QueryBudget(1)
     @Operation(summary = "Get menu item by ID", description = "Retrieves a specific menu item by its ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Menu item found"),
@@ -101,7 +222,30 @@ public class MenuController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/recommendations")
+    @QueryBudget(2)
+    @Operation(summary = "Get menu item recommendations",
+               description = "Retrieves the items most often ordered together with a menu item, most frequent first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Recommendations retrieved"),
+        @ApiResponse(responseCode = "400", description = "Invalid limit or menu item not found")
+    })
+    public ResponseEntity<?> getRecommendations(
+            @Parameter(description = "ID of the menu item", example = "1", required = true)
+            @PathVariable Long id,
+
+            @Parameter(description = "Maximum number of items to return (max 20)", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<RecommendedMenuItem> recommendations = menuService.getRecommendations(id, limit);
+            return ResponseEntity.ok(recommendations);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
+    @QueryBudget(4)
     @Operation(summary = "Update a menu item", description = "Updates an existing menu item with new information")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Menu item updated successfully"),
@@ -119,6 +263,7 @@ public class MenuController {
     }
 
     @DeleteMapping("/{id}")
+    @QueryBudget(4)
     @Operation(summary = "Delete a menu item", description = "Removes a menu item from the system")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Menu item deleted successfully"),
@@ -0,0 +1,97 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.jdbc.EndpointQueryBudget;
+import com.examly.springapp.jdbc.QueryBudget;
+import com.examly.springapp.jdbc.QueryStats;
+import com.examly.springapp.jdbc.SlowQuery;
+import com.examly.springapp.service.MetricsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metrics")
+@Tag(name = "Metrics", description = "Latency and error counts of controller, service and repository methods and of SQL statements")
+public class MetricsController {
+
+    private final MetricsService metricsService;
+
+    public MetricsController(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @GetMapping("/methods")
+    @QueryBudget(0)
+    @Operation(summary = "Get method latencies", description = "Retrieves call counts, latency percentiles in " +
+            "milliseconds and exceptions thrown by type for every method called since the last reset, " +
+            "by total time spent")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Latencies retrieved"),
+        @ApiResponse(responseCode = "400", description = "Invalid layer")
+    })
+    public ResponseEntity<?> getMethodLatencies(
+            @Parameter(description = "Only methods of this layer",
+                    schema = @Schema(allowableValues = {"controller", "service", "repository"}))
+            @RequestParam(required = false) String layer) {
+        try {
+            return ResponseEntity.ok(metricsService.getMethodLatencies(layer));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/methods")
+    @QueryBudget(0)
+    @Operation(summary = "Reset method latencies", description = "Clears every latency histogram and error count")
+    @ApiResponse(responseCode = "204", description = "Metrics reset")
+    public ResponseEntity<Void> resetMethodLatencies() {
+        metricsService.resetMethodLatencies();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/queries")
+    @QueryBudget(0)
+    @Operation(summary = "Get SQL statement stats", description = "Retrieves executions, errors, rows and time per " +
+            "SQL fingerprint, with the executions per calling method, by total time spent")
+    @ApiResponse(responseCode = "200", description = "Statement stats retrieved")
+    public ResponseEntity<List<QueryStats>> getQueryStats(
+            @Parameter(description = "Only statements run by this method", example = "OrderRepository.findUserOrdersWithFilters")
+            @RequestParam(required = false) String origin) {
+        return ResponseEntity.ok(metricsService.getQueryStats(origin));
+    }
+
+    @GetMapping("/slow-queries")
+    @QueryBudget(0)
+    @Operation(summary = "Get slow SQL statements", description = "Retrieves the most recently logged slow " +
+            "statements, newest first; each fingerprint is logged at most once per interval")
+    @ApiResponse(responseCode = "200", description = "Slow statements retrieved")
+    public ResponseEntity<List<SlowQuery>> getSlowQueries() {
+        return ResponseEntity.ok(metricsService.getSlowQueries());
+    }
+
+    @GetMapping("/query-budgets")
+    @QueryBudget(0)
+    @Operation(summary = "Get query budgets", description = "Retrieves the most statements each endpoint ran in " +
+            "one request against its declared budget, with the last violation, endpoints with violations first")
+    @ApiResponse(responseCode = "200", description = "Query budgets retrieved")
+    public ResponseEntity<List<EndpointQueryBudget>> getQueryBudgets() {
+        return ResponseEntity.ok(metricsService.getQueryBudgets());
+    }
+
+    @DeleteMapping("/queries")
+    @QueryBudget(0)
+    @Operation(summary = "Reset SQL statement stats", description = "Clears every statement stat, the slow " +
+            "statements and the per-endpoint query budget counts")
+    @ApiResponse(responseCode = "204", description = "Statement stats reset")
+    public ResponseEntity<Void> resetQueryStats() {
+        metricsService.resetQueryStats();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,7 +1,11 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.config.Views;
 import com.examly.springapp.entity.*;
+import com.examly.springapp.jdbc.QueryBudget;
+import com.examly.springapp.repository.SparseResource;
 import com.examly.springapp.service.OrderService;
+import com.fasterxml.jackson.annotation.JsonView;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -27,6 +31,7 @@ public class OrderController {
     }
 
     @PostMapping
+    @QueryBudget(5)
     @Operation(summary = "Create a new order", description = "Creates a new order in the system")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Order created successfully"),
@@ -47,8 +52,14 @@ public class OrderController {
     }
 
     @GetMapping("/user/{userId}")
+    @QueryBudget(5)
+    @JsonView(Views.Summary.class)
     @Operation(summary = "Get orders by user ID", description = "Retrieves paginated and filtered orders for a specific user")
-    public ResponseEntity<Page<OrderEntity>> getOrdersByUser(
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested")
+    })
+    public ResponseEntity<?> getOrdersByUser(
             @Parameter(description = "ID of the user", example = "1", required = true)
             @PathVariable Long userId,
             
@@ -71,15 +82,32 @@ public class OrderController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
             
             @Parameter(description = "Filter to date (yyyy-MM-dd'T'HH:mm:ss)")
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
+
+            @Parameter(description = "Comma-separated fields to return instead of whole orders", example = "id,status,totalAmount")
+            @RequestParam(required = false) String fields) {
         
-        Page<OrderEntity> orders = orderService.getOrdersByUser(userId, page, size, sortBy, sortDir, status, fromDate, toDate);
-        return ResponseEntity.ok(orders);
+        if (fields == null) {
+            Page<OrderEntity> orders = orderService.getOrdersByUser(userId, page, size, sortBy, sortDir, status, fromDate, toDate);
+            return ResponseEntity.ok(orders);
+        }
+        try {
+            return ResponseEntity.ok(orderService.getOrderFieldsByUser(
+                    SparseResource.ORDER.parse(fields), userId, page, size, status, fromDate, toDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/restaurant/{restaurantId}")
+    @QueryBudget(5)
+    @JsonView(Views.Summary.class)
     @Operation(summary = "Get orders by restaurant ID", description = "Retrieves paginated and filtered orders for a specific restaurant")
-    public ResponseEntity<Page<OrderEntity>> getOrdersByRestaurant(
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested")
+    })
+    public ResponseEntity<?> getOrdersByRestaurant(
             @Parameter(description = "ID of the restaurant", example = "1", required = true)
             @PathVariable Long restaurantId,
             
@@ -102,13 +130,25 @@ public class OrderController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
             
             @Parameter(description = "Filter to date (yyyy-MM-dd'T'HH:mm:ss)")
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
+
+            @Parameter(description = "Comma-separated fields to return instead of whole orders", example = "id,status,totalAmount")
+            @RequestParam(required = false) String fields) {
         
-        Page<OrderEntity> orders = orderService.getOrdersByRestaurant(restaurantId, page, size, sortBy, sortDir, status, fromDate, toDate);
-        return ResponseEntity.ok(orders);
+        if (fields == null) {
+            Page<OrderEntity> orders = orderService.getOrdersByRestaurant(restaurantId, page, size, sortBy, sortDir, status, fromDate, toDate);
+            return ResponseEntity.ok(orders);
+        }
+        try {
+            return ResponseEntity.ok(orderService.getOrderFieldsByRestaurant(
+                    SparseResource.ORDER.parse(fields), restaurantId, page, size, status, fromDate, toDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PatchMapping("/{orderId}/status")
+    @QueryBudget(4)
     @Operation(summary = "Update order status", description = "Updates the status of an existing order")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Status updated successfully"),
@@ -132,6 +172,7 @@ public class OrderController {
     }
 
     @DeleteMapping("/{orderId}")
+    @QueryBudget(4)
     @Operation(summary = "Cancel an order", description = "Cancels an existing order")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Order cancelled successfully"),
@@ -152,6 +193,7 @@ public class OrderController {
     }
 
     @GetMapping("/restaurant/{restaurantId}/revenue")
+    @QueryBudget(1)
     @Operation(summary = "Calculate restaurant revenue", description = "Calculates total revenue for a restaurant with optional date filters")
     public ResponseEntity<Double> calculateRestaurantRevenue(
             @Parameter(description = "ID of the restaurant", example = "1", required = true)
@@ -168,6 +210,7 @@ public class OrderController {
     }
 
     @GetMapping("/{orderId}/details")
+    @QueryBudget(2)
     @Operation(summary = "Get detailed order information")
     public ResponseEntity<OrderEntity> getOrderDetails(
             @PathVariable Long orderId) {
@@ -1,6 +1,13 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.analytics.OrderVolumeSeries;
+import com.examly.springapp.analytics.TopMenuItem;
+import com.examly.springapp.dto.OpeningHours;
 import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.jdbc.QueryBudget;
+import com.examly.springapp.repository.SparseResource;
+import com.examly.springapp.search.NearbyRestaurant;
+import com.examly.springapp.search.RankedRestaurant;
 import com.examly.springapp.service.RestaurantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -26,21 +33,31 @@ public class RestaurantController {
     }
 
     @PostMapping
+    @QueryBudget(1)
     @Operation(summary = "Register a new restaurant", description = "Registers a new restaurant in the system")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Restaurant registered successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid input provided")
     })
-    public ResponseEntity<Restaurant> registerRestaurant(
+    public ResponseEntity<?> registerRestaurant(
             @Parameter(description = "Restaurant object that needs to be registered", required = true)
             @RequestBody Restaurant restaurant) {
-        Restaurant createdRestaurant = restaurantService.registerRestaurant(restaurant);
-        return ResponseEntity.status(201).body(createdRestaurant);
+        try {
+            Restaurant createdRestaurant = restaurantService.registerRestaurant(restaurant);
+            return ResponseEntity.status(201).body(createdRestaurant);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping
+    @QueryBudget(2)
     @Operation(summary = "Get all restaurants", description = "Retrieves a paginated and sorted list of all restaurants")
-    public ResponseEntity<Page<Restaurant>> getAllRestaurants(
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Restaurants retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field or sort order requested")
+    })
+    public ResponseEntity<?> getAllRestaurants(
             @Parameter(description = "Page number (0-based)", example = "0")
             @RequestParam(defaultValue = "0") int page,
             
@@ -48,19 +65,40 @@ public class RestaurantController {
             @RequestParam(defaultValue = "10") int size,
             
             @Parameter(description = "Sort by field", schema = @Schema(
-                allowableValues = {"id", "name", "cuisine", "phoneNumber", "openingHours"}))
+                allowableValues = {"id", "name", "cuisine", "rating", "phoneNumber", "openingHours"}))
             @RequestParam(defaultValue = "name") String sortBy,
             
             @Parameter(description = "Sort direction", schema = @Schema(
                 allowableValues = {"asc", "desc"}))
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+
+            @Parameter(description = "Only restaurants open right now, according to their structured opening hours")
+            @RequestParam(defaultValue = "false") boolean openNow,
+
+            @Parameter(description = "Comma-separated fields to return instead of whole restaurants", example = "id,name,cuisine")
+            @RequestParam(required = false) String fields) {
         
-        return ResponseEntity.ok(restaurantService.getAllRestaurants(page, size, sortBy, sortDir));
+        try {
+            if (fields == null) {
+                return ResponseEntity.ok(restaurantService.getAllRestaurants(page, size, sortBy, sortDir, openNow));
+            }
+            return ResponseEntity.ok(restaurantService.getRestaurantFields(
+                    SparseResource.RESTAURANT.parse(fields), page, size, sortBy, sortDir, openNow));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search restaurants", description = "Searches restaurants with pagination and sorting")
-    public ResponseEntity<Page<Restaurant>> searchRestaurants(
+    @QueryBudget(2)
+    @Operation(summary = "Search restaurants", description = "Substring search over name and cuisine; falls back to " +
+            "typo-tolerant matches when nothing contains the term. Sort by relevance to rank the best matches first. " +
+            "cuisineFacets holds the cuisine counts of all matches")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Matching restaurants retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown sort order requested")
+    })
+    public ResponseEntity<?> searchRestaurants(
             @Parameter(description = "Search term for name or cuisine")
             @RequestParam String query,
             
@@ -71,19 +109,32 @@ public class RestaurantController {
             @RequestParam(defaultValue = "10") int size,
             
             @Parameter(description = "Sort by field", schema = @Schema(
-                allowableValues = {"id", "name", "cuisine", "phoneNumber", "openingHours"}))
+                allowableValues = {"relevance", "id", "name", "cuisine", "rating", "phoneNumber", "openingHours"}))
             @RequestParam(defaultValue = "name") String sortBy,
             
             @Parameter(description = "Sort direction", schema = @Schema(
                 allowableValues = {"asc", "desc"}))
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+
+            @Parameter(description = "Only restaurants open right now, according to their structured opening hours")
+            @RequestParam(defaultValue = "false") boolean openNow) {
         
-        return ResponseEntity.ok(restaurantService.searchRestaurants(query, page, size, sortBy, sortDir));
+        try {
+            return ResponseEntity.ok(restaurantService.searchRestaurants(query, page, size, sortBy, sortDir, openNow));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/filter")
-    @Operation(summary = "Filter by cuisine", description = "Filters restaurants by cuisine with pagination and sorting")
-    public ResponseEntity<Page<Restaurant>> filterByCuisine(
+    @QueryBudget(2)
+    @Operation(summary = "Filter by cuisine", description = "Filters restaurants by cuisine with pagination and sorting. " +
+            "cuisineFacets holds the restaurant count of every cuisine")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Restaurants retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown sort order requested")
+    })
+    public ResponseEntity<?> filterByCuisine(
             @Parameter(description = "Cuisine type to filter by")
             @RequestParam String cuisine,
             
@@ -94,23 +145,96 @@ public class RestaurantController {
             @RequestParam(defaultValue = "10") int size,
             
             @Parameter(description = "Sort by field", schema = @Schema(
-                allowableValues = {"id", "name", "cuisine", "phoneNumber", "openingHours"}))
+                allowableValues = {"id", "name", "cuisine", "rating", "phoneNumber", "openingHours"}))
             @RequestParam(defaultValue = "name") String sortBy,
             
             @Parameter(description = "Sort direction", schema = @Schema(
                 allowableValues = {"asc", "desc"}))
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+
+            @Parameter(description = "Only restaurants open right now, according to their structured opening hours")
+            @RequestParam(defaultValue = "false") boolean openNow) {
         
-        return ResponseEntity.ok(restaurantService.filterByCuisine(cuisine, page, size, sortBy, sortDir));
+        try {
+            return ResponseEntity.ok(restaurantService.filterByCuisine(cuisine, page, size, sortBy, sortDir, openNow));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/nearby")
+    @QueryBudget(1)
+    @Operation(summary = "Find nearby restaurants", description = "Retrieves the nearest restaurants within a radius, " +
+            "sorted by distance and optionally restricted to one cuisine")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Nearby restaurants found"),
+        @ApiResponse(responseCode = "400", description = "Invalid coordinates, radius or limit")
+    })
+    public ResponseEntity<?> findNearbyRestaurants(
+            @Parameter(description = "Latitude of the search centre", example = "12.9716", required = true)
+            @RequestParam double lat,
+
+            @Parameter(description = "Longitude of the search centre", example = "77.5946", required = true)
+            @RequestParam double lon,
+
+            @Parameter(description = "Search radius in kilometres (max 100)", example = "5")
+            @RequestParam(defaultValue = "5") double radiusKm,
+
+            @Parameter(description = "Cuisine type to filter by")
+            @RequestParam(required = false) String cuisine,
+
+            @Parameter(description = "Maximum number of restaurants to return", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<NearbyRestaurant> nearby = restaurantService.findNearby(lat, lon, radiusKm, cuisine, limit);
+            return ResponseEntity.ok(nearby);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/ranked")
+    @QueryBudget(2)
+    @Operation(summary = "Get ranked restaurants", description = "Retrieves top-rated restaurants by Bayesian average rating, " +
+            "or trending restaurants by recent order volume, optionally restricted to one cuisine")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ranked restaurants found"),
+        @ApiResponse(responseCode = "400", description = "Invalid ranking or limit")
+    })
+    public ResponseEntity<?> getRankedRestaurants(
+            @Parameter(description = "Ranking to use", schema = @Schema(allowableValues = {"rating", "trending"}))
+            @RequestParam(defaultValue = "rating") String by,
+
+            @Parameter(description = "Cuisine type to filter by")
+            @RequestParam(required = false) String cuisine,
+
+            @Parameter(description = "Maximum number of restaurants to return", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<RankedRestaurant> ranked = restaurantService.getRankedRestaurants(by, cuisine, limit);
+            return ResponseEntity.ok(ranked);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/order-metrics")
+    @QueryBudget(0)
+    @Operation(summary = "Get order volume across all restaurants", description = "Retrieves orders, cancellations and " +
+            "average ticket per minute over the last 24 hours, summed over all restaurants")
+    public ResponseEntity<OrderVolumeSeries> getOverallOrderVolume() {
+        return ResponseEntity.ok(restaurantService.getOverallOrderVolume());
     }
 
     @GetMapping("/cuisines")
+    @QueryBudget(0)
     @Operation(summary = "Get all cuisine types", description = "Retrieves a list of all available cuisine types")
     public ResponseEntity<List<String>> getAllCuisineTypes() {
         return ResponseEntity.ok(restaurantService.getAllCuisineTypes());
     }
 
     @GetMapping("/{id}")
+    @QueryBudget(1)
     @Operation(summary = "Get restaurant by ID", description = "Retrieves a specific restaurant by its ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Restaurant found"),
@@ -124,24 +248,113 @@ public class RestaurantController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/order-metrics")
+    @QueryBudget(1)
+    @Operation(summary = "Get order volume by restaurant", description = "Retrieves orders, cancellations and average " +
+            "ticket per minute over the last 24 hours for one restaurant")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Order volume retrieved"),
+        @ApiResponse(responseCode = "400", description = "Restaurant not found")
+    })
+    public ResponseEntity<?> getOrderVolume(
+            @Parameter(description = "ID of the restaurant", example = "1", required = true)
+            @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(restaurantService.getOrderVolume(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/top-items")
+    @QueryBudget(2)
+    @Operation(summary = "Get best-selling menu items", description = "Retrieves the menu items of a restaurant with the " +
+            "highest quantity sold over the last day, week or month; quantities may overcount by at most maxError")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Best-selling items retrieved"),
+        @ApiResponse(responseCode = "400", description = "Invalid window or limit, or restaurant not found")
+    })
+    public ResponseEntity<?> getTopItems(
+            @Parameter(description = "ID of the restaurant", example = "1", required = true)
+            @PathVariable Long id,
+
+            @Parameter(description = "Time window", schema = @Schema(allowableValues = {"day", "week", "month"}))
+            @RequestParam(defaultValue = "week") String window,
+
+            @Parameter(description = "Maximum number of items to return", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<TopMenuItem> topItems = restaurantService.getTopItems(id, window, limit);
+            return ResponseEntity.ok(topItems);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
+    @QueryBudget(2)
     @Operation(summary = "Update restaurant", description = "Updates an existing restaurant with the provided details")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Restaurant updated successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid input provided"),
         @ApiResponse(responseCode = "404", description = "Restaurant not found")
     })
-    public ResponseEntity<Restaurant> updateRestaurant(
+    public ResponseEntity<?> updateRestaurant(
             @Parameter(description = "ID of the restaurant to be updated", example = "1", required = true)
             @PathVariable Long id,
             
             @Parameter(description = "Updated restaurant object", required = true)
             @RequestBody Restaurant restaurant) {
-        return restaurantService.updateRestaurant(id, restaurant)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        try {
+            return restaurantService.updateRestaurant(id, restaurant)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/hours")
+    @QueryBudget(3)
+    @Operation(summary = "Get opening hours", description = "Retrieves the weekly opening intervals and date exceptions of a restaurant")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Opening hours found"),
+        @ApiResponse(responseCode = "404", description = "Restaurant not found")
+    })
+    public ResponseEntity<OpeningHours> getOpeningHours(
+            @Parameter(description = "ID of the restaurant", example = "1", required = true)
+            @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(restaurantService.getOpeningHours(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PutMapping("/{id}/hours")
+    @QueryBudget(4)
+    @Operation(summary = "Replace opening hours", description = "Replaces the weekly opening intervals and date " +
+            "exceptions of a restaurant. A close time at or before the open time runs past midnight; an exception " +
+            "without times closes the restaurant for the whole date")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Opening hours replaced"),
+        @ApiResponse(responseCode = "400", description = "Invalid opening hours or restaurant not found")
+    })
+    public ResponseEntity<?> replaceOpeningHours(
+            @Parameter(description = "ID of the restaurant", example = "1", required = true)
+            @PathVariable Long id,
+
+            @Parameter(description = "Weekly intervals and date exceptions", required = true)
+            @RequestBody OpeningHours openingHours) {
+        try {
+            return ResponseEntity.ok(restaurantService.replaceOpeningHours(id, openingHours));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @DeleteMapping("/{id}")
+    @QueryBudget(8)
     @Operation(summary = "Delete restaurant", description = "Deletes a restaurant by their ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Restaurant deleted successfully"),
@@ -1,6 +1,8 @@
 package com.examly.springapp.controller;
 
 import com.examly.springapp.entity.User;
+import com.examly.springapp.jdbc.QueryBudget;
+import com.examly.springapp.repository.SparseResource;
 import com.examly.springapp.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,6 +25,7 @@ public class UserController {
     }
 
     @PostMapping
+    @QueryBudget(1)
     @Operation(summary = "Create a new user", description = "Creates a new user with the provided details")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "User created successfully"),
@@ -40,6 +43,7 @@ public class UserController {
     }
 
     @GetMapping("/email/{email}")
+    @QueryBudget(1)
     @Operation(summary = "Get user by email", description = "Returns a single user by their email address")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User found"),
@@ -54,6 +58,7 @@ public class UserController {
     }
 
     @GetMapping("/username/{username}")
+    @QueryBudget(1)
     @Operation(summary = "Get user by username", description = "Returns a single user by their username")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User found"),
@@ -68,12 +73,14 @@ public class UserController {
     }
 
     @GetMapping
+    @QueryBudget(2)
     @Operation(summary = "Get all users", description = "Returns a paginated and sorted list of users")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Users retrieved successfully"),
-        @ApiResponse(responseCode = "204", description = "No users found")
+        @ApiResponse(responseCode = "204", description = "No users found"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested")
     })
-    public ResponseEntity<Page<User>> getAllUsers(
+    public ResponseEntity<?> getAllUsers(
             @Parameter(description = "Page number (0-based)", example = "0")
             @RequestParam(defaultValue = "0") int page,
             
@@ -84,15 +91,30 @@ public class UserController {
             @RequestParam(defaultValue = "id") String sortBy,
             
             @Parameter(description = "Sort direction (asc, desc)", example = "asc")
-            @RequestParam(defaultValue = "asc") String sortOrder) {
+            @RequestParam(defaultValue = "asc") String sortOrder,
+
+            @Parameter(description = "Comma-separated fields to return instead of whole users", example = "id,username")
+            @RequestParam(required = false) String fields) {
         
-        Page<User> users = userService.getAllUsers(page, size, sortBy, sortOrder);
-        return ResponseEntity.ok(users);
+        if (fields == null) {
+            Page<User> users = userService.getAllUsers(page, size, sortBy, sortOrder);
+            return ResponseEntity.ok(users);
+        }
+        try {
+            return ResponseEntity.ok(userService.getUserFields(SparseResource.USER.parse(fields), page, size, sortBy, sortOrder));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/search")
+    @QueryBudget(2)
     @Operation(summary = "Search users", description = "Search users with pagination and sorting")
-    public ResponseEntity<Page<User>> searchUsers(
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Users retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested")
+    })
+    public ResponseEntity<?> searchUsers(
             @Parameter(description = "Search term for username or email")
             @RequestParam String query,
             
@@ -106,13 +128,25 @@ public class UserController {
             @RequestParam(defaultValue = "id") String sortBy,
             
             @Parameter(description = "Sort direction (asc, desc)", example = "asc")
-            @RequestParam(defaultValue = "asc") String sortOrder) {
+            @RequestParam(defaultValue = "asc") String sortOrder,
+
+            @Parameter(description = "Comma-separated fields to return instead of whole users", example = "id,username")
+            @RequestParam(required = false) String fields) {
         
-        Page<User> users = userService.searchUsers(query, page, size, sortBy, sortOrder);
-        return ResponseEntity.ok(users);
+        if (fields == null) {
+            Page<User> users = userService.searchUsers(query, page, size, sortBy, sortOrder);
+            return ResponseEntity.ok(users);
+        }
+        try {
+            return ResponseEntity.ok(userService.searchUserFields(
+                    SparseResource.USER.parse(fields), query, page, size, sortBy, sortOrder));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
+    @QueryBudget(1)
     @Operation(summary = "Get user by ID", description = "Returns a single user by their ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User found"),
@@ -127,6 +161,7 @@ public class UserController {
     }
 
     @PutMapping("/{id}")
+    @QueryBudget(2)
     @Operation(summary = "Update user", description = "Updates an existing user with the provided details")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User updated successfully"),
@@ -144,6 +179,7 @@ public class UserController {
     }
 
     @DeleteMapping("/{id}")
+    @QueryBudget(5)
     @Operation(summary = "Delete user", description = "Deletes a user by their ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "User deleted successfully"),
@@ -0,0 +1,9 @@
+package com.examly.springapp.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Total quantity of one menu item sold by a restaurant on one day.
+ */
+public record DailyItemSales(Long restaurantId, Long menuItemId, LocalDate orderDay, Long quantity) {
+}
@@ -0,0 +1,12 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.entity.Feedback;
+
+import java.util.List;
+
+/**
+ * One keyset page of feedback, newest first. Pass {@code nextCursor} as {@code before} to fetch the
+ * next page; it is null on the last page.
+ */
+public record FeedbackPage(List<Feedback> items, Long nextCursor) {
+}
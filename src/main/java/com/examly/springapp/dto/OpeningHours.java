@@ -0,0 +1,12 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.entity.RestaurantHoursException;
+import com.examly.springapp.entity.RestaurantOpeningInterval;
+
+import java.util.List;
+
+/**
+ * A restaurant's weekly opening intervals together with its date-specific exceptions.
+ */
+public record OpeningHours(List<RestaurantOpeningInterval> intervals, List<RestaurantHoursException> exceptions) {
+}
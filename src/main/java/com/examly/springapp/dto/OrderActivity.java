@@ -0,0 +1,9 @@
+package com.examly.springapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * The few columns of an order that the in-memory rankings are rebuilt from.
+ */
+public record OrderActivity(Long orderId, Long restaurantId, LocalDateTime orderDate) {
+}
@@ -0,0 +1,7 @@
+package com.examly.springapp.dto;
+
+/**
+ * The menu item of one order line, as read when rebuilding the co-occurrence index.
+ */
+public record OrderLine(Long orderId, Long menuItemId) {
+}
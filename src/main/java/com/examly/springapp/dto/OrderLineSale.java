@@ -0,0 +1,7 @@
+package com.examly.springapp.dto;
+
+/**
+ * Quantity and amount of one order line, as exported to the columnar analytics snapshot.
+ */
+public record OrderLineSale(Long orderId, Long menuItemId, Integer quantity, Double subtotal) {
+}
@@ -0,0 +1,13 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A delivered or cancelled order as exported to the columnar analytics snapshot. {@code terminalAt}
+ * is when it was delivered or cancelled.
+ */
+public record TerminalOrder(Long orderId, Long restaurantId, String cuisine, LocalDateTime orderDate,
+                            OrderStatus status, Double totalAmount, LocalDateTime terminalAt) {
+}
@@ -0,0 +1,9 @@
+package com.examly.springapp.dto;
+
+/**
+ * Totals of the ratings one user gave one restaurant, as taken back out of its summary when the
+ * user is deleted.
+ */
+public record UserRatings(Long restaurantId, long ratingCount, long ratingSum, long oneStarCount,
+                          long twoStarCount, long threeStarCount, long fourStarCount, long fiveStarCount) {
+}
@@ -1,11 +1,13 @@
 package com.examly.springapp.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "feedbacks")
+@Table(name = "feedbacks", indexes = @Index(name = "idx_feedbacks_restaurant_id_id", columnList = "restaurant_id, id"))
 public class Feedback {
 
     @Id
@@ -26,10 +28,13 @@ public class Feedback {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Accepted as {"id": ...} on input; rendered as restaurantId / userId on output
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "restaurant_id", nullable = false)
     private Restaurant restaurant;
 
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -93,10 +98,19 @@ public class Feedback {
     }
 
     // Helper methods
+    public Long getRestaurantId() {
+        return restaurant != null ? restaurant.getId() : null;
+    }
+
+    public Long getUserId() {
+        return user != null ? user.getId() : null;
+    }
+
     public String getUserName() {
         return user != null ? user.getUsername() : null;
     }
 
+    @JsonIgnore
     public String getRestaurantName() {
         return restaurant != null ? restaurant.getName() : null;
     }
@@ -1,5 +1,8 @@
 package com.examly.springapp.entity;
 
+import com.examly.springapp.config.Views;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonView;
 import jakarta.persistence.*;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -8,17 +11,23 @@ import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_actual_delivery_time_id", columnList = "actual_delivery_time, id"),
+        @Index(name = "idx_orders_cancelled_at_id", columnList = "cancelled_at, id")
+})
 public class OrderEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Accepted as {"id": ...} on input; rendered as userId / restaurantId on output
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @ManyToOne
     @JoinColumn(name = "restaurant_id", nullable = false)
     private Restaurant restaurant;
@@ -35,6 +44,22 @@ public class OrderEntity {
     @Column(name = "actual_delivery_time")
     private LocalDateTime actualDeliveryTime;
 
+    // When the order first entered each status after PENDING
+    @Column(name = "confirmed_at")
+    private LocalDateTime confirmedAt;
+
+    @Column(name = "preparing_at")
+    private LocalDateTime preparingAt;
+
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    @Column(name = "out_for_delivery_at")
+    private LocalDateTime outForDeliveryAt;
+
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus status;
@@ -90,6 +115,7 @@ public class OrderEntity {
     }
 
     @Transient
+    @JsonView(Views.Detail.class)
     public List<String> getItemNames() {
         return orderItems.stream()
                 .map(OrderItem::getItemName)
@@ -97,6 +123,7 @@ public class OrderEntity {
     }
 
     @Transient
+    @JsonView(Views.Detail.class)
     public Map<String, Integer> getItemQuantities() {
         return orderItems.stream()
                 .collect(Collectors.toMap(
@@ -118,13 +145,41 @@ public class OrderEntity {
         calculateTotals();
     }
 
+    public void clearOrderItems() {
+        orderItems.clear();
+        calculateTotals();
+    }
+
     public void updateStatus(OrderStatus newStatus) {
         this.status = newStatus;
-        if (newStatus == OrderStatus.DELIVERED) {
-            this.actualDeliveryTime = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now();
+        switch (newStatus) {
+            case CONFIRMED -> confirmedAt = confirmedAt != null ? confirmedAt : now;
+            case PREPARING -> preparingAt = preparingAt != null ? preparingAt : now;
+            case READY_FOR_PICKUP -> readyAt = readyAt != null ? readyAt : now;
+            case OUT_FOR_DELIVERY -> outForDeliveryAt = outForDeliveryAt != null ? outForDeliveryAt : now;
+            case DELIVERED -> actualDeliveryTime = actualDeliveryTime != null ? actualDeliveryTime : now;
+            case CANCELLED -> cancelledAt = cancelledAt != null ? cancelledAt : now;
+            default -> {
+            }
         }
     }
 
+    /**
+     * When the order entered the given status, or null if it never did.
+     */
+    public LocalDateTime getStatusChangedAt(OrderStatus status) {
+        return switch (status) {
+            case PENDING -> orderDate;
+            case CONFIRMED -> confirmedAt;
+            case PREPARING -> preparingAt;
+            case READY_FOR_PICKUP -> readyAt;
+            case OUT_FOR_DELIVERY -> outForDeliveryAt;
+            case DELIVERED -> actualDeliveryTime;
+            case CANCELLED -> cancelledAt;
+        };
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -207,6 +262,26 @@ public class OrderEntity {
         return actualDeliveryTime;
     }
 
+    public LocalDateTime getConfirmedAt() {
+        return confirmedAt;
+    }
+
+    public LocalDateTime getPreparingAt() {
+        return preparingAt;
+    }
+
+    public LocalDateTime getReadyAt() {
+        return readyAt;
+    }
+
+    public LocalDateTime getOutForDeliveryAt() {
+        return outForDeliveryAt;
+    }
+
+    public LocalDateTime getCancelledAt() {
+        return cancelledAt;
+    }
+
     @Override
     public String toString() {
         return "OrderEntity{" +
@@ -0,0 +1,114 @@
+package com.examly.springapp.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row describing a change to an order. It is written in the same transaction as the change
+ * and deleted once every handler has processed it.
+ */
+@Entity
+@Table(name = "order_events", indexes = {
+        @Index(name = "idx_order_events_failed_id", columnList = "failed, id"),
+        @Index(name = "idx_order_events_order_id_id", columnList = "order_id, id")
+})
+public class OrderEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "restaurant_id", nullable = false)
+    private Long restaurantId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderEventType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    // Set once the event has run out of attempts; it is kept for inspection and no longer delivered
+    @Column(nullable = false)
+    private boolean failed;
+
+    // Constructors
+    public OrderEvent() {
+    }
+
+    public OrderEvent(Long orderId, Long restaurantId, Long userId, OrderEventType type, OrderStatus status) {
+        this.orderId = orderId;
+        this.restaurantId = restaurantId;
+        this.userId = userId;
+        this.type = type;
+        this.status = status;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public OrderEventType getType() {
+        return type;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderEvent{" +
+                "id=" + id +
+                ", orderId=" + orderId +
+                ", type=" + type +
+                ", status=" + status +
+                '}';
+    }
+}
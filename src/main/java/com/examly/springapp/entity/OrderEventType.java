@@ -0,0 +1,7 @@
+package com.examly.springapp.entity;
+
+public enum OrderEventType {
+    CREATED,
+    STATUS_CHANGED,
+    CANCELLED
+}
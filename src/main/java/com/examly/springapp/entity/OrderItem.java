@@ -1,5 +1,9 @@
 package com.examly.springapp.entity;
 
+import com.examly.springapp.config.Views;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonView;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,10 +19,13 @@ public class OrderItem {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     private OrderEntity order;
 
+    // Accepted as {"id": ...} on input; rendered as menuItemId next to the name and price ordered
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "menu_item_id", nullable = false)
     private MenuItem menuItem;
@@ -36,15 +43,22 @@ public class OrderItem {
     private Double subtotal;
 
     @Transient
+    @JsonView(Views.Detail.class)
     public Double getTotalPrice() {
         return priceAtOrderTime * quantity;
     }
 
     @Transient
+    @JsonView(Views.Detail.class)
     public String getItemName() {
         return itemNameAtOrderTime;
     }
 
+    @Transient
+    public Long getMenuItemId() {
+        return menuItem != null ? menuItem.getId() : null;
+    }
+
     @PrePersist
     @PreUpdate
     public void updateOrderDetails() {
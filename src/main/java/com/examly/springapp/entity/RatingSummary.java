@@ -0,0 +1,56 @@
+package com.examly.springapp.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Running rating aggregates of a restaurant. Maintained only by
+ * {@code RestaurantRepository.applyRatingChange} and {@code removeRatings} in the same transaction as
+ * the feedback write, never written through the entity.
+ */
+@Embeddable
+public class RatingSummary {
+
+    @Column(name = "rating_count", nullable = false, updatable = false)
+    private long ratingCount;
+
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private long ratingSum;
+
+    @Column(name = "average_rating", nullable = false, updatable = false)
+    private double averageRating;
+
+    @Column(name = "one_star_count", nullable = false, updatable = false)
+    private long oneStarCount;
+
+    @Column(name = "two_star_count", nullable = false, updatable = false)
+    private long twoStarCount;
+
+    @Column(name = "three_star_count", nullable = false, updatable = false)
+    private long threeStarCount;
+
+    @Column(name = "four_star_count", nullable = false, updatable = false)
+    private long fourStarCount;
+
+    @Column(name = "five_star_count", nullable = false, updatable = false)
+    private long fiveStarCount;
+
+    public long getRatingCount() {
+        return ratingCount;
+    }
+
+    @JsonIgnore
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    // Number of 1- to 5-star ratings, in that order
+    public long[] getHistogram() {
+        return new long[] {oneStarCount, twoStarCount, threeStarCount, fourStarCount, fiveStarCount};
+    }
+}
@@ -1,13 +1,16 @@
 package com.examly.springapp.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "restaurants")
+@Table(name = "restaurants", indexes = @Index(name = "idx_restaurants_average_rating", columnList = "average_rating"))
 public class Restaurant {
 
     @Id
@@ -34,12 +37,44 @@ public class Restaurant {
     @Column(nullable = false)
     private String openingHours;
 
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
+    // Bumped by a bulk update on every menu change; never written through the entity
+    @JsonIgnore
+    @Column(name = "menu_version", nullable = false, updatable = false)
+    private Long menuVersion = 0L;
+
+    @Embedded
+    private RatingSummary ratingSummary = new RatingSummary();
+
+    // Served paged by the menu and order endpoints rather than loaded per restaurant rendered
+    @JsonIgnore
     @OneToMany(mappedBy = "restaurant", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<MenuItem> menuItems = new ArrayList<>();
 
+    @JsonIgnore
     @OneToMany(mappedBy = "restaurant")
     private List<OrderEntity> orders = new ArrayList<>();
 
+    @JsonIgnore
+    @OneToMany(mappedBy = "restaurant", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<MenuAvailabilityWindow> availabilityWindows = new ArrayList<>();
+
+    @JsonIgnore
+    @OneToMany(mappedBy = "restaurant", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<RestaurantOpeningInterval> openingIntervals = new ArrayList<>();
+
+    @JsonIgnore
+    @OneToMany(mappedBy = "restaurant", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<RestaurantHoursException> hoursExceptions = new ArrayList<>();
+
+    @JsonIgnore
     @OneToMany(mappedBy = "restaurant", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Feedback> feedbacks = new ArrayList<>();
 
@@ -104,6 +139,30 @@ public class Restaurant {
         this.openingHours = openingHours;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Long getMenuVersion() {
+        return menuVersion;
+    }
+
+    public RatingSummary getRatingSummary() {
+        return ratingSummary;
+    }
+
     public List<MenuItem> getMenuItems() {
         return menuItems;
     }
@@ -120,6 +179,30 @@ public class Restaurant {
         this.orders = orders;
     }
 
+    public List<MenuAvailabilityWindow> getAvailabilityWindows() {
+        return availabilityWindows;
+    }
+
+    public void setAvailabilityWindows(List<MenuAvailabilityWindow> availabilityWindows) {
+        this.availabilityWindows = availabilityWindows;
+    }
+
+    public List<RestaurantOpeningInterval> getOpeningIntervals() {
+        return openingIntervals;
+    }
+
+    public void setOpeningIntervals(List<RestaurantOpeningInterval> openingIntervals) {
+        this.openingIntervals = openingIntervals;
+    }
+
+    public List<RestaurantHoursException> getHoursExceptions() {
+        return hoursExceptions;
+    }
+
+    public void setHoursExceptions(List<RestaurantHoursException> hoursExceptions) {
+        this.hoursExceptions = hoursExceptions;
+    }
+
     public List<Feedback> getFeedbacks() {
         return feedbacks;
     }
@@ -161,13 +244,7 @@ public class Restaurant {
 
     // Business logic methods
     public double getAverageRating() {
-        if (feedbacks == null || feedbacks.isEmpty()) {
-            return 0.0;
-        }
-        return feedbacks.stream()
-                .mapToInt(Feedback::getRating)
-                .average()
-                .orElse(0.0);
+        return ratingSummary != null ? ratingSummary.getAverageRating() : 0.0;
     }
 
     @Override
@@ -0,0 +1,106 @@
+package com.examly.springapp.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import com.fasterxml.jackson.annotation.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Entity
+@Table(name = "restaurant_hours_exceptions")
+public class RestaurantHoursException {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "restaurant_id", nullable = false)
+    @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+    @JsonIdentityReference(alwaysAsId = true)
+    private Restaurant restaurant;
+
+    @NotNull(message = "Date is required")
+    @Column(name = "exception_date", nullable = false)
+    private LocalDate date;
+
+    // Both times null means closed all day; otherwise these replace the weekly hours for the date
+    @Column(name = "open_time")
+    private LocalTime openTime;
+
+    @Column(name = "close_time")
+    private LocalTime closeTime;
+
+    @Column
+    private String description;
+
+    // Constructors
+    public RestaurantHoursException() {
+    }
+
+    public RestaurantHoursException(LocalDate date, LocalTime openTime, LocalTime closeTime, String description) {
+        this.date = date;
+        this.openTime = openTime;
+        this.closeTime = closeTime;
+        this.description = description;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Restaurant getRestaurant() {
+        return restaurant;
+    }
+
+    public void setRestaurant(Restaurant restaurant) {
+        this.restaurant = restaurant;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalTime getOpenTime() {
+        return openTime;
+    }
+
+    public void setOpenTime(LocalTime openTime) {
+        this.openTime = openTime;
+    }
+
+    public LocalTime getCloseTime() {
+        return closeTime;
+    }
+
+    public void setCloseTime(LocalTime closeTime) {
+        this.closeTime = closeTime;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return "RestaurantHoursException{" +
+                "id=" + id +
+                ", date=" + date +
+                ", openTime=" + openTime +
+                ", closeTime=" + closeTime +
+                '}';
+    }
+}
@@ -0,0 +1,97 @@
+package com.examly.springapp.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import com.fasterxml.jackson.annotation.*;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+@Entity
+@Table(name = "restaurant_opening_intervals")
+public class RestaurantOpeningInterval {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "restaurant_id", nullable = false)
+    @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+    @JsonIdentityReference(alwaysAsId = true)
+    private Restaurant restaurant;
+
+    @NotNull(message = "Day of week is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", nullable = false)
+    private DayOfWeek dayOfWeek;
+
+    @NotNull(message = "Open time is required")
+    @Column(name = "open_time", nullable = false)
+    private LocalTime openTime;
+
+    // A close time at or before the open time runs past midnight into the next day
+    @NotNull(message = "Close time is required")
+    @Column(name = "close_time", nullable = false)
+    private LocalTime closeTime;
+
+    // Constructors
+    public RestaurantOpeningInterval() {
+    }
+
+    public RestaurantOpeningInterval(DayOfWeek dayOfWeek, LocalTime openTime, LocalTime closeTime) {
+        this.dayOfWeek = dayOfWeek;
+        this.openTime = openTime;
+        this.closeTime = closeTime;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Restaurant getRestaurant() {
+        return restaurant;
+    }
+
+    public void setRestaurant(Restaurant restaurant) {
+        this.restaurant = restaurant;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public LocalTime getOpenTime() {
+        return openTime;
+    }
+
+    public void setOpenTime(LocalTime openTime) {
+        this.openTime = openTime;
+    }
+
+    public LocalTime getCloseTime() {
+        return closeTime;
+    }
+
+    public void setCloseTime(LocalTime closeTime) {
+        this.closeTime = closeTime;
+    }
+
+    @Override
+    public String toString() {
+        return "RestaurantOpeningInterval{" +
+                "id=" + id +
+                ", dayOfWeek=" + dayOfWeek +
+                ", openTime=" + openTime +
+                ", closeTime=" + closeTime +
+                '}';
+    }
+}
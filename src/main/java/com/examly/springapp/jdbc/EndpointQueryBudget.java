@@ -0,0 +1,9 @@
+package com.examly.springapp.jdbc;
+
+/**
+ * Statements run by the requests to one handler method against its {@link QueryBudget}, which is
+ * null for handlers without one.
+ */
+public record EndpointQueryBudget(String endpoint, Integer budget, long requests, long maxStatements,
+                                  long violations, String lastViolation) {
+}
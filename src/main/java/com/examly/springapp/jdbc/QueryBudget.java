@@ -0,0 +1,21 @@
+package com.examly.springapp.jdbc;
+
+import java.lang.annotation.*;
+
+/**
+ * Most SQL statements one request to the annotated handler may run, serialization of the response
+ * included, as enforced by {@link QueryBudgetInterceptor}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryBudget {
+
+    int value();
+
+    /**
+     * Most statements with the same fingerprint one request may run, or -1 for
+     * {@code query-budget.max-repeats}. Exceeding it is the signature of an N+1 query.
+     */
+    int maxRepeats() default -1;
+}
@@ -0,0 +1,8 @@
+package com.examly.springapp.jdbc;
+
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,117 @@
+package com.examly.springapp.jdbc;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the SQL statements of every request to a handler method and checks them against the
+ * handler's {@link QueryBudget}, and every handler against {@code query-budget.max-repeats}
+ * statements of one fingerprint. Statements run while the response is serialized count too, so lazy
+ * associations loaded one by one show up here. With {@code query-budget.mode=log} a request over
+ * budget is logged; with {@code fail} the offending statement throws
+ * {@link QueryBudgetExceededException}.
+ */
+@Component
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+
+    private static final String QUERIES_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".queries";
+
+    private final boolean failFast;
+    private final int maxRepeats;
+    private final ConcurrentHashMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public QueryBudgetInterceptor(@Value("${query-budget.mode:log}") String mode,
+                                  @Value("${query-budget.max-repeats:5}") int maxRepeats) {
+        if (!mode.equalsIgnoreCase("log") && !mode.equalsIgnoreCase("fail")) {
+            throw new IllegalArgumentException("Error: query-budget.mode must be log or fail.");
+        }
+        this.failFast = mode.equalsIgnoreCase("fail");
+        this.maxRepeats = maxRepeats;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod && RequestQueries.current() == null) {
+            QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            String endpoint = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+            request.setAttribute(QUERIES_ATTRIBUTE, RequestQueries.begin(endpoint,
+                    budget == null ? -1 : budget.value(),
+                    budget == null || budget.maxRepeats() < 0 ? maxRepeats : budget.maxRepeats(), failFast));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestQueries queries = (RequestQueries) request.getAttribute(QUERIES_ATTRIBUTE);
+        if (queries == null || queries != RequestQueries.current()) {
+            return;
+        }
+        RequestQueries.end();
+        request.removeAttribute(QUERIES_ATTRIBUTE);
+        String violation = queries.violation();
+        endpoints.computeIfAbsent(queries.endpoint(), endpoint -> new EndpointStats(queries.budget()))
+                .record(queries.statements(), violation);
+        if (violation != null) {
+            logger.warn("Query budget exceeded on {} {}: {}", request.getMethod(), request.getRequestURI(), violation);
+        }
+    }
+
+    /**
+     * Every endpoint requested since the last reset, those with violations first.
+     */
+    public List<EndpointQueryBudget> snapshot() {
+        List<EndpointQueryBudget> snapshot = new ArrayList<>();
+        endpoints.forEach((endpoint, stats) -> {
+            long requests = stats.requests.sum();
+            if (requests > 0) {
+                snapshot.add(new EndpointQueryBudget(endpoint, stats.budget < 0 ? null : stats.budget, requests,
+                        stats.maxStatements.get(), stats.violations.sum(), stats.lastViolation));
+            }
+        });
+        snapshot.sort(Comparator.comparingLong(EndpointQueryBudget::violations).reversed()
+                .thenComparing(EndpointQueryBudget::endpoint));
+        return snapshot;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static final class EndpointStats {
+
+        private final int budget;
+        private final LongAdder requests = new LongAdder();
+        private final AtomicLong maxStatements = new AtomicLong();
+        private final LongAdder violations = new LongAdder();
+        private volatile String lastViolation;
+
+        private EndpointStats(int budget) {
+            this.budget = budget;
+        }
+
+        private void record(int statements, String violation) {
+            requests.increment();
+            maxStatements.accumulateAndGet(statements, Math::max);
+            if (violation != null) {
+                violations.increment();
+                lastViolation = violation;
+            }
+        }
+    }
+}
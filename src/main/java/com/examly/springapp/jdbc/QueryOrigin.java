@@ -0,0 +1,39 @@
+package com.examly.springapp.jdbc;
+
+/**
+ * The innermost instrumented method on the current thread, such as
+ * {@code OrderRepository.findUserOrdersWithFilters}, which {@link QueryTracer} credits with the
+ * statements run while it is on the stack. Maintained by
+ * {@link com.examly.springapp.aspect.LoggingAspect}.
+ */
+public final class QueryOrigin {
+
+    public static final String UNATTRIBUTED = "(unattributed)";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private QueryOrigin() {
+    }
+
+    public static String current() {
+        String origin = CURRENT.get();
+        return origin == null ? UNATTRIBUTED : origin;
+    }
+
+    /**
+     * Makes {@code origin} current and returns the previous one, to be handed back to {@link #exit}.
+     */
+    public static String enter(String origin) {
+        String previous = CURRENT.get();
+        CURRENT.set(origin);
+        return previous;
+    }
+
+    public static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.examly.springapp.jdbc;
+
+import java.util.Map;
+
+/**
+ * Point-in-time totals of one SQL fingerprint, with the number of executions per calling method.
+ */
+public record QueryStats(String fingerprint, long calls, long errors, long rows, double totalMillis,
+                         double meanMillis, double maxMillis, Map<String, Long> origins) {
+}
@@ -0,0 +1,191 @@
+package com.examly.springapp.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count, time, rows and errors per SQL fingerprint for every statement run through a
+ * {@link TracingDataSource}, with the calls per {@link QueryOrigin}. Statements slower than
+ * {@code query-tracing.slow-query-millis} go to the slow-query log, sampled to at most one line
+ * per fingerprint every {@code query-tracing.slow-query-log-interval-seconds}; each line carries the
+ * number of slow executions skipped since the last one. The last {@link #RECENT_SLOW_QUERIES}
+ * logged statements are kept for {@link #recentSlowQueries()}. Each execution is also counted
+ * against the {@link RequestQueries} of the current request.
+ */
+@Component
+public class QueryTracer {
+
+    private static final Logger slowQueryLogger = LoggerFactory.getLogger("com.examly.springapp.jdbc.SlowQueryLog");
+
+    public static final int RECENT_SLOW_QUERIES = 100;
+    // Bounds on memory if statements are built with inlined literals despite fingerprinting
+    private static final int MAX_FINGERPRINTS = 2_000;
+    private static final int MAX_CACHED_STATEMENTS = 10_000;
+    private static final int MAX_ORIGINS = 64;
+    private static final String OTHER = "(other)";
+
+    private final long slowQueryNanos;
+    private final long logIntervalNanos;
+    private final ConcurrentHashMap<String, String> fingerprints = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, FingerprintStats> stats = new ConcurrentHashMap<>();
+    private final ArrayDeque<SlowQuery> recentSlowQueries = new ArrayDeque<>();
+
+    public QueryTracer(@Value("${query-tracing.slow-query-millis:200}") long slowQueryMillis,
+                       @Value("${query-tracing.slow-query-log-interval-seconds:10}") long logIntervalSeconds) {
+        this.slowQueryNanos = slowQueryMillis * 1_000_000;
+        this.logIntervalNanos = logIntervalSeconds * 1_000_000_000;
+    }
+
+    /**
+     * Stats of the statement's fingerprint, resolved once per statement so that executing it again
+     * costs no normalization.
+     */
+    public FingerprintStats statsFor(String sql) {
+        String fingerprint = fingerprints.get(sql);
+        if (fingerprint == null) {
+            fingerprint = SqlFingerprint.of(sql);
+            if (fingerprints.size() < MAX_CACHED_STATEMENTS) {
+                fingerprints.put(sql, fingerprint);
+            }
+        }
+        FingerprintStats existing = stats.get(fingerprint);
+        if (existing != null) {
+            return existing;
+        }
+        String key = stats.size() < MAX_FINGERPRINTS ? fingerprint : OTHER;
+        return stats.computeIfAbsent(key, FingerprintStats::new);
+    }
+
+    public void recordExecution(FingerprintStats fingerprintStats, String sql, long nanos, long rows, boolean failed) {
+        String origin = QueryOrigin.current();
+        fingerprintStats.calls.increment();
+        fingerprintStats.totalNanos.add(nanos);
+        if (rows > 0) {
+            fingerprintStats.rows.add(rows);
+        }
+        if (failed) {
+            fingerprintStats.errors.increment();
+        }
+        long max = fingerprintStats.maxNanos.get();
+        while (nanos > max && !fingerprintStats.maxNanos.compareAndSet(max, nanos)) {
+            max = fingerprintStats.maxNanos.get();
+        }
+        LongAdder originCalls = fingerprintStats.origins.get(origin);
+        if (originCalls == null) {
+            originCalls = fingerprintStats.origins.computeIfAbsent(
+                    fingerprintStats.origins.size() < MAX_ORIGINS ? origin : OTHER, key -> new LongAdder());
+        }
+        originCalls.increment();
+        if (nanos >= slowQueryNanos) {
+            slowQuery(fingerprintStats, sql, origin, nanos);
+        }
+        RequestQueries.record(fingerprintStats.fingerprint);
+    }
+
+    private void slowQuery(FingerprintStats fingerprintStats, String sql, String origin, long nanos) {
+        long now = System.nanoTime();
+        long lastLogged = fingerprintStats.lastLoggedNanos.get();
+        if (lastLogged != 0 && now - lastLogged < logIntervalNanos
+                || !fingerprintStats.lastLoggedNanos.compareAndSet(lastLogged, now)) {
+            fingerprintStats.skippedSlowQueries.increment();
+            return;
+        }
+        long skipped = fingerprintStats.skippedSlowQueries.sumThenReset();
+        SlowQuery slowQuery = new SlowQuery(LocalDateTime.now(), origin, sql, nanos / 1e6, skipped);
+        slowQueryLogger.warn("{} ms in {} ({} more slow since last logged): {}",
+                nanos / 1_000_000, origin, skipped, sql);
+        synchronized (recentSlowQueries) {
+            if (recentSlowQueries.size() == RECENT_SLOW_QUERIES) {
+                recentSlowQueries.removeFirst();
+            }
+            recentSlowQueries.addLast(slowQuery);
+        }
+    }
+
+    /**
+     * Every fingerprint executed since the last reset, by total time spent, highest first.
+     */
+    public List<QueryStats> snapshot() {
+        List<QueryStats> snapshot = new ArrayList<>();
+        for (FingerprintStats fingerprintStats : stats.values()) {
+            long calls = fingerprintStats.calls.sum();
+            if (calls == 0) {
+                continue;
+            }
+            Map<String, Long> origins = new TreeMap<>();
+            fingerprintStats.origins.forEach((origin, count) -> {
+                long sum = count.sum();
+                if (sum > 0) {
+                    origins.put(origin, sum);
+                }
+            });
+            long totalNanos = fingerprintStats.totalNanos.sum();
+            snapshot.add(new QueryStats(fingerprintStats.fingerprint, calls, fingerprintStats.errors.sum(),
+                    fingerprintStats.rows.sum(), totalNanos / 1e6, totalNanos / 1e6 / calls,
+                    fingerprintStats.maxNanos.get() / 1e6, origins));
+        }
+        snapshot.sort((a, b) -> Double.compare(b.totalMillis(), a.totalMillis()));
+        return snapshot;
+    }
+
+    /**
+     * The most recently logged slow statements, newest first.
+     */
+    public List<SlowQuery> recentSlowQueries() {
+        synchronized (recentSlowQueries) {
+            List<SlowQuery> recent = new ArrayList<>(recentSlowQueries);
+            Collections.reverse(recent);
+            return recent;
+        }
+    }
+
+    public void reset() {
+        stats.values().forEach(FingerprintStats::reset);
+        synchronized (recentSlowQueries) {
+            recentSlowQueries.clear();
+        }
+    }
+
+    public static final class FingerprintStats {
+
+        private final String fingerprint;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final ConcurrentHashMap<String, LongAdder> origins = new ConcurrentHashMap<>();
+        private final AtomicLong lastLoggedNanos = new AtomicLong();
+        private final LongAdder skippedSlowQueries = new LongAdder();
+
+        private FingerprintStats(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * Rows read from a result set, which are only known after the statement has been executed.
+         */
+        public void addRows(long count) {
+            rows.add(count);
+        }
+
+        private void reset() {
+            calls.reset();
+            totalNanos.reset();
+            rows.reset();
+            errors.reset();
+            maxNanos.set(0);
+            origins.values().forEach(LongAdder::reset);
+            lastLoggedNanos.set(0);
+            skippedSlowQueries.reset();
+        }
+    }
+}
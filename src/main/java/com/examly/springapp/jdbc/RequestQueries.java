@@ -0,0 +1,113 @@
+package com.examly.springapp.jdbc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL statements run so far by the request on the current thread, counted per fingerprint by
+ * {@link QueryTracer}. Started and ended by {@link QueryBudgetInterceptor}; when it was started to
+ * fail fast, the statement that breaks the budget or the repeat limit throws
+ * {@link QueryBudgetExceededException}.
+ */
+public final class RequestQueries {
+
+    private static final ThreadLocal<RequestQueries> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final int budget;
+    private final int maxRepeats;
+    private final boolean failFast;
+    private final Map<String, int[]> byFingerprint = new HashMap<>();
+    private int statements;
+    private boolean failed;
+
+    private RequestQueries(String endpoint, int budget, int maxRepeats, boolean failFast) {
+        this.endpoint = endpoint;
+        this.budget = budget;
+        this.maxRepeats = maxRepeats;
+        this.failFast = failFast;
+    }
+
+    /**
+     * Starts counting for the current thread; a negative budget leaves the total unchecked.
+     */
+    public static RequestQueries begin(String endpoint, int budget, int maxRepeats, boolean failFast) {
+        RequestQueries queries = new RequestQueries(endpoint, budget, maxRepeats, failFast);
+        CURRENT.set(queries);
+        return queries;
+    }
+
+    public static RequestQueries current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static void record(String fingerprint) {
+        RequestQueries queries = CURRENT.get();
+        if (queries != null) {
+            queries.add(fingerprint);
+        }
+    }
+
+    private void add(String fingerprint) {
+        statements++;
+        int repeats = ++byFingerprint.computeIfAbsent(fingerprint, key -> new int[1])[0];
+        if (failFast && !failed && (budget >= 0 && statements > budget || repeats > maxRepeats)) {
+            failed = true;
+            throw new QueryBudgetExceededException(violation());
+        }
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public int budget() {
+        return budget;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    /**
+     * Fingerprints run more than the repeat limit, with how often each ran.
+     */
+    public Map<String, Integer> repeated() {
+        Map<String, Integer> repeated = new HashMap<>();
+        byFingerprint.forEach((fingerprint, count) -> {
+            if (count[0] > maxRepeats) {
+                repeated.put(fingerprint, count[0]);
+            }
+        });
+        return repeated;
+    }
+
+    public boolean withinBudget() {
+        return (budget < 0 || statements <= budget) && repeated().isEmpty();
+    }
+
+    /**
+     * Describes how the request broke its budget, or null if it did not.
+     */
+    public String violation() {
+        Map<String, Integer> repeated = repeated();
+        boolean overBudget = budget >= 0 && statements > budget;
+        if (!overBudget && repeated.isEmpty()) {
+            return null;
+        }
+        List<String> parts = new ArrayList<>();
+        if (overBudget) {
+            parts.add(endpoint + " ran " + statements + " statements, over its budget of " + budget);
+        } else {
+            parts.add(endpoint + " ran " + statements + " statements");
+        }
+        repeated.forEach((fingerprint, count) -> parts.add(count + " x " + fingerprint));
+        return String.join("; ", parts);
+    }
+}
@@ -0,0 +1,10 @@
+package com.examly.springapp.jdbc;
+
+import java.time.LocalDateTime;
+
+/**
+ * One logged slow statement; {@code skipped} counts slow executions of the same fingerprint that
+ * were not logged since the previous line.
+ */
+public record SlowQuery(LocalDateTime at, String origin, String sql, double millis, long skipped) {
+}
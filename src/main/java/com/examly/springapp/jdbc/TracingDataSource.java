@@ -0,0 +1,166 @@
+package com.examly.springapp.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+
+/**
+ * Wraps every connection of the target pool so that each statement execution is timed and reported
+ * to the {@link QueryTracer}, together with the rows it updated or the rows read from its result set.
+ */
+public class TracingDataSource extends DelegatingDataSource {
+
+    private final QueryTracer queryTracer;
+
+    public TracingDataSource(DataSource targetDataSource, QueryTracer queryTracer) {
+        super(targetDataSource);
+        this.queryTracer = queryTracer;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    // Proxies are equal only to themselves, as JDBC resources kept in hash-based registries expect
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = TracingDataSource.invoke(proxy, connection, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> proxy(PreparedStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+                case "prepareCall" -> proxy(CallableStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, null));
+                default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private final QueryTracer.FingerprintStats preparedStats;
+
+        private StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.preparedStats = preparedSql == null ? null : queryTracer.statsFor(preparedSql);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                return TracingDataSource.invoke(proxy, statement, method, args);
+            }
+            // Plain statements carry their SQL in the execute call
+            boolean inline = args != null && args.length > 0 && args[0] instanceof String;
+            String sql = inline ? (String) args[0] : preparedSql;
+            if (sql == null) {
+                return TracingDataSource.invoke(proxy, statement, method, args);
+            }
+            QueryTracer.FingerprintStats stats = inline ? queryTracer.statsFor(sql) : preparedStats;
+            long started = System.nanoTime();
+            Object result;
+            try {
+                result = TracingDataSource.invoke(proxy, statement, method, args);
+            } catch (Throwable e) {
+                queryTracer.recordExecution(stats, sql, System.nanoTime() - started, 0, true);
+                throw e;
+            }
+            long elapsed = System.nanoTime() - started;
+            long rows = 0;
+            if (result instanceof Integer updated) {
+                rows = Math.max(updated, 0);
+            } else if (result instanceof Long updated) {
+                rows = Math.max(updated, 0);
+            } else if (result instanceof int[] batch) {
+                for (int updated : batch) {
+                    rows += Math.max(updated, 0);
+                }
+            } else if (result instanceof long[] batch) {
+                for (long updated : batch) {
+                    rows += Math.max(updated, 0);
+                }
+            } else if (result instanceof ResultSet resultSet) {
+                result = proxy(ResultSet.class, new ResultSetHandler(resultSet, stats));
+            }
+            queryTracer.recordExecution(stats, sql, elapsed, rows, false);
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet resultSet;
+        private final QueryTracer.FingerprintStats stats;
+        private long rows;
+        private boolean reported;
+
+        private ResultSetHandler(ResultSet resultSet, QueryTracer.FingerprintStats stats) {
+            this.resultSet = resultSet;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("next")) {
+                boolean hasRow = (Boolean) TracingDataSource.invoke(proxy, resultSet, method, args);
+                if (hasRow) {
+                    rows++;
+                } else {
+                    report();
+                }
+                return hasRow;
+            }
+            if (name.equals("close")) {
+                report();
+            }
+            return TracingDataSource.invoke(proxy, resultSet, method, args);
+        }
+
+        private void report() {
+            if (!reported) {
+                reported = true;
+                stats.addRows(rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.examly.springapp.jdbc;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts a {@link TracingDataSource} in front of every {@link DataSource} bean, unless
+ * {@code query-tracing.enabled} is false.
+ */
+@Component
+@ConditionalOnProperty(name = "query-tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingDataSourcePostProcessor implements BeanPostProcessor {
+
+    // Resolved lazily so that the tracer is not created as early as post-processors are
+    private final ObjectProvider<QueryTracer> queryTracer;
+
+    public TracingDataSourcePostProcessor(ObjectProvider<QueryTracer> queryTracer) {
+        this.queryTracer = queryTracer;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+            return new TracingDataSource(dataSource, queryTracer.getObject());
+        }
+        return bean;
+    }
+}
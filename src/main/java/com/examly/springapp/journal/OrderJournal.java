@@ -0,0 +1,350 @@
+package com.examly.springapp.journal;
+
+import com.examly.springapp.entity.OrderStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of order lifecycle changes, kept in memory-mapped segment files of
+ * {@code segmentBytes} each. Every record has the same {@link #RECORD_BYTES} layout:
+ * <pre>
+ *  0 int   CRC32C of bytes 4..63
+ *  4 byte  record type
+ *  5 byte  order status
+ *  6 short unused
+ *  8 long  sequence, starting at 1
+ * 16 long  order ID
+ * 24 long  restaurant ID
+ * 32 long  user ID
+ * 40 long  time of the change, epoch milliseconds
+ * 48 long  total amount in cents
+ * 56 int   number of order lines
+ * 60 int   unused
+ * </pre>
+ * The CRC is written last, so a record torn by a crash fails its check and the journal is cut
+ * back to the last good record when it is reopened. Appends return once their record is on disk;
+ * concurrent appenders share one flush, with the first waiter flushing everything written so far.
+ * Segments are named after their first sequence; a full segment is sealed and a new one started.
+ * {@link #compact} replaces old sealed segments with one holding the latest record of each order.
+ */
+@Component
+public class OrderJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderJournal.class);
+
+    public static final int RECORD_BYTES = 64;
+    private static final String SUFFIX = ".journal";
+    private static final RecordType[] TYPES = RecordType.values();
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    public enum RecordType {
+        CREATED, ITEMS_UPDATED, STATUS_CHANGED, DELETED
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final CRC32C writeCrc = new CRC32C();
+    // Serialises replays and compactions, which both read sealed segments
+    private final Object maintenanceLock = new Object();
+    private final Object flushLock = new Object();
+
+    // Guarded by this
+    private final List<Path> sealed = new ArrayList<>();
+    private Path activePath;
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private long activeFirstSequence;
+    private int position;
+    private int flushedPosition;
+    private long lastSequence;
+
+    private volatile long durableSequence;
+
+    public OrderJournal(@Value("${order-journal.directory:order-journal}") String directory,
+                        @Value("${order-journal.segment-bytes:67108864}") int segmentBytes) throws IOException {
+        if (segmentBytes < RECORD_BYTES) {
+            throw new IllegalArgumentException("Error: segment must hold at least one record");
+        }
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_BYTES;
+        open();
+    }
+
+    /**
+     * Appends a record and returns its sequence once it is on disk, or -1 if it could not be written.
+     */
+    public long append(RecordType type, long orderId, long restaurantId, long userId, OrderStatus status,
+                       LocalDateTime at, double totalAmount, int itemCount) {
+        long sequence;
+        synchronized (this) {
+            try {
+                if (position + RECORD_BYTES > active.capacity()) {
+                    roll();
+                }
+            } catch (IOException | UncheckedIOException e) {
+                logger.error("Could not start a new journal segment after sequence {}", lastSequence, e);
+                return -1;
+            }
+            sequence = ++lastSequence;
+            int p = position;
+            active.put(p + 4, (byte) type.ordinal());
+            active.put(p + 5, (byte) status.ordinal());
+            active.putShort(p + 6, (short) 0);
+            active.putLong(p + 8, sequence);
+            active.putLong(p + 16, orderId);
+            active.putLong(p + 24, restaurantId);
+            active.putLong(p + 32, userId);
+            active.putLong(p + 40, at.toInstant(ZoneOffset.UTC).toEpochMilli());
+            active.putLong(p + 48, Math.round(totalAmount * 100));
+            active.putInt(p + 56, itemCount);
+            active.putInt(p + 60, 0);
+            active.putInt(p, crc(writeCrc, active, p));
+            position = p + RECORD_BYTES;
+        }
+        awaitDurable(sequence);
+        return sequence;
+    }
+
+    public long lastSequence() {
+        synchronized (this) {
+            return lastSequence;
+        }
+    }
+
+    public int segmentCount() {
+        synchronized (this) {
+            return sealed.size() + 1;
+        }
+    }
+
+    /**
+     * Passes every record with a sequence above {@code afterSequence} to {@code consumer}, oldest
+     * first, up to the last record appended when the replay started. Returns that record's sequence.
+     */
+    public long replay(long afterSequence, Consumer<OrderJournalRecord> consumer) throws IOException {
+        synchronized (maintenanceLock) {
+            List<Path> segments;
+            long end;
+            synchronized (this) {
+                segments = new ArrayList<>(sealed);
+                segments.add(activePath);
+                end = lastSequence;
+            }
+            CRC32C crc = new CRC32C();
+            long previous = afterSequence;
+            for (Path segment : segments) {
+                ByteBuffer buffer = mapReadOnly(segment);
+                for (int p = 0; p + RECORD_BYTES <= buffer.capacity(); p += RECORD_BYTES) {
+                    long sequence = buffer.getLong(p + 8);
+                    if (sequence == 0 || sequence > end || buffer.getInt(p) != crc(crc, buffer, p)) {
+                        break;
+                    }
+                    // Records a crash left behind in an already compacted range are skipped
+                    if (sequence > previous) {
+                        consumer.accept(decode(buffer, p));
+                        previous = sequence;
+                    }
+                }
+            }
+            return end;
+        }
+    }
+
+    /**
+     * Merges the oldest sealed segments whose records are all older than {@code before} into one
+     * segment holding only the latest record of each order, and returns how many segments it merged.
+     */
+    public int compact(LocalDateTime before) throws IOException {
+        synchronized (maintenanceLock) {
+            List<Path> candidates;
+            synchronized (this) {
+                candidates = new ArrayList<>(sealed);
+            }
+            long beforeMillis = before.toInstant(ZoneOffset.UTC).toEpochMilli();
+            CRC32C crc = new CRC32C();
+            Map<Long, byte[]> latest = new HashMap<>();
+            List<Path> merged = new ArrayList<>();
+            for (Path segment : candidates) {
+                ByteBuffer buffer = mapReadOnly(segment);
+                Map<Long, byte[]> records = new HashMap<>();
+                boolean old = true;
+                for (int p = 0; p + RECORD_BYTES <= buffer.capacity() && old; p += RECORD_BYTES) {
+                    if (buffer.getLong(p + 8) == 0 || buffer.getInt(p) != crc(crc, buffer, p)) {
+                        break;
+                    }
+                    old = buffer.getLong(p + 40) < beforeMillis;
+                    byte[] record = new byte[RECORD_BYTES];
+                    buffer.get(p, record);
+                    records.put(buffer.getLong(p + 16), record);
+                }
+                if (!old) {
+                    break;
+                }
+                latest.putAll(records);
+                merged.add(segment);
+            }
+            // A single segment is only worth rewriting if it holds several records of some order
+            if (merged.isEmpty() || merged.size() == 1 && latest.size() * RECORD_BYTES == Files.size(merged.get(0))) {
+                return 0;
+            }
+
+            List<byte[]> kept = new ArrayList<>(latest.values());
+            kept.sort(Comparator.comparingLong(record -> ByteBuffer.wrap(record).getLong(8)));
+            Path target = merged.get(0);
+            Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer out = ByteBuffer.allocate(kept.size() * RECORD_BYTES);
+                kept.forEach(out::put);
+                out.flip();
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                sealed.removeAll(merged.subList(1, merged.size()));
+            }
+            for (Path segment : merged.subList(1, merged.size())) {
+                Files.delete(segment);
+            }
+            logger.info("Compacted {} journal segments into {} records", merged.size(), kept.size());
+            return merged.size();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (this) {
+            active.force();
+            activeChannel.close();
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (flushLock) {
+            // Whoever held the lock before may have flushed this record already
+            if (durableSequence >= sequence) {
+                return;
+            }
+            MappedByteBuffer buffer;
+            int from;
+            int to;
+            long target;
+            synchronized (this) {
+                buffer = active;
+                from = flushedPosition;
+                to = position;
+                target = lastSequence;
+                flushedPosition = to;
+            }
+            buffer.force(from, to - from);
+            durableSequence = target;
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        if (segments.isEmpty()) {
+            openActive(1);
+            return;
+        }
+        sealed.addAll(segments.subList(0, segments.size() - 1));
+        Path last = segments.get(segments.size() - 1);
+        String name = last.getFileName().toString();
+        openActive(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+        recover();
+    }
+
+    // Finds the end of the active segment and clears anything a crash left after it
+    private void recover() {
+        CRC32C crc = new CRC32C();
+        int p = 0;
+        while (p + RECORD_BYTES <= active.capacity()
+                && active.getLong(p + 8) == activeFirstSequence + p / RECORD_BYTES
+                && active.getInt(p) == crc(crc, active, p)) {
+            p += RECORD_BYTES;
+        }
+        position = p;
+        flushedPosition = p;
+        lastSequence = activeFirstSequence + p / RECORD_BYTES - 1;
+        durableSequence = lastSequence;
+        int cleared = 0;
+        for (int q = p; q + RECORD_BYTES <= active.capacity() && active.getLong(q + 8) != 0; q += RECORD_BYTES) {
+            active.put(q, new byte[RECORD_BYTES]);
+            cleared++;
+        }
+        if (cleared > 0) {
+            active.force();
+            logger.warn("Cleared {} torn records after sequence {} in {}", cleared, lastSequence, activePath);
+        }
+    }
+
+    private void roll() throws IOException {
+        active.force(flushedPosition, position - flushedPosition);
+        activeChannel.close();
+        sealed.add(activePath);
+        openActive(lastSequence + 1);
+    }
+
+    private void openActive(long firstSequence) throws IOException {
+        activePath = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        activeChannel = FileChannel.open(activePath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(activeChannel.size(), segmentBytes));
+        activeFirstSequence = firstSequence;
+        position = 0;
+        flushedPosition = 0;
+        lastSequence = firstSequence - 1;
+    }
+
+    private static ByteBuffer mapReadOnly(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static int crc(CRC32C crc, ByteBuffer buffer, int p) {
+        crc.reset();
+        crc.update(buffer.slice(p + 4, RECORD_BYTES - 4));
+        return (int) crc.getValue();
+    }
+
+    private static OrderJournalRecord decode(ByteBuffer buffer, int p) {
+        return new OrderJournalRecord(
+                buffer.getLong(p + 8),
+                TYPES[buffer.get(p + 4)],
+                buffer.getLong(p + 16),
+                buffer.getLong(p + 24),
+                buffer.getLong(p + 32),
+                STATUSES[buffer.get(p + 5)],
+                LocalDateTime.ofEpochSecond(Math.floorDiv(buffer.getLong(p + 40), 1000),
+                        (int) Math.floorMod(buffer.getLong(p + 40), 1000) * 1_000_000, ZoneOffset.UTC),
+                buffer.getLong(p + 48) / 100.0,
+                buffer.getInt(p + 56));
+    }
+}
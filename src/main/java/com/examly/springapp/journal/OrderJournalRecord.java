@@ -0,0 +1,14 @@
+package com.examly.springapp.journal;
+
+import com.examly.springapp.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * One order lifecycle change as stored in the {@link OrderJournal}. {@code status},
+ * {@code totalAmount} and {@code itemCount} describe the order after the change.
+ */
+public record OrderJournalRecord(long sequence, OrderJournal.RecordType type, long orderId, long restaurantId,
+                                 long userId, OrderStatus status, LocalDateTime at, double totalAmount,
+                                 int itemCount) {
+}
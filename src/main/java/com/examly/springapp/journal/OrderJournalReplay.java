@@ -0,0 +1,103 @@
+package com.examly.springapp.journal;
+
+import com.examly.springapp.analytics.DeliveryTimeEstimator;
+import com.examly.springapp.analytics.OrderVolumeMetrics;
+import com.examly.springapp.entity.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rebuilds the in-memory views that have no database backfill, {@link OrderVolumeMetrics} and
+ * {@link DeliveryTimeEstimator}, from the {@link OrderJournal} at startup, then compacts journal
+ * segments older than {@link #RETENTION_DAYS} days. It runs once every bean exists but before the
+ * web server starts, so no live order can be counted twice.
+ */
+@Component
+public class OrderJournalReplay implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderJournalReplay.class);
+
+    public static final int RETENTION_DAYS = 7;
+    private static final int STAGES = OrderStatus.DELIVERED.ordinal();
+
+    private final OrderJournal orderJournal;
+    private final OrderVolumeMetrics orderVolumeMetrics;
+    private final DeliveryTimeEstimator deliveryTimeEstimator;
+
+    public OrderJournalReplay(OrderJournal orderJournal, OrderVolumeMetrics orderVolumeMetrics,
+                              DeliveryTimeEstimator deliveryTimeEstimator) {
+        this.orderJournal = orderJournal;
+        this.orderVolumeMetrics = orderVolumeMetrics;
+        this.deliveryTimeEstimator = deliveryTimeEstimator;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            long records = replay(now);
+            int compacted = orderJournal.compact(now.minusDays(RETENTION_DAYS));
+            logger.info("Order journal replayed {} records and compacted {} segments in {} ms",
+                    records, compacted, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long replay(LocalDateTime now) throws IOException {
+        LocalDateTime metricsSince = now.minusMinutes(OrderVolumeMetrics.MINUTES);
+        // When each order still in progress entered each status, indexed by status ordinal
+        Map<Long, LocalDateTime[]> inProgress = new HashMap<>();
+        long[] records = new long[1];
+        orderJournal.replay(0, record -> {
+            records[0]++;
+            switch (record.type()) {
+                case CREATED -> {
+                    LocalDateTime[] enteredAt = new LocalDateTime[STAGES];
+                    enteredAt[OrderStatus.PENDING.ordinal()] = record.at();
+                    inProgress.put(record.orderId(), enteredAt);
+                    if (!record.at().isBefore(metricsSince)) {
+                        orderVolumeMetrics.recordOrder(record.restaurantId(), record.at(), record.totalAmount());
+                    }
+                }
+                case STATUS_CHANGED -> statusChanged(record, inProgress, metricsSince);
+                case DELETED -> inProgress.remove(record.orderId());
+                case ITEMS_UPDATED -> {
+                }
+            }
+        });
+        return records[0];
+    }
+
+    private void statusChanged(OrderJournalRecord record, Map<Long, LocalDateTime[]> inProgress,
+                               LocalDateTime metricsSince) {
+        OrderStatus status = record.status();
+        if (status == OrderStatus.CANCELLED) {
+            inProgress.remove(record.orderId());
+            if (!record.at().isBefore(metricsSince)) {
+                orderVolumeMetrics.recordCancellation(record.restaurantId(), record.at());
+            }
+            return;
+        }
+        // Orders compacted down to their latest record have no history left to learn from
+        LocalDateTime[] enteredAt = inProgress.get(record.orderId());
+        if (enteredAt == null) {
+            return;
+        }
+        if (status == OrderStatus.DELIVERED) {
+            inProgress.remove(record.orderId());
+            deliveryTimeEstimator.recordDelivery(record.restaurantId(), enteredAt, record.at());
+        } else if (enteredAt[status.ordinal()] == null) {
+            enteredAt[status.ordinal()] = record.at();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.examly.springapp.outbox;
+
+import com.examly.springapp.entity.OrderEvent;
+
+/**
+ * Receives order events from the {@link OrderEventRelay}, outside the transaction that wrote them.
+ * Delivery is at least once: an event is delivered again if any handler throws or the application
+ * stops before the event is cleared, so handlers must be idempotent. Events of one order arrive in
+ * the order they were written.
+ */
+public interface OrderEventHandler {
+
+    void handle(OrderEvent event) throws Exception;
+}
@@ -0,0 +1,158 @@
+package com.examly.springapp.outbox;
+
+import com.examly.springapp.entity.OrderEvent;
+import com.examly.springapp.repository.OrderEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drains the order event outbox on a background thread and hands every event to the registered
+ * {@link OrderEventHandler}s. Events are read oldest first in batches of {@link #BATCH_SIZE} and
+ * cleared with one delete per batch. An event that fails is retried with exponential backoff, and
+ * later events of the same order wait for it; after {@link #MAX_ATTEMPTS} it is marked failed and
+ * skipped. The relay is woken when an event is committed and otherwise polls every
+ * {@link #POLL_INTERVAL_MILLIS} milliseconds.
+ */
+@Component
+public class OrderEventRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventRelay.class);
+
+    public static final int BATCH_SIZE = 500;
+    public static final int MAX_ATTEMPTS = 10;
+    public static final long POLL_INTERVAL_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    private final OrderEventRepository orderEventRepository;
+    private final ObjectProvider<OrderEventHandler> handlerBeans;
+    private final List<OrderEventHandler> handlers = new CopyOnWriteArrayList<>();
+    private final Object drainLock = new Object();
+
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    // Handler beans are looked up on start, so they may depend on the services that write events
+    public OrderEventRelay(OrderEventRepository orderEventRepository, ObjectProvider<OrderEventHandler> handlerBeans) {
+        this.orderEventRepository = orderEventRepository;
+        this.handlerBeans = handlerBeans;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        handlerBeans.orderedStream().forEach(handlers::add);
+        running = true;
+        worker = new Thread(this::run, "order-event-relay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread current;
+        synchronized (this) {
+            current = worker;
+            running = false;
+            worker = null;
+        }
+        if (current != null) {
+            LockSupport.unpark(current);
+            current.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public void addHandler(OrderEventHandler handler) {
+        handlers.add(handler);
+    }
+
+    public void removeHandler(OrderEventHandler handler) {
+        handlers.remove(handler);
+    }
+
+    public void wakeUp() {
+        Thread current = worker;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    public int drain() {
+        return drain(LocalDateTime.now());
+    }
+
+    /**
+     * Delivers one batch of pending events that are due at {@code now} and returns how many events
+     * it attempted, successfully or not.
+     */
+    public int drain(LocalDateTime now) {
+        // One batch at a time, so events of an order are never delivered concurrently
+        synchronized (drainLock) {
+            // Events waiting behind a backoff are left out, so they cannot fill the batch and starve due ones
+            List<OrderEvent> batch = orderEventRepository.findDue(now, PageRequest.of(0, BATCH_SIZE));
+            Set<Long> blockedOrders = new HashSet<>();
+            List<Long> delivered = new ArrayList<>(batch.size());
+            int attempted = 0;
+            for (OrderEvent event : batch) {
+                if (blockedOrders.contains(event.getOrderId())) {
+                    continue;
+                }
+                attempted++;
+                try {
+                    for (OrderEventHandler handler : handlers) {
+                        handler.handle(event);
+                    }
+                    delivered.add(event.getId());
+                } catch (Exception e) {
+                    blockedOrders.add(event.getOrderId());
+                    recordFailedAttempt(event, now, e);
+                }
+            }
+            if (!delivered.isEmpty()) {
+                orderEventRepository.deleteAllByIdInBatch(delivered);
+            }
+            return attempted;
+        }
+    }
+
+    private void recordFailedAttempt(OrderEvent event, LocalDateTime now, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        boolean failed = attempts >= MAX_ATTEMPTS;
+        long backoffSeconds = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 20));
+        orderEventRepository.recordFailedAttempt(event.getId(), now.plusSeconds(backoffSeconds), failed);
+        if (failed) {
+            logger.error("Giving up on {} after {} attempts", event, attempts, e);
+        } else {
+            logger.warn("Delivering {} failed, retrying in {} s", event, backoffSeconds, e);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            int attempted;
+            try {
+                attempted = drain();
+            } catch (RuntimeException e) {
+                logger.warn("Draining the order event outbox failed", e);
+                attempted = 0;
+            }
+            // Keep going while batches make progress, then wait for a wake-up or the next poll
+            if (attempted == 0 && running) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_MILLIS));
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.examly.springapp.outbox;
+
+import com.examly.springapp.entity.OrderEntity;
+import com.examly.springapp.entity.OrderEvent;
+import com.examly.springapp.entity.OrderEventType;
+import com.examly.springapp.repository.OrderEventRepository;
+import com.examly.springapp.util.TransactionHooks;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes order events into the outbox table as part of the caller's transaction, so an event
+ * exists exactly when the change it describes was committed.
+ */
+@Component
+public class OrderOutbox {
+
+    private final OrderEventRepository orderEventRepository;
+    private final OrderEventRelay orderEventRelay;
+
+    public OrderOutbox(OrderEventRepository orderEventRepository, OrderEventRelay orderEventRelay) {
+        this.orderEventRepository = orderEventRepository;
+        this.orderEventRelay = orderEventRelay;
+    }
+
+    public void append(OrderEntity order, OrderEventType type) {
+        orderEventRepository.save(new OrderEvent(order.getId(), order.getRestaurant().getId(),
+                order.getUser().getId(), type, order.getStatus()));
+        TransactionHooks.afterCommit(orderEventRelay::wakeUp);
+    }
+}
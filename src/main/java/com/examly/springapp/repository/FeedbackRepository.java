@@ -1,5 +1,26 @@
 package com.examly.springapp.repository;
 
-public class FeedbackRepository {
-    
+import com.examly.springapp.dto.UserRatings;
+import com.examly.springapp.entity.Feedback;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+
+public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
+
+    // Keyset page: newest first, strictly older than beforeId when given
+    @Query("SELECT f FROM Feedback f JOIN FETCH f.user WHERE f.restaurant.id = :restaurantId " +
+           "AND (:beforeId IS NULL OR f.id < :beforeId) ORDER BY f.id DESC")
+    List<Feedback> findPageByRestaurantId(@Param("restaurantId") Long restaurantId,
+                                          @Param("beforeId") Long beforeId,
+                                          Pageable pageable);
+
+    @Query("SELECT new com.examly.springapp.dto.UserRatings(f.restaurant.id, COUNT(f), SUM(f.rating), " +
+           "SUM(CASE WHEN f.rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN f.rating = 2 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN f.rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN f.rating = 4 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN f.rating = 5 THEN 1 ELSE 0 END)) " +
+           "FROM Feedback f WHERE f.user.id = :userId GROUP BY f.restaurant.id")
+    List<UserRatings> findRatingsByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,19 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.entity.MenuAvailabilityWindow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+
+public interface MenuAvailabilityWindowRepository extends JpaRepository<MenuAvailabilityWindow, Long> {
+
+    @Query("SELECT w FROM MenuAvailabilityWindow w WHERE w.restaurant.id = :restaurantId " +
+           "ORDER BY w.dayOfWeek, w.startTime")
+    List<MenuAvailabilityWindow> findByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    @Modifying
+    @Query("DELETE FROM MenuAvailabilityWindow w WHERE w.menuItem.id = :menuItemId")
+    int deleteByMenuItemId(@Param("menuItemId") Long menuItemId);
+}
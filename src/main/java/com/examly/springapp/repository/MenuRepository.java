@@ -11,16 +11,17 @@ import java.util.Optional;
 
 public interface MenuRepository extends JpaRepository<MenuItem, Long> {
 
+    // The optional filters of a restaurant's menu, shared with its sparse field query
+    String MENU_FILTERS = "(:category IS NULL OR m.category = :category) AND " +
+            "(:isVegetarian IS NULL OR m.isVegetarian = :isVegetarian) AND " +
+            "(:isVegan IS NULL OR m.isVegan = :isVegan) AND " +
+            "(:containsGluten IS NULL OR m.containsGluten = :containsGluten) AND " +
+            "(:isAvailable IS NULL OR m.isAvailable = :isAvailable)";
+
     @Query("SELECT m FROM MenuItem m WHERE m.restaurant.id = :restaurantId")
     Page<MenuItem> findByRestaurantId(@Param("restaurantId") Long restaurantId, Pageable pageable);
 
-    @Query("SELECT m FROM MenuItem m WHERE " +
-           "m.restaurant.id = :restaurantId AND " +
-           "(:category IS NULL OR m.category = :category) AND " +
-           "(:isVegetarian IS NULL OR m.isVegetarian = :isVegetarian) AND " +
-           "(:isVegan IS NULL OR m.isVegan = :isVegan) AND " +
-           "(:containsGluten IS NULL OR m.containsGluten = :containsGluten) AND " +
-           "(:isAvailable IS NULL OR m.isAvailable = :isAvailable)")
+    @Query("SELECT m FROM MenuItem m WHERE m.restaurant.id = :restaurantId AND " + MENU_FILTERS)
     Page<MenuItem> findByRestaurantIdWithFilters(
             @Param("restaurantId") Long restaurantId,
             @Param("category") String category,
@@ -36,4 +37,7 @@ public interface MenuRepository extends JpaRepository<MenuItem, Long> {
     boolean existsByNameAndRestaurantId(String name, Long restaurantId);
 
     Optional<MenuItem> findByNameAndRestaurantId(String name, Long restaurantId);
+
+    @Query("SELECT m FROM MenuItem m WHERE m.id > :afterId ORDER BY m.id")
+    List<MenuItem> findNextBatch(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.entity.OrderEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    // Pending events due at :now whose order has no earlier event still backing off. Oldest first, so
+    // events of one order come back in the order they were written
+    @Query("SELECT e FROM OrderEvent e WHERE e.failed = false " +
+           "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) " +
+           "AND NOT EXISTS (SELECT b.id FROM OrderEvent b WHERE b.orderId = e.orderId AND b.id < e.id " +
+           "AND b.failed = false AND b.nextAttemptAt > :now) ORDER BY e.id")
+    List<OrderEvent> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByFailedFalse();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.failed = :failed WHERE e.id = :id")
+    int recordFailedAttempt(@Param("id") Long id,
+                            @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                            @Param("failed") boolean failed);
+}
@@ -1,9 +1,42 @@
 package com.examly.springapp.repository;
 
+import com.examly.springapp.dto.DailyItemSales;
+import com.examly.springapp.dto.OrderLine;
+import com.examly.springapp.dto.OrderLineSale;
 import com.examly.springapp.entity.OrderItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-} 
\ No newline at end of file
+
+    @Query("SELECT new com.examly.springapp.dto.OrderLine(oi.order.id, oi.menuItem.id) FROM OrderItem oi " +
+           "WHERE oi.order.id > :afterOrderId AND oi.order.id <= :maxOrderId ORDER BY oi.order.id")
+    List<OrderLine> findLinesAfter(
+            @Param("afterOrderId") Long afterOrderId,
+            @Param("maxOrderId") Long maxOrderId,
+            Pageable pageable);
+
+    @Query("SELECT new com.examly.springapp.dto.OrderLineSale(oi.order.id, oi.menuItem.id, oi.quantity, oi.subtotal) " +
+           "FROM OrderItem oi WHERE oi.order.id IN :orderIds")
+    List<OrderLineSale> findSalesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("SELECT new com.examly.springapp.dto.DailyItemSales(o.restaurant.id, oi.menuItem.id, " +
+           "CAST(o.orderDate AS LocalDate), SUM(oi.quantity)) " +
+           "FROM OrderItem oi JOIN oi.order o " +
+           "WHERE o.restaurant.id > :afterRestaurantId AND o.restaurant.id <= :toRestaurantId " +
+           "AND o.orderDate >= :since AND o.id <= :maxOrderId " +
+           "GROUP BY o.restaurant.id, oi.menuItem.id, CAST(o.orderDate AS LocalDate)")
+    List<DailyItemSales> sumDailySales(
+            @Param("afterRestaurantId") Long afterRestaurantId,
+            @Param("toRestaurantId") Long toRestaurantId,
+            @Param("since") LocalDateTime since,
+            @Param("maxOrderId") Long maxOrderId);
+}
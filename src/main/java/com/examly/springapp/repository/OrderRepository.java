@@ -1,5 +1,7 @@
 package com.examly.springapp.repository;
 
+import com.examly.springapp.dto.OrderActivity;
+import com.examly.springapp.dto.TerminalOrder;
 import com.examly.springapp.entity.OrderEntity;
 import com.examly.springapp.entity.OrderStatus;
 import org.springframework.data.domain.Page;
@@ -16,15 +18,16 @@ import java.util.List;
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
 
+    // The optional filters of the order lists, shared with their sparse field queries
+    String ORDER_FILTERS = "(:status IS NULL OR o.status = :status) AND " +
+            "(:fromDate IS NULL OR o.orderDate >= :fromDate) AND " +
+            "(:toDate IS NULL OR o.orderDate <= :toDate)";
+
     Page<OrderEntity> findByUserId(Long userId, Pageable pageable);
     
     Page<OrderEntity> findByRestaurantId(Long restaurantId, Pageable pageable);
     
-    @Query("SELECT o FROM OrderEntity o WHERE " +
-           "o.restaurant.id = :restaurantId AND " +
-           "(:status IS NULL OR o.status = :status) AND " +
-           "(:fromDate IS NULL OR o.orderDate >= :fromDate) AND " +
-           "(:toDate IS NULL OR o.orderDate <= :toDate)")
+    @Query("SELECT o FROM OrderEntity o WHERE o.restaurant.id = :restaurantId AND " + ORDER_FILTERS)
     Page<OrderEntity> findRestaurantOrdersWithFilters(
             @Param("restaurantId") Long restaurantId,
             @Param("status") OrderStatus status,
@@ -32,11 +35,7 @@ public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
             @Param("toDate") LocalDateTime toDate,
             Pageable pageable);
             
-    @Query("SELECT o FROM OrderEntity o WHERE " +
-           "o.user.id = :userId AND " +
-           "(:status IS NULL OR o.status = :status) AND " +
-           "(:fromDate IS NULL OR o.orderDate >= :fromDate) AND " +
-           "(:toDate IS NULL OR o.orderDate <= :toDate)")
+    @Query("SELECT o FROM OrderEntity o WHERE o.user.id = :userId AND " + ORDER_FILTERS)
     Page<OrderEntity> findUserOrdersWithFilters(
             @Param("userId") Long userId,
             @Param("status") OrderStatus status,
@@ -57,4 +56,42 @@ public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     List<OrderEntity> findByUserIdOrderByOrderDateDesc(Long userId, PageRequest pageRequest);
     List<OrderEntity> findByRestaurantIdOrderByOrderDateDesc(Long restaurantId, PageRequest pageRequest);
     List<OrderEntity> findByStatus(OrderStatus status);
-}
\ No newline at end of file
+
+    @Query("SELECT COALESCE(MAX(o.id), 0) FROM OrderEntity o")
+    long findMaxId();
+
+    @Query("SELECT new com.examly.springapp.dto.OrderActivity(o.id, o.restaurant.id, o.orderDate) " +
+           "FROM OrderEntity o WHERE o.id > :afterId AND o.id <= :maxId AND o.orderDate >= :since ORDER BY o.id")
+    List<OrderActivity> findActivitySince(
+            @Param("afterId") Long afterId,
+            @Param("maxId") Long maxId,
+            @Param("since") LocalDateTime since,
+            Pageable pageable);
+
+    // Terminal orders delivered after the (afterTime, afterId) key and no later than the cutoff, in key
+    // order, so that every page is a range of idx_orders_actual_delivery_time_id
+    @Query("SELECT new com.examly.springapp.dto.TerminalOrder(o.id, o.restaurant.id, o.restaurant.cuisine, " +
+           "o.orderDate, o.status, o.totalAmount, o.actualDeliveryTime) FROM OrderEntity o " +
+           "WHERE o.status IN (com.examly.springapp.entity.OrderStatus.DELIVERED, " +
+           "com.examly.springapp.entity.OrderStatus.CANCELLED) AND o.actualDeliveryTime <= :cutoff " +
+           "AND (o.actualDeliveryTime > :afterTime OR (o.actualDeliveryTime = :afterTime AND o.id > :afterId)) " +
+           "ORDER BY o.actualDeliveryTime, o.id")
+    List<TerminalOrder> findDeliveredOrders(
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable);
+
+    // The same for orders cancelled without being delivered, over idx_orders_cancelled_at_id
+    @Query("SELECT new com.examly.springapp.dto.TerminalOrder(o.id, o.restaurant.id, o.restaurant.cuisine, " +
+           "o.orderDate, o.status, o.totalAmount, o.cancelledAt) FROM OrderEntity o " +
+           "WHERE o.status = com.examly.springapp.entity.OrderStatus.CANCELLED AND o.actualDeliveryTime IS NULL " +
+           "AND o.cancelledAt <= :cutoff " +
+           "AND (o.cancelledAt > :afterTime OR (o.cancelledAt = :afterTime AND o.id > :afterId)) " +
+           "ORDER BY o.cancelledAt, o.id")
+    List<TerminalOrder> findCancelledOrders(
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable);
+}
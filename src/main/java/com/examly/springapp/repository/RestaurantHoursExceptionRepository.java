@@ -0,0 +1,20 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.entity.RestaurantHoursException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RestaurantHoursExceptionRepository extends JpaRepository<RestaurantHoursException, Long> {
+
+    @Query("SELECT e FROM RestaurantHoursException e WHERE e.restaurant.id = :restaurantId ORDER BY e.date")
+    List<RestaurantHoursException> findByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    @Query("SELECT e FROM RestaurantHoursException e WHERE e.restaurant.id BETWEEN :fromId AND :toId " +
+           "AND e.date >= :fromDate")
+    List<RestaurantHoursException> findUpcomingByRestaurantIdBetween(@Param("fromId") Long fromId,
+                                                                      @Param("toId") Long toId,
+                                                                      @Param("fromDate") LocalDate fromDate);
+}
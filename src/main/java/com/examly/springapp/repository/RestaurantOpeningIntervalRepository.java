@@ -0,0 +1,17 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.entity.RestaurantOpeningInterval;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+
+public interface RestaurantOpeningIntervalRepository extends JpaRepository<RestaurantOpeningInterval, Long> {
+
+    @Query("SELECT i FROM RestaurantOpeningInterval i WHERE i.restaurant.id = :restaurantId " +
+           "ORDER BY i.dayOfWeek, i.openTime")
+    List<RestaurantOpeningInterval> findByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    @Query("SELECT i FROM RestaurantOpeningInterval i WHERE i.restaurant.id BETWEEN :fromId AND :toId")
+    List<RestaurantOpeningInterval> findByRestaurantIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
@@ -1,12 +1,15 @@
 package com.examly.springapp.repository;
 
+import com.examly.springapp.entity.RatingSummary;
 import com.examly.springapp.entity.Restaurant;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
+import java.util.Optional;
 
 public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
 
@@ -16,18 +19,6 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
            "CASE WHEN :sortBy = 'id' THEN r.id END")
     Page<Restaurant> findAllWithCustomSorting(@Param("sortBy") String sortBy, Pageable pageable);
 
-    @Query("SELECT r FROM Restaurant r WHERE " +
-           "LOWER(r.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(r.cuisine) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "ORDER BY " +
-           "CASE WHEN :sortBy = 'name' THEN r.name END, " +
-           "CASE WHEN :sortBy = 'cuisine' THEN r.cuisine END, " +
-           "CASE WHEN :sortBy = 'id' THEN r.id END")
-    Page<Restaurant> searchWithSorting(
-            @Param("searchTerm") String searchTerm,
-            @Param("sortBy") String sortBy,
-            Pageable pageable);
-
     @Query("SELECT r FROM Restaurant r WHERE " +
            "(:cuisine IS NULL OR r.cuisine = :cuisine) " +
            "ORDER BY " +
@@ -39,6 +30,49 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
             @Param("sortBy") String sortBy,
             Pageable pageable);
 
-    @Query("SELECT DISTINCT r.cuisine FROM Restaurant r")
-    List<String> findAllCuisineTypes();
-}
\ No newline at end of file
+    @Query("SELECT r FROM Restaurant r WHERE r.id > :afterId ORDER BY r.id")
+    List<Restaurant> findNextBatch(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Restaurant r SET r.menuVersion = r.menuVersion + 1 WHERE r.id = :restaurantId")
+    int incrementMenuVersion(@Param("restaurantId") Long restaurantId);
+
+    // averageRating is assigned first: MySQL evaluates SET left to right using already-updated values
+    @Modifying
+    @Query("UPDATE Restaurant r SET " +
+           "r.ratingSummary.averageRating = CASE WHEN r.ratingSummary.ratingCount + :delta = 0 THEN 0.0 " +
+           "ELSE (r.ratingSummary.ratingSum + :rating * :delta) * 1.0 / (r.ratingSummary.ratingCount + :delta) END, " +
+           "r.ratingSummary.ratingCount = r.ratingSummary.ratingCount + :delta, " +
+           "r.ratingSummary.ratingSum = r.ratingSummary.ratingSum + :rating * :delta, " +
+           "r.ratingSummary.oneStarCount = r.ratingSummary.oneStarCount + CASE WHEN :rating = 1 THEN :delta ELSE 0 END, " +
+           "r.ratingSummary.twoStarCount = r.ratingSummary.twoStarCount + CASE WHEN :rating = 2 THEN :delta ELSE 0 END, " +
+           "r.ratingSummary.threeStarCount = r.ratingSummary.threeStarCount + CASE WHEN :rating = 3 THEN :delta ELSE 0 END, " +
+           "r.ratingSummary.fourStarCount = r.ratingSummary.fourStarCount + CASE WHEN :rating = 4 THEN :delta ELSE 0 END, " +
+           "r.ratingSummary.fiveStarCount = r.ratingSummary.fiveStarCount + CASE WHEN :rating = 5 THEN :delta ELSE 0 END " +
+           "WHERE r.id = :restaurantId")
+    int applyRatingChange(@Param("restaurantId") Long restaurantId, @Param("rating") int rating, @Param("delta") int delta);
+
+    // Takes several ratings out at once; averageRating again comes first
+    @Modifying
+    @Query("UPDATE Restaurant r SET " +
+           "r.ratingSummary.averageRating = CASE WHEN r.ratingSummary.ratingCount - :count = 0 THEN 0.0 " +
+           "ELSE (r.ratingSummary.ratingSum - :sum) * 1.0 / (r.ratingSummary.ratingCount - :count) END, " +
+           "r.ratingSummary.ratingCount = r.ratingSummary.ratingCount - :count, " +
+           "r.ratingSummary.ratingSum = r.ratingSummary.ratingSum - :sum, " +
+           "r.ratingSummary.oneStarCount = r.ratingSummary.oneStarCount - :one, " +
+           "r.ratingSummary.twoStarCount = r.ratingSummary.twoStarCount - :two, " +
+           "r.ratingSummary.threeStarCount = r.ratingSummary.threeStarCount - :three, " +
+           "r.ratingSummary.fourStarCount = r.ratingSummary.fourStarCount - :four, " +
+           "r.ratingSummary.fiveStarCount = r.ratingSummary.fiveStarCount - :five " +
+           "WHERE r.id = :restaurantId")
+    int removeRatings(@Param("restaurantId") Long restaurantId, @Param("count") long count, @Param("sum") long sum,
+                      @Param("one") long one, @Param("two") long two, @Param("three") long three,
+                      @Param("four") long four, @Param("five") long five);
+
+    // Reads the row rather than the persistence context, so it sees applyRatingChange
+    @Query("SELECT r.ratingSummary FROM Restaurant r WHERE r.id = :restaurantId")
+    Optional<RatingSummary> findRatingSummary(@Param("restaurantId") Long restaurantId);
+
+    @Query("SELECT COALESCE(MAX(r.id), 0) FROM Restaurant r")
+    long findMaxId();
+}
@@ -0,0 +1,86 @@
+package com.examly.springapp.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Selects only the requested fields of a {@link SparseResource} into one map per row, so that a list
+ * that needs a few columns neither reads the others nor loads the associations of the entity. Null
+ * values are left out of the maps, as they are out of the full responses.
+ */
+@Repository
+public class SparseFieldRepository {
+
+    private final EntityManager entityManager;
+
+    public SparseFieldRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * A page of the rows matching the JPQL condition, which refers to the resource's alias, or of all
+     * rows when it is null. The total is counted only when the page does not tell it.
+     */
+    public Page<Map<String, Object>> findPage(SparseResource resource, List<String> fields, String condition,
+                                              Map<String, ?> parameters, Pageable pageable) {
+        String from = " FROM " + resource.entity() + " " + resource.alias() + (condition == null ? "" : " WHERE " + condition);
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                QueryUtils.applySorting("SELECT " + select(resource, fields) + from, pageable.getSort(), resource.alias()),
+                Tuple.class);
+        parameters.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> rows = query.getResultList().stream()
+                .map(tuple -> row(fields, tuple, 0))
+                .toList();
+        return PageableExecutionUtils.getPage(rows, pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(" + resource.alias() + ")" + from, Long.class);
+            parameters.forEach(count::setParameter);
+            return count.getSingleResult();
+        });
+    }
+
+    /**
+     * The rows with the given ids, in the order of the ids; ids without a row are skipped.
+     */
+    public List<Map<String, Object>> findAllInOrder(SparseResource resource, List<String> fields, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String id = resource.path("id");
+        TypedQuery<Tuple> query = entityManager.createQuery("SELECT " + id + ", " + select(resource, fields) +
+                " FROM " + resource.entity() + " " + resource.alias() + " WHERE " + id + " IN :ids", Tuple.class);
+        Map<Long, Map<String, Object>> rowsById = query.setParameter("ids", ids).getResultList().stream()
+                .collect(Collectors.toMap(tuple -> tuple.get(0, Long.class), tuple -> row(fields, tuple, 1)));
+        return ids.stream()
+                .map(rowsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static String select(SparseResource resource, List<String> fields) {
+        return fields.stream().map(resource::path).collect(Collectors.joining(", "));
+    }
+
+    private static Map<String, Object> row(List<String> fields, Tuple tuple, int offset) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            Object value = tuple.get(offset + i);
+            if (value != null) {
+                row.put(fields.get(i), value);
+            }
+        }
+        return row;
+    }
+}
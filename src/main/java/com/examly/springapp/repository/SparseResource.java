@@ -0,0 +1,70 @@
+package com.examly.springapp.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields a list endpoint returns when asked for with {@code fields=}: the properties of the full
+ * response that come straight from a column, each mapped to the JPQL path it is selected from.
+ * Collections and computed properties are not selectable, nor is a user's password.
+ */
+public enum SparseResource {
+
+    RESTAURANT("Restaurant", "r", "id", "name", "address", "cuisine", "phoneNumber", "openingHours", "latitude",
+            "longitude", "ratingSummary"),
+    MENU_ITEM("MenuItem", "m", "id", "name", "price", "description", "category", "available:isAvailable",
+            "vegetarian:isVegetarian", "vegan:isVegan", "containsGluten", "restaurant:restaurant.id", "imageUrl"),
+    ORDER("OrderEntity", "o", "id", "userId:user.id", "restaurantId:restaurant.id", "orderDate",
+            "estimatedDeliveryTime", "actualDeliveryTime", "confirmedAt", "preparingAt", "readyAt", "outForDeliveryAt",
+            "cancelledAt", "status", "totalAmount", "deliveryAddress", "paymentStatus", "specialInstructions",
+            "deliveryFee"),
+    USER("User", "u", "id", "username", "email");
+
+    private final String entity;
+    private final String alias;
+    private final Map<String, String> paths = new LinkedHashMap<>();
+
+    // Each field is its property name, or "field:property" where the two differ
+    SparseResource(String entity, String alias, String... fields) {
+        this.entity = entity;
+        this.alias = alias;
+        for (String field : fields) {
+            int separator = field.indexOf(':');
+            paths.put(separator < 0 ? field : field.substring(0, separator),
+                    alias + "." + (separator < 0 ? field : field.substring(separator + 1)));
+        }
+    }
+
+    public String entity() {
+        return entity;
+    }
+
+    public String alias() {
+        return alias;
+    }
+
+    public String path(String field) {
+        return paths.get(field);
+    }
+
+    /**
+     * The fields of a comma-separated {@code fields=} value, in the order given and without repeats.
+     */
+    public List<String> parse(String fields) {
+        List<String> selected = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!paths.containsKey(name)) {
+                throw new IllegalArgumentException("Error: unknown field '" + name + "'; choose from " +
+                        String.join(", ", paths.keySet()));
+            }
+            if (!selected.contains(name)) {
+                selected.add(name);
+            }
+        }
+        return Collections.unmodifiableList(selected);
+    }
+}
@@ -10,12 +10,14 @@ import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Shared with the sparse field query of the user search
+    String SEARCH_CONDITION = "LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))";
+
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
     
-    @Query("SELECT u FROM User u WHERE " +
-           "LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    @Query("SELECT u FROM User u WHERE " + SEARCH_CONDITION)
     Page<User> searchUsers(@Param("searchTerm") String searchTerm, Pageable pageable);
 
     @Query("SELECT u FROM User u ORDER BY " +
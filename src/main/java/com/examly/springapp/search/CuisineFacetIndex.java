@@ -0,0 +1,170 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.util.LongIntHashMap;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Live restaurant counts per cuisine. Each distinct cuisine gets a dense ordinal, so counting a
+ * result set is one hash lookup and one array increment per restaurant ID.
+ */
+@Component
+public class CuisineFacetIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private String[] values = new String[16];
+    private int[] counts = new int[16];
+    private LongIntHashMap ordinalByRestaurant = new LongIntHashMap();
+
+    private LongIntHashMap touchedDuringRebuild;
+
+    public record FacetCount(String value, long count) {
+    }
+
+    public void upsert(Restaurant restaurant) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.put(restaurant.getId(), 1);
+            }
+            index(restaurant.getId(), restaurant.getCuisine());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long restaurantId) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.put(restaurantId, 1);
+            }
+            int ordinal = ordinalByRestaurant.remove(restaurantId);
+            if (ordinal >= 0) {
+                counts[ordinal]--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            ordinalByRestaurant = new LongIntHashMap();
+            Arrays.fill(counts, 0);
+            touchedDuringRebuild = new LongIntHashMap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void load(List<Restaurant> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Restaurant restaurant : batch) {
+                if (touchedDuringRebuild == null || !touchedDuringRebuild.containsKey(restaurant.getId())) {
+                    index(restaurant.getId(), restaurant.getCuisine());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endRebuild() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cuisines that currently have at least one restaurant, in alphabetical order.
+     */
+    public List<String> values() {
+        lock.readLock().lock();
+        try {
+            List<String> live = new ArrayList<>();
+            for (int ordinal = 0; ordinal < ordinals.size(); ordinal++) {
+                if (counts[ordinal] > 0) {
+                    live.add(values[ordinal]);
+                }
+            }
+            live.sort(Comparator.naturalOrder());
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts over every restaurant, most common cuisine first.
+     */
+    public List<FacetCount> counts() {
+        lock.readLock().lock();
+        try {
+            return toFacets(counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts over the given result set in a single pass, most common cuisine first.
+     */
+    public List<FacetCount> counts(long[] restaurantIds) {
+        lock.readLock().lock();
+        try {
+            int[] matched = new int[ordinals.size()];
+            for (long restaurantId : restaurantIds) {
+                int ordinal = ordinalByRestaurant.get(restaurantId);
+                if (ordinal >= 0) {
+                    matched[ordinal]++;
+                }
+            }
+            return toFacets(matched);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<FacetCount> toFacets(int[] perOrdinal) {
+        List<FacetCount> facets = new ArrayList<>();
+        for (int ordinal = 0; ordinal < ordinals.size(); ordinal++) {
+            if (perOrdinal[ordinal] > 0) {
+                facets.add(new FacetCount(values[ordinal], perOrdinal[ordinal]));
+            }
+        }
+        facets.sort(Comparator.comparingLong(FacetCount::count).reversed().thenComparing(FacetCount::value));
+        return facets;
+    }
+
+    private void index(long restaurantId, String cuisine) {
+        int previous = ordinalByRestaurant.remove(restaurantId);
+        if (previous >= 0) {
+            counts[previous]--;
+        }
+        if (cuisine == null) {
+            return;
+        }
+        int ordinal = ordinals.computeIfAbsent(cuisine, value -> {
+            int next = ordinals.size();
+            if (next == values.length) {
+                values = Arrays.copyOf(values, next << 1);
+                counts = Arrays.copyOf(counts, next << 1);
+            }
+            values[next] = value;
+            return next;
+        });
+        counts[ordinal]++;
+        ordinalByRestaurant.put(restaurantId, ordinal);
+    }
+}
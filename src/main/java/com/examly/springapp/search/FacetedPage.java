@@ -0,0 +1,30 @@
+package com.examly.springapp.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page of results carrying the cuisine facet counts of the whole result set. Serializes like a
+ * regular {@link Page} with an extra {@code cuisineFacets} field.
+ */
+public class FacetedPage<T> extends PageImpl<T> {
+
+    private final List<CuisineFacetIndex.FacetCount> cuisineFacets;
+
+    public FacetedPage(List<T> content, Pageable pageable, long total,
+                       List<CuisineFacetIndex.FacetCount> cuisineFacets) {
+        super(content, pageable, total);
+        this.cuisineFacets = cuisineFacets;
+    }
+
+    public static <T> FacetedPage<T> of(Page<T> page, List<CuisineFacetIndex.FacetCount> cuisineFacets) {
+        return new FacetedPage<>(page.getContent(), page.getPageable(), page.getTotalElements(), cuisineFacets);
+    }
+
+    public List<CuisineFacetIndex.FacetCount> getCuisineFacets() {
+        return cuisineFacets;
+    }
+}
@@ -0,0 +1,75 @@
+package com.examly.springapp.search;
+
+/**
+ * Selects the first {@code k} of a set of ints under a primitive comparator, in order. A bounded
+ * max-heap keeps the best {@code k} seen so far, so a page of n matches costs O(n log k) and nothing
+ * is boxed.
+ */
+final class IntTopK {
+
+    interface IntComparator {
+        int compare(int left, int right);
+    }
+
+    private IntTopK() {
+    }
+
+    static int[] first(int[] values, int count, int k, IntComparator comparator) {
+        k = Math.min(k, count);
+        int[] heap = new int[Math.max(k, 0)];
+        if (k <= 0) {
+            return heap;
+        }
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int value = values[i];
+            if (size < k) {
+                heap[size] = value;
+                siftUp(heap, size++, comparator);
+            } else if (comparator.compare(value, heap[0]) < 0) {
+                heap[0] = value;
+                siftDown(heap, 0, k, comparator);
+            }
+        }
+        // Moving the largest to the back each time leaves the heap sorted ascending
+        for (int end = k - 1; end > 0; end--) {
+            int largest = heap[0];
+            heap[0] = heap[end];
+            heap[end] = largest;
+            siftDown(heap, 0, end, comparator);
+        }
+        return heap;
+    }
+
+    private static void siftUp(int[] heap, int i, IntComparator comparator) {
+        int value = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (comparator.compare(heap[parent], value) >= 0) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    private static void siftDown(int[] heap, int i, int size, IntComparator comparator) {
+        int value = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (comparator.compare(value, heap[child]) >= 0) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+}
@@ -0,0 +1,290 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.util.LongIntHashMap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sparse co-occurrence matrix of menu items ordered together, with the {@link #TOP_N} most frequent
+ * partners of every item kept up to date. Each item owns one row mapping partner item IDs to the
+ * number of orders that contained both. Counts only ever grow between rebuilds, so a partner list
+ * is maintained exactly by inserting or promoting the partner whose count changed.
+ */
+@Component
+public class MenuCooccurrenceIndex {
+
+    public static final int TOP_N = 20;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Matrix matrix = new Matrix();
+    private long[][] topIds = new long[16][];
+    private int[][] topCounts = new int[16][];
+    private int[] topSizes = new int[16];
+
+    private boolean rebuilding;
+    private long orderHorizon;
+
+    /**
+     * {@code confidence} is the share of the item's orders that also contained the recommended item.
+     */
+    public record Recommendation(long menuItemId, int orderCount, double confidence) {
+    }
+
+    /**
+     * Counts one order; each menu item is counted once however many lines it has.
+     */
+    public void recordOrder(long orderId, long[] menuItemIds) {
+        long[] items = distinct(menuItemIds);
+        lock.writeLock().lock();
+        try {
+            // The rebuild reads every order up to the horizon itself
+            if (rebuilding && orderId <= orderHorizon) {
+                return;
+            }
+            for (long item : items) {
+                int row = matrix.row(item);
+                matrix.orderCounts[row]++;
+                for (long partner : items) {
+                    if (partner != item) {
+                        int count = matrix.rows[row].addTo(partner, 1);
+                        if (!rebuilding) {
+                            ensureTop(row);
+                            offer(row, partner, count);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long menuItemId) {
+        lock.writeLock().lock();
+        try {
+            int row = matrix.rowsByItem.remove(menuItemId);
+            if (row < 0) {
+                return;
+            }
+            LongIntHashMap partners = matrix.rows[row];
+            matrix.rows[row] = new LongIntHashMap();
+            matrix.orderCounts[row] = 0;
+            matrix.itemIds[row] = 0;
+            // Items only ever ordered alone never got a partner list
+            if (row < topSizes.length) {
+                topSizes[row] = 0;
+            }
+            partners.forEach((partner, count) -> {
+                int partnerRow = matrix.rowsByItem.get(partner);
+                if (partnerRow >= 0) {
+                    matrix.rows[partnerRow].remove(menuItemId);
+                    if (!rebuilding && indexOf(partnerRow, menuItemId) >= 0) {
+                        computeTop(partnerRow);
+                    }
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts a rebuild that will load all orders with IDs up to {@code orderHorizon}.
+     */
+    public void beginRebuild(long orderHorizon) {
+        lock.writeLock().lock();
+        try {
+            matrix = new Matrix();
+            rebuilding = true;
+            this.orderHorizon = orderHorizon;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a partial matrix outside the lock; partials of separate order batches are combined with
+     * {@link Matrix#merge} and then {@linkplain #load loaded}.
+     */
+    public static Matrix count(List<long[]> orders) {
+        Matrix partial = new Matrix();
+        for (long[] menuItemIds : orders) {
+            partial.addOrder(distinct(menuItemIds));
+        }
+        return partial;
+    }
+
+    public void load(Matrix partial) {
+        lock.writeLock().lock();
+        try {
+            matrix.merge(partial);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endRebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = false;
+            topIds = new long[matrix.itemIds.length][];
+            topCounts = new int[matrix.itemIds.length][];
+            topSizes = new int[matrix.itemIds.length];
+            for (int row = 0; row < matrix.rowCount; row++) {
+                computeTop(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return matrix.rowsByItem.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} items most often ordered together with the given one, most frequent
+     * first. Items with equal counts are ordered by ID.
+     */
+    public List<Recommendation> recommendations(long menuItemId, int limit) {
+        lock.readLock().lock();
+        try {
+            int row = matrix.rowsByItem.get(menuItemId);
+            if (row < 0 || row >= topSizes.length) {
+                return List.of();
+            }
+            int n = Math.min(limit, topSizes[row]);
+            List<Recommendation> recommendations = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                recommendations.add(new Recommendation(topIds[row][i], topCounts[row][i],
+                        (double) topCounts[row][i] / matrix.orderCounts[row]));
+            }
+            return recommendations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void computeTop(int row) {
+        ensureTop(row);
+        topSizes[row] = 0;
+        matrix.rows[row].forEach((partner, count) -> offer(row, partner, count));
+    }
+
+    private void ensureTop(int row) {
+        if (row >= topSizes.length) {
+            int capacity = Math.max(row + 1, topSizes.length << 1);
+            topIds = Arrays.copyOf(topIds, capacity);
+            topCounts = Arrays.copyOf(topCounts, capacity);
+            topSizes = Arrays.copyOf(topSizes, capacity);
+        }
+        if (topIds[row] == null) {
+            topIds[row] = new long[TOP_N];
+            topCounts[row] = new int[TOP_N];
+        }
+    }
+
+    // Keeps the row's partners sorted by count descending, then ID ascending
+    private void offer(int row, long partner, int count) {
+        long[] ids = topIds[row];
+        int[] counts = topCounts[row];
+        int i = indexOf(row, partner);
+        if (i < 0) {
+            if (topSizes[row] < TOP_N) {
+                i = topSizes[row]++;
+            } else if (ranksBefore(count, partner, counts[TOP_N - 1], ids[TOP_N - 1])) {
+                i = TOP_N - 1;
+            } else {
+                return;
+            }
+        }
+        while (i > 0 && ranksBefore(count, partner, counts[i - 1], ids[i - 1])) {
+            ids[i] = ids[i - 1];
+            counts[i] = counts[i - 1];
+            i--;
+        }
+        ids[i] = partner;
+        counts[i] = count;
+    }
+
+    private int indexOf(int row, long partner) {
+        for (int i = 0; i < topSizes[row]; i++) {
+            if (topIds[row][i] == partner) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean ranksBefore(int count, long id, int otherCount, long otherId) {
+        return count > otherCount || count == otherCount && id < otherId;
+    }
+
+    private static long[] distinct(long[] menuItemIds) {
+        return Arrays.stream(menuItemIds).distinct().toArray();
+    }
+
+    /**
+     * Item rows of the co-occurrence matrix. Not thread-safe on its own.
+     */
+    public static final class Matrix {
+
+        private final LongIntHashMap rowsByItem = new LongIntHashMap();
+        private long[] itemIds = new long[16];
+        private int[] orderCounts = new int[16];
+        private LongIntHashMap[] rows = new LongIntHashMap[16];
+        private int rowCount;
+
+        private int row(long itemId) {
+            int row = rowsByItem.get(itemId);
+            if (row >= 0) {
+                return row;
+            }
+            if (rowCount == itemIds.length) {
+                itemIds = Arrays.copyOf(itemIds, rowCount << 1);
+                orderCounts = Arrays.copyOf(orderCounts, rowCount << 1);
+                rows = Arrays.copyOf(rows, rowCount << 1);
+            }
+            row = rowCount++;
+            itemIds[row] = itemId;
+            rows[row] = new LongIntHashMap();
+            rowsByItem.put(itemId, row);
+            return row;
+        }
+
+        private void addOrder(long[] items) {
+            for (long item : items) {
+                int row = row(item);
+                orderCounts[row]++;
+                for (long partner : items) {
+                    if (partner != item) {
+                        rows[row].addTo(partner, 1);
+                    }
+                }
+            }
+        }
+
+        public Matrix merge(Matrix other) {
+            for (int otherRow = 0; otherRow < other.rowCount; otherRow++) {
+                if (!other.rowsByItem.containsKey(other.itemIds[otherRow])) {
+                    continue;
+                }
+                int row = row(other.itemIds[otherRow]);
+                orderCounts[row] += other.orderCounts[otherRow];
+                LongIntHashMap target = rows[row];
+                other.rows[otherRow].forEach((partner, count) -> target.addTo(partner, count));
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.MenuItem;
+import com.examly.springapp.util.LongIntHashMap;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over menu item name, category and description.
+ * Documents get dense int IDs in insertion order, so every posting list stays sorted; updates
+ * append a new document and tombstone the old one, and tombstones are compacted away in bulk.
+ * Queries AND their tokens, expand each token by prefix and rank with BM25; the rarest token is
+ * materialized first and the others are only probed for its surviving candidates.
+ */
+@Component
+public class MenuSearchIndex {
+
+    public static final byte VEGETARIAN = 1;
+    public static final byte VEGAN = 2;
+    public static final byte CONTAINS_GLUTEN = 4;
+    public static final byte AVAILABLE = 8;
+    private static final byte DELETED = 16;
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_WEIGHT = 0.7f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_DELETED_FOR_COMPACTION = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, PostingList> terms = new TreeMap<>();
+
+    private LongIntHashMap docsByItem;
+    private long[] itemIds;
+    private long[] restaurantIds;
+    private int[] lengths;
+    private byte[] flags;
+    // The posting lists of each live document, so that a tombstone can lower their document frequencies
+    private PostingList[][] docPostings;
+    private int docCount;
+    private int liveCount;
+    private int deletedCount;
+    private long totalLength;
+
+    // Item IDs written incrementally while a bulk rebuild is running; the rebuild must not overwrite them
+    private LongIntHashMap touchedDuringRebuild;
+
+    public MenuSearchIndex() {
+        reset(1024);
+    }
+
+    public record Document(long itemId, long restaurantId, String name, String description,
+                           String category, byte flags) {
+
+        public static Document of(MenuItem menuItem) {
+            byte flags = 0;
+            if (Boolean.TRUE.equals(menuItem.getVegetarian())) flags |= VEGETARIAN;
+            if (Boolean.TRUE.equals(menuItem.getVegan())) flags |= VEGAN;
+            if (Boolean.TRUE.equals(menuItem.getContainsGluten())) flags |= CONTAINS_GLUTEN;
+            if (Boolean.TRUE.equals(menuItem.getAvailable())) flags |= AVAILABLE;
+            return new Document(menuItem.getId(), menuItem.getRestaurant().getId(), menuItem.getName(),
+                    menuItem.getDescription(), menuItem.getCategory(), flags);
+        }
+    }
+
+    /**
+     * Tokenized document; analysis needs no lock, so bulk loads run it in parallel.
+     */
+    public record AnalyzedDocument(Document document, String[] terms, int[] freqs, int length) {
+    }
+
+    public record SearchHits(long totalHits, long[] itemIds, float[] scores) {
+    }
+
+    public static AnalyzedDocument analyze(Document document) {
+        Map<String, Integer> weighted = new HashMap<>();
+        int length = addTerms(weighted, document.name(), NAME_WEIGHT)
+                + addTerms(weighted, document.category(), CATEGORY_WEIGHT)
+                + addTerms(weighted, document.description(), DESCRIPTION_WEIGHT);
+        String[] docTerms = new String[weighted.size()];
+        int[] freqs = new int[weighted.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : weighted.entrySet()) {
+            docTerms[i] = entry.getKey();
+            freqs[i] = entry.getValue();
+            i++;
+        }
+        return new AnalyzedDocument(document, docTerms, freqs, length);
+    }
+
+    public void upsert(Document document) {
+        AnalyzedDocument analyzed = analyze(document);
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.put(document.itemId(), 1);
+            }
+            index(analyzed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.put(itemId, 1);
+            }
+            int doc = docsByItem.remove(itemId);
+            if (doc >= 0) {
+                tombstone(doc);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeRestaurant(long restaurantId) {
+        lock.writeLock().lock();
+        try {
+            for (int doc = 0; doc < docCount; doc++) {
+                if (restaurantIds[doc] == restaurantId && (flags[doc] & DELETED) == 0) {
+                    if (touchedDuringRebuild != null) {
+                        touchedDuringRebuild.put(itemIds[doc], 1);
+                    }
+                    docsByItem.remove(itemIds[doc]);
+                    tombstone(doc);
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Empties the index ahead of a bulk {@link #load}; incremental writes that arrive meanwhile win.
+     */
+    public void beginRebuild(int expectedSize) {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            reset(Math.max(expectedSize, 1024));
+            touchedDuringRebuild = new LongIntHashMap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void load(List<AnalyzedDocument> batch) {
+        lock.writeLock().lock();
+        try {
+            for (AnalyzedDocument analyzed : batch) {
+                if (touchedDuringRebuild == null || !touchedDuringRebuild.containsKey(analyzed.document().itemId())) {
+                    index(analyzed);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endRebuild() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = null;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of ranked hits; the dietary flags only restrict results when {@code true}.
+     */
+    public SearchHits search(String query, boolean vegetarian, boolean vegan, boolean glutenFree,
+                             Long restaurantId, long offset, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (tokens.isEmpty() || limit <= 0) {
+            return new SearchHits(0, new long[0], new float[0]);
+        }
+        int required = (vegetarian ? VEGETARIAN : 0) | (vegan ? VEGAN : 0);
+        int excluded = DELETED | (glutenFree ? CONTAINS_GLUTEN : 0);
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return new SearchHits(0, new long[0], new float[0]);
+            }
+            float averageLength = (float) totalLength / liveCount;
+            // Materialize the rarest token, then probe the others only for the surviving candidates
+            List<SortedMap<String, PostingList>> candidates = new ArrayList<>();
+            for (String token : tokens) {
+                candidates.add(candidateTerms(token));
+            }
+            Integer[] order = new Integer[tokens.size()];
+            long[] estimates = new long[tokens.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+                estimates[i] = estimateMatches(candidates.get(i));
+            }
+            Arrays.sort(order, Comparator.comparingLong(i -> estimates[i]));
+
+            long[] matches = matchToken(tokens.get(order[0]), candidates.get(order[0]), averageLength);
+            for (int i = 1; i < order.length && matches.length > 0; i++) {
+                matches = refine(matches, tokens.get(order[i]), candidates.get(order[i]), averageLength);
+            }
+
+            TopK top = new TopK((int) Math.min(offset + limit, matches.length));
+            long total = 0;
+            for (long packed : matches) {
+                int doc = (int) (packed >>> 32);
+                int docFlags = flags[doc];
+                if ((docFlags & required) != required || (docFlags & excluded) != 0) {
+                    continue;
+                }
+                if (restaurantId != null && restaurantIds[doc] != restaurantId) {
+                    continue;
+                }
+                total++;
+                top.offer(doc, Float.intBitsToFloat((int) packed));
+            }
+            return top.page(offset, itemIds, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private SortedMap<String, PostingList> candidateTerms(String token) {
+        return token.length() >= MIN_PREFIX_LENGTH
+                ? terms.subMap(token, token + Character.MAX_VALUE)
+                : exactTerm(token);
+    }
+
+    private static long estimateMatches(SortedMap<String, PostingList> candidates) {
+        long estimate = 0;
+        int expansions = 0;
+        for (PostingList postings : candidates.values()) {
+            estimate += postings.size();
+            if (++expansions == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        return estimate;
+    }
+
+    // Returns (doc << 32 | scoreBits) pairs sorted by doc, keeping the best expansion per doc
+    private long[] matchToken(String token, SortedMap<String, PostingList> candidates, float averageLength) {
+        long[] packed = new long[(int) estimateMatches(candidates)];
+        int count = 0;
+        int expansions = 0;
+        for (Map.Entry<String, PostingList> entry : candidates.entrySet()) {
+            PostingList postings = entry.getValue();
+            float weight = entry.getKey().length() == token.length() ? 1f : PREFIX_WEIGHT;
+            float idf = idf(postings);
+            for (int i = 0; i < postings.size(); i++) {
+                int doc = postings.docAt(i);
+                if ((flags[doc] & DELETED) != 0) {
+                    continue;
+                }
+                float score = weight * idf * bm25(postings.freqAt(i), doc, averageLength);
+                packed[count++] = ((long) doc << 32) | (Float.floatToRawIntBits(score) & 0xFFFFFFFFL);
+            }
+            if (++expansions == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        if (expansions > 1) {
+            Arrays.sort(packed, 0, count);
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                if (unique > 0 && (packed[unique - 1] >>> 32) == (packed[i] >>> 32)) {
+                    packed[unique - 1] = packed[i];
+                } else {
+                    packed[unique++] = packed[i];
+                }
+            }
+            count = unique;
+        }
+        return count == packed.length ? packed : Arrays.copyOf(packed, count);
+    }
+
+    // Keeps the matches that also contain the token, adding its best score; postings are probed by galloping
+    private long[] refine(long[] matches, String token, SortedMap<String, PostingList> candidates,
+                          float averageLength) {
+        float[] best = new float[matches.length];
+        boolean[] matched = new boolean[matches.length];
+        int expansions = 0;
+        for (Map.Entry<String, PostingList> entry : candidates.entrySet()) {
+            PostingList postings = entry.getValue();
+            float weight = entry.getKey().length() == token.length() ? 1f : PREFIX_WEIGHT;
+            float idf = idf(postings);
+            int position = 0;
+            for (int i = 0; i < matches.length; i++) {
+                int doc = (int) (matches[i] >>> 32);
+                position = postings.advance(position, doc);
+                if (position == postings.size()) {
+                    break;
+                }
+                if (postings.docAt(position) == doc) {
+                    float score = weight * idf * bm25(postings.freqAt(position), doc, averageLength);
+                    best[i] = matched[i] ? Math.max(best[i], score) : score;
+                    matched[i] = true;
+                }
+            }
+            if (++expansions == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        int count = 0;
+        for (int i = 0; i < matches.length; i++) {
+            if (matched[i]) {
+                float score = Float.intBitsToFloat((int) matches[i]) + best[i];
+                matches[count++] = (matches[i] & 0xFFFFFFFF00000000L) | (Float.floatToRawIntBits(score) & 0xFFFFFFFFL);
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    // Counts live documents only; tombstones left in the postings would otherwise push idf below zero
+    private float idf(PostingList postings) {
+        return (float) Math.log(1 + (liveCount - postings.liveSize() + 0.5) / (postings.liveSize() + 0.5));
+    }
+
+    private float bm25(int tf, int doc, float averageLength) {
+        float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+        return tf * (K1 + 1) / (tf + norm);
+    }
+
+    private SortedMap<String, PostingList> exactTerm(String token) {
+        PostingList postings = terms.get(token);
+        return postings == null ? Collections.emptySortedMap() : new TreeMap<>(Map.of(token, postings));
+    }
+
+    private void index(AnalyzedDocument analyzed) {
+        Document document = analyzed.document();
+        int previous = docsByItem.get(document.itemId());
+        if (previous >= 0) {
+            tombstone(previous);
+        }
+        if (docCount == itemIds.length) {
+            grow(docCount << 1);
+        }
+        int doc = docCount++;
+        itemIds[doc] = document.itemId();
+        restaurantIds[doc] = document.restaurantId();
+        lengths[doc] = analyzed.length();
+        flags[doc] = document.flags();
+        docsByItem.put(document.itemId(), doc);
+        liveCount++;
+        totalLength += analyzed.length();
+
+        String[] docTerms = analyzed.terms();
+        int[] freqs = analyzed.freqs();
+        PostingList[] postings = new PostingList[docTerms.length];
+        for (int i = 0; i < docTerms.length; i++) {
+            postings[i] = terms.computeIfAbsent(docTerms[i], term -> new PostingList());
+            postings[i].add(doc, freqs[i]);
+        }
+        docPostings[doc] = postings;
+        compactIfNeeded();
+    }
+
+    private void tombstone(int doc) {
+        flags[doc] |= DELETED;
+        liveCount--;
+        deletedCount++;
+        totalLength -= lengths[doc];
+        for (PostingList postings : docPostings[doc]) {
+            postings.tombstoned();
+        }
+        docPostings[doc] = null;
+    }
+
+    private void compactIfNeeded() {
+        if (touchedDuringRebuild != null || deletedCount < MIN_DELETED_FOR_COMPACTION || deletedCount * 4 < docCount) {
+            return;
+        }
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if ((flags[doc] & DELETED) != 0) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = next;
+            itemIds[next] = itemIds[doc];
+            restaurantIds[next] = restaurantIds[doc];
+            lengths[next] = lengths[doc];
+            flags[next] = flags[doc];
+            docPostings[next] = docPostings[doc];
+            next++;
+        }
+        Arrays.fill(docPostings, next, docCount, null);
+        docCount = next;
+        deletedCount = 0;
+
+        Iterator<PostingList> postings = terms.values().iterator();
+        while (postings.hasNext()) {
+            PostingList list = postings.next();
+            list.compact(remap);
+            if (list.size() == 0) {
+                postings.remove();
+            }
+        }
+        docsByItem = new LongIntHashMap(docCount);
+        for (int doc = 0; doc < docCount; doc++) {
+            docsByItem.put(itemIds[doc], doc);
+        }
+    }
+
+    private void reset(int capacity) {
+        docsByItem = new LongIntHashMap(capacity);
+        itemIds = new long[capacity];
+        restaurantIds = new long[capacity];
+        lengths = new int[capacity];
+        flags = new byte[capacity];
+        docPostings = new PostingList[capacity][];
+        docCount = 0;
+        liveCount = 0;
+        deletedCount = 0;
+        totalLength = 0;
+    }
+
+    private void grow(int capacity) {
+        itemIds = Arrays.copyOf(itemIds, capacity);
+        restaurantIds = Arrays.copyOf(restaurantIds, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        docPostings = Arrays.copyOf(docPostings, capacity);
+    }
+
+    private static int addTerms(Map<String, Integer> weighted, String text, int weight) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        for (String token : tokens) {
+            weighted.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    // Bounded min-heap on score keeping the best offset + limit hits
+    private static final class TopK {
+        private final int capacity;
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        TopK(int capacity) {
+            this.capacity = capacity;
+            this.docs = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        void offer(int doc, float score) {
+            if (size < capacity) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (better(doc, score, docs[0], scores[0])) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        SearchHits page(long offset, long[] itemIds, long total) {
+            int count = size;
+            int[] sortedDocs = new int[count];
+            float[] sortedScores = new float[count];
+            for (int i = count - 1; i >= 0; i--) {
+                sortedDocs[i] = docs[0];
+                sortedScores[i] = scores[0];
+                docs[0] = docs[--size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            int from = (int) Math.min(offset, count);
+            long[] pageItems = new long[count - from];
+            float[] pageScores = new float[count - from];
+            for (int i = from; i < count; i++) {
+                pageItems[i - from] = itemIds[sortedDocs[i]];
+                pageScores[i - from] = sortedScores[i];
+            }
+            return new SearchHits(total, pageItems, pageScores);
+        }
+
+        private static boolean better(int doc, float score, int otherDoc, float otherScore) {
+            return score > otherScore || (score == otherScore && doc < otherDoc);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!better(docs[parent], scores[parent], docs[index], scores[index])) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                int right = left + 1;
+                int worst = index;
+                if (left < size && better(docs[worst], scores[worst], docs[left], scores[left])) {
+                    worst = left;
+                }
+                if (right < size && better(docs[worst], scores[worst], docs[right], scores[right])) {
+                    worst = right;
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(worst, index);
+                index = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
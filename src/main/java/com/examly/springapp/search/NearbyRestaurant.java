@@ -0,0 +1,6 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.Restaurant;
+
+public record NearbyRestaurant(Restaurant restaurant, double distanceKm) {
+}
@@ -0,0 +1,92 @@
+package com.examly.springapp.search;
+
+import java.util.Arrays;
+
+/**
+ * Append-only posting list of ascending document IDs with their (field-weighted) term frequencies,
+ * and the number of those documents that are not tombstoned.
+ */
+final class PostingList {
+
+    private int[] docs;
+    private byte[] freqs;
+    private int size;
+    private int live;
+
+    PostingList() {
+        this.docs = new int[2];
+        this.freqs = new byte[2];
+    }
+
+    void add(int doc, int freq) {
+        if (size == docs.length) {
+            int capacity = size + (size >> 1) + 1;
+            docs = Arrays.copyOf(docs, capacity);
+            freqs = Arrays.copyOf(freqs, capacity);
+        }
+        docs[size] = doc;
+        freqs[size] = (byte) Math.min(freq, Byte.MAX_VALUE);
+        size++;
+        live++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int liveSize() {
+        return live;
+    }
+
+    void tombstoned() {
+        live--;
+    }
+
+    int docAt(int index) {
+        return docs[index];
+    }
+
+    int freqAt(int index) {
+        return freqs[index];
+    }
+
+    /**
+     * Returns the first index at or after {@code from} whose document is {@code >= doc}, or {@link #size()}.
+     * Gallops forward and then binary-searches, so probing sorted candidates costs O(log gap) each.
+     */
+    int advance(int from, int doc) {
+        if (from >= size || docs[from] >= doc) {
+            return from;
+        }
+        int step = 1;
+        int low = from;
+        int high = from + 1;
+        while (high < size && docs[high] < doc) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        high = Math.min(high, size);
+        int index = Arrays.binarySearch(docs, low + 1, high, doc);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Drops removed documents and renumbers the rest; {@code remap[doc]} is the new ID or -1.
+     */
+    void compact(int[] remap) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int target = remap[docs[i]];
+            if (target >= 0) {
+                docs[kept] = target;
+                freqs[kept] = freqs[i];
+                kept++;
+            }
+        }
+        size = kept;
+        live = kept;
+        docs = Arrays.copyOf(docs, Math.max(kept, 2));
+        freqs = Arrays.copyOf(freqs, Math.max(kept, 2));
+    }
+}
@@ -0,0 +1,6 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.MenuItem;
+
+public record RecommendedMenuItem(MenuItem menuItem, int orderCount, double confidence) {
+}
@@ -0,0 +1,336 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.util.LongIntHashMap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Uniform latitude/longitude grid over restaurant locations. A k-nearest query scans grid rings
+ * outwards from the query cell and stops once no unvisited ring can beat the k-th best distance.
+ */
+@Component
+public class RestaurantGeoIndex {
+
+    public static final double MAX_RADIUS_KM = 100;
+
+    static final double CELL_DEGREES = 0.01;
+    private static final int LAT_CELLS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int LON_CELLS = (int) Math.round(360 / CELL_DEGREES);
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_KM;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private LongIntHashMap docsByRestaurant;
+    private long[] restaurantIds;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] cosLatitudes;
+    private String[] cuisines;
+    private int[] docCells;
+    private int[] freeDocs;
+    private int freeCount;
+    private int docCount;
+
+    private LongIntHashMap cellSlots;
+    private int[][] cellDocs;
+    private int[] cellSizes;
+    private int cellCount;
+
+    private LongIntHashMap touchedDuringRebuild;
+
+    public RestaurantGeoIndex() {
+        reset(256);
+    }
+
+    public record Hit(long restaurantId, double distanceKm) {
+    }
+
+    public void upsert(Restaurant restaurant) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.put(restaurant.getId(), 1);
+            }
+            index(restaurant);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long restaurantId) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.put(restaurantId, 1);
+            }
+            unindex(restaurantId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            reset(256);
+            touchedDuringRebuild = new LongIntHashMap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void load(List<Restaurant> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Restaurant restaurant : batch) {
+                if (touchedDuringRebuild == null || !touchedDuringRebuild.containsKey(restaurant.getId())) {
+                    index(restaurant);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endRebuild() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docsByRestaurant.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} restaurants within {@code radiusKm}, nearest first, optionally
+     * restricted to one cuisine (case-insensitive).
+     */
+    public List<Hit> nearest(double latitude, double longitude, double radiusKm, String cuisine, int limit) {
+        int centerY = latCell(latitude);
+        int centerX = lonCell(longitude);
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        // Longitude cells are narrowest at the highest latitude the radius can reach
+        double minCos = Math.max(Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + radiusKm / KM_PER_DEGREE))), 1e-9);
+        int maxDy = (int) Math.ceil(radiusKm / KM_PER_DEGREE / CELL_DEGREES);
+        int maxDx = (int) Math.min(LON_CELLS / 2, Math.ceil(radiusKm / (KM_PER_DEGREE * minCos) / CELL_DEGREES));
+        double ringKm = CELL_DEGREES * KM_PER_DEGREE * minCos * 0.99;
+        double sinRadius = Math.sin(Math.min(Math.PI / 2, radiusKm / EARTH_RADIUS_KM / 2));
+        double radiusHaversine = sinRadius * sinRadius;
+
+        int[] heapDocs = new int[limit];
+        double[] heapHaversines = new double[limit];
+        int heapSize = 0;
+
+        lock.readLock().lock();
+        try {
+            for (int ring = 0, rings = Math.max(maxDy, maxDx); ring <= rings; ring++) {
+                if (heapSize == limit && (ring - 1) * ringKm > toKm(heapHaversines[0])) {
+                    break;
+                }
+                for (int dy = -Math.min(ring, maxDy); dy <= Math.min(ring, maxDy); dy++) {
+                    int y = centerY + dy;
+                    if (y < 0 || y >= LAT_CELLS) {
+                        continue;
+                    }
+                    int step = Math.abs(dy) == ring ? 1 : 2 * ring;
+                    for (int dx = -Math.min(ring, maxDx); dx <= Math.min(ring, maxDx); dx += Math.max(step, 1)) {
+                        if (Math.abs(dy) != ring && Math.abs(dx) != ring || dx == LON_CELLS / 2) {
+                            continue;
+                        }
+                        int slot = cellSlots.get(cellKey(y, Math.floorMod(centerX + dx, LON_CELLS)));
+                        if (slot < 0) {
+                            continue;
+                        }
+                        int[] docs = cellDocs[slot];
+                        for (int i = 0; i < cellSizes[slot]; i++) {
+                            int doc = docs[i];
+                            double bound = heapSize == limit ? heapHaversines[0] : radiusHaversine;
+                            double sinLat = Math.sin(Math.toRadians(latitudes[doc] - latitude) / 2);
+                            if (sinLat * sinLat > bound
+                                    || cuisine != null && !cuisine.equalsIgnoreCase(cuisines[doc])) {
+                                continue;
+                            }
+                            double sinLon = Math.sin(Math.toRadians(longitudes[doc] - longitude) / 2);
+                            double haversine = sinLat * sinLat + cosLatitude * cosLatitudes[doc] * sinLon * sinLon;
+                            if (haversine > bound) {
+                                continue;
+                            }
+                            if (heapSize < limit) {
+                                heapSize = siftUp(heapDocs, heapHaversines, heapSize, doc, haversine);
+                            } else {
+                                siftDown(heapDocs, heapHaversines, heapSize, doc, haversine);
+                            }
+                        }
+                    }
+                }
+            }
+
+            Integer[] order = new Integer[heapSize];
+            for (int i = 0; i < heapSize; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> heapHaversines[a] != heapHaversines[b]
+                    ? Double.compare(heapHaversines[a], heapHaversines[b])
+                    : Long.compare(restaurantIds[heapDocs[a]], restaurantIds[heapDocs[b]]));
+            List<Hit> hits = new ArrayList<>(heapSize);
+            for (Integer i : order) {
+                hits.add(new Hit(restaurantIds[heapDocs[i]], toKm(heapHaversines[i])));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The heap ranks by the haversine term, which grows monotonically with distance
+    private static double toKm(double haversine) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(haversine)));
+    }
+
+    // Max-heap, so the root is the current k-th nearest
+    private static int siftUp(int[] docs, double[] distances, int size, int doc, double distance) {
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (distances[parent] >= distance) {
+                break;
+            }
+            docs[i] = docs[parent];
+            distances[i] = distances[parent];
+            i = parent;
+        }
+        docs[i] = doc;
+        distances[i] = distance;
+        return size + 1;
+    }
+
+    private static void siftDown(int[] docs, double[] distances, int size, int doc, double distance) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && distances[child + 1] > distances[child]) {
+                child++;
+            }
+            if (distances[child] <= distance) {
+                break;
+            }
+            docs[i] = docs[child];
+            distances[i] = distances[child];
+            i = child;
+        }
+        docs[i] = doc;
+        distances[i] = distance;
+    }
+
+    private void index(Restaurant restaurant) {
+        unindex(restaurant.getId());
+        if (restaurant.getLatitude() == null || restaurant.getLongitude() == null) {
+            return;
+        }
+        int doc;
+        if (freeCount > 0) {
+            doc = freeDocs[--freeCount];
+        } else {
+            if (docCount == restaurantIds.length) {
+                int capacity = docCount << 1;
+                restaurantIds = Arrays.copyOf(restaurantIds, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                cosLatitudes = Arrays.copyOf(cosLatitudes, capacity);
+                cuisines = Arrays.copyOf(cuisines, capacity);
+                docCells = Arrays.copyOf(docCells, capacity);
+            }
+            doc = docCount++;
+        }
+        restaurantIds[doc] = restaurant.getId();
+        latitudes[doc] = restaurant.getLatitude();
+        longitudes[doc] = restaurant.getLongitude();
+        cosLatitudes[doc] = Math.cos(Math.toRadians(latitudes[doc]));
+        cuisines[doc] = restaurant.getCuisine();
+        docsByRestaurant.put(restaurant.getId(), doc);
+
+        long key = cellKey(latCell(latitudes[doc]), lonCell(longitudes[doc]));
+        int slot = cellSlots.get(key);
+        if (slot < 0) {
+            if (cellCount == cellDocs.length) {
+                cellDocs = Arrays.copyOf(cellDocs, cellCount << 1);
+                cellSizes = Arrays.copyOf(cellSizes, cellCount << 1);
+            }
+            slot = cellCount++;
+            cellSlots.put(key, slot);
+            cellDocs[slot] = new int[4];
+        }
+        if (cellSizes[slot] == cellDocs[slot].length) {
+            cellDocs[slot] = Arrays.copyOf(cellDocs[slot], cellSizes[slot] << 1);
+        }
+        cellDocs[slot][cellSizes[slot]++] = doc;
+        docCells[doc] = slot;
+    }
+
+    private void unindex(long restaurantId) {
+        int doc = docsByRestaurant.remove(restaurantId);
+        if (doc < 0) {
+            return;
+        }
+        int slot = docCells[doc];
+        int[] docs = cellDocs[slot];
+        for (int i = 0; i < cellSizes[slot]; i++) {
+            if (docs[i] == doc) {
+                docs[i] = docs[--cellSizes[slot]];
+                break;
+            }
+        }
+        cuisines[doc] = null;
+        if (freeCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, Math.max(16, freeCount << 1));
+        }
+        freeDocs[freeCount++] = doc;
+    }
+
+    private void reset(int capacity) {
+        docsByRestaurant = new LongIntHashMap(capacity);
+        restaurantIds = new long[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        cosLatitudes = new double[capacity];
+        cuisines = new String[capacity];
+        docCells = new int[capacity];
+        freeDocs = new int[16];
+        freeCount = 0;
+        docCount = 0;
+        cellSlots = new LongIntHashMap(capacity);
+        cellDocs = new int[capacity][];
+        cellSizes = new int[capacity];
+        cellCount = 0;
+    }
+
+    private static int latCell(double latitude) {
+        return Math.min(LAT_CELLS - 1, Math.max(0, (int) Math.floor((latitude + 90) / CELL_DEGREES)));
+    }
+
+    private static int lonCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), LON_CELLS);
+    }
+
+    private static long cellKey(int y, int x) {
+        return (long) y * LON_CELLS + x;
+    }
+}
@@ -0,0 +1,385 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.cache.AvailabilityTimeline;
+import com.examly.springapp.entity.RestaurantHoursException;
+import com.examly.springapp.entity.RestaurantOpeningInterval;
+import com.examly.springapp.util.LongIntHashMap;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Weekly opening hours of every restaurant compiled into one bitmap per hour of the week (which
+ * restaurants are open at the top of the hour) plus the sorted open/close transitions inside each hour.
+ * The open set for a minute is the hour's bitmap with its transitions replayed up to that minute and
+ * the day's holiday exceptions applied; it is materialized once per minute and shared by all requests.
+ * Restaurants without structured hours are never reported open.
+ */
+@Component
+public class RestaurantHoursIndex {
+
+    private static final int HOURS_PER_WEEK = AvailabilityTimeline.MINUTES_PER_WEEK / 60;
+    private static final int CLOSED = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private LongIntHashMap docsByRestaurant;
+    private long[] restaurantIds;
+    private int[][] docIntervals;
+    private LocalDate[][] docExceptionDates;
+    private int[] freeDocs;
+    private int freeCount;
+    private int docCount;
+
+    private long[][] checkpoints;
+    private long[][] transitions;
+    private int[] transitionCounts;
+    private boolean[] transitionsSorted;
+    private Map<LocalDate, Map<Integer, int[]>> exceptionsByDate;
+
+    private LongIntHashMap touchedDuringRebuild;
+    private volatile long version;
+    private volatile OpenSet cached;
+
+    public RestaurantHoursIndex() {
+        reset();
+    }
+
+    /**
+     * Restaurants open at one minute. Immutable, so it can be used outside the index's lock.
+     */
+    public static final class OpenSet implements LongPredicate {
+
+        private final LocalDateTime at;
+        private final long version;
+        private final LongIntHashMap open;
+        private final long[] restaurantIds;
+
+        private OpenSet(LocalDateTime at, long version, LongIntHashMap open, long[] restaurantIds) {
+            this.at = at;
+            this.version = version;
+            this.open = open;
+            this.restaurantIds = restaurantIds;
+        }
+
+        @Override
+        public boolean test(long restaurantId) {
+            return open.containsKey(restaurantId);
+        }
+
+        public int size() {
+            return restaurantIds.length;
+        }
+
+        public long[] restaurantIds() {
+            return restaurantIds.clone();
+        }
+    }
+
+    public void upsert(long restaurantId, List<RestaurantOpeningInterval> intervals,
+                       List<RestaurantHoursException> exceptions) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.put(restaurantId, 1);
+            }
+            index(restaurantId, intervals, exceptions);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long restaurantId) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.put(restaurantId, 1);
+            }
+            unindex(restaurantId);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            reset();
+            touchedDuringRebuild = new LongIntHashMap();
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void load(Map<Long, List<RestaurantOpeningInterval>> intervals,
+                     Map<Long, List<RestaurantHoursException>> exceptions) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> restaurantIds = new HashSet<>(intervals.keySet());
+            restaurantIds.addAll(exceptions.keySet());
+            for (Long restaurantId : restaurantIds) {
+                if (touchedDuringRebuild == null || !touchedDuringRebuild.containsKey(restaurantId)) {
+                    index(restaurantId, intervals.getOrDefault(restaurantId, List.of()),
+                            exceptions.getOrDefault(restaurantId, List.of()));
+                }
+            }
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endRebuild() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docsByRestaurant.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isOpen(long restaurantId, LocalDateTime at) {
+        return openAt(at).test(restaurantId);
+    }
+
+    public OpenSet openAt(LocalDateTime at) {
+        LocalDateTime minute = at.truncatedTo(ChronoUnit.MINUTES);
+        OpenSet current = cached;
+        if (current != null && current.version == version && current.at.equals(minute)) {
+            return current;
+        }
+        lock.writeLock().lock();
+        try {
+            current = cached;
+            if (current == null || current.version != version || !current.at.equals(minute)) {
+                current = materialize(minute);
+                // Keep the newest minute cached; one-off historical lookups should not evict it
+                if (cached == null || cached.version != version || !minute.isBefore(cached.at)) {
+                    cached = current;
+                }
+            }
+            return current;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private OpenSet materialize(LocalDateTime minute) {
+        int minuteOfWeek = AvailabilityTimeline.minuteOfWeek(minute);
+        int hour = minuteOfWeek / 60;
+        int minuteOfHour = minuteOfWeek % 60;
+
+        long[] open = checkpoints[hour].clone();
+        if (!transitionsSorted[hour]) {
+            Arrays.sort(transitions[hour], 0, transitionCounts[hour]);
+            transitionsSorted[hour] = true;
+        }
+        long[] hourTransitions = transitions[hour];
+        for (int i = 0; i < transitionCounts[hour]; i++) {
+            long transition = hourTransitions[i];
+            if ((int) (transition >>> 40) > minuteOfHour) {
+                break;
+            }
+            setBit(open, (int) (transition >>> 1) & Integer.MAX_VALUE, (transition & 1) != 0);
+        }
+
+        int minuteOfDay = minute.getHour() * 60 + minute.getMinute();
+        for (Map.Entry<Integer, int[]> exception : exceptionsByDate.getOrDefault(minute.toLocalDate(), Map.of()).entrySet()) {
+            int[] hours = exception.getValue();
+            setBit(open, exception.getKey(), hours[0] != CLOSED && hours[0] <= minuteOfDay && minuteOfDay < hours[1]);
+        }
+
+        int count = 0;
+        for (long word : open) {
+            count += Long.bitCount(word);
+        }
+        LongIntHashMap openRestaurants = new LongIntHashMap(count);
+        long[] openIds = new long[count];
+        count = 0;
+        for (int word = 0; word < open.length; word++) {
+            long bits = open[word];
+            while (bits != 0) {
+                int doc = (word << 6) + Long.numberOfTrailingZeros(bits);
+                openRestaurants.put(restaurantIds[doc], 1);
+                openIds[count++] = restaurantIds[doc];
+                bits &= bits - 1;
+            }
+        }
+        return new OpenSet(minute, version, openRestaurants, openIds);
+    }
+
+    /**
+     * Merged, non-wrapping [open, close) minute-of-week pairs, flattened.
+     */
+    static int[] compile(List<RestaurantOpeningInterval> intervals) {
+        List<int[]> pieces = new ArrayList<>();
+        for (RestaurantOpeningInterval interval : intervals) {
+            int open = interval.getOpenTime().toSecondOfDay() / 60;
+            int close = interval.getCloseTime().toSecondOfDay() / 60;
+            int start = (interval.getDayOfWeek().getValue() - 1) * AvailabilityTimeline.MINUTES_PER_DAY + open;
+            int end = start + (close > open ? close - open : close - open + AvailabilityTimeline.MINUTES_PER_DAY);
+            if (end <= AvailabilityTimeline.MINUTES_PER_WEEK) {
+                pieces.add(new int[] {start, end});
+            } else {
+                pieces.add(new int[] {start, AvailabilityTimeline.MINUTES_PER_WEEK});
+                pieces.add(new int[] {0, end - AvailabilityTimeline.MINUTES_PER_WEEK});
+            }
+        }
+        pieces.sort(Comparator.comparingInt(piece -> piece[0]));
+        int[] merged = new int[pieces.size() * 2];
+        int count = 0;
+        for (int[] piece : pieces) {
+            if (count > 0 && piece[0] <= merged[count - 1]) {
+                merged[count - 1] = Math.max(merged[count - 1], piece[1]);
+            } else {
+                merged[count++] = piece[0];
+                merged[count++] = piece[1];
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+    private void index(long restaurantId, List<RestaurantOpeningInterval> intervals,
+                       List<RestaurantHoursException> exceptions) {
+        unindex(restaurantId);
+        if (intervals.isEmpty() && exceptions.isEmpty()) {
+            return;
+        }
+        int doc = allocateDoc(restaurantId);
+        int[] compiled = compile(intervals);
+        docIntervals[doc] = compiled;
+
+        for (int i = 0; i < compiled.length; i += 2) {
+            for (int hour = (compiled[i] + 59) / 60; hour * 60 < compiled[i + 1]; hour++) {
+                setBit(checkpoints[hour], doc, true);
+            }
+            addTransition(compiled[i], doc, true);
+            addTransition(compiled[i + 1] % AvailabilityTimeline.MINUTES_PER_WEEK, doc, false);
+        }
+
+        LocalDate[] dates = new LocalDate[exceptions.size()];
+        for (int i = 0; i < dates.length; i++) {
+            RestaurantHoursException exception = exceptions.get(i);
+            int[] hours = exception.getOpenTime() == null
+                    ? new int[] {CLOSED, CLOSED}
+                    : new int[] {exception.getOpenTime().toSecondOfDay() / 60, closeMinuteOfDay(exception.getCloseTime())};
+            dates[i] = exception.getDate();
+            exceptionsByDate.computeIfAbsent(dates[i], date -> new HashMap<>()).put(doc, hours);
+        }
+        docExceptionDates[doc] = dates;
+    }
+
+    private void unindex(long restaurantId) {
+        int doc = docsByRestaurant.remove(restaurantId);
+        if (doc < 0) {
+            return;
+        }
+        for (long[] checkpoint : checkpoints) {
+            setBit(checkpoint, doc, false);
+        }
+        int[] compiled = docIntervals[doc];
+        for (int i = 0; i < compiled.length; i++) {
+            int hour = (compiled[i] % AvailabilityTimeline.MINUTES_PER_WEEK) / 60;
+            long[] hourTransitions = transitions[hour];
+            int kept = 0;
+            for (int j = 0; j < transitionCounts[hour]; j++) {
+                if (((int) (hourTransitions[j] >>> 1) & Integer.MAX_VALUE) != doc) {
+                    hourTransitions[kept++] = hourTransitions[j];
+                }
+            }
+            transitionCounts[hour] = kept;
+        }
+        for (LocalDate date : docExceptionDates[doc]) {
+            Map<Integer, int[]> byDoc = exceptionsByDate.get(date);
+            if (byDoc != null && byDoc.remove(doc) != null && byDoc.isEmpty()) {
+                exceptionsByDate.remove(date);
+            }
+        }
+        docIntervals[doc] = null;
+        docExceptionDates[doc] = null;
+        if (freeCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeCount << 1);
+        }
+        freeDocs[freeCount++] = doc;
+    }
+
+    private int allocateDoc(long restaurantId) {
+        int doc;
+        if (freeCount > 0) {
+            doc = freeDocs[--freeCount];
+        } else {
+            if (docCount == restaurantIds.length) {
+                int capacity = docCount << 1;
+                restaurantIds = Arrays.copyOf(restaurantIds, capacity);
+                docIntervals = Arrays.copyOf(docIntervals, capacity);
+                docExceptionDates = Arrays.copyOf(docExceptionDates, capacity);
+                for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+                    checkpoints[hour] = Arrays.copyOf(checkpoints[hour], capacity >>> 6);
+                }
+            }
+            doc = docCount++;
+        }
+        restaurantIds[doc] = restaurantId;
+        docsByRestaurant.put(restaurantId, doc);
+        return doc;
+    }
+
+    // Transitions on the hour are already reflected in that hour's checkpoint
+    private void addTransition(int minuteOfWeek, int doc, boolean opens) {
+        if (minuteOfWeek % 60 == 0) {
+            return;
+        }
+        int hour = minuteOfWeek / 60;
+        if (transitionCounts[hour] == transitions[hour].length) {
+            transitions[hour] = Arrays.copyOf(transitions[hour], transitionCounts[hour] << 1);
+        }
+        transitions[hour][transitionCounts[hour]++] = ((long) (minuteOfWeek % 60) << 40) | ((long) doc << 1) | (opens ? 1 : 0);
+        transitionsSorted[hour] = false;
+    }
+
+    private void reset() {
+        int capacity = 256;
+        docsByRestaurant = new LongIntHashMap(capacity);
+        restaurantIds = new long[capacity];
+        docIntervals = new int[capacity][];
+        docExceptionDates = new LocalDate[capacity][];
+        freeDocs = new int[16];
+        freeCount = 0;
+        docCount = 0;
+        checkpoints = new long[HOURS_PER_WEEK][capacity >>> 6];
+        transitions = new long[HOURS_PER_WEEK][8];
+        transitionCounts = new int[HOURS_PER_WEEK];
+        transitionsSorted = new boolean[HOURS_PER_WEEK];
+        exceptionsByDate = new HashMap<>();
+    }
+
+    private static int closeMinuteOfDay(LocalTime closeTime) {
+        return closeTime.equals(LocalTime.MIDNIGHT) ? AvailabilityTimeline.MINUTES_PER_DAY : closeTime.toSecondOfDay() / 60;
+    }
+
+    private static void setBit(long[] bits, int index, boolean value) {
+        if (value) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+        }
+    }
+}
@@ -0,0 +1,599 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.RatingSummary;
+import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.util.LongIntHashMap;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Top-rated and trending rankings, overall and per cuisine. Rating uses a Bayesian average that pulls
+ * restaurants with few ratings towards the mean of all ratings. Trending is an order count that halves
+ * every {@link #TRENDING_HALF_LIFE_HOURS} hours, kept with forward decay: each order adds
+ * {@code 2^(hours since epoch / half-life)} in log space, so later decay never reorders restaurants
+ * and only new orders have to touch the rankings.
+ * <p>
+ * Each ranking keeps a bounded min-heap per cuisine plus one overall. A heap also tracks the best
+ * score it has turned away or evicted; results are served from the heap while enough members beat
+ * that floor, and the ranking is rebuilt from the per-restaurant scores otherwise.
+ */
+@Component
+public class RestaurantRankingIndex {
+
+    public static final int MAX_LIMIT = 100;
+    public static final double PRIOR_WEIGHT = 20;
+    public static final double TRENDING_HALF_LIFE_HOURS = 24;
+    public static final int TRENDING_WINDOW_DAYS = 7;
+
+    private static final double DEFAULT_PRIOR_MEAN = 3;
+    private static final double PRIOR_DRIFT = 0.05;
+    private static final double DECAY_PER_HOUR = Math.log(2) / TRENDING_HALF_LIFE_HOURS;
+    private static final int HEAP_CAPACITY = 2 * MAX_LIMIT;
+    private static final int ALL = 0;
+
+    public enum Ranking {
+        RATING, TRENDING
+    }
+
+    public record Hit(long restaurantId, double score) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private LongIntHashMap docsByRestaurant;
+    private long[] restaurantIds;
+    private int[] buckets;
+    private long[] ratingCounts;
+    private long[] ratingSums;
+    private double[] trendLogs;
+    private int[] freeDocs;
+    private int freeCount;
+    private int docCount;
+
+    private final Map<String, Integer> cuisineBuckets = new HashMap<>();
+    private final List<TopK[]> tops = new ArrayList<>();
+    private final boolean[] stale = new boolean[Ranking.values().length];
+
+    private long totalRatingCount;
+    private long totalRatingSum;
+    private double priorMean = DEFAULT_PRIOR_MEAN;
+
+    private LongIntHashMap touchedDuringRebuild;
+    private LongIntHashMap ratedDuringRebuild;
+    private long orderHorizon;
+
+    public RestaurantRankingIndex() {
+        reset(256);
+    }
+
+    /**
+     * Adds the restaurant or moves it to its new cuisine. Ratings are only taken from the entity when
+     * the restaurant is new, because later changes arrive through {@link #updateRating}.
+     */
+    public void upsert(Restaurant restaurant) {
+        lock.writeLock().lock();
+        try {
+            touch(restaurant.getId());
+            int doc = docsByRestaurant.get(restaurant.getId());
+            if (doc < 0) {
+                doc = add(restaurant.getId());
+                RatingSummary summary = restaurant.getRatingSummary();
+                if (summary != null) {
+                    setRating(doc, summary.getRatingCount(), summary.getRatingSum());
+                }
+            }
+            setBucket(doc, bucketOf(restaurant.getCuisine()));
+            offer(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long restaurantId) {
+        lock.writeLock().lock();
+        try {
+            touch(restaurantId);
+            int doc = docsByRestaurant.remove(restaurantId);
+            if (doc < 0) {
+                return;
+            }
+            setRating(doc, 0, 0);
+            for (Ranking ranking : Ranking.values()) {
+                tops(ranking, ALL).remove(doc);
+                tops(ranking, buckets[doc]).remove(doc);
+            }
+            buckets[doc] = -1;
+            if (freeCount == freeDocs.length) {
+                freeDocs = Arrays.copyOf(freeDocs, freeCount << 1);
+            }
+            freeDocs[freeCount++] = doc;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the restaurant's rating totals with the committed ones.
+     */
+    public void updateRating(long restaurantId, long ratingCount, long ratingSum) {
+        lock.writeLock().lock();
+        try {
+            int doc = docsByRestaurant.get(restaurantId);
+            if (touchedDuringRebuild != null) {
+                ratedDuringRebuild.put(restaurantId, 1);
+                if (doc < 0) {
+                    doc = add(restaurantId);
+                }
+            }
+            if (doc < 0) {
+                return;
+            }
+            setRating(doc, ratingCount, ratingSum);
+            double liveMean = totalRatingCount == 0 ? DEFAULT_PRIOR_MEAN : (double) totalRatingSum / totalRatingCount;
+            if (Math.abs(liveMean - priorMean) > PRIOR_DRIFT) {
+                // Every rating score moves with the prior, so the heaps are rebuilt on the next read
+                priorMean = liveMean;
+                stale[Ranking.RATING.ordinal()] = true;
+            } else {
+                offer(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void recordOrder(long restaurantId, long orderId, LocalDateTime orderDate) {
+        lock.writeLock().lock();
+        try {
+            // The rebuild reads every order up to the horizon itself
+            if (touchedDuringRebuild != null && orderId <= orderHorizon) {
+                return;
+            }
+            int doc = docsByRestaurant.get(restaurantId);
+            if (doc < 0) {
+                // A rebuild may not have reached the restaurant yet
+                if (touchedDuringRebuild == null) {
+                    return;
+                }
+                doc = add(restaurantId);
+            }
+            addOrder(doc, orderDate);
+            offer(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts a rebuild that will load restaurants and then all orders with IDs up to {@code orderHorizon}.
+     */
+    public void beginRebuild(long orderHorizon) {
+        lock.writeLock().lock();
+        try {
+            reset(256);
+            touchedDuringRebuild = new LongIntHashMap();
+            ratedDuringRebuild = new LongIntHashMap();
+            this.orderHorizon = orderHorizon;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void load(List<Restaurant> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Restaurant restaurant : batch) {
+                if (touchedDuringRebuild != null && touchedDuringRebuild.containsKey(restaurant.getId())) {
+                    continue;
+                }
+                int doc = docsByRestaurant.get(restaurant.getId());
+                if (doc < 0) {
+                    doc = add(restaurant.getId());
+                }
+                RatingSummary summary = restaurant.getRatingSummary();
+                if (summary != null && (ratedDuringRebuild == null || !ratedDuringRebuild.containsKey(restaurant.getId()))) {
+                    setRating(doc, summary.getRatingCount(), summary.getRatingSum());
+                }
+                setBucket(doc, bucketOf(restaurant.getCuisine()));
+                offer(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads historical orders; orders of restaurants that were not loaded are ignored.
+     */
+    public void loadOrders(long[] restaurantIds, LocalDateTime[] orderDates) {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < restaurantIds.length; i++) {
+                int doc = docsByRestaurant.get(restaurantIds[i]);
+                if (doc >= 0) {
+                    addOrder(doc, orderDates[i]);
+                    offer(doc);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endRebuild() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = null;
+            ratedDuringRebuild = null;
+            priorMean = totalRatingCount == 0 ? DEFAULT_PRIOR_MEAN : (double) totalRatingSum / totalRatingCount;
+            Arrays.fill(stale, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docsByRestaurant.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Hit> top(Ranking ranking, String cuisine, int limit) {
+        return top(ranking, cuisine, limit, LocalDateTime.now());
+    }
+
+    /**
+     * Returns up to {@code limit} restaurants best first, optionally restricted to one cuisine
+     * (case-insensitive). Rating scores are Bayesian averages; trending scores are decayed order
+     * counts as of {@code now}. Restaurants without orders are not trending.
+     */
+    public List<Hit> top(Ranking ranking, String cuisine, int limit, LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            List<Hit> hits = collect(ranking, cuisine, limit, now, false);
+            if (hits != null) {
+                return hits;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (stale[ranking.ordinal()] || collect(ranking, cuisine, limit, now, false) == null) {
+                rebuild(ranking);
+            }
+            return collect(ranking, cuisine, limit, now, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of the given restaurants in the restaurants table's rating order: plain average
+     * rating, then number of ratings, then ID ascending. Restaurants the index does not hold count as
+     * unrated.
+     */
+    public long[] pageByRating(long[] candidates, boolean descending, long offset, int limit) {
+        if (offset >= candidates.length) {
+            return new long[0];
+        }
+        double[] averages = new double[candidates.length];
+        long[] counts = new long[candidates.length];
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < candidates.length; i++) {
+                int doc = docsByRestaurant.get(candidates[i]);
+                if (doc >= 0 && ratingCounts[doc] > 0) {
+                    counts[i] = ratingCounts[doc];
+                    averages[i] = (double) ratingSums[doc] / ratingCounts[doc];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        int[] positions = new int[candidates.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        int[] ranked = IntTopK.first(positions, positions.length, (int) Math.min(offset + limit, candidates.length),
+                (a, b) -> {
+                    int c = Double.compare(averages[a], averages[b]);
+                    if (c == 0) {
+                        c = Long.compare(counts[a], counts[b]);
+                    }
+                    if (descending) {
+                        c = -c;
+                    }
+                    return c != 0 ? c : Long.compare(candidates[a], candidates[b]);
+                });
+        long[] page = new long[ranked.length - (int) offset];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = candidates[ranked[(int) offset + i]];
+        }
+        return page;
+    }
+
+    // Returns null when the heap can no longer prove its members are the best ones
+    private List<Hit> collect(Ranking ranking, String cuisine, int limit, LocalDateTime now, boolean rebuilt) {
+        if (stale[ranking.ordinal()] && !rebuilt) {
+            return null;
+        }
+        int bucket = ALL;
+        if (cuisine != null) {
+            Integer found = cuisineBuckets.get(cuisine.toLowerCase(Locale.ROOT));
+            if (found == null) {
+                return List.of();
+            }
+            bucket = found;
+        }
+        TopK top = tops(ranking, bucket);
+        int[] order = top.sorted(restaurantIds);
+        List<Hit> hits = new ArrayList<>(Math.min(limit, order.length));
+        for (int i = 0; i < order.length && hits.size() < limit; i++) {
+            if (top.scores[order[i]] < top.floor) {
+                return rebuilt ? hits : null;
+            }
+            hits.add(new Hit(restaurantIds[top.docs[order[i]]], reported(ranking, top.scores[order[i]], now)));
+        }
+        if (hits.size() < limit && top.floor != Double.NEGATIVE_INFINITY && !rebuilt) {
+            return null;
+        }
+        return hits;
+    }
+
+    private static double reported(Ranking ranking, double score, LocalDateTime now) {
+        return ranking == Ranking.RATING ? score : Math.exp(score - DECAY_PER_HOUR * hoursOf(now));
+    }
+
+    private void rebuild(Ranking ranking) {
+        for (TopK[] byRanking : tops) {
+            byRanking[ranking.ordinal()] = new TopK();
+        }
+        for (int doc = 0; doc < docCount; doc++) {
+            if (buckets[doc] >= 0) {
+                double score = score(ranking, doc);
+                if (score != Double.NEGATIVE_INFINITY) {
+                    tops(ranking, ALL).offer(doc, score);
+                    tops(ranking, buckets[doc]).offer(doc, score);
+                }
+            }
+        }
+        stale[ranking.ordinal()] = false;
+    }
+
+    private void offer(int doc) {
+        if (touchedDuringRebuild != null) {
+            return;
+        }
+        for (Ranking ranking : Ranking.values()) {
+            if (stale[ranking.ordinal()]) {
+                continue;
+            }
+            double score = score(ranking, doc);
+            if (score != Double.NEGATIVE_INFINITY) {
+                tops(ranking, ALL).offer(doc, score);
+                tops(ranking, buckets[doc]).offer(doc, score);
+            }
+        }
+    }
+
+    private double score(Ranking ranking, int doc) {
+        if (ranking == Ranking.TRENDING) {
+            return trendLogs[doc];
+        }
+        return (PRIOR_WEIGHT * priorMean + ratingSums[doc]) / (PRIOR_WEIGHT + ratingCounts[doc]);
+    }
+
+    private void addOrder(int doc, LocalDateTime orderDate) {
+        double weight = DECAY_PER_HOUR * hoursOf(orderDate);
+        double current = trendLogs[doc];
+        trendLogs[doc] = current == Double.NEGATIVE_INFINITY ? weight
+                : Math.max(current, weight) + Math.log1p(Math.exp(-Math.abs(current - weight)));
+    }
+
+    private static double hoursOf(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 3600.0;
+    }
+
+    private void setRating(int doc, long count, long sum) {
+        totalRatingCount += count - ratingCounts[doc];
+        totalRatingSum += sum - ratingSums[doc];
+        ratingCounts[doc] = count;
+        ratingSums[doc] = sum;
+    }
+
+    private void setBucket(int doc, int bucket) {
+        if (buckets[doc] == bucket) {
+            return;
+        }
+        if (buckets[doc] != ALL) {
+            for (Ranking ranking : Ranking.values()) {
+                tops(ranking, buckets[doc]).remove(doc);
+            }
+        }
+        buckets[doc] = bucket;
+    }
+
+    // Restaurants without a cuisine live only in the overall bucket
+    private int bucketOf(String cuisine) {
+        if (cuisine == null) {
+            return ALL;
+        }
+        return cuisineBuckets.computeIfAbsent(cuisine.toLowerCase(Locale.ROOT), key -> {
+            tops.add(newTops());
+            return tops.size() - 1;
+        });
+    }
+
+    private TopK tops(Ranking ranking, int bucket) {
+        return tops.get(bucket)[ranking.ordinal()];
+    }
+
+    private void touch(long restaurantId) {
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.put(restaurantId, 1);
+        }
+    }
+
+    private int add(long restaurantId) {
+        int doc;
+        if (freeCount > 0) {
+            doc = freeDocs[--freeCount];
+        } else {
+            if (docCount == restaurantIds.length) {
+                int capacity = docCount << 1;
+                restaurantIds = Arrays.copyOf(restaurantIds, capacity);
+                buckets = Arrays.copyOf(buckets, capacity);
+                ratingCounts = Arrays.copyOf(ratingCounts, capacity);
+                ratingSums = Arrays.copyOf(ratingSums, capacity);
+                trendLogs = Arrays.copyOf(trendLogs, capacity);
+            }
+            doc = docCount++;
+        }
+        restaurantIds[doc] = restaurantId;
+        buckets[doc] = ALL;
+        ratingCounts[doc] = 0;
+        ratingSums[doc] = 0;
+        trendLogs[doc] = Double.NEGATIVE_INFINITY;
+        docsByRestaurant.put(restaurantId, doc);
+        return doc;
+    }
+
+    private void reset(int capacity) {
+        docsByRestaurant = new LongIntHashMap(capacity);
+        restaurantIds = new long[capacity];
+        buckets = new int[capacity];
+        ratingCounts = new long[capacity];
+        ratingSums = new long[capacity];
+        trendLogs = new double[capacity];
+        freeDocs = new int[16];
+        freeCount = 0;
+        docCount = 0;
+        totalRatingCount = 0;
+        totalRatingSum = 0;
+        priorMean = DEFAULT_PRIOR_MEAN;
+        cuisineBuckets.clear();
+        tops.clear();
+        tops.add(newTops());
+        Arrays.fill(stale, false);
+    }
+
+    private static TopK[] newTops() {
+        TopK[] byRanking = new TopK[Ranking.values().length];
+        for (int i = 0; i < byRanking.length; i++) {
+            byRanking[i] = new TopK();
+        }
+        return byRanking;
+    }
+
+    /**
+     * Min-heap of at most {@link #HEAP_CAPACITY} docs. {@code floor} bounds the score of every
+     * restaurant in the bucket that is not a member.
+     */
+    static final class TopK {
+
+        final int[] docs = new int[HEAP_CAPACITY];
+        final double[] scores = new double[HEAP_CAPACITY];
+        int size;
+        double floor = Double.NEGATIVE_INFINITY;
+
+        void offer(int doc, double score) {
+            int i = indexOf(doc);
+            if (i >= 0) {
+                scores[i] = score;
+                siftDown(siftUp(i));
+            } else if (size < HEAP_CAPACITY) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                floor = Math.max(floor, scores[0]);
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            } else {
+                floor = Math.max(floor, score);
+            }
+        }
+
+        void remove(int doc) {
+            int i = indexOf(doc);
+            if (i < 0) {
+                return;
+            }
+            size--;
+            if (i < size) {
+                docs[i] = docs[size];
+                scores[i] = scores[size];
+                siftDown(siftUp(i));
+            }
+        }
+
+        // Heap slots ordered best first, ties by restaurant ID
+        int[] sorted(long[] restaurantIds) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> scores[a] != scores[b]
+                    ? Double.compare(scores[b], scores[a])
+                    : Long.compare(restaurantIds[docs[a]], restaurantIds[docs[b]]));
+            return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+        }
+
+        private int indexOf(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int siftUp(int i) {
+            int doc = docs[i];
+            double score = scores[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= score) {
+                    break;
+                }
+                docs[i] = docs[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            docs[i] = doc;
+            scores[i] = score;
+            return i;
+        }
+
+        private void siftDown(int i) {
+            int doc = docs[i];
+            double score = scores[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && scores[child + 1] < scores[child]) {
+                    child++;
+                }
+                if (scores[child] >= score) {
+                    break;
+                }
+                docs[i] = docs[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            docs[i] = doc;
+            scores[i] = score;
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.util.LongIntHashMap;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory trigram index over restaurant name and cuisine.
+ * Words are padded like pg_trgm ("  word ") and every trigram is packed into a long, mapping to a
+ * sorted int posting array. Substring queries intersect the query's trigrams and verify candidates,
+ * matching {@code LOWER(name) LIKE '%term%'}; when nothing matches, trigram similarity gives
+ * typo-tolerant results instead. Phone numbers and opening hours are kept too, so that every list
+ * order except rating is served from the index.
+ */
+@Component
+public class RestaurantTrigramIndex {
+
+    public enum Order { RELEVANCE, NAME, CUISINE, ID, PHONE_NUMBER, OPENING_HOURS }
+
+    private static final float MIN_SIMILARITY = 0.45f;
+    private static final int MIN_DELETED_FOR_COMPACTION = 256;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private LongIntHashMap docsByRestaurant;
+    private long[] restaurantIds;
+    private String[] names;
+    private String[] cuisines;
+    private String[] phoneNumbers;
+    private String[] openingHours;
+    private boolean[] deleted;
+    private int docCount;
+    private int liveCount;
+    private int deletedCount;
+
+    private LongIntHashMap postingSlots;
+    private int[][] postings;
+    private int[] postingSizes;
+    private int slotCount;
+
+    private LongIntHashMap touchedDuringRebuild;
+
+    public RestaurantTrigramIndex() {
+        reset(256);
+    }
+
+    /**
+     * {@code restaurantIds} is the requested page; {@code matchedIds} holds every match, unordered.
+     */
+    public record Hits(long total, long[] restaurantIds, long[] matchedIds) {
+    }
+
+    public void upsert(Restaurant restaurant) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.put(restaurant.getId(), 1);
+            }
+            index(restaurant);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long restaurantId) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.put(restaurantId, 1);
+            }
+            int doc = docsByRestaurant.remove(restaurantId);
+            if (doc >= 0) {
+                tombstone(doc);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            reset(256);
+            touchedDuringRebuild = new LongIntHashMap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void load(List<Restaurant> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Restaurant restaurant : batch) {
+                if (touchedDuringRebuild == null || !touchedDuringRebuild.containsKey(restaurant.getId())) {
+                    index(restaurant);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endRebuild() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = null;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every matching restaurant ID in the requested order.
+     */
+    public long[] searchAll(String query, Order order, boolean descending) {
+        return searchAll(query, null, null, order, descending);
+    }
+
+    /**
+     * Like {@link #searchAll(String, Order, boolean)}, keeping only restaurants of the given cuisine
+     * (case-insensitive) that pass the filter; either may be null.
+     */
+    public long[] searchAll(String query, String cuisine, LongPredicate filter, Order order, boolean descending) {
+        return search(query, cuisine, filter, order, descending, 0, Integer.MAX_VALUE).restaurantIds();
+    }
+
+    /**
+     * Returns one page of matching restaurant IDs in the requested order, plus the total match count.
+     */
+    public Hits search(String query, Order order, boolean descending, long offset, int limit) {
+        return search(query, null, null, order, descending, offset, limit);
+    }
+
+    public Hits search(String query, String cuisine, LongPredicate filter, Order order, boolean descending,
+                       long offset, int limit) {
+        String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        String cuisineTerm = cuisine == null ? null : cuisine.trim().toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            int[] docs;
+            float[] scores;
+            if (term.isEmpty()) {
+                docs = liveDocs();
+                scores = new float[docs.length];
+            } else {
+                docs = substringMatches(term);
+                scores = new float[docs.length];
+                for (int i = 0; i < docs.length; i++) {
+                    scores[i] = substringScore(docs[i], term);
+                }
+                if (docs.length == 0) {
+                    float[][] similarity = new float[1][];
+                    docs = similarMatches(term, similarity);
+                    scores = similarity[0];
+                }
+            }
+            if (cuisineTerm != null || filter != null) {
+                int kept = 0;
+                for (int i = 0; i < docs.length; i++) {
+                    int doc = docs[i];
+                    if ((cuisineTerm == null || cuisines[doc].equals(cuisineTerm))
+                            && (filter == null || filter.test(restaurantIds[doc]))) {
+                        docs[kept] = doc;
+                        scores[kept] = scores[i];
+                        kept++;
+                    }
+                }
+                docs = Arrays.copyOf(docs, kept);
+                scores = Arrays.copyOf(scores, kept);
+            }
+            return page(docs, scores, order, descending, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #search}, over the given restaurants instead of the matches of a query. Lists of a few
+     * restaurants, such as the ones open right now, are ordered without walking the whole index.
+     */
+    public Hits select(long[] candidates, String cuisine, Order order, boolean descending, long offset, int limit) {
+        String cuisineTerm = cuisine == null ? null : cuisine.trim().toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            int[] docs = new int[candidates.length];
+            int count = 0;
+            for (long restaurantId : candidates) {
+                int doc = docsByRestaurant.get(restaurantId);
+                if (doc >= 0 && (cuisineTerm == null || cuisines[doc].equals(cuisineTerm))) {
+                    docs[count++] = doc;
+                }
+            }
+            return page(Arrays.copyOf(docs, count), new float[count], order, descending, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Hits page(int[] docs, float[] scores, Order order, boolean descending, long offset, int limit) {
+        IntTopK.IntComparator comparator = switch (order) {
+            case RELEVANCE -> (a, b) -> {
+                int byScore = Float.compare(scores[b], scores[a]);
+                return byScore != 0 ? byScore : names[docs[a]].compareTo(names[docs[b]]);
+            };
+            case NAME -> (a, b) -> names[docs[a]].compareTo(names[docs[b]]);
+            case CUISINE -> (a, b) -> {
+                int byCuisine = cuisines[docs[a]].compareTo(cuisines[docs[b]]);
+                return byCuisine != 0 ? byCuisine : names[docs[a]].compareTo(names[docs[b]]);
+            };
+            case ID -> (a, b) -> Long.compare(restaurantIds[docs[a]], restaurantIds[docs[b]]);
+            case PHONE_NUMBER -> (a, b) -> phoneNumbers[docs[a]].compareTo(phoneNumbers[docs[b]]);
+            case OPENING_HOURS -> (a, b) -> openingHours[docs[a]].compareTo(openingHours[docs[b]]);
+        };
+        IntTopK.IntComparator ranking = (a, b) -> {
+            int c = descending ? comparator.compare(b, a) : comparator.compare(a, b);
+            return c != 0 ? c : Long.compare(restaurantIds[docs[a]], restaurantIds[docs[b]]);
+        };
+
+        long[] matchedIds = new long[docs.length];
+        for (int i = 0; i < docs.length; i++) {
+            matchedIds[i] = restaurantIds[docs[i]];
+        }
+        // Only the matches up to the end of the page are ordered
+        if (offset >= docs.length) {
+            return new Hits(docs.length, new long[0], matchedIds);
+        }
+        int[] positions = new int[docs.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        int[] ranked = IntTopK.first(positions, positions.length, (int) Math.min(offset + limit, docs.length), ranking);
+        long[] page = new long[ranked.length - (int) offset];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = restaurantIds[docs[ranked[(int) offset + i]]];
+        }
+        return new Hits(docs.length, page, matchedIds);
+    }
+
+    private int[] substringMatches(String term) {
+        long[] required = innerTrigrams(term);
+        int[] candidates;
+        if (required.length == 0) {
+            candidates = liveDocs();
+        } else {
+            candidates = null;
+            for (long trigram : required) {
+                int slot = postingSlots.get(trigram);
+                if (slot < 0) {
+                    return new int[0];
+                }
+                candidates = candidates == null
+                        ? Arrays.copyOf(postings[slot], postingSizes[slot])
+                        : intersect(candidates, postings[slot], postingSizes[slot]);
+                if (candidates.length == 0) {
+                    return candidates;
+                }
+            }
+        }
+        int count = 0;
+        for (int doc : candidates) {
+            if (!deleted[doc] && (names[doc].contains(term) || cuisines[doc].contains(term))) {
+                candidates[count++] = doc;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private int[] similarMatches(String term, float[][] similarity) {
+        long[] queryTrigrams = paddedTrigrams(term);
+        if (queryTrigrams.length == 0) {
+            similarity[0] = new float[0];
+            return new int[0];
+        }
+        // Sparse, so a typo search costs the postings it reads rather than the size of the catalogue
+        LongIntHashMap shared = new LongIntHashMap();
+        for (long trigram : queryTrigrams) {
+            int slot = postingSlots.get(trigram);
+            if (slot < 0) {
+                continue;
+            }
+            int[] docs = postings[slot];
+            for (int i = 0; i < postingSizes[slot]; i++) {
+                shared.addTo(docs[i], 1);
+            }
+        }
+        int[] matches = new int[shared.size()];
+        float[] scores = new float[shared.size()];
+        int[] count = new int[1];
+        shared.forEach((doc, sharedCount) -> {
+            float score = (float) sharedCount / queryTrigrams.length;
+            if (!deleted[(int) doc] && sharedCount >= 2 && score >= MIN_SIMILARITY) {
+                matches[count[0]] = (int) doc;
+                scores[count[0]] = score;
+                count[0]++;
+            }
+        });
+        similarity[0] = Arrays.copyOf(scores, count[0]);
+        return Arrays.copyOf(matches, count[0]);
+    }
+
+    // Substring hits always rank above similarity hits (< 1)
+    private float substringScore(int doc, String term) {
+        String name = names[doc];
+        if (name.startsWith(term)) {
+            return 4f + (float) term.length() / name.length();
+        }
+        if (name.contains(" " + term)) {
+            return 3f + (float) term.length() / name.length();
+        }
+        if (name.contains(term)) {
+            return 2f + (float) term.length() / name.length();
+        }
+        return 1f + (float) term.length() / cuisines[doc].length();
+    }
+
+    private int[] liveDocs() {
+        int[] docs = new int[liveCount];
+        int count = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!deleted[doc]) {
+                docs[count++] = doc;
+            }
+        }
+        return docs;
+    }
+
+    private static int[] intersect(int[] left, int[] right, int rightSize) {
+        int[] result = new int[Math.min(left.length, rightSize)];
+        int i = 0, j = 0, count = 0;
+        while (i < left.length && j < rightSize) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void index(Restaurant restaurant) {
+        long restaurantId = restaurant.getId();
+        int previous = docsByRestaurant.get(restaurantId);
+        if (previous >= 0) {
+            tombstone(previous);
+        }
+        if (docCount == restaurantIds.length) {
+            int capacity = docCount << 1;
+            restaurantIds = Arrays.copyOf(restaurantIds, capacity);
+            names = Arrays.copyOf(names, capacity);
+            cuisines = Arrays.copyOf(cuisines, capacity);
+            phoneNumbers = Arrays.copyOf(phoneNumbers, capacity);
+            openingHours = Arrays.copyOf(openingHours, capacity);
+            deleted = Arrays.copyOf(deleted, capacity);
+        }
+        int doc = docCount++;
+        restaurantIds[doc] = restaurantId;
+        names[doc] = lowerCase(restaurant.getName());
+        cuisines[doc] = lowerCase(restaurant.getCuisine());
+        phoneNumbers[doc] = lowerCase(restaurant.getPhoneNumber());
+        openingHours[doc] = lowerCase(restaurant.getOpeningHours());
+        deleted[doc] = false;
+        docsByRestaurant.put(restaurantId, doc);
+        liveCount++;
+
+        for (long trigram : paddedTrigrams(names[doc] + " " + cuisines[doc])) {
+            addPosting(trigram, doc);
+        }
+        compactIfNeeded();
+    }
+
+    private void addPosting(long trigram, int doc) {
+        int slot = postingSlots.get(trigram);
+        if (slot < 0) {
+            if (slotCount == postings.length) {
+                postings = Arrays.copyOf(postings, slotCount << 1);
+                postingSizes = Arrays.copyOf(postingSizes, slotCount << 1);
+            }
+            slot = slotCount++;
+            postingSlots.put(trigram, slot);
+            postings[slot] = new int[4];
+        }
+        int[] docs = postings[slot];
+        if (postingSizes[slot] == docs.length) {
+            docs = postings[slot] = Arrays.copyOf(docs, docs.length << 1);
+        }
+        docs[postingSizes[slot]++] = doc;
+    }
+
+    private void tombstone(int doc) {
+        deleted[doc] = true;
+        liveCount--;
+        deletedCount++;
+    }
+
+    private void compactIfNeeded() {
+        if (touchedDuringRebuild != null || deletedCount < MIN_DELETED_FOR_COMPACTION || deletedCount * 4 < docCount) {
+            return;
+        }
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted[doc]) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = next;
+            restaurantIds[next] = restaurantIds[doc];
+            names[next] = names[doc];
+            cuisines[next] = cuisines[doc];
+            phoneNumbers[next] = phoneNumbers[doc];
+            openingHours[next] = openingHours[doc];
+            deleted[next] = false;
+            next++;
+        }
+        for (int doc = next; doc < docCount; doc++) {
+            names[doc] = null;
+            cuisines[doc] = null;
+            phoneNumbers[doc] = null;
+            openingHours[doc] = null;
+        }
+        docCount = next;
+        deletedCount = 0;
+        docsByRestaurant = new LongIntHashMap(docCount);
+        for (int doc = 0; doc < docCount; doc++) {
+            docsByRestaurant.put(restaurantIds[doc], doc);
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            int[] docs = postings[slot];
+            int kept = 0;
+            for (int i = 0; i < postingSizes[slot]; i++) {
+                int target = remap[docs[i]];
+                if (target >= 0) {
+                    docs[kept++] = target;
+                }
+            }
+            postingSizes[slot] = kept;
+        }
+    }
+
+    private void reset(int capacity) {
+        docsByRestaurant = new LongIntHashMap(capacity);
+        restaurantIds = new long[capacity];
+        names = new String[capacity];
+        cuisines = new String[capacity];
+        phoneNumbers = new String[capacity];
+        openingHours = new String[capacity];
+        deleted = new boolean[capacity];
+        docCount = 0;
+        liveCount = 0;
+        deletedCount = 0;
+        postingSlots = new LongIntHashMap(4096);
+        postings = new int[4096][];
+        postingSizes = new int[4096];
+        slotCount = 0;
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    // Distinct trigrams of every word padded as "  word "
+    static long[] paddedTrigrams(String text) {
+        LongIntHashMap seen = new LongIntHashMap();
+        long[] trigrams = new long[16];
+        int count = 0;
+        for (String word : Tokenizer.tokenize(text)) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                long trigram = pack(padded, i);
+                if (seen.put(trigram, 1) < 0) {
+                    if (count == trigrams.length) {
+                        trigrams = Arrays.copyOf(trigrams, count << 1);
+                    }
+                    trigrams[count++] = trigram;
+                }
+            }
+        }
+        return Arrays.copyOf(trigrams, count);
+    }
+
+    // Unpadded trigrams of each query word: present in any document containing the term as a substring
+    static long[] innerTrigrams(String term) {
+        LongIntHashMap seen = new LongIntHashMap();
+        long[] trigrams = new long[16];
+        int count = 0;
+        for (String word : Tokenizer.tokenize(term)) {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                long trigram = pack(word, i);
+                if (seen.put(trigram, 1) < 0) {
+                    if (count == trigrams.length) {
+                        trigrams = Arrays.copyOf(trigrams, count << 1);
+                    }
+                    trigrams[count++] = trigram;
+                }
+            }
+        }
+        return Arrays.copyOf(trigrams, count);
+    }
+
+    private static long pack(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+}
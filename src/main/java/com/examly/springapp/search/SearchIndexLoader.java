@@ -0,0 +1,222 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.dto.OrderActivity;
+import com.examly.springapp.dto.OrderLine;
+import com.examly.springapp.entity.MenuItem;
+import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.entity.RestaurantHoursException;
+import com.examly.springapp.entity.RestaurantOpeningInterval;
+import com.examly.springapp.repository.MenuRepository;
+import com.examly.springapp.repository.OrderItemRepository;
+import com.examly.springapp.repository.OrderRepository;
+import com.examly.springapp.repository.RestaurantHoursExceptionRepository;
+import com.examly.springapp.repository.RestaurantOpeningIntervalRepository;
+import com.examly.springapp.repository.RestaurantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the in-memory search indexes from the database at startup, paging through rows by ID.
+ * Menu items are tokenized, and order lines counted into co-occurrence partials, in parallel per batch.
+ */
+@Component
+public class SearchIndexLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexLoader.class);
+    private static final int BATCH_SIZE = 10_000;
+    private static final int ORDERS_PER_PARTIAL = 1_000;
+
+    private final MenuRepository menuRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final RestaurantOpeningIntervalRepository openingIntervalRepository;
+    private final RestaurantHoursExceptionRepository hoursExceptionRepository;
+    private final MenuSearchIndex menuSearchIndex;
+    private final RestaurantTrigramIndex restaurantTrigramIndex;
+    private final CuisineFacetIndex cuisineFacetIndex;
+    private final RestaurantGeoIndex restaurantGeoIndex;
+    private final RestaurantHoursIndex restaurantHoursIndex;
+    private final RestaurantRankingIndex restaurantRankingIndex;
+    private final MenuCooccurrenceIndex menuCooccurrenceIndex;
+
+    public SearchIndexLoader(MenuRepository menuRepository, RestaurantRepository restaurantRepository,
+                             OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                             RestaurantOpeningIntervalRepository openingIntervalRepository,
+                             RestaurantHoursExceptionRepository hoursExceptionRepository,
+                             MenuSearchIndex menuSearchIndex, RestaurantTrigramIndex restaurantTrigramIndex,
+                             CuisineFacetIndex cuisineFacetIndex, RestaurantGeoIndex restaurantGeoIndex,
+                             RestaurantHoursIndex restaurantHoursIndex, RestaurantRankingIndex restaurantRankingIndex,
+                             MenuCooccurrenceIndex menuCooccurrenceIndex) {
+        this.menuRepository = menuRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.openingIntervalRepository = openingIntervalRepository;
+        this.hoursExceptionRepository = hoursExceptionRepository;
+        this.menuSearchIndex = menuSearchIndex;
+        this.restaurantTrigramIndex = restaurantTrigramIndex;
+        this.cuisineFacetIndex = cuisineFacetIndex;
+        this.restaurantGeoIndex = restaurantGeoIndex;
+        this.restaurantHoursIndex = restaurantHoursIndex;
+        this.restaurantRankingIndex = restaurantRankingIndex;
+        this.menuCooccurrenceIndex = menuCooccurrenceIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildRestaurantIndexes();
+        rebuildMenuIndex();
+        rebuildCooccurrenceIndex();
+    }
+
+    public void rebuildRestaurantIndexes() {
+        long started = System.nanoTime();
+        restaurantTrigramIndex.beginRebuild();
+        cuisineFacetIndex.beginRebuild();
+        restaurantGeoIndex.beginRebuild();
+        restaurantHoursIndex.beginRebuild();
+        long orderHorizon = orderRepository.findMaxId();
+        restaurantRankingIndex.beginRebuild(orderHorizon);
+        try {
+            Long afterId = 0L;
+            while (true) {
+                List<Restaurant> batch = restaurantRepository.findNextBatch(afterId, PageRequest.of(0, BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                restaurantTrigramIndex.load(batch);
+                cuisineFacetIndex.load(batch);
+                restaurantGeoIndex.load(batch);
+                restaurantRankingIndex.load(batch);
+                loadOpeningHours(batch.get(0).getId(), batch.get(batch.size() - 1).getId());
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            loadRecentOrders(orderHorizon);
+        } finally {
+            restaurantTrigramIndex.endRebuild();
+            cuisineFacetIndex.endRebuild();
+            restaurantGeoIndex.endRebuild();
+            restaurantHoursIndex.endRebuild();
+            restaurantRankingIndex.endRebuild();
+        }
+        logger.info("Restaurant indexes rebuilt with {} restaurants in {} ms",
+                restaurantTrigramIndex.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Past exceptions can never apply again, so only today's and later ones are loaded
+    private void loadOpeningHours(Long fromId, Long toId) {
+        Map<Long, List<RestaurantOpeningInterval>> intervals = openingIntervalRepository
+                .findByRestaurantIdBetween(fromId, toId).stream()
+                .collect(Collectors.groupingBy(interval -> interval.getRestaurant().getId()));
+        Map<Long, List<RestaurantHoursException>> exceptions = hoursExceptionRepository
+                .findUpcomingByRestaurantIdBetween(fromId, toId, LocalDate.now()).stream()
+                .collect(Collectors.groupingBy(exception -> exception.getRestaurant().getId()));
+        restaurantHoursIndex.load(intervals, exceptions);
+    }
+
+    // Older orders have decayed to almost nothing in the trending scores
+    private void loadRecentOrders(long orderHorizon) {
+        LocalDateTime since = LocalDateTime.now().minusDays(RestaurantRankingIndex.TRENDING_WINDOW_DAYS);
+        Long afterId = 0L;
+        while (true) {
+            List<OrderActivity> batch = orderRepository.findActivitySince(afterId, orderHorizon, since,
+                    PageRequest.of(0, BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            restaurantRankingIndex.loadOrders(
+                    batch.stream().mapToLong(OrderActivity::restaurantId).toArray(),
+                    batch.stream().map(OrderActivity::orderDate).toArray(LocalDateTime[]::new));
+            afterId = batch.get(batch.size() - 1).orderId();
+        }
+    }
+
+    public void rebuildMenuIndex() {
+        long started = System.nanoTime();
+        menuSearchIndex.beginRebuild((int) menuRepository.count());
+        try {
+            Long afterId = 0L;
+            while (true) {
+                List<MenuItem> batch = menuRepository.findNextBatch(afterId, PageRequest.of(0, BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                menuSearchIndex.load(batch.parallelStream()
+                        .map(MenuSearchIndex.Document::of)
+                        .map(MenuSearchIndex::analyze)
+                        .toList());
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } finally {
+            menuSearchIndex.endRebuild();
+        }
+        logger.info("Menu search index rebuilt with {} items in {} ms",
+                menuSearchIndex.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public void rebuildCooccurrenceIndex() {
+        long started = System.nanoTime();
+        long orderHorizon = orderRepository.findMaxId();
+        menuCooccurrenceIndex.beginRebuild(orderHorizon);
+        try {
+            Long afterOrderId = 0L;
+            while (true) {
+                List<OrderLine> batch = orderItemRepository.findLinesAfter(afterOrderId, orderHorizon,
+                        PageRequest.of(0, BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<long[]> orders = new ArrayList<>();
+                afterOrderId = groupByOrder(batch, batch.size() == BATCH_SIZE, orders);
+                // Every partial counts its own slice of orders; the partials are merged pairwise
+                menuCooccurrenceIndex.load(IntStream.range(0, (orders.size() + ORDERS_PER_PARTIAL - 1) / ORDERS_PER_PARTIAL)
+                        .parallel()
+                        .mapToObj(i -> MenuCooccurrenceIndex.count(orders.subList(
+                                i * ORDERS_PER_PARTIAL, Math.min(orders.size(), (i + 1) * ORDERS_PER_PARTIAL))))
+                        .reduce(MenuCooccurrenceIndex.Matrix::merge)
+                        .orElseGet(() -> MenuCooccurrenceIndex.count(List.of())));
+            }
+        } finally {
+            menuCooccurrenceIndex.endRebuild();
+        }
+        logger.info("Menu co-occurrence index rebuilt with {} items in {} ms",
+                menuCooccurrenceIndex.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Collects the menu item IDs of each order in the batch and returns the last order ID consumed.
+     * When the batch was cut off by the page size, its last order may be incomplete and is left for
+     * the next batch, unless it is the only order in the batch.
+     */
+    private static Long groupByOrder(List<OrderLine> batch, boolean truncated, List<long[]> orders) {
+        int end = batch.size();
+        Long lastOrderId = batch.get(end - 1).orderId();
+        if (truncated && !batch.get(0).orderId().equals(lastOrderId)) {
+            while (batch.get(end - 1).orderId().equals(lastOrderId)) {
+                end--;
+            }
+            lastOrderId = batch.get(end - 1).orderId();
+        }
+        int start = 0;
+        for (int i = 1; i <= end; i++) {
+            if (i == end || !batch.get(i).orderId().equals(batch.get(start).orderId())) {
+                orders.add(batch.subList(start, i).stream().mapToLong(OrderLine::menuItemId).toArray());
+                start = i;
+            }
+        }
+        return lastOrderId;
+    }
+}
@@ -0,0 +1,48 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.analytics.*;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class AnalyticsService {
+
+    public static final int MAX_TOP_ITEMS = 100;
+
+    private final OrderAnalytics orderAnalytics;
+
+    public AnalyticsService(OrderAnalytics orderAnalytics) {
+        this.orderAnalytics = orderAnalytics;
+    }
+
+    public List<CuisineRevenue> getRevenueByCuisine(LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+        return orderAnalytics.revenueByCuisine(from, to);
+    }
+
+    public BasketSizeDistribution getBasketSizes(LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+        return orderAnalytics.basketSizes(from, to);
+    }
+
+    public OrderHeatmap getOrderHeatmap(LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+        return orderAnalytics.heatmap(from, to);
+    }
+
+    public List<ItemSales> getTopItems(LocalDateTime from, LocalDateTime to, int limit) {
+        validateRange(from, to);
+        if (limit < 1 || limit > MAX_TOP_ITEMS) {
+            throw new IllegalArgumentException("Error: limit must be between 1 and " + MAX_TOP_ITEMS + ".");
+        }
+        return orderAnalytics.topItems(from, to, limit);
+    }
+
+    private void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Error: from must not be after to.");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.FeedbackPage;
+import com.examly.springapp.dto.UserRatings;
+import com.examly.springapp.entity.Feedback;
+import com.examly.springapp.entity.RatingSummary;
+import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.entity.User;
+import com.examly.springapp.repository.FeedbackRepository;
+import com.examly.springapp.repository.RestaurantRepository;
+import com.examly.springapp.repository.UserRepository;
+import com.examly.springapp.search.RestaurantRankingIndex;
+import com.examly.springapp.util.TransactionHooks;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional
+public class FeedbackService {
+
+    private final FeedbackRepository feedbackRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final UserRepository userRepository;
+    private final RestaurantRankingIndex restaurantRankingIndex;
+
+    public FeedbackService(FeedbackRepository feedbackRepository, RestaurantRepository restaurantRepository,
+                           UserRepository userRepository, RestaurantRankingIndex restaurantRankingIndex) {
+        this.feedbackRepository = feedbackRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.userRepository = userRepository;
+        this.restaurantRankingIndex = restaurantRankingIndex;
+    }
+
+    public Feedback submitFeedback(Feedback feedback) {
+        if (feedback.getRestaurantId() == null || feedback.getUserId() == null) {
+            throw new IllegalArgumentException("Error: Restaurant and user are required.");
+        }
+        if (feedback.getRating() == null || feedback.getRating() < 1 || feedback.getRating() > 5) {
+            throw new IllegalArgumentException("Error: Rating must be between 1 and 5.");
+        }
+        String content = feedback.getContent() == null ? "" : feedback.getContent().trim();
+        if (content.length() < 10 || content.length() > 500) {
+            throw new IllegalArgumentException("Error: Feedback must be between 10 and 500 characters.");
+        }
+        Restaurant restaurant = restaurantRepository.findById(feedback.getRestaurantId())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Error: Restaurant with ID " + feedback.getRestaurantId() + " not found."));
+        User user = userRepository.findById(feedback.getUserId())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Error: User with ID " + feedback.getUserId() + " not found."));
+
+        Feedback saved = feedbackRepository.save(new Feedback(content, feedback.getRating(), restaurant, user));
+        applyRatingChange(restaurant.getId(), saved.getRating(), 1);
+        return saved;
+    }
+
+    public boolean deleteFeedback(Long id) {
+        return feedbackRepository.findById(id).map(feedback -> {
+            feedbackRepository.delete(feedback);
+            applyRatingChange(feedback.getRestaurantId(), feedback.getRating(), -1);
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Takes a user's ratings out of the summaries of the restaurants they rated, ahead of deleting the
+     * user: the feedback rows themselves go with the user through the JPA cascade.
+     */
+    public void removeRatingsOfUser(Long userId) {
+        for (UserRatings ratings : feedbackRepository.findRatingsByUserId(userId)) {
+            restaurantRepository.removeRatings(ratings.restaurantId(), ratings.ratingCount(), ratings.ratingSum(),
+                    ratings.oneStarCount(), ratings.twoStarCount(), ratings.threeStarCount(),
+                    ratings.fourStarCount(), ratings.fiveStarCount());
+            updateRankingAfterCommit(ratings.restaurantId());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public FeedbackPage getFeedbackForRestaurant(Long restaurantId, Long beforeId, int size) {
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("Error: size must be between 1 and 100.");
+        }
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new IllegalArgumentException("Error: Restaurant with ID " + restaurantId + " not found.");
+        }
+        // One extra row tells whether another page follows
+        List<Feedback> rows = feedbackRepository.findPageByRestaurantId(restaurantId, beforeId, PageRequest.of(0, size + 1));
+        if (rows.size() <= size) {
+            return new FeedbackPage(rows, null);
+        }
+        List<Feedback> items = rows.subList(0, size);
+        return new FeedbackPage(List.copyOf(items), items.get(size - 1).getId());
+    }
+
+    @Transactional(readOnly = true)
+    public RatingSummary getRatingSummary(Long restaurantId) {
+        return restaurantRepository.findById(restaurantId)
+                .map(Restaurant::getRatingSummary)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Error: Restaurant with ID " + restaurantId + " not found."));
+    }
+
+    // The update holds the row lock, so the totals read back are exactly the ones this transaction commits
+    private void applyRatingChange(Long restaurantId, int rating, int delta) {
+        restaurantRepository.applyRatingChange(restaurantId, rating, delta);
+        updateRankingAfterCommit(restaurantId);
+    }
+
+    private void updateRankingAfterCommit(Long restaurantId) {
+        restaurantRepository.findRatingSummary(restaurantId).ifPresent(summary -> TransactionHooks.afterCommit(() ->
+                restaurantRankingIndex.updateRating(restaurantId, summary.getRatingCount(), summary.getRatingSum())));
+    }
+}
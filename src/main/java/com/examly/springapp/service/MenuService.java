@@ -1,17 +1,31 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.cache.AvailabilityTimeline;
+import com.examly.springapp.cache.MenuSnapshot;
+import com.examly.springapp.cache.MenuSnapshotCache;
+import com.examly.springapp.entity.MenuAvailabilityWindow;
 import com.examly.springapp.entity.MenuItem;
 import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.repository.MenuAvailabilityWindowRepository;
 import com.examly.springapp.repository.MenuRepository;
 import com.examly.springapp.repository.RestaurantRepository;
+import com.examly.springapp.repository.SparseFieldRepository;
+import com.examly.springapp.repository.SparseResource;
+import com.examly.springapp.search.MenuCooccurrenceIndex;
+import com.examly.springapp.search.MenuSearchIndex;
+import com.examly.springapp.search.RecommendedMenuItem;
+import com.examly.springapp.util.TransactionHooks;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -19,10 +33,23 @@ public class MenuService {
 
     private final MenuRepository menuRepository;
     private final RestaurantRepository restaurantRepository;
+    private final MenuAvailabilityWindowRepository availabilityWindowRepository;
+    private final MenuSnapshotCache menuSnapshotCache;
+    private final MenuSearchIndex menuSearchIndex;
+    private final MenuCooccurrenceIndex menuCooccurrenceIndex;
+    private final SparseFieldRepository sparseFieldRepository;
 
-    public MenuService(MenuRepository menuRepository, RestaurantRepository restaurantRepository) {
+    public MenuService(MenuRepository menuRepository, RestaurantRepository restaurantRepository,
+                       MenuAvailabilityWindowRepository availabilityWindowRepository,
+                       MenuSnapshotCache menuSnapshotCache, MenuSearchIndex menuSearchIndex,
+                       MenuCooccurrenceIndex menuCooccurrenceIndex, SparseFieldRepository sparseFieldRepository) {
         this.menuRepository = menuRepository;
         this.restaurantRepository = restaurantRepository;
+        this.availabilityWindowRepository = availabilityWindowRepository;
+        this.menuSnapshotCache = menuSnapshotCache;
+        this.menuSearchIndex = menuSearchIndex;
+        this.menuCooccurrenceIndex = menuCooccurrenceIndex;
+        this.sparseFieldRepository = sparseFieldRepository;
     }
 
     public MenuItem addMenuItem(MenuItem menuItem) {
@@ -37,7 +64,10 @@ public class MenuService {
         }
 
         menuItem.setRestaurant(restaurant);
-        return menuRepository.save(menuItem);
+        MenuItem savedMenuItem = menuRepository.save(menuItem);
+        restaurantRepository.incrementMenuVersion(restaurantId);
+        indexAfterCommit(savedMenuItem);
+        return savedMenuItem;
     }
 
     public Page<MenuItem> getMenuItemsByRestaurant(
@@ -70,6 +100,57 @@ public class MenuService {
         return menuRepository.findByRestaurantId(restaurantId, pageRequest);
     }
 
+    /**
+     * The page {@link #getMenuItemsByRestaurant} returns, with only the given fields of each item.
+     */
+    public Page<Map<String, Object>> getMenuItemFieldsByRestaurant(List<String> fields, Long restaurantId, int page,
+                                                                   int size, String sortBy, String sortDir,
+                                                                   String category, Boolean isVegetarian,
+                                                                   Boolean isVegan, Boolean containsGluten,
+                                                                   Boolean isAvailable) {
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new IllegalArgumentException("Error: Restaurant with ID " + restaurantId + " not found.");
+        }
+
+        Sort sort = Sort.by(sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, sortBy);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("restaurantId", restaurantId);
+        parameters.put("category", category);
+        parameters.put("isVegetarian", isVegetarian);
+        parameters.put("isVegan", isVegan);
+        parameters.put("containsGluten", containsGluten);
+        parameters.put("isAvailable", isAvailable);
+        return sparseFieldRepository.findPage(SparseResource.MENU_ITEM, fields,
+                "m.restaurant.id = :restaurantId AND " + MenuRepository.MENU_FILTERS, parameters,
+                PageRequest.of(page, size, sort));
+    }
+
+    public Page<MenuItem> searchMenuItems(String query, Boolean vegetarian, Boolean vegan, Boolean glutenFree,
+                                          Long restaurantId, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Error: page must not be negative.");
+        }
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("Error: size must be between 1 and 100.");
+        }
+        MenuSearchIndex.SearchHits hits = menuSearchIndex.search(query,
+                Boolean.TRUE.equals(vegetarian), Boolean.TRUE.equals(vegan), Boolean.TRUE.equals(glutenFree),
+                restaurantId, (long) page * size, size);
+        PageRequest pageRequest = PageRequest.of(page, size);
+        if (hits.itemIds().length == 0) {
+            return new PageImpl<>(List.of(), pageRequest, hits.totalHits());
+        }
+
+        List<Long> itemIds = Arrays.stream(hits.itemIds()).boxed().toList();
+        Map<Long, MenuItem> menuItemsById = menuRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+        List<MenuItem> ranked = itemIds.stream()
+                .map(menuItemsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(ranked, pageRequest, hits.totalHits());
+    }
+
     public List<String> getMenuCategoriesByRestaurant(Long restaurantId) {
         if (!restaurantRepository.existsById(restaurantId)) {
             throw new IllegalArgumentException("Error: Restaurant with ID " + restaurantId + " not found.");
@@ -81,6 +162,28 @@ public class MenuService {
         return menuRepository.findById(id);
     }
 
+    /**
+     * Items most often ordered together with the given one, read from the co-occurrence index.
+     */
+    @Transactional(readOnly = true)
+    public List<RecommendedMenuItem> getRecommendations(Long menuItemId, int limit) {
+        if (limit < 1 || limit > MenuCooccurrenceIndex.TOP_N) {
+            throw new IllegalArgumentException("Error: limit must be between 1 and " + MenuCooccurrenceIndex.TOP_N + ".");
+        }
+        if (!menuRepository.existsById(menuItemId)) {
+            throw new IllegalArgumentException("Error: Menu item with ID " + menuItemId + " not found.");
+        }
+        List<MenuCooccurrenceIndex.Recommendation> recommendations = menuCooccurrenceIndex.recommendations(menuItemId, limit);
+        Map<Long, MenuItem> menuItemsById = menuRepository.findAllById(
+                        recommendations.stream().map(MenuCooccurrenceIndex.Recommendation::menuItemId).toList()).stream()
+                .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+        return recommendations.stream()
+                .filter(recommendation -> menuItemsById.containsKey(recommendation.menuItemId()))
+                .map(recommendation -> new RecommendedMenuItem(menuItemsById.get(recommendation.menuItemId()),
+                        recommendation.orderCount(), recommendation.confidence()))
+                .toList();
+    }
+
     public Optional<MenuItem> updateMenuItem(Long id, MenuItem updatedMenuItem) {
         return menuRepository.findById(id).map(existingMenuItem -> {
             if (updatedMenuItem.getRestaurant() == null || updatedMenuItem.getRestaurant().getId() == null) {
@@ -98,6 +201,7 @@ public class MenuService {
                         "Error: Menu item '" + updatedMenuItem.getName() + "' already exists in this restaurant.");
             }
 
+            Long previousRestaurantId = existingMenuItem.getRestaurant().getId();
             existingMenuItem.setName(updatedMenuItem.getName());
             existingMenuItem.setPrice(updatedMenuItem.getPrice());
             existingMenuItem.setDescription(updatedMenuItem.getDescription());
@@ -109,17 +213,98 @@ public class MenuService {
             existingMenuItem.setImageUrl(updatedMenuItem.getImageUrl());
             existingMenuItem.setRestaurant(restaurant);
 
-            return menuRepository.save(existingMenuItem);
+            MenuItem savedMenuItem = menuRepository.save(existingMenuItem);
+            restaurantRepository.incrementMenuVersion(restaurantId);
+            if (!restaurantId.equals(previousRestaurantId)) {
+                restaurantRepository.incrementMenuVersion(previousRestaurantId);
+            }
+            indexAfterCommit(savedMenuItem);
+            return savedMenuItem;
         });
     }
 
     public String deleteMenuItem(Long id) {
         return menuRepository.findById(id)
                 .map(menuItem -> {
+                    availabilityWindowRepository.deleteByMenuItemId(id);
                     menuRepository.delete(menuItem);
+                    restaurantRepository.incrementMenuVersion(menuItem.getRestaurant().getId());
+                    TransactionHooks.afterCommit(() -> {
+                        menuSearchIndex.remove(id);
+                        menuCooccurrenceIndex.remove(id);
+                    });
                     return "Menu item with ID " + id + " has been deleted successfully.";
                 })
                 .orElseThrow(() -> new IllegalArgumentException(
                         "Error: Menu item with ID " + id + " not found."));
     }
-}
\ No newline at end of file
+
+    public List<MenuItem> getOrderableMenuItems(Long restaurantId, LocalDateTime at) {
+        Restaurant restaurant = restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Error: Restaurant with ID " + restaurantId + " not found."));
+
+        MenuSnapshot menu = menuSnapshotCache.forRestaurant(restaurant);
+        long[] itemIds = menu.orderableItemIdsAt(AvailabilityTimeline.minuteOfWeek(at));
+        if (itemIds.length == 0) {
+            return List.of();
+        }
+        List<MenuItem> menuItems = menuRepository.findAllById(
+                Arrays.stream(itemIds).boxed().toList());
+        menuItems.sort(Comparator.comparing(MenuItem::getName));
+        return menuItems;
+    }
+
+    public MenuAvailabilityWindow addAvailabilityWindow(Long restaurantId, MenuAvailabilityWindow window) {
+        Restaurant restaurant = restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Error: Restaurant with ID " + restaurantId + " not found."));
+
+        boolean forMenuItem = window.getMenuItem() != null && window.getMenuItem().getId() != null;
+        boolean forCategory = window.getCategory() != null && !window.getCategory().isBlank();
+        if (forMenuItem == forCategory) {
+            throw new IllegalArgumentException("Error: Specify either a menu item or a category, not both.");
+        }
+        if (window.getStartTime() == null || window.getEndTime() == null) {
+            throw new IllegalArgumentException("Error: Start time and end time are required.");
+        }
+
+        if (forMenuItem) {
+            Long menuItemId = window.getMenuItem().getId();
+            MenuItem menuItem = menuRepository.findById(menuItemId)
+                    .filter(item -> item.getRestaurant().getId().equals(restaurantId))
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "Error: Menu item with ID " + menuItemId + " not found in this restaurant."));
+            window.setMenuItem(menuItem);
+        }
+
+        window.setId(null);
+        window.setRestaurant(restaurant);
+        MenuAvailabilityWindow savedWindow = availabilityWindowRepository.save(window);
+        restaurantRepository.incrementMenuVersion(restaurantId);
+        return savedWindow;
+    }
+
+    public List<MenuAvailabilityWindow> getAvailabilityWindows(Long restaurantId) {
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new IllegalArgumentException("Error: Restaurant with ID " + restaurantId + " not found.");
+        }
+        return availabilityWindowRepository.findByRestaurantId(restaurantId);
+    }
+
+    public String deleteAvailabilityWindow(Long id) {
+        return availabilityWindowRepository.findById(id)
+                .map(window -> {
+                    availabilityWindowRepository.delete(window);
+                    restaurantRepository.incrementMenuVersion(window.getRestaurant().getId());
+                    return "Availability window with ID " + id + " has been deleted successfully.";
+                })
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Error: Availability window with ID " + id + " not found."));
+    }
+
+    private void indexAfterCommit(MenuItem menuItem) {
+        MenuSearchIndex.Document document = MenuSearchIndex.Document.of(menuItem);
+        TransactionHooks.afterCommit(() -> menuSearchIndex.upsert(document));
+    }
+}
@@ -0,0 +1,64 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.aspect.MethodLatency;
+import com.examly.springapp.aspect.MethodMetrics;
+import com.examly.springapp.jdbc.EndpointQueryBudget;
+import com.examly.springapp.jdbc.QueryBudgetInterceptor;
+import com.examly.springapp.jdbc.QueryStats;
+import com.examly.springapp.jdbc.QueryTracer;
+import com.examly.springapp.jdbc.SlowQuery;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+public class MetricsService {
+
+    private final MethodMetrics methodMetrics;
+    private final QueryTracer queryTracer;
+    private final QueryBudgetInterceptor queryBudgetInterceptor;
+
+    public MetricsService(MethodMetrics methodMetrics, QueryTracer queryTracer,
+                          QueryBudgetInterceptor queryBudgetInterceptor) {
+        this.methodMetrics = methodMetrics;
+        this.queryTracer = queryTracer;
+        this.queryBudgetInterceptor = queryBudgetInterceptor;
+    }
+
+    public List<MethodLatency> getMethodLatencies(String layer) {
+        if (layer == null) {
+            return methodMetrics.snapshot(null);
+        }
+        MethodMetrics.Layer parsed = Arrays.stream(MethodMetrics.Layer.values())
+                .filter(candidate -> candidate.name().equalsIgnoreCase(layer))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Error: layer must be controller, service or repository."));
+        return methodMetrics.snapshot(parsed);
+    }
+
+    public void resetMethodLatencies() {
+        methodMetrics.reset();
+    }
+
+    public List<QueryStats> getQueryStats(String origin) {
+        List<QueryStats> stats = queryTracer.snapshot();
+        if (origin == null) {
+            return stats;
+        }
+        return stats.stream().filter(query -> query.origins().containsKey(origin)).toList();
+    }
+
+    public List<SlowQuery> getSlowQueries() {
+        return queryTracer.recentSlowQueries();
+    }
+
+    public List<EndpointQueryBudget> getQueryBudgets() {
+        return queryBudgetInterceptor.snapshot();
+    }
+
+    public void resetQueryStats() {
+        queryTracer.reset();
+        queryBudgetInterceptor.reset();
+    }
+}
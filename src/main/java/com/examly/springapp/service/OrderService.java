@@ -1,7 +1,19 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.analytics.DeliveryTimeEstimator;
+import com.examly.springapp.analytics.OrderVolumeMetrics;
+import com.examly.springapp.analytics.TopItemsTracker;
+import com.examly.springapp.cache.AvailabilityTimeline;
+import com.examly.springapp.cache.MenuSnapshot;
+import com.examly.springapp.cache.MenuSnapshotCache;
 import com.examly.springapp.entity.*;
+import com.examly.springapp.journal.OrderJournal;
+import com.examly.springapp.outbox.OrderOutbox;
 import com.examly.springapp.repository.*;
+import com.examly.springapp.search.MenuCooccurrenceIndex;
+import com.examly.springapp.search.RestaurantRankingIndex;
+import com.examly.springapp.util.TransactionHooks;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -9,7 +21,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -19,19 +33,43 @@ public class OrderService {
     private final UserRepository userRepository;
     private final RestaurantRepository restaurantRepository;
     private final MenuItemRepository menuItemRepository;
-    private final OrderItemRepository orderItemRepository;
+    private final MenuSnapshotCache menuSnapshotCache;
+    private final RestaurantRankingIndex restaurantRankingIndex;
+    private final MenuCooccurrenceIndex menuCooccurrenceIndex;
+    private final TopItemsTracker topItemsTracker;
+    private final OrderVolumeMetrics orderVolumeMetrics;
+    private final DeliveryTimeEstimator deliveryTimeEstimator;
+    private final OrderOutbox orderOutbox;
+    private final OrderJournal orderJournal;
+    private final SparseFieldRepository sparseFieldRepository;
 
     @Autowired
     public OrderService(OrderRepository orderRepository,
                        UserRepository userRepository,
                        RestaurantRepository restaurantRepository,
                        MenuItemRepository menuItemRepository,
-                       OrderItemRepository orderItemRepository) {
+                       MenuSnapshotCache menuSnapshotCache,
+                       RestaurantRankingIndex restaurantRankingIndex,
+                       MenuCooccurrenceIndex menuCooccurrenceIndex,
+                       TopItemsTracker topItemsTracker,
+                       OrderVolumeMetrics orderVolumeMetrics,
+                       DeliveryTimeEstimator deliveryTimeEstimator,
+                       OrderOutbox orderOutbox,
+                       OrderJournal orderJournal,
+                       SparseFieldRepository sparseFieldRepository) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.restaurantRepository = restaurantRepository;
         this.menuItemRepository = menuItemRepository;
-        this.orderItemRepository = orderItemRepository;
+        this.menuSnapshotCache = menuSnapshotCache;
+        this.restaurantRankingIndex = restaurantRankingIndex;
+        this.menuCooccurrenceIndex = menuCooccurrenceIndex;
+        this.topItemsTracker = topItemsTracker;
+        this.orderVolumeMetrics = orderVolumeMetrics;
+        this.deliveryTimeEstimator = deliveryTimeEstimator;
+        this.orderOutbox = orderOutbox;
+        this.orderJournal = orderJournal;
+        this.sparseFieldRepository = sparseFieldRepository;
     }
 
     @Transactional
@@ -47,39 +85,88 @@ public class OrderService {
         order.setRestaurant(restaurant);
         order.setOrderDate(LocalDateTime.now());
         order.setStatus(OrderStatus.PENDING);
+        order.setEstimatedDeliveryTime(
+                deliveryTimeEstimator.estimate(restaurant.getId(), OrderStatus.PENDING, order.getOrderDate()));
 
-        // Save order first to get the ID
-        OrderEntity savedOrder = orderRepository.save(order);
-
-        // Process order items
+        // Price order items from the menu snapshot matching this transaction's menu version
+        MenuSnapshot menu = menuSnapshotCache.forRestaurant(restaurant);
+        int minuteOfWeek = AvailabilityTimeline.minuteOfWeek(order.getOrderDate());
         for (OrderItem item : order.getOrderItems()) {
-            MenuItem menuItem = menuItemRepository.findById(item.getMenuItem().getId())
-                    .orElseThrow(() -> new IllegalArgumentException("MenuItem not found: " + item.getMenuItem().getId()));
-
-            item.setOrder(savedOrder);
-            item.setMenuItem(menuItem);
-            item.setPriceAtOrderTime(menuItem.getPrice());
-            item.setItemNameAtOrderTime(menuItem.getName());
-            item.setSubtotal(item.getTotalPrice());
-
-            orderItemRepository.save(item);
+            priceOrderItem(item, order, menu, minuteOfWeek);
         }
 
-        // Calculate total amount
+        // Calculate total amount; order items are persisted through the cascade
         order.calculateTotals();
-        return orderRepository.save(order);
+        OrderEntity saved = orderRepository.save(order);
+        orderOutbox.append(saved, OrderEventType.CREATED);
+        journalAfterCommit(saved, OrderJournal.RecordType.CREATED, saved.getOrderDate());
+        long[] menuItemIds = saved.getOrderItems().stream().mapToLong(item -> item.getMenuItem().getId()).toArray();
+        int[] quantities = saved.getOrderItems().stream().mapToInt(OrderItem::getQuantity).toArray();
+        TransactionHooks.afterCommit(() -> {
+            restaurantRankingIndex.recordOrder(restaurant.getId(), saved.getId(), saved.getOrderDate());
+            menuCooccurrenceIndex.recordOrder(saved.getId(), menuItemIds);
+            topItemsTracker.recordOrder(restaurant.getId(), saved.getId(), saved.getOrderDate(), menuItemIds, quantities);
+            orderVolumeMetrics.recordOrder(restaurant.getId(), saved.getOrderDate(), saved.getTotalAmount());
+        });
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public Page<OrderEntity> getOrdersByUser(Long userId, int page, int size, String sortBy, String sortOrder,
                                            OrderStatus status, LocalDateTime fromDate, LocalDateTime toDate) {
         PageRequest pageRequest = PageRequest.of(page, size);
-        return orderRepository.findUserOrdersWithFilters(userId, status, fromDate, toDate, pageRequest);
+        return withOrderItems(orderRepository.findUserOrdersWithFilters(userId, status, fromDate, toDate, pageRequest));
     }
 
+    @Transactional(readOnly = true)
     public Page<OrderEntity> getOrdersByRestaurant(Long restaurantId, int page, int size, String sortBy, String sortOrder,
                                                  OrderStatus status, LocalDateTime fromDate, LocalDateTime toDate) {
         PageRequest pageRequest = PageRequest.of(page, size);
-        return orderRepository.findRestaurantOrdersWithFilters(restaurantId, status, fromDate, toDate, pageRequest);
+        return withOrderItems(orderRepository.findRestaurantOrdersWithFilters(restaurantId, status, fromDate, toDate, pageRequest));
+    }
+
+    /**
+     * The page {@link #getOrdersByUser} returns, with only the given fields of each order.
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getOrderFieldsByUser(List<String> fields, Long userId, int page, int size,
+                                                          OrderStatus status, LocalDateTime fromDate,
+                                                          LocalDateTime toDate) {
+        Map<String, Object> parameters = orderFilters(status, fromDate, toDate);
+        parameters.put("userId", userId);
+        return sparseFieldRepository.findPage(SparseResource.ORDER, fields,
+                "o.user.id = :userId AND " + OrderRepository.ORDER_FILTERS, parameters, PageRequest.of(page, size));
+    }
+
+    /**
+     * The page {@link #getOrdersByRestaurant} returns, with only the given fields of each order.
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getOrderFieldsByRestaurant(List<String> fields, Long restaurantId, int page,
+                                                                int size, OrderStatus status, LocalDateTime fromDate,
+                                                                LocalDateTime toDate) {
+        Map<String, Object> parameters = orderFilters(status, fromDate, toDate);
+        parameters.put("restaurantId", restaurantId);
+        return sparseFieldRepository.findPage(SparseResource.ORDER, fields,
+                "o.restaurant.id = :restaurantId AND " + OrderRepository.ORDER_FILTERS, parameters,
+                PageRequest.of(page, size));
+    }
+
+    private static Map<String, Object> orderFilters(OrderStatus status, LocalDateTime fromDate, LocalDateTime toDate) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("status", status);
+        parameters.put("fromDate", fromDate);
+        parameters.put("toDate", toDate);
+        return parameters;
+    }
+
+    /**
+     * Loads the items of the whole page in one batch while the transaction is open; left to the
+     * serializer, every order would load its own items.
+     */
+    private static Page<OrderEntity> withOrderItems(Page<OrderEntity> orders) {
+        orders.forEach(order -> Hibernate.initialize(order.getOrderItems()));
+        return orders;
     }
 
     @Transactional
@@ -91,24 +178,20 @@ public class OrderService {
             order.setDeliveryFee(orderDetails.getDeliveryFee());
 
             // Update order items
-            order.getOrderItems().clear();
+            MenuSnapshot menu = menuSnapshotCache.forRestaurant(order.getRestaurant());
+            int minuteOfWeek = AvailabilityTimeline.minuteOfWeek(LocalDateTime.now());
+            order.clearOrderItems();
             for (OrderItem item : orderDetails.getOrderItems()) {
-                MenuItem menuItem = menuItemRepository.findById(item.getMenuItem().getId())
-                        .orElseThrow(() -> new IllegalArgumentException("MenuItem not found: " + item.getMenuItem().getId()));
-
-                item.setOrder(order);
-                item.setMenuItem(menuItem);
-                item.setPriceAtOrderTime(menuItem.getPrice());
-                item.setItemNameAtOrderTime(menuItem.getName());
-                item.setSubtotal(item.getTotalPrice());
-
-                orderItemRepository.save(item);
+                item.setId(null);
+                priceOrderItem(item, order, menu, minuteOfWeek);
                 order.addOrderItem(item);
             }
 
             // Recalculate totals
             order.calculateTotals();
-            return orderRepository.save(order);
+            OrderEntity saved = orderRepository.save(order);
+            journalAfterCommit(saved, OrderJournal.RecordType.ITEMS_UPDATED, LocalDateTime.now());
+            return saved;
         });
     }
 
@@ -117,6 +200,7 @@ public class OrderService {
         OrderEntity order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
         orderRepository.delete(order);
+        journalAfterCommit(order, OrderJournal.RecordType.DELETED, LocalDateTime.now());
     }
 
     @Transactional
@@ -128,7 +212,24 @@ public class OrderService {
             if (order.getStatus() == OrderStatus.DELIVERED && newStatus != OrderStatus.DELIVERED) {
                 throw new IllegalStateException("Cannot update status of a delivered order");
             }
+            boolean cancelling = newStatus == OrderStatus.CANCELLED && order.getStatus() != OrderStatus.CANCELLED;
+            boolean delivering = newStatus == OrderStatus.DELIVERED && order.getStatus() != OrderStatus.DELIVERED;
+            boolean changed = order.getStatus() != newStatus;
             order.updateStatus(newStatus);
+            if (changed) {
+                orderOutbox.append(order, cancelling ? OrderEventType.CANCELLED : OrderEventType.STATUS_CHANGED);
+                journalAfterCommit(order, OrderJournal.RecordType.STATUS_CHANGED, order.getStatusChangedAt(newStatus));
+            }
+            if (cancelling) {
+                recordCancellationAfterCommit(order);
+            }
+            if (delivering) {
+                Long restaurantId = order.getRestaurant().getId();
+                TransactionHooks.afterCommit(() -> deliveryTimeEstimator.recordDelivery(restaurantId, order));
+            } else if (newStatus != OrderStatus.CANCELLED) {
+                order.setEstimatedDeliveryTime(deliveryTimeEstimator.estimate(
+                        order.getRestaurant().getId(), newStatus, order.getStatusChangedAt(newStatus)));
+            }
             return orderRepository.save(order);
         });
     }
@@ -149,7 +250,15 @@ public class OrderService {
             if (order.getStatus() == OrderStatus.DELIVERED) {
                 throw new IllegalStateException("Cannot cancel a delivered order");
             }
+            boolean cancelling = order.getStatus() != OrderStatus.CANCELLED;
+            if (cancelling) {
+                recordCancellationAfterCommit(order);
+            }
             order.updateStatus(OrderStatus.CANCELLED);
+            if (cancelling) {
+                orderOutbox.append(order, OrderEventType.CANCELLED);
+                journalAfterCommit(order, OrderJournal.RecordType.STATUS_CHANGED, order.getCancelledAt());
+            }
             orderRepository.save(order);
             return true;
         } catch (Exception e) {
@@ -165,4 +274,41 @@ public class OrderService {
         return orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
     }
+
+    private void recordCancellationAfterCommit(OrderEntity order) {
+        Long restaurantId = order.getRestaurant().getId();
+        LocalDateTime cancelledAt = LocalDateTime.now();
+        TransactionHooks.afterCommit(() -> orderVolumeMetrics.recordCancellation(restaurantId, cancelledAt));
+    }
+
+    private void journalAfterCommit(OrderEntity order, OrderJournal.RecordType type, LocalDateTime at) {
+        long orderId = order.getId();
+        long restaurantId = order.getRestaurant().getId();
+        long userId = order.getUser().getId();
+        OrderStatus status = order.getStatus();
+        double totalAmount = order.getTotalAmount();
+        int itemCount = order.getOrderItems().size();
+        TransactionHooks.afterCommit(() -> orderJournal.append(type, orderId, restaurantId, userId, status,
+                at, totalAmount, itemCount));
+    }
+
+    private void priceOrderItem(OrderItem item, OrderEntity order, MenuSnapshot menu, int minuteOfWeek) {
+        if (item.getMenuItem() == null || item.getMenuItem().getId() == null) {
+            throw new IllegalArgumentException("MenuItem is required for every order item");
+        }
+        Long menuItemId = item.getMenuItem().getId();
+        int slot = menu.slotOf(menuItemId);
+        if (slot < 0) {
+            throw new IllegalArgumentException("MenuItem not found: " + menuItemId);
+        }
+        if (!menu.isOrderableAt(slot, minuteOfWeek)) {
+            throw new IllegalArgumentException("MenuItem not available: " + menuItemId);
+        }
+
+        item.setOrder(order);
+        item.setMenuItem(menuItemRepository.getReferenceById(menuItemId));
+        item.setPriceAtOrderTime(menu.priceAt(slot));
+        item.setItemNameAtOrderTime(menu.nameAt(slot));
+        item.setSubtotal(item.getTotalPrice());
+    }
 }
\ No newline at end of file
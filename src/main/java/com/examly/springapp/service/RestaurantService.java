@@ -1,47 +1,272 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.analytics.DeliveryTimeEstimator;
+import com.examly.springapp.analytics.OrderVolumeMetrics;
+import com.examly.springapp.analytics.OrderVolumeSeries;
+import com.examly.springapp.analytics.TopItemsTracker;
+import com.examly.springapp.analytics.TopMenuItem;
+import com.examly.springapp.cache.MenuSnapshotCache;
+import com.examly.springapp.dto.OpeningHours;
+import com.examly.springapp.entity.MenuItem;
 import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.entity.RestaurantHoursException;
+import com.examly.springapp.entity.RestaurantOpeningInterval;
+import com.examly.springapp.repository.MenuRepository;
+import com.examly.springapp.repository.RestaurantHoursExceptionRepository;
+import com.examly.springapp.repository.RestaurantOpeningIntervalRepository;
 import com.examly.springapp.repository.RestaurantRepository;
+import com.examly.springapp.repository.SparseFieldRepository;
+import com.examly.springapp.repository.SparseResource;
+import com.examly.springapp.search.CuisineFacetIndex;
+import com.examly.springapp.search.FacetedPage;
+import com.examly.springapp.search.MenuSearchIndex;
+import com.examly.springapp.search.NearbyRestaurant;
+import com.examly.springapp.search.RankedRestaurant;
+import com.examly.springapp.search.RestaurantGeoIndex;
+import com.examly.springapp.search.RestaurantHoursIndex;
+import com.examly.springapp.search.RestaurantRankingIndex;
+import com.examly.springapp.search.RestaurantTrigramIndex;
+import com.examly.springapp.util.TransactionHooks;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class RestaurantService {
 
     private final RestaurantRepository restaurantRepository;
+    private final RestaurantOpeningIntervalRepository openingIntervalRepository;
+    private final RestaurantHoursExceptionRepository hoursExceptionRepository;
+    private final MenuRepository menuRepository;
+    private final MenuSnapshotCache menuSnapshotCache;
+    private final MenuSearchIndex menuSearchIndex;
+    private final RestaurantTrigramIndex restaurantTrigramIndex;
+    private final CuisineFacetIndex cuisineFacetIndex;
+    private final RestaurantGeoIndex restaurantGeoIndex;
+    private final RestaurantHoursIndex restaurantHoursIndex;
+    private final RestaurantRankingIndex restaurantRankingIndex;
+    private final TopItemsTracker topItemsTracker;
+    private final OrderVolumeMetrics orderVolumeMetrics;
+    private final DeliveryTimeEstimator deliveryTimeEstimator;
+    private final SparseFieldRepository sparseFieldRepository;
 
-    public RestaurantService(RestaurantRepository restaurantRepository) {
+    public RestaurantService(RestaurantRepository restaurantRepository,
+                             RestaurantOpeningIntervalRepository openingIntervalRepository,
+                             RestaurantHoursExceptionRepository hoursExceptionRepository,
+                             MenuRepository menuRepository, MenuSnapshotCache menuSnapshotCache,
+                             MenuSearchIndex menuSearchIndex, RestaurantTrigramIndex restaurantTrigramIndex,
+                             CuisineFacetIndex cuisineFacetIndex, RestaurantGeoIndex restaurantGeoIndex,
+                             RestaurantHoursIndex restaurantHoursIndex,
+                             RestaurantRankingIndex restaurantRankingIndex, TopItemsTracker topItemsTracker,
+                             OrderVolumeMetrics orderVolumeMetrics, DeliveryTimeEstimator deliveryTimeEstimator,
+                             SparseFieldRepository sparseFieldRepository) {
         this.restaurantRepository = restaurantRepository;
+        this.openingIntervalRepository = openingIntervalRepository;
+        this.hoursExceptionRepository = hoursExceptionRepository;
+        this.menuRepository = menuRepository;
+        this.menuSnapshotCache = menuSnapshotCache;
+        this.menuSearchIndex = menuSearchIndex;
+        this.restaurantTrigramIndex = restaurantTrigramIndex;
+        this.cuisineFacetIndex = cuisineFacetIndex;
+        this.restaurantGeoIndex = restaurantGeoIndex;
+        this.restaurantHoursIndex = restaurantHoursIndex;
+        this.restaurantRankingIndex = restaurantRankingIndex;
+        this.topItemsTracker = topItemsTracker;
+        this.orderVolumeMetrics = orderVolumeMetrics;
+        this.deliveryTimeEstimator = deliveryTimeEstimator;
+        this.sparseFieldRepository = sparseFieldRepository;
     }
 
     public Restaurant registerRestaurant(Restaurant restaurant) {
-        return restaurantRepository.save(restaurant);
+        validateLocation(restaurant.getLatitude(), restaurant.getLongitude());
+        Restaurant saved = restaurantRepository.save(restaurant);
+        indexAfterCommit(saved);
+        return saved;
     }
 
-    public Page<Restaurant> getAllRestaurants(int page, int size, String sortBy, String sortDir) {
-        Sort sort = Sort.by(sortDir.equalsIgnoreCase("desc") ? 
-            Sort.Direction.DESC : Sort.Direction.ASC, sortBy);
-        Pageable pageable = PageRequest.of(page, size, sort);
-        return restaurantRepository.findAll(pageable);
+    public Page<Restaurant> getAllRestaurants(int page, int size, String sortBy, String sortDir, boolean openNow) {
+        boolean descending = sortDir.equalsIgnoreCase("desc");
+        Pageable pageable = PageRequest.of(page, size, sortOf(sortBy, descending));
+        if (!openNow) {
+            return restaurantRepository.findAll(pageable);
+        }
+        RestaurantTrigramIndex.Hits hits = select(restaurantHoursIndex.openAt(LocalDateTime.now()).restaurantIds(),
+                null, sortBy, descending, pageable);
+        return new PageImpl<>(findAllInOrder(hits.restaurantIds()), pageable, hits.total());
     }
 
-    public Page<Restaurant> searchRestaurants(String searchTerm, int page, int size, String sortBy, String sortDir) {
-        Sort sort = Sort.by(sortDir.equalsIgnoreCase("desc") ? 
-            Sort.Direction.DESC : Sort.Direction.ASC, sortBy);
-        Pageable pageable = PageRequest.of(page, size, sort);
-        return restaurantRepository.searchWithSorting(searchTerm, sortBy, pageable);
+    /**
+     * The page {@link #getAllRestaurants} returns, with only the given fields of each restaurant.
+     */
+    public Page<Map<String, Object>> getRestaurantFields(List<String> fields, int page, int size, String sortBy,
+                                                         String sortDir, boolean openNow) {
+        boolean descending = sortDir.equalsIgnoreCase("desc");
+        Pageable pageable = PageRequest.of(page, size, sortOf(sortBy, descending));
+        if (!openNow) {
+            return sparseFieldRepository.findPage(SparseResource.RESTAURANT, fields, null, Map.of(), pageable);
+        }
+        RestaurantTrigramIndex.Hits hits = select(restaurantHoursIndex.openAt(LocalDateTime.now()).restaurantIds(),
+                null, sortBy, descending, pageable);
+        return new PageImpl<>(sparseFieldRepository.findAllInOrder(SparseResource.RESTAURANT, fields,
+                Arrays.stream(hits.restaurantIds()).boxed().toList()), pageable, hits.total());
     }
 
-    public Page<Restaurant> filterByCuisine(String cuisine, int page, int size, String sortBy, String sortDir) {
-        Sort sort = Sort.by(sortDir.equalsIgnoreCase("desc") ? 
-            Sort.Direction.DESC : Sort.Direction.ASC, sortBy);
-        Pageable pageable = PageRequest.of(page, size, sort);
-        return restaurantRepository.filterByCuisineWithSorting(cuisine, sortBy, pageable);
+    public FacetedPage<Restaurant> searchRestaurants(String searchTerm, int page, int size, String sortBy, String sortDir,
+                                                     boolean openNow) {
+        boolean descending = sortDir.equalsIgnoreCase("desc");
+        Pageable pageable = PageRequest.of(page, size, sortOf(sortBy, descending));
+
+        RestaurantTrigramIndex.Hits hits = search(searchTerm, null,
+                openNow ? restaurantHoursIndex.openAt(LocalDateTime.now()) : null, sortBy, descending, pageable);
+        return FacetedPage.of(new PageImpl<>(findAllInOrder(hits.restaurantIds()), pageable, hits.total()),
+                cuisineFacetIndex.counts(hits.matchedIds()));
+    }
+
+    /**
+     * The facets ignore the cuisine filter itself, so the UI can show how many restaurants every other
+     * cuisine would return.
+     */
+    public FacetedPage<Restaurant> filterByCuisine(String cuisine, int page, int size, String sortBy, String sortDir,
+                                                   boolean openNow) {
+        boolean descending = sortDir.equalsIgnoreCase("desc");
+        Pageable pageable = PageRequest.of(page, size, sortOf(sortBy, descending));
+        if (!openNow) {
+            return FacetedPage.of(restaurantRepository.filterByCuisineWithSorting(cuisine, sortBy, pageable),
+                    cuisineFacetIndex.counts());
+        }
+        RestaurantHoursIndex.OpenSet open = restaurantHoursIndex.openAt(LocalDateTime.now());
+        long[] openIds = open.restaurantIds();
+        RestaurantTrigramIndex.Hits hits = select(openIds, cuisine, sortBy, descending, pageable);
+        return FacetedPage.of(new PageImpl<>(findAllInOrder(hits.restaurantIds()), pageable, hits.total()),
+                cuisineFacetIndex.counts(openIds));
+    }
+
+    @Transactional(readOnly = true)
+    public OpeningHours getOpeningHours(Long restaurantId) {
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new IllegalArgumentException("Error: Restaurant with ID " + restaurantId + " not found.");
+        }
+        return new OpeningHours(openingIntervalRepository.findByRestaurantId(restaurantId),
+                hoursExceptionRepository.findByRestaurantId(restaurantId));
+    }
+
+    /**
+     * Replaces the restaurant's weekly intervals and exceptions wholesale.
+     */
+    public OpeningHours replaceOpeningHours(Long restaurantId, OpeningHours openingHours) {
+        Restaurant restaurant = restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Error: Restaurant with ID " + restaurantId + " not found."));
+        List<RestaurantOpeningInterval> intervals = openingHours.intervals() == null
+                ? List.of() : List.copyOf(openingHours.intervals());
+        List<RestaurantHoursException> exceptions = openingHours.exceptions() == null
+                ? List.of() : List.copyOf(openingHours.exceptions());
+        validateOpeningHours(intervals, exceptions);
+
+        restaurant.getOpeningIntervals().clear();
+        restaurant.getHoursExceptions().clear();
+        for (RestaurantOpeningInterval interval : intervals) {
+            interval.setId(null);
+            interval.setRestaurant(restaurant);
+            restaurant.getOpeningIntervals().add(interval);
+        }
+        for (RestaurantHoursException exception : exceptions) {
+            exception.setId(null);
+            exception.setRestaurant(restaurant);
+            restaurant.getHoursExceptions().add(exception);
+        }
+        restaurantRepository.save(restaurant);
+        TransactionHooks.afterCommit(() -> restaurantHoursIndex.upsert(restaurantId, intervals, exceptions));
+        return new OpeningHours(intervals, exceptions);
+    }
+
+    @Transactional(readOnly = true)
+    public List<NearbyRestaurant> findNearby(double latitude, double longitude, double radiusKm,
+                                             String cuisine, int limit) {
+        validateLocation(latitude, longitude);
+        if (!(radiusKm > 0 && radiusKm <= RestaurantGeoIndex.MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException(
+                    "Error: radiusKm must be greater than 0 and at most " + RestaurantGeoIndex.MAX_RADIUS_KM + ".");
+        }
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("Error: limit must be between 1 and 100.");
+        }
+        List<RestaurantGeoIndex.Hit> hits = restaurantGeoIndex.nearest(latitude, longitude, radiusKm, cuisine, limit);
+        Map<Long, Restaurant> restaurantsById = restaurantRepository.findAllById(
+                        hits.stream().map(RestaurantGeoIndex.Hit::restaurantId).toList()).stream()
+                .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+        return hits.stream()
+                .filter(hit -> restaurantsById.containsKey(hit.restaurantId()))
+                .map(hit -> new NearbyRestaurant(restaurantsById.get(hit.restaurantId()), hit.distanceKm()))
+                .toList();
+    }
+
+    /**
+     * Top-rated ({@code by=rating}) or trending ({@code by=trending}) restaurants, best first.
+     */
+    public List<RankedRestaurant> getRankedRestaurants(String by, String cuisine, int limit) {
+        RestaurantRankingIndex.Ranking ranking = switch (by.toLowerCase(Locale.ROOT)) {
+            case "rating" -> RestaurantRankingIndex.Ranking.RATING;
+            case "trending" -> RestaurantRankingIndex.Ranking.TRENDING;
+            default -> throw new IllegalArgumentException("Error: by must be either rating or trending.");
+        };
+        if (limit < 1 || limit > RestaurantRankingIndex.MAX_LIMIT) {
+            throw new IllegalArgumentException("Error: limit must be between 1 and " + RestaurantRankingIndex.MAX_LIMIT + ".");
+        }
+        List<RestaurantRankingIndex.Hit> hits = restaurantRankingIndex.top(ranking, cuisine, limit);
+        Map<Long, Restaurant> restaurantsById = restaurantRepository.findAllById(
+                        hits.stream().map(RestaurantRankingIndex.Hit::restaurantId).toList()).stream()
+                .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+        return hits.stream()
+                .filter(hit -> restaurantsById.containsKey(hit.restaurantId()))
+                .map(hit -> new RankedRestaurant(restaurantsById.get(hit.restaurantId()), hit.score()))
+                .toList();
+    }
+
+    /**
+     * Best-selling menu items of the last day, week or month, by quantity.
+     */
+    @Transactional(readOnly = true)
+    public List<TopMenuItem> getTopItems(Long restaurantId, String window, int limit) {
+        TopItemsTracker.Window parsed = Arrays.stream(TopItemsTracker.Window.values())
+                .filter(candidate -> candidate.name().equalsIgnoreCase(window))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Error: window must be day, week or month."));
+        if (limit < 1 || limit > TopItemsTracker.COUNTERS_PER_DAY) {
+            throw new IllegalArgumentException("Error: limit must be between 1 and " + TopItemsTracker.COUNTERS_PER_DAY + ".");
+        }
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new IllegalArgumentException("Error: Restaurant with ID " + restaurantId + " not found.");
+        }
+        List<TopItemsTracker.TopItem> top = topItemsTracker.top(restaurantId, parsed, limit);
+        Map<Long, MenuItem> menuItemsById = menuRepository.findAllById(
+                        top.stream().map(TopItemsTracker.TopItem::menuItemId).toList()).stream()
+                .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+        return top.stream()
+                .filter(item -> menuItemsById.containsKey(item.menuItemId()))
+                .map(item -> new TopMenuItem(menuItemsById.get(item.menuItemId()), item.quantity(), item.maxError()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public OrderVolumeSeries getOrderVolume(Long restaurantId) {
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new IllegalArgumentException("Error: Restaurant with ID " + restaurantId + " not found.");
+        }
+        return orderVolumeMetrics.series(restaurantId, LocalDateTime.now());
+    }
+
+    public OrderVolumeSeries getOverallOrderVolume() {
+        return orderVolumeMetrics.overall(LocalDateTime.now());
     }
 
     public Optional<Restaurant> getRestaurantById(Long id) {
@@ -49,24 +274,149 @@ public class RestaurantService {
     }
 
     public Optional<Restaurant> updateRestaurant(Long id, Restaurant updatedRestaurant) {
+        validateLocation(updatedRestaurant.getLatitude(), updatedRestaurant.getLongitude());
         return restaurantRepository.findById(id).map(existingRestaurant -> {
             existingRestaurant.setName(updatedRestaurant.getName());
             existingRestaurant.setAddress(updatedRestaurant.getAddress());
             existingRestaurant.setCuisine(updatedRestaurant.getCuisine());
             existingRestaurant.setPhoneNumber(updatedRestaurant.getPhoneNumber());
             existingRestaurant.setOpeningHours(updatedRestaurant.getOpeningHours());
-            return restaurantRepository.save(existingRestaurant);
+            existingRestaurant.setLatitude(updatedRestaurant.getLatitude());
+            existingRestaurant.setLongitude(updatedRestaurant.getLongitude());
+            Restaurant saved = restaurantRepository.save(existingRestaurant);
+            indexAfterCommit(saved);
+            return saved;
         });
     }
 
     public boolean deleteRestaurant(Long id) {
         return restaurantRepository.findById(id).map(restaurant -> {
             restaurantRepository.delete(restaurant);
+            // Evicting before the commit would let a concurrent reader cache the snapshot again
+            TransactionHooks.afterCommit(() -> {
+                menuSnapshotCache.evict(id);
+                menuSearchIndex.removeRestaurant(id);
+                restaurantTrigramIndex.remove(id);
+                cuisineFacetIndex.remove(id);
+                restaurantGeoIndex.remove(id);
+                restaurantHoursIndex.remove(id);
+                restaurantRankingIndex.remove(id);
+                topItemsTracker.remove(id);
+                orderVolumeMetrics.remove(id);
+                deliveryTimeEstimator.remove(id);
+            });
             return true;
         }).orElse(false);
     }
 
     public List<String> getAllCuisineTypes() {
-        return restaurantRepository.findAllCuisineTypes();
+        return cuisineFacetIndex.values();
+    }
+
+    private void indexAfterCommit(Restaurant restaurant) {
+        TransactionHooks.afterCommit(() -> {
+            restaurantTrigramIndex.upsert(restaurant);
+            cuisineFacetIndex.upsert(restaurant);
+            restaurantGeoIndex.upsert(restaurant);
+            restaurantRankingIndex.upsert(restaurant);
+        });
+    }
+
+    private static void validateLocation(Double latitude, Double longitude) {
+        if ((latitude == null) != (longitude == null)) {
+            throw new IllegalArgumentException("Error: Latitude and longitude must be provided together.");
+        }
+        if (latitude != null && (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180)) {
+            throw new IllegalArgumentException("Error: Latitude must be between -90 and 90 and longitude between -180 and 180.");
+        }
+    }
+
+    private static void validateOpeningHours(List<RestaurantOpeningInterval> intervals,
+                                             List<RestaurantHoursException> exceptions) {
+        for (RestaurantOpeningInterval interval : intervals) {
+            if (interval.getDayOfWeek() == null || interval.getOpenTime() == null || interval.getCloseTime() == null) {
+                throw new IllegalArgumentException("Error: Opening intervals need a day of week, open time and close time.");
+            }
+        }
+        Set<LocalDate> dates = new HashSet<>();
+        for (RestaurantHoursException exception : exceptions) {
+            if (exception.getDate() == null) {
+                throw new IllegalArgumentException("Error: Opening hours exceptions need a date.");
+            }
+            if (!dates.add(exception.getDate())) {
+                throw new IllegalArgumentException("Error: Only one opening hours exception per date is allowed.");
+            }
+            if ((exception.getOpenTime() == null) != (exception.getCloseTime() == null)) {
+                throw new IllegalArgumentException(
+                        "Error: Exception on " + exception.getDate() + " needs both open and close time, or neither.");
+            }
+            if (exception.getOpenTime() != null && !exception.getCloseTime().equals(LocalTime.MIDNIGHT)
+                    && !exception.getCloseTime().isAfter(exception.getOpenTime())) {
+                throw new IllegalArgumentException(
+                        "Error: Exception on " + exception.getDate() + " must close after it opens.");
+            }
+        }
+    }
+
+    // Rating reads the stored average, with the number of ratings breaking ties
+    private static Sort sortOf(String sortBy, boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        if (sortBy.equals("rating")) {
+            return Sort.by(direction, "ratingSummary.averageRating", "ratingSummary.ratingCount").and(Sort.by("id"));
+        }
+        return Sort.by(direction, sortBy);
+    }
+
+    // One page of matching IDs in the requested order; rating lives in the ranking index, every other key in the trigram index
+    private RestaurantTrigramIndex.Hits search(String query, String cuisine, LongPredicate filter, String sortBy,
+                                               boolean descending, Pageable pageable) {
+        if (sortBy.equals("rating")) {
+            return byRating(restaurantTrigramIndex.search(query, cuisine, filter, RestaurantTrigramIndex.Order.ID,
+                    false, 0, 0), descending, pageable);
+        }
+        return restaurantTrigramIndex.search(query, cuisine, filter, indexOrder(sortBy), descending,
+                pageable.getOffset(), pageable.getPageSize());
+    }
+
+    // Like search, ordering only the given restaurants instead of filtering every restaurant down to them
+    private RestaurantTrigramIndex.Hits select(long[] restaurantIds, String cuisine, String sortBy, boolean descending,
+                                               Pageable pageable) {
+        if (sortBy.equals("rating")) {
+            return byRating(restaurantTrigramIndex.select(restaurantIds, cuisine, RestaurantTrigramIndex.Order.ID,
+                    false, 0, 0), descending, pageable);
+        }
+        return restaurantTrigramIndex.select(restaurantIds, cuisine, indexOrder(sortBy), descending,
+                pageable.getOffset(), pageable.getPageSize());
+    }
+
+    private RestaurantTrigramIndex.Hits byRating(RestaurantTrigramIndex.Hits matches, boolean descending,
+                                                 Pageable pageable) {
+        return new RestaurantTrigramIndex.Hits(matches.total(), restaurantRankingIndex.pageByRating(
+                matches.matchedIds(), descending, pageable.getOffset(), pageable.getPageSize()), matches.matchedIds());
+    }
+
+    private static RestaurantTrigramIndex.Order indexOrder(String sortBy) {
+        return switch (sortBy) {
+            case "relevance" -> RestaurantTrigramIndex.Order.RELEVANCE;
+            case "name" -> RestaurantTrigramIndex.Order.NAME;
+            case "cuisine" -> RestaurantTrigramIndex.Order.CUISINE;
+            case "id" -> RestaurantTrigramIndex.Order.ID;
+            case "phoneNumber" -> RestaurantTrigramIndex.Order.PHONE_NUMBER;
+            case "openingHours" -> RestaurantTrigramIndex.Order.OPENING_HOURS;
+            default -> throw new IllegalArgumentException("Error: Restaurants cannot be sorted by " + sortBy + ".");
+        };
+    }
+
+    private List<Restaurant> findAllInOrder(long[] restaurantIds) {
+        return findAllInOrder(Arrays.stream(restaurantIds).boxed().toList());
+    }
+
+    private List<Restaurant> findAllInOrder(List<Long> restaurantIds) {
+        Map<Long, Restaurant> restaurantsById = restaurantRepository.findAllById(restaurantIds).stream()
+                .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+        return restaurantIds.stream()
+                .map(restaurantsById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
-}
\ No newline at end of file
+}
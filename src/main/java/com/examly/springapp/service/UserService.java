@@ -1,10 +1,14 @@
 package com.examly.springapp.service;
 
 import com.examly.springapp.entity.User;
+import com.examly.springapp.repository.SparseFieldRepository;
+import com.examly.springapp.repository.SparseResource;
 import com.examly.springapp.repository.UserRepository;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -12,9 +16,14 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final SparseFieldRepository sparseFieldRepository;
+    private final FeedbackService feedbackService;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, SparseFieldRepository sparseFieldRepository,
+                       FeedbackService feedbackService) {
         this.userRepository = userRepository;
+        this.sparseFieldRepository = sparseFieldRepository;
+        this.feedbackService = feedbackService;
     }
 
     public User createUser(User user) {
@@ -44,6 +53,7 @@ public class UserService {
 
     public boolean deleteUser(Long id) {
         return userRepository.findById(id).map(user -> {
+            feedbackService.removeRatingsOfUser(id);
             userRepository.delete(user);
             return true;
         }).orElse(false);
@@ -66,4 +76,18 @@ public class UserService {
         Pageable pageable = PageRequest.of(page, size, sort);
         return userRepository.searchUsers(searchTerm, pageable);
     }
+
+    public Page<Map<String, Object>> getUserFields(List<String> fields, int page, int size, String sortBy,
+                                                   String sortOrder) {
+        Sort sort = sortOrder.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        return sparseFieldRepository.findPage(SparseResource.USER, fields, null, Map.of(),
+                PageRequest.of(page, size, sort));
+    }
+
+    public Page<Map<String, Object>> searchUserFields(List<String> fields, String searchTerm, int page, int size,
+                                                      String sortBy, String sortOrder) {
+        Sort sort = sortOrder.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        return sparseFieldRepository.findPage(SparseResource.USER, fields, UserRepository.SEARCH_CONDITION,
+                Map.of("searchTerm", searchTerm), PageRequest.of(page, size, sort));
+    }
 }
\ No newline at end of file
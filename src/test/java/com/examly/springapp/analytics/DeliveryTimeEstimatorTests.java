@@ -0,0 +1,95 @@
+package com.examly.springapp.analytics;
+
+import com.examly.springapp.entity.OrderEntity;
+import com.examly.springapp.entity.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryTimeEstimatorTests {
+
+	// A Monday at noon
+	private static final LocalDateTime NOON = LocalDateTime.of(2024, 3, 4, 12, 0);
+
+	@Test
+	void fallsBackToDefaultsWithoutDeliveries() {
+		DeliveryTimeEstimator estimator = new DeliveryTimeEstimator();
+		assertEquals(NOON.plusMinutes(45), estimator.estimate(1, OrderStatus.PENDING, NOON, NOON));
+		assertEquals(NOON.plusMinutes(15), estimator.estimate(1, OrderStatus.OUT_FOR_DELIVERY, NOON, NOON));
+		assertNull(estimator.estimate(1, OrderStatus.DELIVERED, NOON, NOON));
+		assertNull(estimator.estimate(1, OrderStatus.CANCELLED, NOON, NOON));
+	}
+
+	@Test
+	void estimatesFromEachStatusToDelivery() {
+		DeliveryTimeEstimator estimator = new DeliveryTimeEstimator();
+		for (int week = 0; week < 3; week++) {
+			estimator.recordDelivery(1, delivered(NOON.minusWeeks(week), 5, 20, 30));
+		}
+
+		assertEquals(NOON.plusMinutes(30), estimator.estimate(1, OrderStatus.PENDING, NOON, NOON));
+		assertEquals(NOON.plusMinutes(25), estimator.estimate(1, OrderStatus.CONFIRMED, NOON, NOON));
+		assertEquals(NOON.plusMinutes(10), estimator.estimate(1, OrderStatus.OUT_FOR_DELIVERY, NOON, NOON));
+		// Statuses the orders skipped have no samples of their own
+		assertEquals(NOON.plusMinutes(30), estimator.estimate(1, OrderStatus.PREPARING, NOON, NOON));
+		// An order running late is expected any moment now
+		assertEquals(NOON.plusHours(2), estimator.estimate(1, OrderStatus.PENDING, NOON, NOON.plusHours(2)));
+	}
+
+	@Test
+	void hoursOfTheWeekAreTrackedSeparately() {
+		DeliveryTimeEstimator estimator = new DeliveryTimeEstimator();
+		LocalDateTime friday = NOON.plusDays(4).withHour(19);
+		for (int week = 0; week < 3; week++) {
+			estimator.recordDelivery(1, delivered(NOON.minusWeeks(week), 5, 20, 30));
+			estimator.recordDelivery(1, delivered(friday.minusWeeks(week), 10, 50, 60));
+		}
+
+		assertEquals(NOON.plusMinutes(30), estimator.estimate(1, OrderStatus.PENDING, NOON, NOON));
+		assertEquals(friday.plusMinutes(60), estimator.estimate(1, OrderStatus.PENDING, friday, friday));
+		// Any other hour uses the restaurant's weighted mean across the week
+		LocalDateTime tuesday = NOON.plusDays(1);
+		LocalDateTime eta = estimator.estimate(1, OrderStatus.PENDING, tuesday, tuesday);
+		assertTrue(eta.isAfter(tuesday.plusMinutes(30)) && eta.isBefore(tuesday.plusMinutes(60)), eta.toString());
+	}
+
+	@Test
+	void recentDeliveriesWeighMore() {
+		DeliveryTimeEstimator estimator = new DeliveryTimeEstimator();
+		for (int i = 0; i < 3; i++) {
+			estimator.recordDelivery(1, delivered(NOON.minusWeeks(10 - i), 5, 20, 30));
+		}
+		estimator.recordDelivery(1, delivered(NOON.minusWeeks(1), 5, 20, 80));
+
+		// 30 + 0.2 * (80 - 30)
+		assertEquals(NOON.plusMinutes(40), estimator.estimate(1, OrderStatus.PENDING, NOON, NOON));
+	}
+
+	@Test
+	void restaurantsWithFewDeliveriesUseEveryRestaurantsStatistics() {
+		DeliveryTimeEstimator estimator = new DeliveryTimeEstimator();
+		for (int week = 0; week < 3; week++) {
+			estimator.recordDelivery(1, delivered(NOON.minusWeeks(week), 5, 20, 30));
+		}
+		estimator.recordDelivery(2, delivered(NOON.minusWeeks(1), 5, 20, 90));
+
+		assertEquals(NOON.plusMinutes(30 + 12), estimator.estimate(2, OrderStatus.PENDING, NOON, NOON));
+		assertEquals(NOON.plusMinutes(30 + 12), estimator.estimate(3, OrderStatus.PENDING, NOON, NOON));
+
+		estimator.remove(1);
+		assertEquals(NOON.plusMinutes(30 + 12), estimator.estimate(1, OrderStatus.PENDING, NOON, NOON));
+	}
+
+	// An order placed at orderDate, confirmed and sent out the given minutes later, then delivered
+	private static OrderEntity delivered(LocalDateTime orderDate, int confirmed, int outForDelivery, int delivered) {
+		OrderEntity order = new OrderEntity();
+		order.setOrderDate(orderDate);
+		order.setConfirmedAt(orderDate.plusMinutes(confirmed));
+		order.setOutForDeliveryAt(orderDate.plusMinutes(outForDelivery));
+		order.setActualDeliveryTime(orderDate.plusMinutes(delivered));
+		order.setStatus(OrderStatus.DELIVERED);
+		return order;
+	}
+}
@@ -0,0 +1,166 @@
+package com.examly.springapp.analytics;
+
+import com.examly.springapp.dto.OrderLineSale;
+import com.examly.springapp.dto.TerminalOrder;
+import com.examly.springapp.entity.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderAnalyticsTests {
+
+	// A Monday
+	private static final LocalDateTime START = LocalDateTime.of(2024, 3, 4, 0, 0);
+	private static final String[] CUISINES = {"Italian", "Indian", "Thai"};
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void aggregatesMatchTheExportedOrders() throws IOException {
+		List<TerminalOrder> orders = new ArrayList<>();
+		Map<Long, List<OrderLineSale>> lines = new HashMap<>();
+		generate(2_000, orders, lines);
+
+		OrderColumnStore store = new OrderColumnStore(directory.toString());
+		publish(store, orders.subList(0, 1_200), lines, START.plusDays(30));
+		publish(store, orders.subList(1_200, orders.size()), lines, START.plusDays(60));
+		OrderAnalytics analytics = new OrderAnalytics(store);
+
+		LocalDateTime from = START.plusDays(3);
+		LocalDateTime to = START.plusDays(20).plusHours(5);
+		assertAggregates(analytics, orders, lines, null, null);
+		assertAggregates(analytics, orders, lines, from, to);
+
+		// Reopening maps the same segments again
+		assertAggregates(new OrderAnalytics(new OrderColumnStore(directory.toString())), orders, lines, from, to);
+	}
+
+	@Test
+	void heatmapCountsDeliveredOrdersByWeekdayAndHour() throws IOException {
+		OrderColumnStore store = new OrderColumnStore(directory.toString());
+		List<TerminalOrder> orders = List.of(
+				order(1, 1, START.plusHours(9).plusMinutes(59), OrderStatus.DELIVERED, 10.0),
+				order(2, 1, START.plusDays(2).plusHours(18), OrderStatus.DELIVERED, 10.0),
+				order(3, 2, START.plusDays(9).plusHours(18).plusMinutes(30), OrderStatus.DELIVERED, 10.0),
+				order(4, 2, START.plusDays(6).plusHours(23), OrderStatus.CANCELLED, 10.0));
+		publish(store, orders, Map.of(), START.plusDays(10));
+
+		long[][] heatmap = new OrderAnalytics(store).heatmap(null, null).orders();
+		assertEquals(1, heatmap[0][9]);
+		assertEquals(2, heatmap[2][18]);
+		assertEquals(0, heatmap[6][23]);
+		assertEquals(3, Arrays.stream(heatmap).flatMapToLong(Arrays::stream).sum());
+	}
+
+	@Test
+	void unfinishedExportsAreDiscardedOnReopen() throws IOException {
+		OrderColumnStore store = new OrderColumnStore(directory.toString());
+		publish(store, List.of(order(1, 1, START, OrderStatus.DELIVERED, 20.0)), Map.of(), START.plusDays(1));
+
+		// A crash between writing the segments of the next export and moving the watermark
+		OrderColumnSegment.Builder builder = new OrderColumnSegment.Builder();
+		builder.add(order(2, 1, START.plusDays(1), OrderStatus.DELIVERED, 30.0), List.of());
+		Path temporary = store.writeTemporary(builder, START.plusDays(2));
+		String name = temporary.getFileName().toString();
+		Files.move(temporary, temporary.resolveSibling(name.substring(0, name.length() - ".tmp".length())));
+		store.writeTemporary(builder, START.plusDays(2));
+
+		OrderColumnStore reopened = new OrderColumnStore(directory.toString());
+		assertEquals(START.plusDays(1), reopened.watermark());
+		assertEquals(1, reopened.segments().size());
+		try (var files = Files.list(directory)) {
+			assertEquals(2, files.count());
+		}
+		List<CuisineRevenue> revenue = new OrderAnalytics(reopened).revenueByCuisine(null, null);
+		assertEquals(List.of(new CuisineRevenue("Indian", 1, 20.0, 20.0)), revenue);
+	}
+
+	private static void assertAggregates(OrderAnalytics analytics, List<TerminalOrder> orders,
+										 Map<Long, List<OrderLineSale>> lines, LocalDateTime from, LocalDateTime to) {
+		List<TerminalOrder> delivered = orders.stream()
+				.filter(order -> order.status() == OrderStatus.DELIVERED)
+				.filter(order -> from == null || !order.orderDate().isBefore(from))
+				.filter(order -> to == null || order.orderDate().isBefore(to))
+				.toList();
+
+		Map<String, long[]> cuisines = new HashMap<>();
+		long[] baskets = new long[OrderAnalytics.MAX_BASKET_ITEMS + 1];
+		Map<Long, long[]> items = new HashMap<>();
+		for (TerminalOrder order : delivered) {
+			long[] cuisine = cuisines.computeIfAbsent(order.cuisine(), name -> new long[2]);
+			cuisine[0]++;
+			cuisine[1] += Math.round(order.totalAmount() * 100);
+			int quantity = 0;
+			for (OrderLineSale line : lines.get(order.orderId())) {
+				long[] item = items.computeIfAbsent(line.menuItemId(), id -> new long[2]);
+				item[0] += line.quantity();
+				item[1] += Math.round(line.subtotal() * 100);
+				quantity += line.quantity();
+			}
+			baskets[Math.min(quantity, OrderAnalytics.MAX_BASKET_ITEMS)]++;
+		}
+
+		List<CuisineRevenue> revenue = analytics.revenueByCuisine(from, to);
+		assertEquals(cuisines.size(), revenue.size());
+		for (CuisineRevenue actual : revenue) {
+			long[] expected = cuisines.get(actual.cuisine());
+			assertEquals(expected[0], actual.orders());
+			assertEquals(expected[1] / 100.0, actual.revenue(), 1e-6);
+		}
+		assertTrue(revenue.get(0).revenue() >= revenue.get(revenue.size() - 1).revenue());
+
+		assertArrayEquals(baskets, analytics.basketSizes(from, to).orders());
+
+		long[][] heatmap = analytics.heatmap(from, to).orders();
+		assertEquals(delivered.size(), Arrays.stream(heatmap).flatMapToLong(Arrays::stream).sum());
+
+		List<ItemSales> top = analytics.topItems(from, to, 5);
+		assertEquals(5, top.size());
+		for (ItemSales actual : top) {
+			assertEquals(items.get(actual.menuItemId())[0], actual.quantity());
+			assertEquals(items.get(actual.menuItemId())[1] / 100.0, actual.revenue(), 1e-6);
+		}
+		long fifth = items.values().stream().map(item -> item[0]).sorted(Comparator.reverseOrder()).toList().get(4);
+		assertEquals(fifth, top.get(4).quantity());
+	}
+
+	private static void generate(int count, List<TerminalOrder> orders, Map<Long, List<OrderLineSale>> lines) {
+		Random random = new Random(42);
+		for (long id = 1; id <= count; id++) {
+			LocalDateTime placed = START.plusMinutes(random.nextInt(60 * 24 * 45));
+			OrderStatus status = random.nextInt(10) == 0 ? OrderStatus.CANCELLED : OrderStatus.DELIVERED;
+			List<OrderLineSale> orderLines = new ArrayList<>();
+			double total = 0;
+			for (int line = random.nextInt(6); line > 0; line--) {
+				int quantity = 1 + random.nextInt(5);
+				double subtotal = quantity * (1 + random.nextInt(2_000)) / 100.0;
+				orderLines.add(new OrderLineSale(id, (long) random.nextInt(40), quantity, subtotal));
+				total += subtotal;
+			}
+			orders.add(order(id, 1 + random.nextInt(12), placed, status, total));
+			lines.put(id, orderLines);
+		}
+	}
+
+	private static TerminalOrder order(long id, long restaurantId, LocalDateTime placed, OrderStatus status, double total) {
+		return new TerminalOrder(id, restaurantId, CUISINES[(int) (restaurantId % CUISINES.length)], placed, status, total,
+				placed.plusMinutes(40));
+	}
+
+	private static void publish(OrderColumnStore store, List<TerminalOrder> orders,
+								Map<Long, List<OrderLineSale>> lines, LocalDateTime cutoff) throws IOException {
+		OrderColumnSegment.Builder builder = new OrderColumnSegment.Builder();
+		for (TerminalOrder order : orders) {
+			builder.add(order, lines.getOrDefault(order.orderId(), List.of()));
+		}
+		store.publish(List.of(store.writeTemporary(builder, cutoff)), cutoff);
+	}
+}
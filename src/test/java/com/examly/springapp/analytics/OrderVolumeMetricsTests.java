@@ -0,0 +1,97 @@
+package com.examly.springapp.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderVolumeMetricsTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 4, 12, 30, 15);
+
+	@Test
+	void seriesEndsWithTheCurrentMinute() {
+		OrderVolumeMetrics metrics = new OrderVolumeMetrics();
+		metrics.recordOrder(1, NOW, 20.0);
+		metrics.recordOrder(1, NOW.minusSeconds(10), 10.0);
+		metrics.recordOrder(1, NOW.minusMinutes(90), 15.5);
+		metrics.recordCancellation(1, NOW.minusMinutes(90));
+		metrics.recordOrder(2, NOW, 100.0);
+
+		OrderVolumeSeries series = metrics.series(1, NOW);
+		int last = OrderVolumeMetrics.MINUTES - 1;
+		assertEquals(LocalDateTime.of(2024, 3, 3, 12, 31), series.start());
+		assertEquals(2, series.orders()[last]);
+		assertEquals(15.0, series.averageTicket()[last], 1e-9);
+		assertEquals(1, series.orders()[last - 90]);
+		assertEquals(1, series.cancellations()[last - 90]);
+		assertEquals(3, sum(series.orders()));
+
+		assertEquals(3, metrics.overall(NOW).orders()[last]);
+		assertEquals(0, sum(metrics.series(3, NOW).orders()));
+	}
+
+	@Test
+	void slotsRollOverAfterADay() {
+		OrderVolumeMetrics metrics = new OrderVolumeMetrics();
+		metrics.recordOrder(1, NOW, 20.0);
+		LocalDateTime tomorrow = NOW.plusDays(1);
+		metrics.recordOrder(1, tomorrow, 30.0);
+		// An update for a minute that has already left the ring is dropped
+		metrics.recordOrder(1, NOW, 40.0);
+
+		OrderVolumeSeries series = metrics.series(1, tomorrow);
+		assertEquals(1, sum(series.orders()));
+		assertEquals(30.0, series.averageTicket()[OrderVolumeMetrics.MINUTES - 1], 1e-9);
+	}
+
+	@Test
+	void ringsOfIdleRestaurantsAreEvicted() {
+		OrderVolumeMetrics metrics = new OrderVolumeMetrics();
+		metrics.recordOrder(1, NOW, 20.0);
+		metrics.recordCancellation(2, NOW);
+		metrics.recordOrder(3, NOW.plusHours(20), 10.0);
+		assertEquals(3, metrics.size());
+
+		// A day later only restaurant 3 has anything left in its rings
+		LocalDateTime later = NOW.plusDays(1).plusHours(1);
+		metrics.recordOrder(4, later, 5.0);
+		assertEquals(2, metrics.size());
+		assertEquals(0, sum(metrics.series(1, later).orders()));
+		assertEquals(1, sum(metrics.series(3, later).orders()));
+
+		metrics.recordOrder(1, later, 7.0);
+		assertEquals(1, sum(metrics.series(1, later).orders()));
+	}
+
+	@Test
+	void concurrentUpdatesAreNotLost() throws InterruptedException {
+		OrderVolumeMetrics metrics = new OrderVolumeMetrics();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					metrics.recordOrder(i % 4, NOW.minusMinutes(i % 3), 1.0);
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(80_000, sum(metrics.overall(NOW).orders()));
+		assertEquals(20_000, sum(metrics.series(0, NOW).orders()));
+	}
+
+	private static long sum(long[] values) {
+		long total = 0;
+		for (long value : values) {
+			total += value;
+		}
+		return total;
+	}
+}
@@ -0,0 +1,73 @@
+package com.examly.springapp.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopItemsTrackerTests {
+
+	private static final LocalDate TODAY = LocalDate.of(2024, 3, 4);
+
+	@Test
+	void mergesTheDaysOfEachWindow() {
+		TopItemsTracker tracker = new TopItemsTracker();
+		tracker.recordOrder(1, 1, TODAY.atTime(12, 0), new long[] {10, 20}, new int[] {1, 2});
+		tracker.recordOrder(1, 2, TODAY.minusDays(3).atTime(12, 0), new long[] {10}, new int[] {5});
+		tracker.recordOrder(1, 3, TODAY.minusDays(20).atTime(12, 0), new long[] {30}, new int[] {9});
+		tracker.recordOrder(2, 4, TODAY.atTime(12, 0), new long[] {40}, new int[] {7});
+
+		assertEquals(List.of(new TopItemsTracker.TopItem(20, 2, 0), new TopItemsTracker.TopItem(10, 1, 0)),
+				tracker.top(1, TopItemsTracker.Window.DAY, 10, TODAY));
+		assertEquals(List.of(new TopItemsTracker.TopItem(10, 6, 0), new TopItemsTracker.TopItem(20, 2, 0)),
+				tracker.top(1, TopItemsTracker.Window.WEEK, 10, TODAY));
+		assertEquals(List.of(new TopItemsTracker.TopItem(30, 9, 0)),
+				tracker.top(1, TopItemsTracker.Window.MONTH, 1, TODAY));
+		assertEquals(List.of(), tracker.top(1, TopItemsTracker.Window.MONTH, 10, TODAY.plusDays(TopItemsTracker.DAYS)));
+	}
+
+	@Test
+	void heavyHittersStayWithinTheErrorBound() {
+		TopItemsTracker tracker = new TopItemsTracker();
+		Random random = new Random(3);
+		Map<Long, Long> exact = new HashMap<>();
+		for (int order = 0; order < 20_000; order++) {
+			// A few popular dishes among a long tail of rarely ordered ones
+			long item = random.nextInt(4) == 0 ? 1 + random.nextInt(5) : 100 + random.nextInt(2_000);
+			LocalDate day = TODAY.minusDays(random.nextInt(7));
+			tracker.recordOrder(1, order, day.atTime(12, 0), new long[] {item}, new int[] {1});
+			exact.merge(item, 1L, Long::sum);
+		}
+
+		List<TopItemsTracker.TopItem> top = tracker.top(1, TopItemsTracker.Window.WEEK, 5, TODAY);
+		assertEquals(Set.of(1L, 2L, 3L, 4L, 5L),
+				new HashSet<>(top.stream().map(TopItemsTracker.TopItem::menuItemId).toList()));
+		for (TopItemsTracker.TopItem item : top) {
+			long actual = exact.get(item.menuItemId());
+			assertTrue(item.quantity() >= actual && item.quantity() - item.maxError() <= actual, item.toString());
+		}
+	}
+
+	@Test
+	void seedKeepsTheLargestExactQuantitiesAndIgnoresBackfilledOrders() {
+		TopItemsTracker tracker = new TopItemsTracker();
+		tracker.beginBackfill(100);
+		tracker.recordOrder(1, 100, TODAY.atTime(9, 0), new long[] {10}, new int[] {50});
+		long[] items = new long[40];
+		long[] quantities = new long[40];
+		for (int i = 0; i < items.length; i++) {
+			items[i] = i + 1;
+			quantities[i] = i + 1;
+		}
+		tracker.seed(1, TODAY, items, quantities);
+		tracker.endBackfill();
+		tracker.recordOrder(1, 101, TODAY.atTime(10, 0), new long[] {40}, new int[] {2});
+
+		assertEquals(List.of(new TopItemsTracker.TopItem(40, 42, 0), new TopItemsTracker.TopItem(39, 39, 0)),
+				tracker.top(1, TopItemsTracker.Window.DAY, 2, TODAY));
+		assertEquals(9, tracker.top(1, TopItemsTracker.Window.DAY, 100, TODAY).get(TopItemsTracker.COUNTERS_PER_DAY - 1)
+				.quantity());
+	}
+}
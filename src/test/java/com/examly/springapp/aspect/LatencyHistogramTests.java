@@ -0,0 +1,71 @@
+package com.examly.springapp.aspect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTests {
+
+	@Test
+	void bucketsCoverEveryValueWithBoundedError() {
+		long previous = -1;
+		for (int index = 0; index <= LatencyHistogram.index(LatencyHistogram.HIGHEST_TRACKABLE); index++) {
+			long highest = LatencyHistogram.highestEquivalent(index);
+			assertEquals(index, LatencyHistogram.index(previous + 1));
+			assertEquals(index, LatencyHistogram.index(highest));
+			assertTrue(highest - previous - 1 <= Math.max(0, highest / 32));
+			previous = highest;
+		}
+		assertEquals(LatencyHistogram.HIGHEST_TRACKABLE, previous);
+	}
+
+	@Test
+	void percentilesMatchSortedSamples() {
+		Random random = new Random(7);
+		long[] samples = new long[100_000];
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < samples.length; i++) {
+			// Log-normal around 2 ms, like request latencies
+			samples[i] = (long) Math.exp(Math.log(2_000_000) + random.nextGaussian());
+			histogram.record(samples[i]);
+		}
+		Arrays.sort(samples);
+
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(samples.length, snapshot.count());
+		assertEquals(samples[samples.length - 1], snapshot.maxNanos());
+		assertEquals(Arrays.stream(samples).average().orElseThrow(), snapshot.meanNanos(), 1);
+		for (double percentile : new double[] {50, 90, 99, 99.9}) {
+			long expected = samples[(int) Math.ceil(percentile / 100 * samples.length) - 1];
+			long actual = snapshot.percentileNanos(percentile);
+			assertTrue(actual >= expected && actual <= expected * 1.04, percentile + ": " + actual + " vs " + expected);
+		}
+	}
+
+	@Test
+	void concurrentRecordingLosesNoCalls() throws InterruptedException {
+		LatencyHistogram histogram = new LatencyHistogram();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int thread = 0; thread < 4; thread++) {
+			executor.execute(() -> {
+				for (int i = 0; i < 50_000; i++) {
+					histogram.record(1_000 + i % 100);
+				}
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+		assertEquals(200_000, histogram.snapshot().count());
+		assertEquals(1_099, histogram.snapshot().maxNanos());
+
+		histogram.reset();
+		assertEquals(0, histogram.snapshot().count());
+		assertEquals(0, histogram.snapshot().percentileNanos(99));
+	}
+}
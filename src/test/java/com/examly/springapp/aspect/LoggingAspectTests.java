@@ -0,0 +1,83 @@
+package com.examly.springapp.aspect;
+
+import com.examly.springapp.controller.AnalyticsController;
+import com.examly.springapp.entity.OrderStatus;
+import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.entity.User;
+import com.examly.springapp.jdbc.QueryStats;
+import com.examly.springapp.repository.OrderRepository;
+import com.examly.springapp.service.MetricsService;
+import com.examly.springapp.service.RestaurantService;
+import com.examly.springapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class LoggingAspectTests {
+
+	@Autowired
+	private RestaurantService restaurantService;
+
+	@Autowired
+	private AnalyticsController analyticsController;
+
+	@Autowired
+	private MetricsService metricsService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Test
+	void callsAreTimedPerLayerWithErrorsByType() {
+		metricsService.resetMethodLatencies();
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Metrics Bistro", "1 Metrics Street", "Bistro", "555-0400", "9-5"));
+		assertThrows(IllegalArgumentException.class, () -> restaurantService.getTopItems(restaurant.getId(), "year", 10));
+		assertThrows(IllegalArgumentException.class, () -> restaurantService.getTopItems(restaurant.getId(), "hour", 10));
+		assertEquals(400, analyticsController.getTopItems(null, null, 0).getStatusCode().value());
+
+		MethodLatency topItems = find(metricsService.getMethodLatencies("service"), "RestaurantService.getTopItems");
+		assertEquals(2, topItems.calls());
+		assertEquals(2, topItems.errors());
+		assertEquals(Map.of(IllegalArgumentException.class.getName(), 2L), topItems.errorsByType());
+		assertTrue(topItems.p50Millis() <= topItems.p99Millis() && topItems.p99Millis() <= topItems.maxMillis());
+
+		MethodLatency register = find(metricsService.getMethodLatencies(null), "RestaurantService.registerRestaurant");
+		assertEquals(MethodMetrics.Layer.SERVICE, register.layer());
+		assertEquals(0, register.errors());
+		assertEquals(MethodMetrics.Layer.REPOSITORY,
+				find(metricsService.getMethodLatencies("repository"), "RestaurantRepository.save").layer());
+		assertEquals(1, find(metricsService.getMethodLatencies("controller"), "AnalyticsController.getTopItems").calls());
+		assertThrows(IllegalArgumentException.class, () -> metricsService.getMethodLatencies("view"));
+	}
+
+	@Test
+	void statementsAreAttributedToTheRepositoryMethodRunningThem() {
+		metricsService.resetQueryStats();
+		User user = userService.createUser(new User("tracing_user", "tracing@example.com", "secret1"));
+		orderRepository.findUserOrdersWithFilters(user.getId(), OrderStatus.PENDING, null, null, PageRequest.of(0, 10));
+
+		List<QueryStats> stats = metricsService.getQueryStats("OrderRepository.findUserOrdersWithFilters");
+		assertEquals(1, stats.size());
+		assertTrue(stats.get(0).fingerprint().startsWith("select "));
+		assertEquals(1, stats.get(0).origins().get("OrderRepository.findUserOrdersWithFilters"));
+		assertTrue(metricsService.getQueryStats(null).stream()
+				.anyMatch(query -> query.fingerprint().startsWith("insert into users")
+						&& query.origins().containsKey("UserRepository.save") && query.rows() == 1));
+	}
+
+	private static MethodLatency find(List<MethodLatency> latencies, String method) {
+		return latencies.stream().filter(latency -> latency.method().equals(method)).findFirst()
+				.orElseThrow(() -> new AssertionError(method + " not in " + latencies));
+	}
+}
@@ -0,0 +1,168 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.config.JacksonConfig;
+import com.examly.springapp.config.Views;
+import com.examly.springapp.entity.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The responses mobile clients fetch most, a restaurant's menu page, a user's order history in the
+ * summary view and a page of restaurants, encoded and decoded in each format the message converters
+ * negotiate, with the mappers those converters use. Decoding reads a tree, as a client without the
+ * server's classes would. The size of every response is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentEncodingBenchmark {
+
+    @Param({"20"})
+    public int pageSize;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ConfigurableApplicationContext context;
+    private ObjectWriter writer;
+    private ObjectWriter orderPageWriter;
+    private ObjectReader reader;
+    private Page<MenuItem> menu;
+    private Page<OrderEntity> orders;
+    private Page<Restaurant> restaurants;
+    private byte[] menuBytes;
+    private byte[] orderBytes;
+    private byte[] restaurantBytes;
+
+    @Setup(Level.Trial)
+    public void create() throws IOException {
+        context = new SpringApplicationBuilder(JacksonAutoConfiguration.class, JacksonConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN");
+        ObjectMapper objectMapper = switch (format) {
+            case "json" -> context.getBean(ObjectMapper.class);
+            case "cbor" -> context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+            case "smile" -> context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+            default -> throw new IllegalArgumentException("Error: unknown format " + format);
+        };
+        writer = objectMapper.writer();
+        orderPageWriter = objectMapper.writerWithView(Views.Summary.class);
+        reader = objectMapper.reader();
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<Restaurant> restaurantList = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            Restaurant restaurant = new Restaurant("Benchmark Kitchen " + i, i + " Benchmark Street", "Indian",
+                    "555-01" + (10 + i % 90), "10:00-22:00");
+            restaurant.setId((long) i);
+            restaurant.setLatitude(12.9 + random.nextDouble() / 10);
+            restaurant.setLongitude(77.5 + random.nextDouble() / 10);
+            restaurantList.add(restaurant);
+        }
+        restaurants = new PageImpl<>(restaurantList, PageRequest.of(0, pageSize), 500);
+
+        Restaurant restaurant = restaurantList.get(0);
+        List<MenuItem> menuList = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            MenuItem menuItem = new MenuItem("Benchmark Dish " + i, 4.0 + random.nextInt(30),
+                    i <= pageSize / 4 ? "Starters" : "Mains", restaurant);
+            menuItem.setId((long) i);
+            menuItem.setDescription("House special number " + i + ", cooked to order");
+            menuItem.setVegetarian(random.nextBoolean());
+            menuList.add(menuItem);
+        }
+        menu = new PageImpl<>(menuList, PageRequest.of(0, pageSize), 60);
+
+        User user = new User("benchmark_user", "benchmark@example.com", "secret1");
+        user.setId(1L);
+        List<OrderEntity> orderList = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            OrderEntity order = new OrderEntity(user, restaurant, i + " Delivery Lane");
+            order.setId((long) i);
+            order.setOrderDate(LocalDateTime.of(2024, 3, 1, 12, 0).plusMinutes(37L * i));
+            order.setStatus(OrderStatus.DELIVERED);
+            order.setPaymentStatus("PAID");
+            order.setDeliveryFee(2.5);
+            List<OrderItem> items = new ArrayList<>();
+            for (int line = 0, lines = 1 + random.nextInt(5); line < lines; line++) {
+                MenuItem menuItem = menuList.get(random.nextInt(pageSize));
+                OrderItem item = new OrderItem();
+                item.setId((long) i * 10 + line);
+                item.setOrder(order);
+                item.setMenuItem(menuItem);
+                item.setQuantity(1 + random.nextInt(3));
+                item.setPriceAtOrderTime(menuItem.getPrice());
+                item.setItemNameAtOrderTime(menuItem.getName());
+                item.setSubtotal(item.getQuantity() * item.getPriceAtOrderTime());
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            order.calculateTotals();
+            orderList.add(order);
+        }
+        orders = new PageImpl<>(orderList, PageRequest.of(0, pageSize), 500);
+
+        menuBytes = encodeMenuPage();
+        orderBytes = encodeOrderPage();
+        restaurantBytes = encodeRestaurantPage();
+        System.out.printf("%s, bytes per response: menuPage %d, orderPage %d, restaurantPage %d%n", format,
+                menuBytes.length, orderBytes.length, restaurantBytes.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] encodeMenuPage() throws IOException {
+        return writer.writeValueAsBytes(menu);
+    }
+
+    @Benchmark
+    public byte[] encodeOrderPage() throws IOException {
+        return orderPageWriter.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] encodeRestaurantPage() throws IOException {
+        return writer.writeValueAsBytes(restaurants);
+    }
+
+    @Benchmark
+    public JsonNode decodeMenuPage() throws IOException {
+        return reader.readTree(menuBytes);
+    }
+
+    @Benchmark
+    public JsonNode decodeOrderPage() throws IOException {
+        return reader.readTree(orderBytes);
+    }
+
+    @Benchmark
+    public JsonNode decodeRestaurantPage() throws IOException {
+        return reader.readTree(restaurantBytes);
+    }
+}
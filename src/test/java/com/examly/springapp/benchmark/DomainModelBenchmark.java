@@ -0,0 +1,102 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.entity.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity methods run for every order placed or rendered: totalling an order, grouping its items by
+ * name, and the dietary filter applied to every item of a menu.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainModelBenchmark {
+
+    private static final int MENU_SIZE = 1024;
+
+    @State(Scope.Thread)
+    public static class Order {
+
+        @Param({"3", "20"})
+        public int items;
+
+        OrderEntity order;
+
+        @Setup(Level.Trial)
+        public void create() {
+            SplittableRandom random = new SplittableRandom(42);
+            order = new OrderEntity(new User("benchmark_user", "benchmark@example.com", "secret1"), restaurant(),
+                    "10 Delivery Lane");
+            order.setDeliveryFee(2.5);
+            List<OrderItem> orderItems = new ArrayList<>(items);
+            for (int i = 0; i < items; i++) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setQuantity(1 + random.nextInt(3));
+                item.setPriceAtOrderTime(5.0 + random.nextInt(20));
+                // Some dishes ordered twice, as separate lines
+                item.setItemNameAtOrderTime("Dish " + random.nextInt(Math.max(1, items - items / 4)));
+                orderItems.add(item);
+            }
+            order.setOrderItems(orderItems);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Menu {
+
+        MenuItem[] items;
+
+        @Setup(Level.Trial)
+        public void create() {
+            SplittableRandom random = new SplittableRandom(42);
+            Restaurant restaurant = restaurant();
+            items = new MenuItem[MENU_SIZE];
+            for (int i = 0; i < MENU_SIZE; i++) {
+                MenuItem item = new MenuItem("Dish " + i, 5.0 + i % 20, "Mains", restaurant);
+                boolean vegan = random.nextInt(10) == 0;
+                item.setVegan(vegan);
+                item.setVegetarian(vegan || random.nextInt(3) == 0);
+                item.setContainsGluten(random.nextInt(2) == 0);
+                items[i] = item;
+            }
+        }
+    }
+
+    private static Restaurant restaurant() {
+        Restaurant restaurant = new Restaurant("Benchmark Diner", "1 Benchmark Street", "Diner", "555-0100", "9-5");
+        restaurant.setId(1L);
+        return restaurant;
+    }
+
+    @Benchmark
+    public Double calculateTotals(Order order) {
+        order.order.calculateTotals();
+        return order.order.getTotalAmount();
+    }
+
+    @Benchmark
+    public Map<String, Integer> itemQuantities(Order order) {
+        return order.order.getItemQuantities();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MENU_SIZE)
+    public int matchDietaryRequirements(Menu menu) {
+        int matches = 0;
+        for (MenuItem item : menu.items) {
+            if (item.matchesDietaryRequirements(true, false, true)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
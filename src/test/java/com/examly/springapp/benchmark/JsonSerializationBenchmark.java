@@ -0,0 +1,137 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.config.JacksonConfig;
+import com.examly.springapp.config.Views;
+import com.examly.springapp.entity.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the responses of the busiest endpoints with the application's {@link ObjectMapper}: a page
+ * of orders with their items in the summary view the order list endpoints use, a page of restaurants,
+ * and a single menu item, whose restaurant is written as its id. The {@code default} mapper is Spring
+ * Boot's without {@link JacksonConfig}; the size of every response is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"20"})
+    public int pageSize;
+
+    @Param({"default", "tuned"})
+    public String mapper;
+
+    private ConfigurableApplicationContext context;
+    private ObjectWriter orderPageWriter;
+    private ObjectWriter writer;
+    private Page<OrderEntity> orders;
+    private Page<Restaurant> restaurants;
+    private MenuItem menuItem;
+
+    @Setup(Level.Trial)
+    public void create() {
+        boolean tuned = mapper.equals("tuned");
+        context = new SpringApplicationBuilder(tuned
+                ? new Class<?>[] {JacksonAutoConfiguration.class, JacksonConfig.class}
+                : new Class<?>[] {JacksonAutoConfiguration.class})
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN");
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        // Writers are immutable and made once, as the message converter's mapper is
+        writer = objectMapper.writer();
+        orderPageWriter = tuned ? objectMapper.writerWithView(Views.Summary.class) : writer;
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<Restaurant> restaurantList = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            Restaurant restaurant = new Restaurant("Benchmark Kitchen " + i, i + " Benchmark Street", "Indian",
+                    "555-01" + (10 + i % 90), "10:00-22:00");
+            restaurant.setId((long) i);
+            restaurant.setLatitude(12.9 + random.nextDouble() / 10);
+            restaurant.setLongitude(77.5 + random.nextDouble() / 10);
+            restaurantList.add(restaurant);
+        }
+        restaurants = new PageImpl<>(restaurantList, PageRequest.of(0, pageSize), 500);
+
+        Restaurant restaurant = restaurantList.get(0);
+        menuItem = new MenuItem("Paneer Tikka Masala", 12.5, "Mains", restaurant);
+        menuItem.setId(1L);
+        menuItem.setDescription("Grilled cottage cheese in a spiced tomato and cream gravy");
+        menuItem.setVegetarian(true);
+
+        User user = new User("benchmark_user", "benchmark@example.com", "secret1");
+        user.setId(1L);
+        List<OrderEntity> orderList = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            OrderEntity order = new OrderEntity(user, restaurant, i + " Delivery Lane");
+            order.setId((long) i);
+            order.setOrderDate(LocalDateTime.of(2024, 3, 1, 12, 0).plusMinutes(37L * i));
+            order.setStatus(OrderStatus.DELIVERED);
+            order.setPaymentStatus("PAID");
+            order.setDeliveryFee(2.5);
+            List<OrderItem> items = new ArrayList<>();
+            for (int line = 0, lines = 1 + random.nextInt(5); line < lines; line++) {
+                OrderItem item = new OrderItem();
+                item.setId((long) i * 10 + line);
+                item.setOrder(order);
+                item.setMenuItem(menuItem);
+                item.setQuantity(1 + random.nextInt(3));
+                item.setPriceAtOrderTime(menuItem.getPrice());
+                item.setItemNameAtOrderTime(menuItem.getName());
+                item.setSubtotal(item.getQuantity() * item.getPriceAtOrderTime());
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            order.calculateTotals();
+            orderList.add(order);
+        }
+        orders = new PageImpl<>(orderList, PageRequest.of(0, pageSize), 500);
+
+        try {
+            System.out.printf("%s mapper, bytes per response: orderPage %d, restaurantPage %d, menuItem %d%n", mapper,
+                    orderPage().length, restaurantPage().length, menuItem().length);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] orderPage() throws JsonProcessingException {
+        return orderPageWriter.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] restaurantPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(restaurants);
+    }
+
+    @Benchmark
+    public byte[] menuItem() throws JsonProcessingException {
+        return writer.writeValueAsBytes(menuItem);
+    }
+}
@@ -0,0 +1,73 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.aspect.LoggingAspect;
+import com.examly.springapp.aspect.MethodMetrics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of {@link LoggingAspect} on a trivial service method: called directly, through a Spring
+ * proxy with no advice, and through a proxy advised by the aspect, on one thread and on four
+ * threads recording into the same histogram.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+    @Service
+    public static class PriceCalculator {
+
+        public long totalCents(long unitCents, int quantity) {
+            return unitCents * quantity;
+        }
+    }
+
+    private PriceCalculator direct;
+    private PriceCalculator proxied;
+    private PriceCalculator advised;
+    private long unitCents = 1_250;
+    private int quantity = 3;
+
+    @Setup(Level.Trial)
+    public void createProxies() {
+        direct = new PriceCalculator();
+
+        ProxyFactory plain = new ProxyFactory(direct);
+        plain.setProxyTargetClass(true);
+        proxied = (PriceCalculator) plain.getProxy();
+
+        AspectJProxyFactory aspectJ = new AspectJProxyFactory(direct);
+        aspectJ.setProxyTargetClass(true);
+        aspectJ.addAspect(new LoggingAspect(new MethodMetrics(), 1_000));
+        advised = aspectJ.getProxy();
+    }
+
+    @Benchmark
+    public long direct() {
+        return direct.totalCents(unitCents, quantity);
+    }
+
+    @Benchmark
+    public long unadvisedProxy() {
+        return proxied.totalCents(unitCents, quantity);
+    }
+
+    @Benchmark
+    public long advisedProxy() {
+        return advised.totalCents(unitCents, quantity);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long advisedProxyFourThreads() {
+        return advised.totalCents(unitCents, quantity);
+    }
+}
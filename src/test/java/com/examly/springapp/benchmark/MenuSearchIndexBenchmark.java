@@ -0,0 +1,112 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.search.MenuSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Query and update latency of {@link MenuSearchIndex} over a synthetic menu corpus.
+ * The default corpus has 5M items and needs a large heap; pass {@code -p items=100000} for a quick run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class MenuSearchIndexBenchmark {
+
+    private static final String[] DISHES = {
+        "biryani", "dosa", "idli", "paneer", "tikka", "masala", "korma", "naan", "roti", "parotta",
+        "pizza", "margherita", "pasta", "penne", "lasagna", "risotto", "burger", "fries", "taco", "burrito",
+        "ramen", "udon", "sushi", "tempura", "curry", "noodles", "dumpling", "momo", "falafel", "shawarma",
+        "kebab", "salad", "soup", "sandwich", "wrap", "pancake", "waffle", "brownie", "cheesecake", "kulfi"
+    };
+    private static final String[] WORDS = {
+        "spicy", "crispy", "grilled", "fried", "roasted", "smoked", "creamy", "tangy", "sweet", "butter",
+        "garlic", "chilli", "pepper", "lemon", "mint", "coriander", "ginger", "tomato", "onion", "mushroom",
+        "chicken", "mutton", "prawn", "fish", "egg", "cheese", "mozzarella", "basil", "pesto", "truffle",
+        "coconut", "tamarind", "saffron", "cashew", "almond", "honey", "chocolate", "vanilla", "mango", "berry"
+    };
+    private static final String[] CATEGORIES = {
+        "Starters", "Mains", "Breads", "Rice", "Desserts", "Beverages", "Soups", "Salads", "Combos", "Sides"
+    };
+    private static final String[] QUERIES = {
+        "paneer tikka", "spicy chicken biryani", "garlic naan", "mush", "choc dessert", "prawn curry", "cheese pizza"
+    };
+
+    @Param({"5000000"})
+    public int items;
+
+    private MenuSearchIndex index;
+    private SplittableRandom random;
+    private long nextItemId;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        index = new MenuSearchIndex();
+        index.beginRebuild(items);
+        int batchSize = 50_000;
+        for (int from = 0; from < items; from += batchSize) {
+            int start = from;
+            List<MenuSearchIndex.AnalyzedDocument> batch = IntStream.range(start, Math.min(start + batchSize, items))
+                    .parallel()
+                    .mapToObj(i -> MenuSearchIndex.analyze(document(i + 1, new SplittableRandom(i))))
+                    .toList();
+            index.load(batch);
+        }
+        index.endRebuild();
+        random = new SplittableRandom(42);
+        nextItemId = items + 1L;
+    }
+
+    @Benchmark
+    public MenuSearchIndex.SearchHits exactQuery() {
+        return index.search(QUERIES[random.nextInt(QUERIES.length)], false, false, false, null, 0, 10);
+    }
+
+    @Benchmark
+    public MenuSearchIndex.SearchHits prefixQuery() {
+        return index.search("chi", false, false, false, null, 0, 10);
+    }
+
+    @Benchmark
+    public MenuSearchIndex.SearchHits dietaryFilteredQuery() {
+        return index.search("paneer", true, false, true, null, 0, 10);
+    }
+
+    @Benchmark
+    public void upsertAndRemove(Blackhole blackhole) {
+        long itemId = nextItemId++;
+        index.upsert(document(itemId, random));
+        index.remove(itemId);
+        blackhole.consume(itemId);
+    }
+
+    private static MenuSearchIndex.Document document(long itemId, SplittableRandom random) {
+        String name = pick(WORDS, random) + " " + pick(DISHES, random);
+        List<String> description = new ArrayList<>();
+        for (int i = 0, n = 6 + random.nextInt(8); i < n; i++) {
+            description.add(pick(WORDS, random));
+        }
+        description.add(pick(DISHES, random));
+        byte flags = MenuSearchIndex.AVAILABLE;
+        if (random.nextInt(3) == 0) flags |= MenuSearchIndex.VEGETARIAN;
+        if (random.nextInt(8) == 0) flags |= MenuSearchIndex.VEGAN;
+        if (random.nextInt(2) == 0) flags |= MenuSearchIndex.CONTAINS_GLUTEN;
+        return new MenuSearchIndex.Document(itemId, 1 + random.nextInt(50_000), name,
+                String.join(" ", description), CATEGORIES[random.nextInt(CATEGORIES.length)], flags);
+    }
+
+    // Skewed towards the front of the vocabulary, like real menus
+    private static String pick(String[] words, SplittableRandom random) {
+        double u = random.nextDouble();
+        return words[(int) (u * u * words.length)];
+    }
+}
@@ -0,0 +1,84 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.entity.OrderStatus;
+import com.examly.springapp.journal.OrderJournal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Replaying a journal of order lifecycle records, and appending to it from several threads at
+ * once so that appenders share flushes.
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OrderJournalBenchmark {
+
+    private static final OrderStatus[] LIFECYCLE = {
+        OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.PREPARING, OrderStatus.OUT_FOR_DELIVERY,
+        OrderStatus.DELIVERED
+    };
+
+    @State(Scope.Benchmark)
+    public static class Journal {
+
+        @Param({"200000"})
+        public int records;
+
+        Path directory;
+        OrderJournal journal;
+        final AtomicLong nextOrder = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void fill() throws IOException {
+            directory = Files.createTempDirectory("order-journal-benchmark");
+            journal = new OrderJournal(directory.toString(), 16 << 20);
+            LocalDateTime start = LocalDateTime.now().minusDays(1);
+            for (int i = 0; i < records; i++) {
+                long order = i / LIFECYCLE.length;
+                OrderStatus status = LIFECYCLE[i % LIFECYCLE.length];
+                journal.append(status == OrderStatus.PENDING ? OrderJournal.RecordType.CREATED
+                                : OrderJournal.RecordType.STATUS_CHANGED,
+                        order, order % 500, order % 10_000, status, start.plusSeconds(i), 25.5, 3);
+            }
+            nextOrder.set(records);
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            journal.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long replay(Journal journal) throws IOException {
+        long[] sum = new long[1];
+        journal.journal.replay(0, record -> sum[0] += record.restaurantId());
+        return sum[0];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(8)
+    public long appendConcurrently(Journal journal) {
+        long order = journal.nextOrder.incrementAndGet();
+        return journal.journal.append(OrderJournal.RecordType.CREATED, order, order % 500, order % 10_000,
+                OrderStatus.PENDING, LocalDateTime.now(), 25.5, 3);
+    }
+}
@@ -0,0 +1,114 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.SpringappApplication;
+import com.examly.springapp.entity.*;
+import com.examly.springapp.outbox.OrderEventRelay;
+import com.examly.springapp.outbox.OrderOutbox;
+import com.examly.springapp.repository.OrderEventRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost of the order event outbox against the in-memory test database: writing one event in its own
+ * transaction, and the relay draining a backlog of events to a handler that only counts them.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OrderOutboxBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        ConfigurableApplicationContext context;
+        OrderEventRepository repository;
+        OrderEventRelay relay;
+        OrderOutbox outbox;
+        TransactionTemplate transactions;
+        final LongAdder delivered = new LongAdder();
+
+        @Setup(Level.Trial)
+        public void start() throws InterruptedException {
+            context = new SpringApplicationBuilder(SpringappApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--logging.level.root=WARN");
+            repository = context.getBean(OrderEventRepository.class);
+            relay = context.getBean(OrderEventRelay.class);
+            outbox = context.getBean(OrderOutbox.class);
+            transactions = context.getBean(TransactionTemplate.class);
+            // Only the benchmark drains
+            relay.stop();
+            relay.addHandler(event -> delivered.increment());
+        }
+
+        @TearDown(Level.Iteration)
+        public void clear() {
+            repository.deleteAllInBatch();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Backlog {
+
+        @Param({"10000"})
+        public int events;
+
+        @Setup(Level.Invocation)
+        public void fill(Application application) {
+            List<OrderEvent> backlog = new ArrayList<>(events);
+            for (int i = 0; i < events; i++) {
+                // A few events per order, interleaved as concurrent orders would be
+                backlog.add(new OrderEvent((long) i % (events / 4), 1L, 1L, OrderEventType.STATUS_CHANGED,
+                        OrderStatus.CONFIRMED));
+            }
+            application.transactions.executeWithoutResult(status -> application.repository.saveAll(backlog));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Order {
+
+        OrderEntity order;
+
+        @Setup(Level.Trial)
+        public void create() {
+            User user = new User("benchmark_user", "benchmark@example.com", "secret1");
+            user.setId(1L);
+            Restaurant restaurant = new Restaurant("Benchmark Diner", "1 Benchmark Street", "Diner", "555-0100", "9-5");
+            restaurant.setId(1L);
+            order = new OrderEntity(user, restaurant, "10 Delivery Lane");
+            order.setId(1L);
+            order.setStatus(OrderStatus.CONFIRMED);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void appendInOwnTransaction(Application application, Order order) {
+        application.transactions.executeWithoutResult(
+                status -> application.outbox.append(order.order, OrderEventType.STATUS_CHANGED));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long drainBacklog(Application application, Backlog backlog) {
+        while (application.relay.drain() > 0) {
+        }
+        return application.delivered.sum();
+    }
+}
@@ -0,0 +1,142 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.SpringappApplication;
+import com.examly.springapp.dataset.DatasetGenerator;
+import com.examly.springapp.entity.*;
+import com.examly.springapp.repository.MenuItemRepository;
+import com.examly.springapp.repository.OrderRepository;
+import com.examly.springapp.repository.RestaurantRepository;
+import com.examly.springapp.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository calls behind the order, menu and restaurant endpoints against the in-memory test database,
+ * each in its own read-only transaction as a request would make them. The data set comes from the
+ * {@link DatasetGenerator}: a few popular restaurants take most of the orders, which span 90 days.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RepositoryBenchmark {
+
+    private static final int MENU_ITEMS_PER_RESTAURANT = 25;
+    private static final PageRequest ORDER_PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "orderDate"));
+
+    @Param({"200"})
+    public int restaurants;
+
+    @Param({"2000"})
+    public int users;
+
+    @Param({"20000"})
+    public int orders;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private MenuItemRepository menuItemRepository;
+    private RestaurantRepository restaurantRepository;
+    private UserRepository userRepository;
+    private TransactionTemplate readOnly;
+    private DatasetGenerator.Dataset dataset;
+    private LocalDateTime now;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        context = new SpringApplicationBuilder(SpringappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN");
+        orderRepository = context.getBean(OrderRepository.class);
+        menuItemRepository = context.getBean(MenuItemRepository.class);
+        restaurantRepository = context.getBean(RestaurantRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        LocalDate until = LocalDate.now();
+        dataset = new DatasetGenerator(context.getBean(DataSource.class)).generate(new DatasetGenerator.Spec(
+                users, restaurants, MENU_ITEMS_PER_RESTAURANT, orders, orders / 20, 90, until, 42));
+        now = until.atStartOfDay();
+    }
+
+    /**
+     * Index in [0, bound) with low indexes far more likely, so that a few rows take most of the traffic.
+     */
+    private static int skewed(SplittableRandom random, int bound) {
+        double uniform = random.nextDouble();
+        return (int) (bound * uniform * uniform * uniform);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+
+        final SplittableRandom random = new SplittableRandom();
+
+        long restaurant(RepositoryBenchmark benchmark) {
+            return benchmark.dataset.restaurantId(skewed(random, benchmark.restaurants));
+        }
+
+        long user(RepositoryBenchmark benchmark) {
+            return benchmark.dataset.userId(skewed(random, benchmark.users));
+        }
+    }
+
+    @Benchmark
+    public int userOrderPage(Caller caller) {
+        long userId = caller.user(this);
+        return readOnly.execute(status -> orderRepository
+                .findUserOrdersWithFilters(userId, null, null, null, ORDER_PAGE).getNumberOfElements());
+    }
+
+    @Benchmark
+    public int restaurantDeliveredOrderPage(Caller caller) {
+        long restaurantId = caller.restaurant(this);
+        return readOnly.execute(status -> orderRepository
+                .findRestaurantOrdersWithFilters(restaurantId, OrderStatus.DELIVERED, now.minusDays(30), null, ORDER_PAGE)
+                .getNumberOfElements());
+    }
+
+    @Benchmark
+    public Double restaurantRevenue(Caller caller) {
+        long restaurantId = caller.restaurant(this);
+        return readOnly.execute(status -> orderRepository.calculateRestaurantRevenue(restaurantId, now.minusDays(30), null));
+    }
+
+    @Benchmark
+    public int restaurantMenu(Caller caller) {
+        long restaurantId = caller.restaurant(this);
+        return readOnly.execute(status -> menuItemRepository.findByRestaurantId(restaurantId).size());
+    }
+
+    @Benchmark
+    public Restaurant restaurantById(Caller caller) {
+        long restaurantId = caller.restaurant(this);
+        return readOnly.execute(status -> restaurantRepository.findById(restaurantId).orElseThrow());
+    }
+
+    @Benchmark
+    public User userByEmail(Caller caller) {
+        String email = DatasetGenerator.Dataset.email(caller.user(this));
+        return readOnly.execute(status -> userRepository.findByEmail(email).orElseThrow());
+    }
+}
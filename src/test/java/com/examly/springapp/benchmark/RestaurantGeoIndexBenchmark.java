@@ -0,0 +1,73 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.search.RestaurantGeoIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * k-nearest latency of {@link RestaurantGeoIndex} with restaurants clustered around a handful of cities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RestaurantGeoIndexBenchmark {
+
+    private static final double[][] CITIES = {
+        {12.9716, 77.5946}, {13.0827, 80.2707}, {19.0760, 72.8777}, {28.7041, 77.1025}, {17.3850, 78.4867}
+    };
+    private static final String[] CUISINES = {"Indian", "Chinese", "Italian", "Mexican", "Thai", "Continental"};
+
+    @Param({"1000000"})
+    public int restaurants;
+
+    private RestaurantGeoIndex index;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        index = new RestaurantGeoIndex();
+        SplittableRandom setup = new SplittableRandom(1);
+        List<Restaurant> batch = new ArrayList<>();
+        for (int i = 1; i <= restaurants; i++) {
+            double[] city = CITIES[setup.nextInt(CITIES.length)];
+            Restaurant restaurant = new Restaurant("Restaurant " + i, "Address " + i,
+                    CUISINES[setup.nextInt(CUISINES.length)], "555-0100", "09:00-22:00");
+            restaurant.setId((long) i);
+            restaurant.setLatitude(city[0] + setup.nextGaussian() * 0.1);
+            restaurant.setLongitude(city[1] + setup.nextGaussian() * 0.1);
+            batch.add(restaurant);
+            if (batch.size() == 50_000) {
+                index.load(batch);
+                batch.clear();
+            }
+        }
+        index.load(batch);
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public List<RestaurantGeoIndex.Hit> nearestTwenty() {
+        double[] city = CITIES[random.nextInt(CITIES.length)];
+        return index.nearest(city[0] + random.nextGaussian() * 0.1, city[1] + random.nextGaussian() * 0.1, 5, null, 20);
+    }
+
+    @Benchmark
+    public List<RestaurantGeoIndex.Hit> nearestTwentyOfCuisine() {
+        double[] city = CITIES[random.nextInt(CITIES.length)];
+        return index.nearest(city[0] + random.nextGaussian() * 0.1, city[1] + random.nextGaussian() * 0.1, 5,
+                "thai", 20);
+    }
+
+    @Benchmark
+    public List<RestaurantGeoIndex.Hit> sparseWideRadius() {
+        return index.nearest(21.0, 75.0, RestaurantGeoIndex.MAX_RADIUS_KM, null, 20);
+    }
+}
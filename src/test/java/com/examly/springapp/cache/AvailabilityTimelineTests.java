@@ -0,0 +1,64 @@
+package com.examly.springapp.cache;
+
+import com.examly.springapp.entity.MenuAvailabilityWindow;
+import com.examly.springapp.entity.MenuItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityTimelineTests {
+
+	@Test
+	void itemWindowsOverrideCategoryWindowsAndWrapPastMidnight() {
+		MenuItem idli = menuItem(1L, "Idli", "Breakfast");
+		MenuItem pongal = menuItem(2L, "Pongal", "Breakfast");
+		MenuItem parotta = menuItem(3L, "Parotta", "Dinner");
+		MenuItem tea = menuItem(4L, "Tea", "Drinks");
+
+		MenuAvailabilityWindow breakfast = new MenuAvailabilityWindow(null, LocalTime.of(7, 0), LocalTime.of(11, 0));
+		breakfast.setCategory("Breakfast");
+		MenuAvailabilityWindow sundayPongal = new MenuAvailabilityWindow(DayOfWeek.SUNDAY, LocalTime.of(8, 0), LocalTime.of(10, 0));
+		sundayPongal.setMenuItem(pongal);
+		MenuAvailabilityWindow lateDinner = new MenuAvailabilityWindow(DayOfWeek.SUNDAY, LocalTime.of(19, 0), LocalTime.of(1, 0));
+		lateDinner.setCategory("Dinner");
+
+		AvailabilityTimeline timeline = AvailabilityTimeline.compile(
+				List.of(idli, pongal, parotta, tea), List.of(breakfast, sundayPongal, lateDinner));
+
+		// Monday 2026-10-19
+		assertArrayEquals(new int[] {0, 3}, timeline.availableSlots(minute(2026, 10, 19, 9, 30)));
+		assertArrayEquals(new int[] {3}, timeline.availableSlots(minute(2026, 10, 19, 12, 0)));
+		// Sunday 2026-10-25: Pongal only between 8 and 10, Parotta until 1 am Monday
+		assertArrayEquals(new int[] {0, 3}, timeline.availableSlots(minute(2026, 10, 25, 7, 30)));
+		assertArrayEquals(new int[] {0, 1, 3}, timeline.availableSlots(minute(2026, 10, 25, 8, 0)));
+		assertTrue(timeline.isAvailable(2, minute(2026, 10, 25, 23, 59)));
+		assertTrue(timeline.isAvailable(2, minute(2026, 10, 19, 0, 30)));
+		assertFalse(timeline.isAvailable(2, minute(2026, 10, 19, 1, 0)));
+	}
+
+	@Test
+	void unavailableFlagWinsOverSchedules() {
+		MenuItem soldOut = menuItem(7L, "Biryani", "Mains");
+		soldOut.setAvailable(false);
+
+		AvailabilityTimeline timeline = AvailabilityTimeline.compile(List.of(soldOut), List.of());
+
+		assertEquals(0, timeline.availableSlots(0).length);
+		assertEquals(-1, timeline.nextTransitionAfter(0));
+	}
+
+	private static MenuItem menuItem(Long id, String name, String category) {
+		MenuItem menuItem = new MenuItem(name, 50.0, category, null);
+		menuItem.setId(id);
+		return menuItem;
+	}
+
+	private static int minute(int year, int month, int day, int hour, int minute) {
+		return AvailabilityTimeline.minuteOfWeek(LocalDateTime.of(year, month, day, hour, minute));
+	}
+}
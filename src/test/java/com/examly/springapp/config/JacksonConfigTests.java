@@ -0,0 +1,93 @@
+package com.examly.springapp.config;
+
+import com.examly.springapp.entity.*;
+import com.examly.springapp.search.CuisineFacetIndex;
+import com.examly.springapp.search.FacetedPage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class JacksonConfigTests {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void pagesAreWrittenAsTheirContentAndPageNumbers() throws Exception {
+		Restaurant restaurant = new Restaurant("Json Kitchen", "1 Json Street", "Thai", "555-0400", "9-5");
+		restaurant.setId(4L);
+		JsonNode page = objectMapper.readTree(objectMapper.writeValueAsString(
+				new PageImpl<>(List.of(restaurant), PageRequest.of(2, 1), 7)));
+
+		assertEquals(List.of("content", "page"), fieldNames(page));
+		assertEquals("Json Kitchen", page.get("content").get(0).get("name").asText());
+		assertEquals(1, page.get("page").get("size").asInt());
+		assertEquals(2, page.get("page").get("number").asInt());
+		assertEquals(7, page.get("page").get("totalElements").asLong());
+		assertEquals(7, page.get("page").get("totalPages").asInt());
+		// Null properties are left out
+		assertFalse(page.get("content").get(0).has("latitude"));
+
+		JsonNode faceted = objectMapper.readTree(objectMapper.writeValueAsString(new FacetedPage<>(List.of(restaurant),
+				PageRequest.of(0, 10), 1, List.of(new CuisineFacetIndex.FacetCount("Thai", 1)))));
+		assertEquals(List.of("content", "cuisineFacets", "page"), fieldNames(faceted));
+		assertEquals("Thai", faceted.get("cuisineFacets").get(0).get("value").asText());
+	}
+
+	@Test
+	void summaryViewLeavesOutDerivedGetters() throws Exception {
+		Restaurant restaurant = new Restaurant("Json Kitchen", "1 Json Street", "Thai", "555-0400", "9-5");
+		restaurant.setId(4L);
+		User user = new User("json_user", "json@example.com", "secret1");
+		user.setId(5L);
+		MenuItem menuItem = new MenuItem("Green Curry", 11.0, "Mains", restaurant);
+		menuItem.setId(6L);
+		OrderEntity order = new OrderEntity(user, restaurant, "2 Json Street");
+		order.setId(7L);
+		order.setStatus(OrderStatus.PENDING);
+		OrderItem item = new OrderItem();
+		item.setId(8L);
+		item.setOrder(order);
+		item.setMenuItem(menuItem);
+		item.setQuantity(2);
+		item.setPriceAtOrderTime(11.0);
+		item.setItemNameAtOrderTime("Green Curry");
+		item.setSubtotal(22.0);
+		order.setOrderItems(List.of(item));
+		PageImpl<OrderEntity> page = new PageImpl<>(List.of(order), PageRequest.of(0, 10), 1);
+
+		JsonNode summary = objectMapper.readTree(objectMapper.writerWithView(Views.Summary.class).writeValueAsString(page))
+				.get("content").get(0);
+		assertEquals(5, summary.get("userId").asLong());
+		assertEquals(4, summary.get("restaurantId").asLong());
+		assertFalse(summary.has("itemNames"));
+		assertFalse(summary.has("itemQuantities"));
+		JsonNode summaryItem = summary.get("orderItems").get(0);
+		assertEquals(6, summaryItem.get("menuItemId").asLong());
+		assertEquals(22.0, summaryItem.get("subtotal").asDouble());
+		assertFalse(summaryItem.has("totalPrice"));
+		assertFalse(summaryItem.has("itemName"));
+
+		JsonNode full = objectMapper.readTree(objectMapper.writeValueAsString(order));
+		assertEquals("Green Curry", full.get("itemNames").get(0).asText());
+		assertEquals(2, full.get("itemQuantities").get("Green Curry").asInt());
+		assertEquals(22.0, full.get("orderItems").get(0).get("totalPrice").asDouble());
+		assertFalse(full.has("specialInstructions"));
+	}
+
+	private static List<String> fieldNames(JsonNode node) {
+		List<String> names = new ArrayList<>();
+		node.fieldNames().forEachRemaining(names::add);
+		return names;
+	}
+}
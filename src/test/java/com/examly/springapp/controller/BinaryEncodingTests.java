@@ -0,0 +1,95 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.entity.*;
+import com.examly.springapp.service.MenuService;
+import com.examly.springapp.service.OrderService;
+import com.examly.springapp.service.RestaurantService;
+import com.examly.springapp.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+class BinaryEncodingTests {
+
+	private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private RestaurantService restaurantService;
+
+	@Autowired
+	private MenuService menuService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Test
+	void binaryResponsesCarryTheSameDocumentAsJson() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+		User user = userService.createUser(new User("binary_user", "binary@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Binary Kitchen", "1 Binary Street", "Korean", "555-0500", "9-5"));
+		MenuItem menuItem = menuService.addMenuItem(new MenuItem("Bibimbap", 12.0, "Mains", restaurant));
+		OrderEntity order = new OrderEntity(user, restaurant, "2 Binary Street");
+		order.setPaymentStatus("PAID");
+		OrderItem item = new OrderItem();
+		item.setMenuItem(menuItem);
+		item.setQuantity(2);
+		order.setOrderItems(List.of(item));
+		orderService.createOrder(order);
+
+		CBORMapper cbor = new CBORMapper();
+		SmileMapper smile = new SmileMapper();
+		for (String path : List.of("/menu/restaurant/" + restaurant.getId(), "/api/orders/user/" + user.getId(),
+				"/api/restaurants")) {
+			MvcResult json = mockMvc.perform(get(path)).andReturn();
+			assertEquals(MediaType.APPLICATION_JSON_VALUE, json.getResponse().getContentType(), path);
+			JsonNode expected = objectMapper.readTree(json.getResponse().getContentAsByteArray());
+
+			MvcResult cborResult = mockMvc.perform(get(path).accept(MediaType.APPLICATION_CBOR)).andReturn();
+			assertEquals(MediaType.APPLICATION_CBOR_VALUE, cborResult.getResponse().getContentType(), path);
+			assertEquals(expected, cbor.readTree(cborResult.getResponse().getContentAsByteArray()), path);
+			assertTrue(cborResult.getResponse().getContentAsByteArray().length < json.getResponse().getContentAsByteArray().length, path);
+
+			MvcResult smileResult = mockMvc.perform(get(path).accept(SMILE)).andReturn();
+			assertEquals(SMILE.toString(), smileResult.getResponse().getContentType(), path);
+			assertEquals(expected, smile.readTree(smileResult.getResponse().getContentAsByteArray()), path);
+		}
+
+		// The order history keeps its summary view in every encoding
+		JsonNode history = cbor.readTree(mockMvc.perform(get("/api/orders/user/" + user.getId())
+				.accept(MediaType.APPLICATION_CBOR)).andReturn().getResponse().getContentAsByteArray());
+		assertFalse(history.get("content").get(0).has("itemNames"));
+
+		// Request bodies are read from the binary encodings as well
+		byte[] body = cbor.writeValueAsBytes(new Restaurant("Cbor Kitchen", "3 Binary Street", "Korean", "555-0501", "9-5"));
+		MvcResult created = mockMvc.perform(post("/api/restaurants").contentType(MediaType.APPLICATION_CBOR)
+				.accept(MediaType.APPLICATION_CBOR).content(body)).andReturn();
+		assertEquals(201, created.getResponse().getStatus());
+		assertEquals("Cbor Kitchen", cbor.readTree(created.getResponse().getContentAsByteArray()).get("name").asText());
+	}
+}
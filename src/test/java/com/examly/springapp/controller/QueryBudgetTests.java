@@ -0,0 +1,236 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.entity.*;
+import com.examly.springapp.jdbc.EndpointQueryBudget;
+import com.examly.springapp.jdbc.QueryBudget;
+import com.examly.springapp.service.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Runs one request against every endpoint in this package over a data set large enough for an N+1
+ * query to repeat, and checks each against its {@link QueryBudget}. The test context fails a request
+ * as soon as it breaks its budget, so the harness also catches statements run while serializing.
+ */
+@SpringBootTest
+class QueryBudgetTests {
+
+	// More rows than query-budget.max-repeats, so that loading one association per row breaks the budget
+	private static final int ROWS = 7;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	@Qualifier("requestMappingHandlerMapping")
+	private RequestMappingHandlerMapping handlerMapping;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private RestaurantService restaurantService;
+
+	@Autowired
+	private MenuService menuService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private FeedbackService feedbackService;
+
+	@Autowired
+	private MetricsService metricsService;
+
+	@Test
+	void everyEndpointDeclaresAQueryBudget() {
+		List<String> missing = endpoints().entrySet().stream()
+				.filter(endpoint -> !endpoint.getValue().hasMethodAnnotation(QueryBudget.class))
+				.map(Map.Entry::getKey)
+				.toList();
+		assertEquals(List.of(), missing);
+	}
+
+	@Test
+	void everyEndpointStaysWithinItsBudget() throws Exception {
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < ROWS; i++) {
+			users.add(userService.createUser(new User("budget_user" + i, "budget" + i + "@example.com", "secret1")));
+		}
+		List<Restaurant> restaurants = new ArrayList<>();
+		List<List<MenuItem>> menus = new ArrayList<>();
+		for (int i = 0; i < ROWS; i++) {
+			Restaurant restaurant = restaurantService.registerRestaurant(
+					new Restaurant("Budget Kitchen " + i, i + " Budget Street", "Budget", "555-060" + i, "9-5"));
+			restaurants.add(restaurant);
+			List<MenuItem> menu = new ArrayList<>();
+			for (int item = 0; item < 8; item++) {
+				menu.add(menuService.addMenuItem(new MenuItem("Budget Dish " + i + "-" + item, 5.0 + item, "Mains", restaurant)));
+			}
+			menus.add(menu);
+		}
+		// The first user and restaurant get a page of orders; the last ones none, so that they can be deleted
+		List<OrderEntity> orders = new ArrayList<>();
+		for (int i = 0; i < 2 * ROWS; i++) {
+			int r = i < ROWS ? 0 : i % (ROWS - 1);
+			OrderEntity order = new OrderEntity(users.get(i < ROWS ? 0 : i % (ROWS - 1)), restaurants.get(r), "1 Budget Street");
+			order.setPaymentStatus("PAID");
+			List<OrderItem> items = new ArrayList<>();
+			for (int item = 0; item < 3; item++) {
+				OrderItem orderItem = new OrderItem();
+				orderItem.setMenuItem(menus.get(r).get((i + item) % 6));
+				orderItem.setQuantity(1 + item);
+				items.add(orderItem);
+			}
+			order.setOrderItems(items);
+			orders.add(orderService.createOrder(order));
+		}
+		orderService.updateOrderStatus(orders.get(0).getId(), OrderStatus.DELIVERED);
+		for (int i = 0; i < ROWS; i++) {
+			feedbackService.submitFeedback(new Feedback("Budget feedback number " + i, 4, restaurants.get(0), users.get(i)));
+		}
+
+		long user = users.get(0).getId();
+		long restaurant = restaurants.get(0).getId();
+		long menuItem = menus.get(0).get(0).getId();
+		long order = orders.get(1).getId();
+		metricsService.resetQueryStats();
+
+		List<MockHttpServletRequestBuilder> requests = List.of(
+				// Users
+				json(post("/api/users"), "{\"username\":\"budget_new\",\"email\":\"budget_new@example.com\",\"password\":\"secret1\"}"),
+				get("/api/users/email/budget0@example.com"),
+				get("/api/users/username/budget_user0"),
+				get("/api/users"),
+				get("/api/users").param("fields", "id,username"),
+				get("/api/users/search").param("query", "budget"),
+				get("/api/users/{id}", user),
+				json(put("/api/users/{id}", users.get(1).getId()),
+						"{\"username\":\"budget_user1\",\"email\":\"budget1b@example.com\",\"password\":\"secret2\"}"),
+				// Restaurants
+				json(post("/api/restaurants"), "{\"name\":\"Budget New\",\"address\":\"9 Budget Street\",\"cuisine\":\"Budget\"," +
+						"\"phoneNumber\":\"555-0699\",\"openingHours\":\"9-5\"}"),
+				get("/api/restaurants"),
+				get("/api/restaurants").param("fields", "id,name,ratingSummary"),
+				get("/api/restaurants/search").param("query", "budget"),
+				get("/api/restaurants/filter").param("cuisine", "Budget"),
+				get("/api/restaurants/nearby").param("lat", "12.97").param("lon", "77.59"),
+				get("/api/restaurants/ranked"),
+				get("/api/restaurants/order-metrics"),
+				get("/api/restaurants/cuisines"),
+				get("/api/restaurants/{id}", restaurant),
+				get("/api/restaurants/{id}/order-metrics", restaurant),
+				get("/api/restaurants/{id}/top-items", restaurant),
+				json(put("/api/restaurants/{id}", restaurants.get(1).getId()), "{\"name\":\"Budget Kitchen 1\"," +
+						"\"address\":\"1 Budget Street\",\"cuisine\":\"Budget\",\"phoneNumber\":\"555-0601\",\"openingHours\":\"9-6\"}"),
+				get("/api/restaurants/{id}/hours", restaurant),
+				json(put("/api/restaurants/{id}/hours", restaurant), "{\"intervals\":[{\"dayOfWeek\":\"MONDAY\"," +
+						"\"openTime\":\"09:00\",\"closeTime\":\"17:00\"}],\"exceptions\":[]}"),
+				// Orders
+				json(post("/api/orders"), "{\"user\":{\"id\":" + user + "},\"restaurant\":{\"id\":" + restaurant + "}," +
+						"\"deliveryAddress\":\"2 Budget Street\",\"paymentStatus\":\"PAID\",\"orderItems\":[{\"menuItem\":{\"id\":" + menuItem + "},\"quantity\":2}]}"),
+				get("/api/orders/user/{id}", user),
+				get("/api/orders/restaurant/{id}", restaurant),
+				get("/api/orders/restaurant/{id}", restaurant).param("fields", "id,status,totalAmount"),
+				patch("/api/orders/{id}/status", order).param("status", "CONFIRMED"),
+				get("/api/orders/restaurant/{id}/revenue", restaurant),
+				get("/api/orders/{id}/details", order),
+				delete("/api/orders/{id}", orders.get(2).getId()),
+				// Menu
+				json(post("/menu"), "{\"name\":\"Budget Extra\",\"price\":4.5,\"category\":\"Sides\",\"restaurant\":{\"id\":" + restaurant + "}}"),
+				get("/menu/restaurant/{id}", restaurant),
+				get("/menu/restaurant/{id}", restaurant).param("fields", "name,price"),
+				get("/menu/search").param("q", "budget"),
+				get("/menu/restaurant/{id}/categories", restaurant),
+				get("/menu/restaurant/{id}/available", restaurant),
+				json(post("/menu/restaurant/{id}/schedules", restaurant),
+						"{\"category\":\"Mains\",\"dayOfWeek\":\"MONDAY\",\"startTime\":\"09:00\",\"endTime\":\"17:00\"}"),
+				get("/menu/restaurant/{id}/schedules", restaurant),
+				get("/menu/{id}", menuItem),
+				get("/menu/{id}/recommendations", menuItem),
+				json(put("/menu/{id}", menus.get(0).get(7).getId()),
+						"{\"name\":\"Budget Dish 0-7\",\"price\":13.0,\"category\":\"Mains\",\"restaurant\":{\"id\":" + restaurant + "}}"),
+				// Feedback
+				json(post("/api/feedback"), "{\"restaurant\":{\"id\":" + restaurants.get(1).getId() + "},\"user\":{\"id\":" + user + "}," +
+						"\"content\":\"Budget feedback via the API\",\"rating\":5}"),
+				get("/api/feedback/restaurant/{id}", restaurant),
+				get("/api/feedback/restaurant/{id}/summary", restaurant),
+				// Analytics and metrics
+				get("/api/analytics/revenue-by-cuisine"),
+				get("/api/analytics/basket-sizes"),
+				get("/api/analytics/order-heatmap"),
+				get("/api/analytics/top-items"),
+				get("/api/metrics/methods"),
+				get("/api/metrics/queries"),
+				get("/api/metrics/slow-queries"),
+				get("/api/metrics/query-budgets"));
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+		Map<String, Integer> statuses = new LinkedHashMap<>();
+		for (MockHttpServletRequestBuilder request : requests) {
+			statuses.putAll(perform(mockMvc, request));
+		}
+
+		// Deletes last, once nothing else needs the rows
+		long schedule = menuService.getAvailabilityWindows(restaurant).get(0).getId();
+		long feedback = feedbackService.getFeedbackForRestaurant(restaurant, null, 10).items().get(0).getId();
+		for (MockHttpServletRequestBuilder request : List.of(
+				delete("/menu/schedules/{id}", schedule),
+				delete("/menu/{id}", menus.get(1).get(7).getId()),
+				delete("/api/feedback/{id}", feedback),
+				delete("/api/users/{id}", users.get(ROWS - 1).getId()),
+				delete("/api/restaurants/{id}", restaurants.get(ROWS - 1).getId()),
+				delete("/api/metrics/methods"))) {
+			statuses.putAll(perform(mockMvc, request));
+		}
+
+		// Resetting the query stats also clears the budgets, so it is the last request and not checked
+		Map<String, EndpointQueryBudget> budgets = metricsService.getQueryBudgets().stream()
+				.collect(Collectors.toMap(EndpointQueryBudget::endpoint, budget -> budget));
+		statuses.putAll(perform(mockMvc, delete("/api/metrics/queries")));
+
+		statuses.forEach((request, status) -> assertTrue(status < 300, request + " returned " + status));
+		for (String endpoint : endpoints().keySet()) {
+			if (endpoint.equals("MetricsController.resetQueryStats")) {
+				continue;
+			}
+			EndpointQueryBudget budget = budgets.get(endpoint);
+			assertNotNull(budget, endpoint + " was not requested");
+			assertEquals(0, budget.violations(), budget.lastViolation());
+		}
+	}
+
+	private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+		return request.contentType(MediaType.APPLICATION_JSON).content(body);
+	}
+
+	private static Map<String, Integer> perform(MockMvc mockMvc, MockHttpServletRequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request).andReturn();
+		return Map.of(result.getRequest().getMethod() + " " + result.getRequest().getRequestURI(), result.getResponse().getStatus());
+	}
+
+	private Map<String, HandlerMethod> endpoints() {
+		Map<String, HandlerMethod> endpoints = new TreeMap<>();
+		handlerMapping.getHandlerMethods().values().stream()
+				.filter(handler -> handler.getBeanType().getPackageName().equals(getClass().getPackageName()))
+				.forEach(handler -> endpoints.put(
+						handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName(), handler));
+		return endpoints;
+	}
+}
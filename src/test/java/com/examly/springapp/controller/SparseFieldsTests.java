@@ -0,0 +1,141 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.entity.*;
+import com.examly.springapp.jdbc.QueryStats;
+import com.examly.springapp.jdbc.QueryTracer;
+import com.examly.springapp.service.FeedbackService;
+import com.examly.springapp.service.MenuService;
+import com.examly.springapp.service.OrderService;
+import com.examly.springapp.service.RestaurantService;
+import com.examly.springapp.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+class SparseFieldsTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private QueryTracer queryTracer;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private RestaurantService restaurantService;
+
+	@Autowired
+	private MenuService menuService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private FeedbackService feedbackService;
+
+	@Test
+	void listsReturnOnlyTheRequestedFields() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+		User user = userService.createUser(new User("sparse_user", "sparse@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Sparse Kitchen", "1 Sparse Street", "Sparse", "555-0700", "9-5"));
+		List<MenuItem> menu = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			menu.add(menuService.addMenuItem(new MenuItem("Sparse Dish " + i, 6.0 + i, "Mains", restaurant)));
+		}
+		for (int i = 0; i < 3; i++) {
+			OrderEntity order = new OrderEntity(user, restaurant, i + " Sparse Street");
+			order.setPaymentStatus("PAID");
+			OrderItem item = new OrderItem();
+			item.setMenuItem(menu.get(i));
+			item.setQuantity(1);
+			order.setOrderItems(List.of(item));
+			orderService.createOrder(order);
+		}
+		feedbackService.submitFeedback(new Feedback("Sparse but tasty food", 4, restaurant, user));
+
+		// Orders: two columns of the orders table, and neither the items, the user nor the restaurant
+		queryTracer.reset();
+		JsonNode orders = content(mockMvc, get("/api/orders/restaurant/{id}", restaurant.getId())
+				.param("fields", "status, totalAmount,status").param("size", "2"));
+		assertEquals(2, orders.get("content").size());
+		for (JsonNode order : orders.get("content")) {
+			assertEquals(List.of("status", "totalAmount"), fieldNames(order));
+			assertEquals("PENDING", order.get("status").asText());
+		}
+		assertEquals(3, orders.get("page").get("totalElements").asLong());
+		List<String> statements = queryTracer.snapshot().stream().map(QueryStats::fingerprint).toList();
+		assertEquals(2, statements.size(), statements.toString());
+		for (String statement : statements) {
+			assertTrue(statement.contains(" from orders "), statement);
+			assertFalse(statement.contains("join") || statement.contains("order_items") ||
+					statement.contains("delivery_address"), statement);
+		}
+
+		// Menu items: requested order kept, the restaurant written as its id as in the full response
+		JsonNode items = content(mockMvc, get("/menu/restaurant/{id}", restaurant.getId())
+				.param("fields", "price,name,restaurant").param("sortBy", "price").param("sortDir", "desc"));
+		assertEquals(List.of("price", "name", "restaurant"), fieldNames(items.get("content").get(0)));
+		assertEquals("Sparse Dish 2", items.get("content").get(0).get("name").asText());
+		assertEquals(restaurant.getId().longValue(), items.get("content").get(0).get("restaurant").asLong());
+
+		// Restaurants: the embedded rating summary as a whole, and nulls left out as usual
+		JsonNode restaurants = content(mockMvc, get("/api/restaurants")
+				.param("fields", "name,ratingSummary,latitude").param("sortBy", "id").param("sortDir", "desc").param("size", "1"));
+		JsonNode sparse = restaurants.get("content").get(0);
+		assertEquals(List.of("name", "ratingSummary"), fieldNames(sparse));
+		assertEquals(4.0, sparse.get("ratingSummary").get("averageRating").asDouble());
+
+		JsonNode users = content(mockMvc, get("/api/users/search").param("query", "sparse_").param("fields", "username"));
+		assertEquals("sparse_user", users.get("content").get(0).get("username").asText());
+		assertEquals(1, users.get("content").get(0).size());
+	}
+
+	@Test
+	void unknownFieldsAreRejected() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+		MvcResult password = mockMvc.perform(get("/api/users").param("fields", "id,password")).andReturn();
+		assertEquals(400, password.getResponse().getStatus());
+		assertEquals("Error: unknown field 'password'; choose from id, username, email",
+				password.getResponse().getContentAsString());
+
+		// Computed properties and collections cannot be selected from a column
+		assertEquals(400, mockMvc.perform(get("/api/orders/user/{id}", 1).param("fields", "itemNames"))
+				.andReturn().getResponse().getStatus());
+		assertEquals(400, mockMvc.perform(get("/api/restaurants").param("fields", "id,menuItems"))
+				.andReturn().getResponse().getStatus());
+		assertEquals(400, mockMvc.perform(get("/api/restaurants").param("fields", ""))
+				.andReturn().getResponse().getStatus());
+	}
+
+	private JsonNode content(MockMvc mockMvc, MockHttpServletRequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request).andReturn();
+		assertEquals(200, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+		return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+	}
+
+	private static List<String> fieldNames(JsonNode node) {
+		List<String> names = new ArrayList<>();
+		node.fieldNames().forEachRemaining(names::add);
+		return names;
+	}
+}
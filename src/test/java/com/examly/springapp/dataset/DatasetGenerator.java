@@ -0,0 +1,632 @@
+package com.examly.springapp.dataset;
+
+import com.examly.springapp.entity.OrderStatus;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fills the users, restaurants, menu_items, orders, order_items and feedbacks tables with a synthetic
+ * data set shaped like production: restaurant popularity and user activity follow Zipf distributions,
+ * orders peak at lunch, dinner and weekends, most are delivered or cancelled while those of the last
+ * hour are still under way, and ratings lean positive.
+ *
+ * <p>Rows are written with batched JDBC inserts from several threads, each with its own connection.
+ * Every chunk of rows draws from its own random stream derived from the seed, so the same {@link Spec}
+ * produces the same rows whatever the number of threads. Users, restaurants, menu items and orders get
+ * explicit ids following the highest existing one, so a data set can be added to a database that
+ * already has rows; order items and feedbacks take generated ids.
+ *
+ * <p>The schema must exist: tests and benchmarks pass the DataSource of an application context, and
+ * {@link #main} takes the JDBC URL of a database the application has already run against. On MySQL add
+ * {@code rewriteBatchedStatements=true} to the URL, or every row of a batch is a round trip. Indexes
+ * the application builds in memory at startup do not see rows generated after it started.
+ */
+public class DatasetGenerator {
+
+    private static final int ROWS_PER_TASK = 10_000;
+    private static final String[] CUISINES = {"Indian", "Italian", "Chinese", "Mexican", "Japanese", "Thai",
+            "American", "Lebanese", "Korean", "Greek"};
+    private static final String[] NAMES = {"Golden", "Spice", "Urban", "Little", "Royal", "Green", "Blue", "Old Town",
+            "Corner", "Harbour"};
+    private static final String[] PLACES = {"Kitchen", "Bistro", "Grill", "House", "Table", "Diner", "Canteen", "Garden"};
+    private static final String[] STREETS = {"MG Road", "Church Street", "Brigade Road", "Residency Road",
+            "Infantry Road", "Lavelle Road", "Cunningham Road", "Museum Road"};
+    private static final String[] DISHES = {"Paneer Tikka", "Margherita Pizza", "Kung Pao Chicken", "Beef Tacos",
+            "Salmon Sushi", "Pad Thai", "Cheeseburger", "Falafel Wrap", "Bibimbap", "Moussaka", "Butter Chicken",
+            "Penne Arrabbiata", "Fried Rice", "Burrito Bowl", "Ramen", "Green Curry", "Club Sandwich", "Hummus Plate",
+            "Kimchi Pancake", "Souvlaki", "Masala Dosa", "Tiramisu", "Spring Rolls", "Churros", "Miso Soup"};
+    private static final String[][] COMMENTS = {
+            {"Cold food and an hour late.", "Wrong order and nobody answered the phone."},
+            {"Portions were small for the price.", "Arrived lukewarm, the taste was fine."},
+            {"Decent food, nothing special.", "Good taste but the delivery took long."},
+            {"Tasty and well packed.", "Quick delivery and generous portions."},
+            {"Excellent, our new favourite place.", "Perfect every single time we order."}};
+
+    // Relative order volume by hour of day, with lunch and dinner peaks, and by day of week from Monday
+    private static final double[] HOUR_WEIGHTS = {2, 1, 0.5, 0.3, 0.3, 0.5, 1, 2, 3, 3, 3, 5, 10, 11, 7, 4, 3, 4,
+            8, 12, 12, 9, 6, 3};
+    private static final double[] DAY_WEIGHTS = {1.0, 1.0, 1.0, 1.05, 1.25, 1.4, 1.3};
+    private static final int[] BASKET_WEIGHTS = {35, 30, 18, 10, 5, 2};
+    private static final int[] RATING_WEIGHTS = {6, 5, 12, 30, 47};
+    private static final OrderStatus[] STAGES = {OrderStatus.CONFIRMED, OrderStatus.PREPARING,
+            OrderStatus.READY_FOR_PICKUP, OrderStatus.OUT_FOR_DELIVERY, OrderStatus.DELIVERED};
+
+    /**
+     * What to generate: row counts, the {@code days} before {@code until} the orders span, and the seed.
+     */
+    public record Spec(int users, int restaurants, int menuItemsPerRestaurant, int orders, int feedbacks, int days,
+                       LocalDate until, long seed) {
+
+        public Spec {
+            if (users <= 0 || restaurants <= 0 || menuItemsPerRestaurant <= 0 || orders < 0 || feedbacks < 0 || days <= 0) {
+                throw new IllegalArgumentException("Error: users, restaurants, menu items and days must be positive, orders and feedbacks not negative");
+            }
+            Objects.requireNonNull(until, "until");
+        }
+
+        /**
+         * Ten orders per user, a thousand per restaurant and one feedback for every twenty, over 90 days.
+         */
+        public static Spec scaledTo(int orders, long seed) {
+            return new Spec(Math.max(10, orders / 10), Math.max(5, orders / 1000), 25, orders, orders / 20, 90,
+                    LocalDate.now(), seed);
+        }
+    }
+
+    /**
+     * What was generated. Ranks of the Zipf distributions are offsets from the first id, so the most
+     * popular restaurant and the most active user are the first ones.
+     */
+    public record Dataset(Spec spec, long firstUserId, long firstRestaurantId, long firstMenuItemId, long firstOrderId,
+                          long orderItems, Duration elapsed) {
+
+        public long userId(int rank) {
+            return firstUserId + rank;
+        }
+
+        public long restaurantId(int rank) {
+            return firstRestaurantId + rank;
+        }
+
+        public long orderId(int index) {
+            return firstOrderId + index;
+        }
+
+        public static String email(long userId) {
+            return "user" + userId + "@example.com";
+        }
+
+        public long rows() {
+            return spec.users() + spec.restaurants() + (long) spec.restaurants() * spec.menuItemsPerRestaurant()
+                    + spec.orders() + orderItems + spec.feedbacks();
+        }
+    }
+
+    private final DataSource dataSource;
+    private final int threads;
+    private final int batchSize;
+    private final int rowsPerTask;
+
+    // The rows drawn depend on the chunk size, so only tests change it
+    DatasetGenerator(DataSource dataSource, int threads, int batchSize, int rowsPerTask) {
+        if (threads <= 0 || batchSize <= 0 || rowsPerTask <= 0) {
+            throw new IllegalArgumentException("Error: threads, batch size and rows per task must be positive");
+        }
+        this.dataSource = dataSource;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.rowsPerTask = rowsPerTask;
+    }
+
+    public DatasetGenerator(DataSource dataSource, int threads, int batchSize) {
+        this(dataSource, threads, batchSize, ROWS_PER_TASK);
+    }
+
+    public DatasetGenerator(DataSource dataSource) {
+        this(dataSource, Runtime.getRuntime().availableProcessors(), 1_000);
+    }
+
+    public Dataset generate(Spec spec) {
+        long started = System.nanoTime();
+        long firstUserId;
+        long firstRestaurantId;
+        long firstMenuItemId;
+        long firstOrderId;
+        boolean h2;
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            h2 = product.equals("H2");
+            if (!h2 && !product.equals("MySQL")) {
+                throw new IllegalArgumentException("Error: can only generate into H2 or MySQL, not " + product);
+            }
+            firstUserId = maxId(connection, "users") + 1;
+            firstRestaurantId = maxId(connection, "restaurants") + 1;
+            firstMenuItemId = maxId(connection, "menu_items") + 1;
+            firstOrderId = maxId(connection, "orders") + 1;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error: could not read the existing ids", e);
+        }
+
+        Generation generation = new Generation(spec, firstUserId, firstRestaurantId, firstMenuItemId, firstOrderId, h2);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            run(executor, tasks(spec.users(), generation::insertUsers));
+            run(executor, tasks(spec.restaurants(), generation::insertRestaurants));
+            run(executor, tasks(spec.restaurants() * spec.menuItemsPerRestaurant(), generation::insertMenuItems));
+            long orderItems = run(executor, tasks(spec.orders(), generation::insertOrders));
+            run(executor, tasks(spec.feedbacks(), generation::insertFeedbacks));
+            run(executor, tasks(spec.restaurants(), generation::updateRatings));
+            if (h2) {
+                // H2 does not move an identity column past ids inserted explicitly, MySQL does
+                restartIdentity("users", firstUserId + spec.users());
+                restartIdentity("restaurants", firstRestaurantId + spec.restaurants());
+                restartIdentity("menu_items", firstMenuItemId + (long) spec.restaurants() * spec.menuItemsPerRestaurant());
+                restartIdentity("orders", firstOrderId + spec.orders());
+            }
+            return new Dataset(spec, firstUserId, firstRestaurantId, firstMenuItemId, firstOrderId, orderItems,
+                    Duration.ofNanos(System.nanoTime() - started));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Chunk {
+        long insert(Connection connection, int chunk, int from, int to) throws SQLException;
+    }
+
+    private List<Callable<Long>> tasks(int rows, Chunk chunk) {
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int from = 0, index = 0; from < rows; from += rowsPerTask, index++) {
+            int to = Math.min(rows, from + rowsPerTask);
+            int start = from;
+            int chunkIndex = index;
+            tasks.add(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    connection.setAutoCommit(false);
+                    long inserted = chunk.insert(connection, chunkIndex, start, to);
+                    connection.commit();
+                    return inserted;
+                }
+            });
+        }
+        return tasks;
+    }
+
+    // Runs one table's chunks to completion, as the next table's rows reference them
+    private static long run(ExecutorService executor, List<Callable<Long>> tasks) {
+        long rows = 0;
+        try {
+            for (Future<Long> future : executor.invokeAll(tasks)) {
+                rows += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Error: interrupted while generating", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error: could not insert generated rows", e.getCause());
+        }
+        return rows;
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private void restartIdentity(String table, long next) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error: could not restart the ids of " + table, e);
+        }
+    }
+
+    /**
+     * The rows of one data set. Everything a chunk draws comes from a random stream of its own, keyed by
+     * the seed, the table and the chunk index.
+     */
+    private final class Generation {
+
+        private final Spec spec;
+        private final long firstUserId;
+        private final long firstRestaurantId;
+        private final long firstMenuItemId;
+        private final long firstOrderId;
+        private final LocalDateTime end;
+        private final ZipfDistribution restaurantPopularity;
+        private final ZipfDistribution userActivity;
+        private final ZipfDistribution dishPopularity;
+        private final double[] dayCumulative;
+        private final double[] hourCumulative;
+        private final int[] priceCents;
+        private final AtomicLongArray ratings;
+        // H2 can give two sessions inserting at once the same identity value, so there rows with generated
+        // ids go in one batch at a time
+        private final Object identityLock;
+
+        Generation(Spec spec, long firstUserId, long firstRestaurantId, long firstMenuItemId, long firstOrderId,
+                   boolean h2) {
+            this.spec = spec;
+            this.firstUserId = firstUserId;
+            this.firstRestaurantId = firstRestaurantId;
+            this.firstMenuItemId = firstMenuItemId;
+            this.firstOrderId = firstOrderId;
+            this.end = spec.until().atStartOfDay();
+            restaurantPopularity = new ZipfDistribution(spec.restaurants(), 1.0);
+            userActivity = new ZipfDistribution(spec.users(), 0.7);
+            dishPopularity = new ZipfDistribution(spec.menuItemsPerRestaurant(), 0.9);
+            double[] days = new double[spec.days()];
+            for (int day = 0; day < days.length; day++) {
+                DayOfWeek dayOfWeek = spec.until().minusDays(spec.days() - day).getDayOfWeek();
+                days[day] = DAY_WEIGHTS[dayOfWeek.ordinal()];
+            }
+            dayCumulative = cumulative(days);
+            hourCumulative = cumulative(HOUR_WEIGHTS);
+            // Prices are drawn up front, as every order needs them
+            priceCents = new int[spec.restaurants() * spec.menuItemsPerRestaurant()];
+            SplittableRandom prices = random(0, 0);
+            for (int i = 0; i < priceCents.length; i++) {
+                priceCents[i] = 200 + 50 * prices.nextInt(50);
+            }
+            ratings = new AtomicLongArray(spec.restaurants() * 5);
+            identityLock = h2 ? new Object() : null;
+        }
+
+        private SplittableRandom random(int table, int chunk) {
+            return new SplittableRandom(spec.seed() * 0x9E3779B97F4A7C15L + table * 0xBF58476D1CE4E5B9L + chunk);
+        }
+
+        long insertUsers(Connection connection, int chunk, int from, int to) throws SQLException {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO users (id, username, email, password) VALUES (?, ?, ?, ?)")) {
+                Batch batch = new Batch(insert, batchSize);
+                for (int i = from; i < to; i++) {
+                    long id = firstUserId + i;
+                    insert.setLong(1, id);
+                    insert.setString(2, "user" + id);
+                    insert.setString(3, Dataset.email(id));
+                    insert.setString(4, "secret1");
+                    batch.add();
+                }
+                return batch.finish();
+            }
+        }
+
+        long insertRestaurants(Connection connection, int chunk, int from, int to) throws SQLException {
+            SplittableRandom random = random(1, chunk);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO restaurants (id, name, address, cuisine, phone_number, opening_hours, latitude, longitude, " +
+                    "menu_version, rating_count, rating_sum, average_rating, one_star_count, two_star_count, " +
+                    "three_star_count, four_star_count, five_star_count) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, 0, 0, 0, 0, 0)")) {
+                Batch batch = new Batch(insert, batchSize);
+                for (int i = from; i < to; i++) {
+                    long id = firstRestaurantId + i;
+                    insert.setLong(1, id);
+                    insert.setString(2, NAMES[random.nextInt(NAMES.length)] + " " + PLACES[random.nextInt(PLACES.length)] + " " + id);
+                    insert.setString(3, (1 + random.nextInt(400)) + " " + STREETS[random.nextInt(STREETS.length)]);
+                    insert.setString(4, CUISINES[random.nextInt(CUISINES.length)]);
+                    insert.setString(5, "555-" + id);
+                    insert.setString(6, random.nextInt(4) == 0 ? "11:00-23:00" : "10:00-22:00");
+                    insert.setDouble(7, 12.97 + (random.nextDouble() - 0.5) * 0.3);
+                    insert.setDouble(8, 77.59 + (random.nextDouble() - 0.5) * 0.3);
+                    batch.add();
+                }
+                return batch.finish();
+            }
+        }
+
+        long insertMenuItems(Connection connection, int chunk, int from, int to) throws SQLException {
+            SplittableRandom random = random(2, chunk);
+            int perRestaurant = spec.menuItemsPerRestaurant();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO menu_items (id, name, price, description, category, is_available, is_vegetarian, " +
+                    "is_vegan, contains_gluten, restaurant_id) VALUES (?, ?, ?, NULL, ?, ?, ?, ?, ?, ?)")) {
+                Batch batch = new Batch(insert, batchSize);
+                for (int i = from; i < to; i++) {
+                    int item = i % perRestaurant;
+                    boolean vegan = random.nextInt(8) == 0;
+                    insert.setLong(1, firstMenuItemId + i);
+                    insert.setString(2, dishName(i / perRestaurant, item));
+                    insert.setDouble(3, priceCents[i] / 100.0);
+                    insert.setString(4, item < perRestaurant / 5 ? "Starters"
+                            : item >= perRestaurant - perRestaurant / 5 ? "Desserts" : "Mains");
+                    insert.setBoolean(5, random.nextInt(20) > 0);
+                    insert.setBoolean(6, vegan || random.nextInt(3) == 0);
+                    insert.setBoolean(7, vegan);
+                    insert.setBoolean(8, random.nextInt(2) == 0);
+                    insert.setLong(9, firstRestaurantId + i / perRestaurant);
+                    batch.add();
+                }
+                return batch.finish();
+            }
+        }
+
+        /**
+         * Inserts the orders of the chunk and their items, and returns the number of items.
+         */
+        long insertOrders(Connection connection, int chunk, int from, int to) throws SQLException {
+            SplittableRandom random = random(3, chunk);
+            int perRestaurant = spec.menuItemsPerRestaurant();
+            try (PreparedStatement insertOrder = connection.prepareStatement(
+                    "INSERT INTO orders (id, user_id, restaurant_id, order_date, estimated_delivery_time, " +
+                    "actual_delivery_time, confirmed_at, preparing_at, ready_at, out_for_delivery_at, cancelled_at, " +
+                    "status, total_amount, delivery_address, payment_status, delivery_fee) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                 PreparedStatement insertItem = connection.prepareStatement(
+                    "INSERT INTO order_items (order_id, menu_item_id, quantity, price_at_order_time, " +
+                    "item_name_at_order_time, subtotal) VALUES (?, ?, ?, ?, ?, ?)")) {
+                Batch orders = new Batch(insertOrder, batchSize);
+                // Items reference their order, so they go out only after the batch of orders they belong to
+                Batch orderItems = new Batch(insertItem, Integer.MAX_VALUE, identityLock);
+                LocalDateTime[] stages = new LocalDateTime[STAGES.length];
+                for (int i = from; i < to; i++) {
+                    long id = firstOrderId + i;
+                    int restaurant = restaurantPopularity.sample(random);
+                    LocalDateTime orderDate = orderTime(random);
+
+                    long totalCents = 0;
+                    for (int line = 0, lines = 1 + pick(random, BASKET_WEIGHTS); line < lines; line++) {
+                        int item = dishPopularity.sample(random);
+                        int menuIndex = restaurant * perRestaurant + item;
+                        int quantity = random.nextInt(10) < 7 ? 1 : 2 + random.nextInt(2);
+                        long subtotalCents = (long) quantity * priceCents[menuIndex];
+                        totalCents += subtotalCents;
+                        insertItem.setLong(1, id);
+                        insertItem.setLong(2, firstMenuItemId + menuIndex);
+                        insertItem.setInt(3, quantity);
+                        insertItem.setDouble(4, priceCents[menuIndex] / 100.0);
+                        insertItem.setString(5, dishName(restaurant, item));
+                        insertItem.setDouble(6, subtotalCents / 100.0);
+                        orderItems.add();
+                    }
+                    int feeCents = 150 + 50 * random.nextInt(7);
+
+                    // Each stage follows the previous one by a few minutes; those after the end have not happened yet
+                    OrderStatus status = OrderStatus.PENDING;
+                    LocalDateTime cancelledAt = null;
+                    Arrays.fill(stages, null);
+                    if (random.nextInt(100) < 6) {
+                        status = OrderStatus.CANCELLED;
+                        cancelledAt = min(orderDate.plusMinutes(1 + random.nextInt(15)), end.minusSeconds(1));
+                    } else {
+                        LocalDateTime at = orderDate;
+                        int[][] minutes = {{1, 4}, {1, 3}, {10, 25}, {2, 8}, {10, 25}};
+                        for (int stage = 0; stage < STAGES.length; stage++) {
+                            at = at.plusMinutes(minutes[stage][0] + random.nextInt(minutes[stage][1] - minutes[stage][0] + 1));
+                            if (!at.isBefore(end)) {
+                                break;
+                            }
+                            stages[stage] = at;
+                            status = STAGES[stage];
+                        }
+                    }
+
+                    insertOrder.setLong(1, id);
+                    insertOrder.setLong(2, firstUserId + userActivity.sample(random));
+                    insertOrder.setLong(3, firstRestaurantId + restaurant);
+                    insertOrder.setObject(4, orderDate);
+                    insertOrder.setObject(5, orderDate.plusMinutes(45));
+                    setTimestamp(insertOrder, 6, stages[4]);
+                    for (int stage = 0; stage < 4; stage++) {
+                        setTimestamp(insertOrder, 7 + stage, stages[stage]);
+                    }
+                    setTimestamp(insertOrder, 11, cancelledAt);
+                    insertOrder.setString(12, status.name());
+                    insertOrder.setDouble(13, (totalCents + feeCents) / 100.0);
+                    insertOrder.setString(14, (1 + random.nextInt(900)) + " " + STREETS[random.nextInt(STREETS.length)]);
+                    insertOrder.setString(15, status == OrderStatus.CANCELLED ? "REFUNDED" : "PAID");
+                    insertOrder.setDouble(16, feeCents / 100.0);
+                    if (orders.add()) {
+                        orderItems.flush();
+                    }
+                }
+                orders.finish();
+                return orderItems.finish();
+            }
+        }
+
+        long insertFeedbacks(Connection connection, int chunk, int from, int to) throws SQLException {
+            SplittableRandom random = random(4, chunk);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO feedbacks (content, rating, created_at, restaurant_id, user_id) VALUES (?, ?, ?, ?, ?)")) {
+                Batch batch = new Batch(insert, batchSize, identityLock);
+                for (int i = from; i < to; i++) {
+                    int restaurant = restaurantPopularity.sample(random);
+                    int rating = 1 + pick(random, RATING_WEIGHTS);
+                    String[] comments = COMMENTS[rating - 1];
+                    insert.setString(1, comments[random.nextInt(comments.length)]);
+                    insert.setInt(2, rating);
+                    insert.setObject(3, min(orderTime(random).plusHours(1), end.minusSeconds(1)));
+                    insert.setLong(4, firstRestaurantId + restaurant);
+                    insert.setLong(5, firstUserId + userActivity.sample(random));
+                    batch.add();
+                    ratings.incrementAndGet(restaurant * 5 + rating - 1);
+                }
+                return batch.finish();
+            }
+        }
+
+        // Once the feedbacks are in: the rating aggregates applyRatingChange would have maintained
+        long updateRatings(Connection connection, int chunk, int from, int to) throws SQLException {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE restaurants SET rating_count = ?, rating_sum = ?, average_rating = ?, one_star_count = ?, " +
+                    "two_star_count = ?, three_star_count = ?, four_star_count = ?, five_star_count = ? WHERE id = ?")) {
+                Batch batch = new Batch(update, batchSize);
+                for (int i = from; i < to; i++) {
+                    long count = 0;
+                    long sum = 0;
+                    for (int star = 0; star < 5; star++) {
+                        long stars = ratings.get(i * 5 + star);
+                        count += stars;
+                        sum += stars * (star + 1);
+                        update.setLong(4 + star, stars);
+                    }
+                    update.setLong(1, count);
+                    update.setLong(2, sum);
+                    update.setDouble(3, count == 0 ? 0.0 : sum * 1.0 / count);
+                    update.setLong(9, firstRestaurantId + i);
+                    batch.add();
+                }
+                return batch.finish();
+            }
+        }
+
+        private LocalDateTime orderTime(SplittableRandom random) {
+            int day = sample(dayCumulative, random);
+            int hour = sample(hourCumulative, random);
+            return end.minusDays(spec.days() - day).plusHours(hour).plusSeconds(random.nextInt(3600));
+        }
+    }
+
+    static String dishName(int restaurant, int item) {
+        return DISHES[(restaurant * 7 + item) % DISHES.length] + " No. " + (item + 1);
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    private static int pick(SplittableRandom random, int[] weights) {
+        int ticket = random.nextInt(Arrays.stream(weights).sum());
+        int i = 0;
+        while (ticket >= weights[i]) {
+            ticket -= weights[i++];
+        }
+        return i;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static void setTimestamp(PreparedStatement statement, int index, LocalDateTime value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.TIMESTAMP);
+        } else {
+            statement.setObject(index, value);
+        }
+    }
+
+    /**
+     * Statements added to a JDBC batch, executed every {@code limit} rows and at the end, holding the
+     * lock if there is one.
+     */
+    private static final class Batch {
+
+        private final PreparedStatement statement;
+        private final int limit;
+        private final Object lock;
+        private int pending;
+        private long rows;
+
+        Batch(PreparedStatement statement, int limit) {
+            this(statement, limit, null);
+        }
+
+        Batch(PreparedStatement statement, int limit, Object lock) {
+            this.statement = statement;
+            this.limit = limit;
+            this.lock = lock;
+        }
+
+        /**
+         * Adds the current parameters, and returns whether that executed the batch.
+         */
+        boolean add() throws SQLException {
+            statement.addBatch();
+            if (++pending == limit) {
+                flush();
+                return true;
+            }
+            return false;
+        }
+
+        void flush() throws SQLException {
+            if (pending > 0) {
+                if (lock == null) {
+                    statement.executeBatch();
+                } else {
+                    synchronized (lock) {
+                        statement.executeBatch();
+                    }
+                }
+                rows += pending;
+                pending = 0;
+            }
+        }
+
+        long finish() throws SQLException {
+            flush();
+            return rows;
+        }
+    }
+
+    /**
+     * Generates into the database of a JDBC URL, with {@code name=value} options: {@code url} (required),
+     * {@code username}, {@code password}, {@code orders} (1000000 by default, other counts scale with it),
+     * {@code users}, {@code restaurants}, {@code menu-items}, {@code feedbacks}, {@code days},
+     * {@code until} (today by default), {@code seed}, {@code threads} and {@code batch}.
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Error: expected name=value, got " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        if (!options.containsKey("url")) {
+            throw new IllegalArgumentException("Error: url is required");
+        }
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Spec scaled = Spec.scaledTo(Integer.parseInt(options.getOrDefault("orders", "1000000")), seed);
+        Spec spec = new Spec(
+                Integer.parseInt(options.getOrDefault("users", String.valueOf(scaled.users()))),
+                Integer.parseInt(options.getOrDefault("restaurants", String.valueOf(scaled.restaurants()))),
+                Integer.parseInt(options.getOrDefault("menu-items", String.valueOf(scaled.menuItemsPerRestaurant()))),
+                scaled.orders(),
+                Integer.parseInt(options.getOrDefault("feedbacks", String.valueOf(scaled.feedbacks()))),
+                Integer.parseInt(options.getOrDefault("days", String.valueOf(scaled.days()))),
+                options.containsKey("until") ? LocalDate.parse(options.get("until")) : scaled.until(),
+                seed);
+        DataSource dataSource = new DriverManagerDataSource(options.get("url"), options.getOrDefault("username", "root"),
+                options.getOrDefault("password", ""));
+        DatasetGenerator generator = new DatasetGenerator(dataSource,
+                Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Integer.parseInt(options.getOrDefault("batch", "1000")));
+
+        Dataset dataset = generator.generate(spec);
+        System.out.printf(Locale.ROOT, "%s%n%d rows in %.1f s, %.0f rows/s; users from id %d, restaurants from %d, orders from %d%n",
+                spec, dataset.rows(), dataset.elapsed().toMillis() / 1000.0,
+                dataset.rows() / Math.max(0.001, dataset.elapsed().toMillis() / 1000.0),
+                dataset.firstUserId(), dataset.firstRestaurantId(), dataset.firstOrderId());
+    }
+}
@@ -0,0 +1,106 @@
+package com.examly.springapp.dataset;
+
+import com.examly.springapp.entity.RatingSummary;
+import com.examly.springapp.entity.User;
+import com.examly.springapp.repository.RestaurantRepository;
+import com.examly.springapp.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class DatasetGeneratorTests {
+
+	private static final DatasetGenerator.Spec SPEC =
+			new DatasetGenerator.Spec(60, 8, 12, 2_400, 300, 21, LocalDate.of(2024, 3, 1), 7);
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private RestaurantRepository restaurantRepository;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void sameSeedGeneratesTheSameRowsWhateverTheThreads() {
+		DatasetGenerator.Dataset serial = new DatasetGenerator(dataSource, 1, 100, 500).generate(SPEC);
+		DatasetGenerator.Dataset parallel = new DatasetGenerator(dataSource, 4, 64, 500).generate(SPEC);
+
+		assertEquals(serial.orderItems(), parallel.orderItems());
+		assertEquals(serial.firstOrderId() + SPEC.orders(), parallel.firstOrderId());
+		assertEquals(orders(serial), orders(parallel));
+		assertEquals(SPEC.orders(), orders(parallel).size());
+	}
+
+	@Test
+	void generatedRowsAgreeWithTheEntities() {
+		DatasetGenerator.Dataset dataset = new DatasetGenerator(dataSource, 2, 250, 1_000).generate(SPEC);
+		long firstOrder = dataset.firstOrderId();
+		long lastOrder = dataset.orderId(SPEC.orders() - 1);
+
+		// Totals add up their items and the delivery fee, as OrderEntity.calculateTotals does
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders o WHERE o.id BETWEEN ? AND ? AND " +
+				"ABS(o.total_amount - o.delivery_fee - (SELECT SUM(i.subtotal) FROM order_items i WHERE i.order_id = o.id)) > 0.001",
+				Long.class, firstOrder, lastOrder));
+		assertEquals(dataset.orderItems(), jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM order_items WHERE order_id BETWEEN ? AND ?", Long.class, firstOrder, lastOrder));
+
+		// Orders still under way were all placed in the last two hours before the end
+		LocalDateTime end = SPEC.until().atStartOfDay();
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE id BETWEEN ? AND ? AND " +
+				"status NOT IN ('DELIVERED', 'CANCELLED') AND order_date < ?", Long.class, firstOrder, lastOrder, end.minusHours(2)));
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE id BETWEEN ? AND ? AND order_date >= ?",
+				Long.class, firstOrder, lastOrder, end));
+
+		// The most popular restaurant takes more orders than the least
+		long first = restaurantOrders(dataset.restaurantId(0));
+		long last = restaurantOrders(dataset.restaurantId(SPEC.restaurants() - 1));
+		assertTrue(first > 3 * last, first + " orders against " + last);
+
+		// Rating aggregates match the generated feedbacks
+		for (int rank = 0; rank < SPEC.restaurants(); rank++) {
+			long restaurantId = dataset.restaurantId(rank);
+			RatingSummary summary = restaurantRepository.findRatingSummary(restaurantId).orElseThrow();
+			Map<String, Object> feedbacks = jdbcTemplate.queryForMap(
+					"SELECT COUNT(*) AS ratings, COALESCE(SUM(rating), 0) AS total FROM feedbacks WHERE restaurant_id = ?", restaurantId);
+			assertEquals(((Number) feedbacks.get("ratings")).longValue(), summary.getRatingCount());
+			assertEquals(((Number) feedbacks.get("total")).longValue(), summary.getRatingSum());
+		}
+
+		// Ids inserted explicitly are behind the identity columns
+		User user = userService.createUser(new User("after_dataset", "after_dataset@example.com", "secret1"));
+		assertEquals(dataset.userId(SPEC.users()), user.getId());
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Long.class,
+				DatasetGenerator.Dataset.email(dataset.userId(0))));
+	}
+
+	private long restaurantOrders(long restaurantId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE restaurant_id = ?", Long.class, restaurantId);
+	}
+
+	// Everything but the ids, which differ by a fixed offset between two data sets
+	private List<String> orders(DatasetGenerator.Dataset dataset) {
+		return jdbcTemplate.query("SELECT o.user_id, o.restaurant_id, o.order_date, o.status, o.total_amount, " +
+				"o.cancelled_at, o.actual_delivery_time, (SELECT COUNT(*) FROM order_items i WHERE i.order_id = o.id) AS items " +
+				"FROM orders o WHERE o.id BETWEEN ? AND ? ORDER BY o.id",
+				(row, index) -> (row.getLong("user_id") - dataset.firstUserId()) + " " +
+						(row.getLong("restaurant_id") - dataset.firstRestaurantId()) + " " + row.getObject("order_date") + " " +
+						row.getString("status") + " " + row.getBigDecimal("total_amount") + " " + row.getObject("cancelled_at") + " " +
+						row.getObject("actual_delivery_time") + " " + row.getLong("items"),
+				dataset.firstOrderId(), dataset.orderId(SPEC.orders() - 1));
+	}
+}
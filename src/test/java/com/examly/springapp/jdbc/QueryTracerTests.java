@@ -0,0 +1,92 @@
+package com.examly.springapp.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryTracerTests {
+
+	@Test
+	void statementsAreAggregatedPerFingerprintAndCaller() throws SQLException {
+		QueryTracer tracer = new QueryTracer(60_000, 10);
+		try (Connection connection = dataSource(tracer, "tracer_stats").getConnection()) {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("create table dishes (id bigint primary key, name varchar(50))");
+			}
+			String caller = QueryOrigin.enter("DishRepository.save");
+			try (PreparedStatement insert = connection.prepareStatement("insert into dishes (id, name) values (?, ?)")) {
+				for (int id = 1; id <= 3; id++) {
+					insert.setInt(1, id);
+					insert.setString(2, "Dish " + id);
+					assertEquals(1, insert.executeUpdate());
+				}
+				insert.setInt(1, 1);
+				insert.setString(2, "Duplicate");
+				assertThrows(SQLException.class, insert::executeUpdate);
+			} finally {
+				QueryOrigin.exit(caller);
+			}
+			try (Statement statement = connection.createStatement()) {
+				for (int id = 1; id <= 3; id++) {
+					try (ResultSet rows = statement.executeQuery("select * from dishes where id >= " + id)) {
+						while (rows.next()) {
+							assertNotNull(rows.getString("name"));
+						}
+					}
+				}
+			}
+		}
+
+		List<QueryStats> stats = tracer.snapshot();
+		QueryStats insert = find(stats, "insert into dishes (id, name) values (?, ?)");
+		assertEquals(4, insert.calls());
+		assertEquals(1, insert.errors());
+		assertEquals(3, insert.rows());
+		assertEquals(Map.of("DishRepository.save", 4L), insert.origins());
+
+		QueryStats select = find(stats, "select * from dishes where id >= ?");
+		assertEquals(3, select.calls());
+		assertEquals(3 + 2 + 1, select.rows());
+		assertEquals(Map.of(QueryOrigin.UNATTRIBUTED, 3L), select.origins());
+		assertTrue(select.maxMillis() <= select.totalMillis());
+
+		tracer.reset();
+		assertTrue(tracer.snapshot().isEmpty());
+	}
+
+	@Test
+	void slowQueryLogIsSampledPerFingerprint() throws SQLException {
+		QueryTracer tracer = new QueryTracer(0, 3_600);
+		try (Connection connection = dataSource(tracer, "tracer_slow").getConnection();
+			 Statement statement = connection.createStatement()) {
+			for (int i = 0; i < 5; i++) {
+				statement.executeQuery("select " + i).close();
+			}
+			statement.executeQuery("select 1 where 1 = 0").close();
+			statement.executeQuery("select 2").close();
+		}
+
+		List<SlowQuery> logged = tracer.recentSlowQueries();
+		assertEquals(2, logged.size());
+		assertEquals("select 1 where 1 = 0", logged.get(0).sql());
+		assertEquals("select 0", logged.get(1).sql());
+		assertEquals(0, logged.get(1).skipped());
+		assertEquals(6, find(tracer.snapshot(), "select ?").calls());
+	}
+
+	private static TracingDataSource dataSource(QueryTracer tracer, String database) {
+		JdbcDataSource h2 = new JdbcDataSource();
+		h2.setURL("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+		return new TracingDataSource(h2, tracer);
+	}
+
+	private static QueryStats find(List<QueryStats> stats, String fingerprint) {
+		return stats.stream().filter(query -> query.fingerprint().equals(fingerprint)).findFirst()
+				.orElseThrow(() -> new AssertionError(fingerprint + " not in " + stats));
+	}
+}
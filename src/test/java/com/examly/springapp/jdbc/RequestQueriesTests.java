@@ -0,0 +1,56 @@
+package com.examly.springapp.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestQueriesTests {
+
+	private static final String BY_ID = "select * from menu_items where restaurant_id = ?";
+	private static final String PAGE = "select * from restaurants limit ?";
+
+	@AfterEach
+	void end() {
+		RequestQueries.end();
+	}
+
+	@Test
+	void repeatedStatementsAreReportedWithoutFailingInLogMode() {
+		RequestQueries queries = RequestQueries.begin("RestaurantController.getAllRestaurants", 3, 2, false);
+		RequestQueries.record(PAGE);
+		for (int i = 0; i < 3; i++) {
+			RequestQueries.record(BY_ID);
+		}
+
+		assertSame(queries, RequestQueries.current());
+		assertEquals(4, queries.statements());
+		assertEquals(Map.of(BY_ID, 3), queries.repeated());
+		assertFalse(queries.withinBudget());
+		assertEquals("RestaurantController.getAllRestaurants ran 4 statements, over its budget of 3; 3 x " + BY_ID,
+				queries.violation());
+
+		RequestQueries.end();
+		assertNull(RequestQueries.current());
+		RequestQueries.record(PAGE);
+		assertEquals(4, queries.statements());
+	}
+
+	@Test
+	void failFastThrowsOnceOnTheStatementOverBudget() {
+		RequestQueries queries = RequestQueries.begin("MenuController.getMenuItemById", 2, 5, true);
+		RequestQueries.record(PAGE);
+		RequestQueries.record(BY_ID);
+		assertTrue(queries.withinBudget());
+		assertNull(queries.violation());
+
+		QueryBudgetExceededException exceeded = assertThrows(QueryBudgetExceededException.class,
+				() -> RequestQueries.record(BY_ID));
+		assertEquals("MenuController.getMenuItemById ran 3 statements, over its budget of 2", exceeded.getMessage());
+		// The request is failing already, so statements run while it unwinds are only counted
+		RequestQueries.record(PAGE);
+		assertEquals(4, queries.statements());
+	}
+}
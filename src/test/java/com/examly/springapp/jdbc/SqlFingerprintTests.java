@@ -0,0 +1,32 @@
+package com.examly.springapp.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlFingerprintTests {
+
+	@Test
+	void literalsWhitespaceAndCaseAreNormalized() {
+		assertEquals("select o1_0.id from orders o1_0 where o1_0.user_id=? and o1_0.status=?",
+				SqlFingerprint.of("SELECT o1_0.id\n  FROM orders o1_0\n WHERE o1_0.user_id=42 AND o1_0.status='DELIVERED'"));
+		assertEquals("select * from users where username=? and id = ?",
+				SqlFingerprint.of("select * from users where username='it''s me' and id = 3.5"));
+		assertEquals("select * from t1_0 where c2=?", SqlFingerprint.of("select * from t1_0 where c2=7;"));
+	}
+
+	@Test
+	void inListsOfAnyLengthShareAFingerprint() {
+		assertEquals("select * from order_items where order_id in (?+)",
+				SqlFingerprint.of("select * from order_items where order_id in (?,?,?)"));
+		assertEquals(SqlFingerprint.of("select * from order_items where order_id in (1, 2, 3, 4)"),
+				SqlFingerprint.of("select * from order_items where order_id in (?)"));
+		assertEquals("insert into t (a,b) values (?,?)", SqlFingerprint.of("insert into t (a,b) values (?,?)"));
+	}
+
+	@Test
+	void commentsAreDropped() {
+		assertEquals("select ? from dual",
+				SqlFingerprint.of("/* OrderRepository.findAll */ select 1 from dual -- trailing\n"));
+	}
+}
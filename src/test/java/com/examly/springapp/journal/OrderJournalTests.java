@@ -0,0 +1,133 @@
+package com.examly.springapp.journal;
+
+import com.examly.springapp.entity.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderJournalTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 4, 12, 30, 15, 250_000_000);
+	private static final int SEGMENT_BYTES = 10 * OrderJournal.RECORD_BYTES;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void replaysRecordsInOrderAcrossSegments() throws IOException {
+		OrderJournal journal = open();
+		for (long order = 1; order <= 25; order++) {
+			assertEquals(order, journal.append(OrderJournal.RecordType.CREATED, order, 7, 3, OrderStatus.PENDING,
+					NOW.plusSeconds(order), 12.34, 2));
+		}
+		assertEquals(3, journal.segmentCount());
+
+		List<OrderJournalRecord> records = replay(journal, 0);
+		assertEquals(25, records.size());
+		assertEquals(new OrderJournalRecord(1, OrderJournal.RecordType.CREATED, 1, 7, 3, OrderStatus.PENDING,
+				NOW.plusSeconds(1), 12.34, 2), records.get(0));
+		assertEquals(List.of(21L, 22L, 23L, 24L, 25L), replay(journal, 20).stream().map(OrderJournalRecord::sequence).toList());
+		journal.close();
+
+		OrderJournal reopened = open();
+		assertEquals(25, reopened.lastSequence());
+		assertEquals(26, reopened.append(OrderJournal.RecordType.STATUS_CHANGED, 1, 7, 3, OrderStatus.CONFIRMED,
+				NOW, 12.34, 2));
+		assertEquals(26, replay(reopened, 0).size());
+		reopened.close();
+	}
+
+	@Test
+	void reopeningCutsTheJournalAtATornRecord() throws IOException {
+		OrderJournal journal = open();
+		for (long order = 1; order <= 5; order++) {
+			journal.append(OrderJournal.RecordType.CREATED, order, 7, 3, OrderStatus.PENDING, NOW, 10.0, 1);
+		}
+		journal.close();
+
+		// Flip a byte of the fourth record, as if the crash hit while it was being written
+		Path segment = segments().get(0);
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer orderId = ByteBuffer.allocate(1);
+			channel.read(orderId, 3 * OrderJournal.RECORD_BYTES + 20);
+			orderId.flip();
+			orderId.put(0, (byte) (orderId.get(0) ^ 1));
+			channel.write(orderId, 3 * OrderJournal.RECORD_BYTES + 20);
+		}
+
+		OrderJournal reopened = open();
+		assertEquals(3, reopened.lastSequence());
+		assertEquals(4, reopened.append(OrderJournal.RecordType.CREATED, 9, 7, 3, OrderStatus.PENDING, NOW, 10.0, 1));
+		assertEquals(List.of(1L, 2L, 3L, 9L), replay(reopened, 0).stream().map(OrderJournalRecord::orderId).toList());
+		reopened.close();
+	}
+
+	@Test
+	void compactionKeepsTheLatestRecordOfEachOldOrder() throws IOException {
+		OrderJournal journal = open();
+		LocalDateTime old = NOW.minusDays(10);
+		OrderStatus[] lifecycle = {OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.DELIVERED};
+		for (OrderStatus status : lifecycle) {
+			for (long order = 1; order <= 6; order++) {
+				journal.append(status == OrderStatus.PENDING ? OrderJournal.RecordType.CREATED
+						: OrderJournal.RecordType.STATUS_CHANGED, order, 7, 3, status, old, 10.0, 1);
+			}
+		}
+		journal.append(OrderJournal.RecordType.CREATED, 7, 7, 3, OrderStatus.PENDING, old, 10.0, 1);
+		journal.append(OrderJournal.RecordType.DELETED, 7, 7, 3, OrderStatus.PENDING, old, 10.0, 1);
+		journal.append(OrderJournal.RecordType.CREATED, 8, 7, 3, OrderStatus.PENDING, NOW, 10.0, 1);
+		assertEquals(3, journal.segmentCount());
+
+		// The active segment is never compacted
+		assertEquals(2, journal.compact(NOW.minusDays(7)));
+		assertEquals(0, journal.compact(NOW.minusDays(7)));
+		assertEquals(List.of(13L, 14L, 15L, 16L, 17L, 18L, 20L, 21L),
+				replay(journal, 0).stream().map(OrderJournalRecord::sequence).toList());
+
+		for (long order = 9; order <= 28; order++) {
+			journal.append(OrderJournal.RecordType.CREATED, order, 7, 3, OrderStatus.PENDING, NOW, 10.0, 1);
+		}
+		// A segment with newer records stops compaction at that segment
+		assertEquals(0, journal.compact(NOW.minusDays(7)));
+		assertEquals(3, journal.compact(NOW.plusDays(1)));
+		List<OrderJournalRecord> records = replay(journal, 0);
+		assertEquals(7 + 21, records.size());
+		assertTrue(records.stream().filter(record -> record.orderId() <= 6)
+				.allMatch(record -> record.status() == OrderStatus.DELIVERED));
+		assertEquals(OrderJournal.RecordType.DELETED, records.get(6).type());
+		journal.close();
+
+		OrderJournal reopened = open();
+		assertEquals(41, reopened.lastSequence());
+		assertEquals(records, replay(reopened, 0));
+		reopened.close();
+	}
+
+	private OrderJournal open() throws IOException {
+		return new OrderJournal(directory.toString(), SEGMENT_BYTES);
+	}
+
+	private List<Path> segments() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.sorted().toList();
+		}
+	}
+
+	private static List<OrderJournalRecord> replay(OrderJournal journal, long afterSequence) throws IOException {
+		List<OrderJournalRecord> records = new ArrayList<>();
+		journal.replay(afterSequence, records::add);
+		return records;
+	}
+}
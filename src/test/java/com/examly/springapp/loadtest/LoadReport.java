@@ -0,0 +1,123 @@
+package com.examly.springapp.loadtest;
+
+import com.examly.springapp.aspect.LatencyHistogram;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the measured arrivals per scenario. Latency runs from the time a request
+ * was due to be sent, not the time it was, so a stalled server is charged for the requests queued
+ * behind it.
+ */
+class LoadReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    record EndpointSummary(String scenario, String endpoint, long requests, long errors, long skipped,
+                           double throughputPerSecond, double meanMillis, double p50Millis, double p99Millis,
+                           double p999Millis, double maxMillis) {
+    }
+
+    record Summary(Instant startedAt, Map<String, Object> options, double offeredPerSecond,
+                   double throughputPerSecond, long requests, long errors, List<EndpointSummary> endpoints) {
+    }
+
+    private final Map<Scenario, LatencyHistogram> latencies = new EnumMap<>(Scenario.class);
+    private final Map<Scenario, LongAdder> errors = new EnumMap<>(Scenario.class);
+    private final Map<Scenario, LongAdder> skipped = new EnumMap<>(Scenario.class);
+
+    LoadReport() {
+        for (Scenario scenario : Scenario.values()) {
+            latencies.put(scenario, new LatencyHistogram());
+            errors.put(scenario, new LongAdder());
+            skipped.put(scenario, new LongAdder());
+        }
+    }
+
+    void completed(Scenario scenario, long latencyNanos) {
+        latencies.get(scenario).record(latencyNanos);
+    }
+
+    void failed(Scenario scenario, long latencyNanos) {
+        latencies.get(scenario).record(latencyNanos);
+        errors.get(scenario).increment();
+    }
+
+    /**
+     * An arrival that could not be sent: there was nothing to act on, or too many requests were in flight.
+     */
+    void skipped(Scenario scenario) {
+        skipped.get(scenario).increment();
+    }
+
+    Summary summarize(Instant startedAt, Map<String, Object> options, long arrivals, double seconds) {
+        List<EndpointSummary> endpoints = new ArrayList<>();
+        long requests = 0;
+        long failures = 0;
+        for (Scenario scenario : Scenario.values()) {
+            LatencyHistogram.Snapshot snapshot = latencies.get(scenario).snapshot();
+            long scenarioErrors = errors.get(scenario).sum();
+            long scenarioSkipped = skipped.get(scenario).sum();
+            if (snapshot.count() == 0 && scenarioSkipped == 0) {
+                continue;
+            }
+            requests += snapshot.count();
+            failures += scenarioErrors;
+            endpoints.add(new EndpointSummary(scenario.name().toLowerCase(), scenario.endpoint(), snapshot.count(),
+                    scenarioErrors, scenarioSkipped, (snapshot.count() - scenarioErrors) / seconds,
+                    snapshot.meanNanos() / NANOS_PER_MILLI, millis(snapshot, 50), millis(snapshot, 99),
+                    millis(snapshot, 99.9), snapshot.maxNanos() / NANOS_PER_MILLI));
+        }
+        return new Summary(startedAt, options, arrivals / seconds, (requests - failures) / seconds, requests, failures,
+                endpoints);
+    }
+
+    private static double millis(LatencyHistogram.Snapshot snapshot, double percentile) {
+        return snapshot.percentileNanos(percentile) / NANOS_PER_MILLI;
+    }
+
+    static void write(Summary summary, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(directory.resolve("report.json").toFile(), summary);
+        Files.writeString(directory.resolve("report.html"), html(summary));
+    }
+
+    private static String html(Summary summary) {
+        StringBuilder html = new StringBuilder()
+                .append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>Load test ")
+                .append(summary.startedAt()).append("</title>\n<style>\n")
+                .append("body { font-family: sans-serif; margin: 2em; }\n")
+                .append("table { border-collapse: collapse; }\n")
+                .append("th, td { border: 1px solid #ccc; padding: 4px 10px; text-align: right; }\n")
+                .append("th:first-child, td:first-child { text-align: left; }\n")
+                .append("</style>\n</head>\n<body>\n<h1>Load test</h1>\n<p>Started ").append(summary.startedAt())
+                .append(", options ").append(escape(summary.options().toString())).append("</p>\n")
+                .append(String.format(Locale.ROOT, "<p>Offered %.1f req/s, completed %.1f req/s, %d requests, %d errors</p>%n",
+                        summary.offeredPerSecond(), summary.throughputPerSecond(), summary.requests(), summary.errors()))
+                .append("<table>\n<tr><th>Endpoint</th><th>Requests</th><th>Errors</th><th>Skipped</th><th>req/s</th>")
+                .append("<th>mean ms</th><th>p50 ms</th><th>p99 ms</th><th>p99.9 ms</th><th>max ms</th></tr>\n");
+        for (EndpointSummary endpoint : summary.endpoints()) {
+            html.append(String.format(Locale.ROOT,
+                    "<tr><td>%s</td><td>%d</td><td>%d</td><td>%d</td><td>%.1f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td></tr>%n",
+                    escape(endpoint.endpoint()), endpoint.requests(), endpoint.errors(), endpoint.skipped(),
+                    endpoint.throughputPerSecond(), endpoint.meanMillis(), endpoint.p50Millis(), endpoint.p99Millis(),
+                    endpoint.p999Millis(), endpoint.maxMillis()));
+        }
+        return html.append("</table>\n</body>\n</html>\n").toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
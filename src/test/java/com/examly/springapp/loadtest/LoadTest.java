@@ -0,0 +1,213 @@
+package com.examly.springapp.loadtest;
+
+import com.examly.springapp.SpringappApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the whole application over HTTP against the in-memory H2 database of the test profile, and
+ * writes the latency percentiles and throughput of every endpoint to report.json and report.html.
+ * Run it with {@code mvn -Ploadtest test -DskipTests -Dload.args="rate=200 duration=60"}.
+ *
+ * <p>The load is an open model: requests arrive as a Poisson process at the given rate whether or not
+ * earlier ones have been answered, and each is timed from its arrival. A closed loop of clients waiting
+ * for their last response would send less while the server is slow, and leave the slowest periods out
+ * of the percentiles.
+ *
+ * <p>Options, as {@code name=value} arguments:
+ * <ul>
+ *     <li>{@code rate} - arrivals per second, 100 by default</li>
+ *     <li>{@code duration} - measured seconds, 30 by default</li>
+ *     <li>{@code warmup} - seconds at the same rate before measuring, 10 by default</li>
+ *     <li>{@code mix} - weight of every scenario, {@code browse:40,menu:30,order:10,status:10,details:10} by default</li>
+ *     <li>{@code max-in-flight} - outstanding requests beyond which arrivals are skipped, 1000 by default</li>
+ *     <li>{@code restaurants}, {@code menu-items}, {@code users}, {@code orders} - rows seeded before the run</li>
+ *     <li>{@code seed} - seed of the data set and of the arrivals, 42 by default</li>
+ *     <li>{@code out} - directory of the reports, target/load-test by default</li>
+ * </ul>
+ */
+public class LoadTest {
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("rate", "100"),
+            Map.entry("duration", "30"),
+            Map.entry("warmup", "10"),
+            Map.entry("mix", "browse:40,menu:30,order:10,status:10,details:10"),
+            Map.entry("max-in-flight", "1000"),
+            Map.entry("restaurants", "50"),
+            Map.entry("menu-items", "20"),
+            Map.entry("users", "500"),
+            Map.entry("orders", "500"),
+            Map.entry("seed", "42"),
+            Map.entry("out", "target/load-test"));
+
+    private final double rate;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final Scenario[] scenarios;
+    private final int[] cumulativeWeights;
+    private final int maxInFlight;
+    private final long seed;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    LoadTest(double rate, long warmupSeconds, long durationSeconds, String mix, int maxInFlight, long seed) {
+        if (rate <= 0 || durationSeconds <= 0 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("Error: rate and duration must be positive and warmup not negative");
+        }
+        this.rate = rate;
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.maxInFlight = maxInFlight;
+        this.seed = seed;
+
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.trim().split(":");
+            Scenario scenario = Arrays.stream(Scenario.values())
+                    .filter(candidate -> candidate.name().equalsIgnoreCase(weight[0].trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Error: unknown scenario " + weight[0]));
+            weights.put(scenario, Integer.parseInt(weight[1].trim()));
+        }
+        weights.values().removeIf(weight -> weight <= 0);
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Error: the mix needs at least one scenario with a positive weight");
+        }
+        scenarios = weights.keySet().toArray(Scenario[]::new);
+        cumulativeWeights = new int[scenarios.length];
+        int total = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            total += weights.get(scenarios[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new TreeMap<>(DEFAULTS);
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !DEFAULTS.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Error: unknown option " + arg + ", expected one of " + DEFAULTS.keySet());
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        LoadTest loadTest = new LoadTest(Double.parseDouble(options.get("rate")), Long.parseLong(options.get("warmup")),
+                Long.parseLong(options.get("duration")), options.get("mix"),
+                Integer.parseInt(options.get("max-in-flight")), Long.parseLong(options.get("seed")));
+
+        // Budget violations are logged rather than failing the request as they do in the tests
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringappApplication.class)
+                .run("--server.port=0", "--logging.level.root=WARN", "--query-budget.mode=log")) {
+            String baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            Workload workload = Workload.seed(context, baseUri, Integer.parseInt(options.get("restaurants")),
+                    Integer.parseInt(options.get("menu-items")), Integer.parseInt(options.get("users")),
+                    Integer.parseInt(options.get("orders")), loadTest.seed);
+
+            Instant startedAt = Instant.now();
+            LoadReport report = new LoadReport();
+            long arrivals = loadTest.run(workload, report);
+            double seconds = loadTest.durationNanos / 1e9;
+            LoadReport.Summary summary = report.summarize(startedAt, new LinkedHashMap<>(options), arrivals, seconds);
+            Path out = Path.of(options.get("out"));
+            LoadReport.write(summary, out);
+
+            System.out.printf(Locale.ROOT, "%-32s %9s %7s %8s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (LoadReport.EndpointSummary endpoint : summary.endpoints()) {
+                System.out.printf(Locale.ROOT, "%-32s %9d %7d %8.1f %9.2f %9.2f %9.2f %9.2f%n",
+                        endpoint.endpoint(), endpoint.requests(), endpoint.errors(), endpoint.throughputPerSecond(),
+                        endpoint.p50Millis(), endpoint.p99Millis(), endpoint.p999Millis(), endpoint.maxMillis());
+            }
+            System.out.printf(Locale.ROOT, "offered %.1f req/s, completed %.1f req/s; reports in %s%n",
+                    summary.offeredPerSecond(), summary.throughputPerSecond(), out.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Sends requests at their arrival times until the warmup and the measured duration have passed, then
+     * waits for the outstanding ones. Returns the number of measured arrivals.
+     */
+    long run(Workload workload, LoadReport report) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(seed);
+        double meanGapNanos = 1e9 / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        long arrivals = 0;
+        long due = start;
+        while (true) {
+            // Exponential gaps between arrivals make them a Poisson process
+            due += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Scenario scenario = pick(random);
+            boolean measured = due >= measureFrom;
+            if (measured) {
+                arrivals++;
+            }
+            HttpRequest request = scenario.request(workload, random);
+            if (request == null || inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    report.skipped(scenario);
+                }
+                continue;
+            }
+            send(workload, report, scenario, request, due, measured);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return arrivals;
+    }
+
+    private void send(Workload workload, LoadReport report, Scenario scenario, HttpRequest request, long due,
+                      boolean measured) {
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+            long latency = System.nanoTime() - due;
+            inFlight.decrementAndGet();
+            boolean ok = failure == null && response.statusCode() < 400;
+            if (ok) {
+                try {
+                    scenario.completed(workload, response);
+                } catch (RuntimeException e) {
+                    ok = false;
+                }
+            }
+            if (measured) {
+                if (ok) {
+                    report.completed(scenario, latency);
+                } else {
+                    report.failed(scenario, latency);
+                }
+            }
+        });
+    }
+
+    private Scenario pick(SplittableRandom random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (ticket >= cumulativeWeights[i]) {
+            i++;
+        }
+        return scenarios[i];
+    }
+}
@@ -0,0 +1,80 @@
+package com.examly.springapp.loadtest;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+
+/**
+ * One kind of request a client of the app makes. Each arrival picks a scenario by the weights of the
+ * mix and builds its request from the {@link Workload}; scenarios that act on an order feed it back
+ * the orders they create and advance.
+ */
+enum Scenario {
+
+    BROWSE("GET /api/restaurants") {
+        @Override
+        HttpRequest request(Workload workload, SplittableRandom random) {
+            return workload.get("/api/restaurants?page=" + Workload.skewed(random, 5) + "&size=10");
+        }
+    },
+
+    MENU("GET /menu/restaurant/{id}") {
+        @Override
+        HttpRequest request(Workload workload, SplittableRandom random) {
+            return workload.get("/menu/restaurant/" + workload.restaurant(random) + "?size=20");
+        }
+    },
+
+    ORDER("POST /api/orders") {
+        @Override
+        HttpRequest request(Workload workload, SplittableRandom random) {
+            return workload.post("/api/orders", workload.newOrder(random));
+        }
+
+        @Override
+        void completed(Workload workload, HttpResponse<String> response) {
+            workload.created(response.body());
+        }
+    },
+
+    STATUS("PATCH /api/orders/{id}/status") {
+        @Override
+        HttpRequest request(Workload workload, SplittableRandom random) {
+            Workload.OrderProgress order = workload.nextToAdvance();
+            if (order == null) {
+                return null;
+            }
+            return workload.patch("/api/orders/" + order.id() + "/status?status=" + order.next());
+        }
+
+        @Override
+        void completed(Workload workload, HttpResponse<String> response) {
+            workload.advanced(response.body());
+        }
+    },
+
+    DETAILS("GET /api/orders/{id}/details") {
+        @Override
+        HttpRequest request(Workload workload, SplittableRandom random) {
+            return workload.get("/api/orders/" + workload.recentOrder(random) + "/details");
+        }
+    };
+
+    private final String endpoint;
+
+    Scenario(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    /**
+     * The request for one arrival, or null when the scenario has nothing to act on yet.
+     */
+    abstract HttpRequest request(Workload workload, SplittableRandom random);
+
+    void completed(Workload workload, HttpResponse<String> response) {
+    }
+}
@@ -0,0 +1,190 @@
+package com.examly.springapp.loadtest;
+
+import com.examly.springapp.entity.*;
+import com.examly.springapp.service.MenuService;
+import com.examly.springapp.service.OrderService;
+import com.examly.springapp.service.RestaurantService;
+import com.examly.springapp.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The data the scenarios act on: restaurants with their menus and users seeded through the services
+ * before the run, and the orders created since, which are advanced one status at a time until they are
+ * delivered. A few restaurants and users take most of the traffic, as in production.
+ */
+class Workload {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] CUISINES = {"Indian", "Italian", "Chinese", "Mexican", "Japanese", "Thai"};
+
+    record OrderProgress(long id, OrderStatus status) {
+
+        OrderStatus next() {
+            return OrderStatus.values()[status.ordinal() + 1];
+        }
+    }
+
+    private final String baseUri;
+    private final ObjectMapper objectMapper;
+    private final long[] restaurantIds;
+    private final long[][] menuItemIds;
+    private final long[] userIds;
+    private final ConcurrentLinkedQueue<OrderProgress> toAdvance = new ConcurrentLinkedQueue<>();
+    private final long firstOrderId;
+    private final AtomicLong lastOrderId;
+
+    private Workload(String baseUri, ObjectMapper objectMapper, long[] restaurantIds, long[][] menuItemIds,
+                     long[] userIds, List<OrderEntity> orders) {
+        this.baseUri = baseUri;
+        this.objectMapper = objectMapper;
+        this.restaurantIds = restaurantIds;
+        this.menuItemIds = menuItemIds;
+        this.userIds = userIds;
+        orders.forEach(order -> toAdvance.add(new OrderProgress(order.getId(), order.getStatus())));
+        firstOrderId = orders.get(0).getId();
+        lastOrderId = new AtomicLong(orders.get(orders.size() - 1).getId());
+    }
+
+    static Workload seed(ApplicationContext context, String baseUri, int restaurants, int menuItems, int users,
+                         int orders, long seed) {
+        RestaurantService restaurantService = context.getBean(RestaurantService.class);
+        MenuService menuService = context.getBean(MenuService.class);
+        UserService userService = context.getBean(UserService.class);
+        OrderService orderService = context.getBean(OrderService.class);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        List<Restaurant> savedRestaurants = new ArrayList<>(restaurants);
+        List<List<MenuItem>> menus = new ArrayList<>(restaurants);
+        for (int r = 0; r < restaurants; r++) {
+            Restaurant restaurant = restaurantService.registerRestaurant(new Restaurant("Load Kitchen " + r,
+                    r + " Load Street", CUISINES[r % CUISINES.length], "555-" + (1000 + r), "10:00-22:00"));
+            List<MenuItem> menu = new ArrayList<>(menuItems);
+            for (int i = 0; i < menuItems; i++) {
+                menu.add(menuService.addMenuItem(new MenuItem("Load Dish " + r + "-" + i, 4.0 + random.nextInt(30),
+                        i < menuItems / 4 ? "Starters" : "Mains", restaurant)));
+            }
+            savedRestaurants.add(restaurant);
+            menus.add(menu);
+        }
+        List<User> savedUsers = new ArrayList<>(users);
+        for (int u = 0; u < users; u++) {
+            savedUsers.add(userService.createUser(new User("load_user" + u, "load" + u + "@example.com", "secret1")));
+        }
+        List<OrderEntity> savedOrders = new ArrayList<>(orders);
+        for (int o = 0; o < orders; o++) {
+            int r = skewed(random, restaurants);
+            OrderEntity order = new OrderEntity(savedUsers.get(skewed(random, users)), savedRestaurants.get(r),
+                    o + " Delivery Lane");
+            order.setPaymentStatus("PAID");
+            List<OrderItem> items = new ArrayList<>();
+            for (int line = 0, lines = 1 + random.nextInt(3); line < lines; line++) {
+                OrderItem item = new OrderItem();
+                item.setMenuItem(menus.get(r).get(random.nextInt(menuItems)));
+                item.setQuantity(1 + random.nextInt(3));
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            savedOrders.add(orderService.createOrder(order));
+        }
+
+        long[][] menuItemIds = menus.stream()
+                .map(menu -> menu.stream().mapToLong(MenuItem::getId).toArray())
+                .toArray(long[][]::new);
+        return new Workload(baseUri, context.getBean(ObjectMapper.class),
+                savedRestaurants.stream().mapToLong(Restaurant::getId).toArray(), menuItemIds,
+                savedUsers.stream().mapToLong(User::getId).toArray(), savedOrders);
+    }
+
+    /**
+     * Index in [0, bound) with low indexes far more likely, so that a few rows take most of the traffic.
+     */
+    static int skewed(SplittableRandom random, int bound) {
+        double uniform = random.nextDouble();
+        return (int) (bound * uniform * uniform * uniform);
+    }
+
+    long restaurant(SplittableRandom random) {
+        return restaurantIds[skewed(random, restaurantIds.length)];
+    }
+
+    String newOrder(SplittableRandom random) {
+        int r = skewed(random, restaurantIds.length);
+        StringBuilder body = new StringBuilder()
+                .append("{\"user\":{\"id\":").append(userIds[skewed(random, userIds.length)])
+                .append("},\"restaurant\":{\"id\":").append(restaurantIds[r])
+                .append("},\"deliveryAddress\":\"").append(random.nextInt(1000)).append(" Delivery Lane\"")
+                .append(",\"paymentStatus\":\"PAID\",\"orderItems\":[");
+        for (int line = 0, lines = 1 + random.nextInt(3); line < lines; line++) {
+            body.append(line == 0 ? "" : ",")
+                    .append("{\"menuItem\":{\"id\":").append(menuItemIds[r][random.nextInt(menuItemIds[r].length)])
+                    .append("},\"quantity\":").append(1 + random.nextInt(3)).append('}');
+        }
+        return body.append("]}").toString();
+    }
+
+    /**
+     * One of the most recently placed orders, the ones their customers are still watching.
+     */
+    long recentOrder(SplittableRandom random) {
+        long last = lastOrderId.get();
+        return last - skewed(random, (int) Math.min(500, last - firstOrderId + 1));
+    }
+
+    /**
+     * An order to move to its next status, taken out of the queue until the update comes back.
+     */
+    OrderProgress nextToAdvance() {
+        return toAdvance.poll();
+    }
+
+    void created(String body) {
+        OrderProgress order = progress(body);
+        lastOrderId.accumulateAndGet(order.id(), Math::max);
+        toAdvance.add(order);
+    }
+
+    void advanced(String body) {
+        OrderProgress order = progress(body);
+        if (order.status() != OrderStatus.DELIVERED) {
+            toAdvance.add(order);
+        }
+    }
+
+    private OrderProgress progress(String body) {
+        try {
+            JsonNode order = objectMapper.readTree(body);
+            return new OrderProgress(order.get("id").asLong(), OrderStatus.valueOf(order.get("status").asText()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Error: unexpected order response " + body, e);
+        }
+    }
+
+    HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    HttpRequest post(String path, String json) {
+        return request(path).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    HttpRequest patch(String path) {
+        return request(path).method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUri + path)).timeout(TIMEOUT);
+    }
+}
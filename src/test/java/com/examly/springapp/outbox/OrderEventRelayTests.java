@@ -0,0 +1,170 @@
+package com.examly.springapp.outbox;
+
+import com.examly.springapp.entity.*;
+import com.examly.springapp.repository.OrderEventRepository;
+import com.examly.springapp.service.MenuService;
+import com.examly.springapp.service.OrderService;
+import com.examly.springapp.service.RestaurantService;
+import com.examly.springapp.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OrderEventRelayTests {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private MenuService menuService;
+
+	@Autowired
+	private RestaurantService restaurantService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private OrderEventRelay orderEventRelay;
+
+	@Autowired
+	private OrderEventRepository orderEventRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final RecordingSink sink = new RecordingSink();
+
+	@BeforeEach
+	void registerSink() {
+		orderEventRelay.addHandler(sink);
+	}
+
+	@AfterEach
+	void removeSink() {
+		orderEventRelay.removeHandler(sink);
+	}
+
+	@Test
+	void eventsOfEachOrderAreDeliveredInOrder() {
+		User user = userService.createUser(new User("outbox_user", "outbox@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Outbox Diner", "1 Outbox Street", "Diner", "555-0300", "9-5"));
+		MenuItem pie = menuService.addMenuItem(new MenuItem("Apple Pie", 5.0, "Desserts", restaurant));
+
+		OrderEntity first = orderService.createOrder(newOrder(user, restaurant, pie));
+		OrderEntity second = orderService.createOrder(newOrder(user, restaurant, pie));
+		orderService.updateOrderStatus(first.getId(), OrderStatus.CONFIRMED);
+		// Setting the same status again is not a change
+		orderService.updateOrderStatus(first.getId(), OrderStatus.CONFIRMED);
+		orderService.updateOrderStatus(second.getId(), OrderStatus.CONFIRMED);
+		assertTrue(orderService.cancelOrder(first.getId()));
+		orderService.updateOrderStatus(second.getId(), OrderStatus.DELIVERED);
+
+		drainUntilDelivered(Set.of(first.getId(), second.getId()), 6, LocalDateTime.now());
+
+		assertEquals(List.of("CREATED PENDING", "STATUS_CHANGED CONFIRMED", "CANCELLED CANCELLED"),
+				sink.delivered(first.getId()));
+		assertEquals(List.of("CREATED PENDING", "STATUS_CHANGED CONFIRMED", "STATUS_CHANGED DELIVERED"),
+				sink.delivered(second.getId()));
+	}
+
+	@Test
+	void failedEventsAreRetriedBeforeLaterEventsOfTheSameOrder() {
+		User user = userService.createUser(new User("retry_user", "retry@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Retry Diner", "2 Retry Street", "Diner", "555-0301", "9-5"));
+		MenuItem tart = menuService.addMenuItem(new MenuItem("Lemon Tart", 6.0, "Desserts", restaurant));
+		sink.failuresLeft.set(1);
+
+		OrderEntity order = orderService.createOrder(newOrder(user, restaurant, tart));
+		orderService.updateOrderStatus(order.getId(), OrderStatus.CONFIRMED);
+		orderService.updateOrderStatus(order.getId(), OrderStatus.PREPARING);
+
+		// Retries back off, so drain as if the backoff had already passed
+		drainUntilDelivered(Set.of(order.getId()), 3, LocalDateTime.now().plusHours(1));
+
+		assertEquals(List.of("CREATED PENDING", "STATUS_CHANGED CONFIRMED", "STATUS_CHANGED PREPARING"),
+				sink.delivered(order.getId()));
+		assertEquals(0, sink.failuresLeft.get());
+		// Nothing of the order is left to relay, even once every backoff has passed
+		assertEquals(0, orderEventRepository.findDue(LocalDateTime.now().plusHours(1), Pageable.unpaged()).stream()
+				.filter(event -> event.getOrderId().equals(order.getId())).count());
+	}
+
+	@Test
+	void eventsBackingOffDoNotHoldUpOtherOrders() {
+		// A whole batch of events behind one that is backing off, all older than another order's event
+		long stuckOrder = -1;
+		long dueOrder = -2;
+		LocalDateTime now = LocalDateTime.now();
+		// One transaction, so the relay's own thread never sees the first event before it backs off
+		List<OrderEvent> stuck = transactionTemplate.execute(status -> {
+			List<OrderEvent> events = new ArrayList<>();
+			for (int i = 0; i <= OrderEventRelay.BATCH_SIZE; i++) {
+				events.add(new OrderEvent(stuckOrder, -1L, -1L, OrderEventType.STATUS_CHANGED, OrderStatus.CONFIRMED));
+			}
+			events = orderEventRepository.saveAll(events);
+			orderEventRepository.recordFailedAttempt(events.get(0).getId(), now.plusMinutes(5), false);
+			orderEventRepository.save(new OrderEvent(dueOrder, -1L, -1L, OrderEventType.CREATED, OrderStatus.PENDING));
+			return events;
+		});
+		try {
+			drainUntilDelivered(Set.of(dueOrder), 1, now);
+
+			assertEquals(List.of("CREATED PENDING"), sink.delivered(dueOrder));
+			assertEquals(List.of(), sink.delivered(stuckOrder));
+		} finally {
+			orderEventRepository.deleteAllInBatch(stuck);
+		}
+	}
+
+	private void drainUntilDelivered(Set<Long> orderIds, int events, LocalDateTime now) {
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		while (orderIds.stream().mapToInt(id -> sink.delivered(id).size()).sum() < events) {
+			assertTrue(System.nanoTime() < deadline, "Events were not delivered in time");
+			orderEventRelay.drain(now);
+		}
+	}
+
+	private static OrderEntity newOrder(User user, Restaurant restaurant, MenuItem menuItem) {
+		OrderEntity order = new OrderEntity(user, restaurant, "10 Delivery Lane");
+		order.setPaymentStatus("PAID");
+		OrderItem item = new OrderItem();
+		item.setMenuItem(menuItem);
+		item.setQuantity(1);
+		order.setOrderItems(new ArrayList<>(List.of(item)));
+		return order;
+	}
+
+	// Stand-in for a downstream consumer; the relay's own thread may deliver to it as well
+	private static final class RecordingSink implements OrderEventHandler {
+
+		private final Map<Long, List<String>> events = new HashMap<>();
+		private final AtomicInteger failuresLeft = new AtomicInteger();
+
+		@Override
+		public synchronized void handle(OrderEvent event) {
+			if (failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+				throw new IllegalStateException("Sink unavailable");
+			}
+			events.computeIfAbsent(event.getOrderId(), id -> new ArrayList<>())
+					.add(event.getType() + " " + event.getStatus());
+		}
+
+		synchronized List<String> delivered(long orderId) {
+			return List.copyOf(events.getOrDefault(orderId, List.of()));
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.Restaurant;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CuisineFacetIndexTests {
+
+	@Test
+	void keepsCountsCurrentAcrossWrites() {
+		CuisineFacetIndex index = new CuisineFacetIndex();
+		index.upsert(restaurant(1, "Italian"));
+		index.upsert(restaurant(2, "Indian"));
+		index.upsert(restaurant(3, "Indian"));
+		index.upsert(restaurant(1, "Mexican"));
+		index.remove(2);
+
+		assertEquals(List.of("Indian", "Mexican"), index.values());
+		assertEquals(List.of(new CuisineFacetIndex.FacetCount("Indian", 1), new CuisineFacetIndex.FacetCount("Mexican", 1)),
+				index.counts());
+	}
+
+	@Test
+	void countsOnlyTheGivenResultSet() {
+		CuisineFacetIndex index = new CuisineFacetIndex();
+		index.upsert(restaurant(1, "Italian"));
+		index.upsert(restaurant(2, "Indian"));
+		index.upsert(restaurant(3, "Indian"));
+		index.upsert(restaurant(4, "Thai"));
+
+		assertEquals(List.of(new CuisineFacetIndex.FacetCount("Indian", 2), new CuisineFacetIndex.FacetCount("Italian", 1)),
+				index.counts(new long[] {1, 2, 3, 99}));
+	}
+
+	private static Restaurant restaurant(long id, String cuisine) {
+		Restaurant restaurant = new Restaurant("Restaurant " + id, "1 Main Street", cuisine, "555-0100", "09:00-22:00");
+		restaurant.setId(id);
+		return restaurant;
+	}
+}
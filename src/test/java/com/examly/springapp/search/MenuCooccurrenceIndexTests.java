@@ -0,0 +1,79 @@
+package com.examly.springapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuCooccurrenceIndexTests {
+
+	@Test
+	void recommendsItemsOrderedTogetherMostOften() {
+		MenuCooccurrenceIndex index = new MenuCooccurrenceIndex();
+		index.recordOrder(1, new long[] {10, 20, 30});
+		index.recordOrder(2, new long[] {10, 20, 20});
+		index.recordOrder(3, new long[] {10, 40});
+		index.recordOrder(4, new long[] {20, 30});
+
+		assertEquals(List.of(
+						new MenuCooccurrenceIndex.Recommendation(20, 2, 2.0 / 3),
+						new MenuCooccurrenceIndex.Recommendation(30, 1, 1.0 / 3),
+						new MenuCooccurrenceIndex.Recommendation(40, 1, 1.0 / 3)),
+				index.recommendations(10, 5));
+		assertEquals(List.of(new MenuCooccurrenceIndex.Recommendation(20, 2, 2.0 / 3)), index.recommendations(10, 1));
+		assertEquals(List.of(), index.recommendations(99, 5));
+
+		index.remove(20);
+		assertEquals(List.of(30L, 40L), index.recommendations(10, 5).stream()
+				.map(MenuCooccurrenceIndex.Recommendation::menuItemId).toList());
+	}
+
+	@Test
+	void removesItemsThatWereOnlyOrderedAlone() {
+		MenuCooccurrenceIndex index = new MenuCooccurrenceIndex();
+		for (long item = 1; item <= 20; item++) {
+			index.recordOrder(item, new long[] {item});
+		}
+		index.recordOrder(21, new long[] {1, 2});
+
+		// Row 19 lies past the partner lists, which were only grown for rows 0 and 1
+		index.remove(20);
+		assertEquals(19, index.size());
+		assertEquals(List.of(), index.recommendations(20, 5));
+		assertEquals(List.of(new MenuCooccurrenceIndex.Recommendation(2, 1, 0.5)), index.recommendations(1, 5));
+	}
+
+	@Test
+	void incrementalUpdatesMatchAParallelRebuild() {
+		Random random = new Random(7);
+		List<long[]> orders = new ArrayList<>();
+		for (int i = 0; i < 5_000; i++) {
+			long[] items = new long[1 + random.nextInt(5)];
+			for (int j = 0; j < items.length; j++) {
+				// Skewed towards low IDs so that partner lists overflow and get reordered
+				items[j] = 1 + (long) (Math.pow(random.nextDouble(), 2) * 60);
+			}
+			orders.add(items);
+		}
+
+		MenuCooccurrenceIndex incremental = new MenuCooccurrenceIndex();
+		for (int i = 0; i < orders.size(); i++) {
+			incremental.recordOrder(i + 1, orders.get(i));
+		}
+
+		MenuCooccurrenceIndex rebuilt = new MenuCooccurrenceIndex();
+		rebuilt.beginRebuild(orders.size());
+		rebuilt.load(MenuCooccurrenceIndex.count(orders.subList(0, 2_000))
+				.merge(MenuCooccurrenceIndex.count(orders.subList(2_000, orders.size()))));
+		rebuilt.recordOrder(3, new long[] {1, 2});
+		rebuilt.endRebuild();
+
+		for (long item = 1; item <= 60; item++) {
+			assertEquals(incremental.recommendations(item, MenuCooccurrenceIndex.TOP_N),
+					rebuilt.recommendations(item, MenuCooccurrenceIndex.TOP_N), "item " + item);
+		}
+	}
+}
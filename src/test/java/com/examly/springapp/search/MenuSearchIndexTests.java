@@ -0,0 +1,64 @@
+package com.examly.springapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuSearchIndexTests {
+
+	@Test
+	void ranksNameMatchesAboveDescriptionMatchesAndExpandsPrefixes() {
+		MenuSearchIndex index = new MenuSearchIndex();
+		index.upsert(document(1, 10, "Paneer Tikka", "Grilled cottage cheese", "Starters", MenuSearchIndex.VEGETARIAN));
+		index.upsert(document(2, 10, "Veg Platter", "Paneer, mushrooms and corn", "Starters", MenuSearchIndex.VEGETARIAN));
+		index.upsert(document(3, 20, "Chicken Tikka", "Charcoal grilled chicken", "Starters", (byte) 0));
+
+		MenuSearchIndex.SearchHits hits = index.search("pan", false, false, false, null, 0, 10);
+		assertArrayEquals(new long[] {1, 2}, hits.itemIds());
+
+		hits = index.search("tikka grilled", false, false, false, null, 0, 10);
+		assertEquals(2, hits.totalHits());
+
+		hits = index.search("tikka", true, false, false, null, 0, 10);
+		assertArrayEquals(new long[] {1}, hits.itemIds());
+
+		hits = index.search("tikka", false, false, false, 20L, 0, 10);
+		assertArrayEquals(new long[] {3}, hits.itemIds());
+	}
+
+	@Test
+	void updatesAndRemovalsAreVisibleImmediately() {
+		MenuSearchIndex index = new MenuSearchIndex();
+		index.upsert(document(1, 10, "Masala Dosa", "Crispy crepe", "Mains", MenuSearchIndex.CONTAINS_GLUTEN));
+		index.upsert(document(1, 10, "Rava Dosa", "Crispy semolina crepe", "Mains", (byte) 0));
+
+		assertEquals(0, index.search("masala", false, false, false, null, 0, 10).totalHits());
+		assertArrayEquals(new long[] {1}, index.search("rava", false, false, true, null, 0, 10).itemIds());
+
+		index.removeRestaurant(10);
+		assertEquals(0, index.size());
+		assertEquals(0, index.search("dosa", false, false, false, null, 0, 10).totalHits());
+	}
+
+	@Test
+	void tombstonedDocumentsDoNotDropMatchesOfCommonTerms() {
+		MenuSearchIndex index = new MenuSearchIndex();
+		index.upsert(document(1, 10, "Margherita Pizza", "Tomato and basil", "Pizza", (byte) 0));
+		index.upsert(document(2, 10, "Farmhouse Pizza", "Tomato and peppers", "Pizza", (byte) 0));
+		index.upsert(document(3, 10, "Pepperoni Pizza", "Tomato and pepperoni", "Pizza", (byte) 0));
+		index.remove(3);
+
+		// Two live documents but three postings for every term: the tombstone must not count towards idf
+		MenuSearchIndex.SearchHits hits = index.search("pizza tomato", false, false, false, null, 0, 10);
+		assertEquals(2, hits.totalHits());
+		for (float score : hits.scores()) {
+			assertTrue(score > 0, String.valueOf(score));
+		}
+	}
+
+	private static MenuSearchIndex.Document document(long itemId, long restaurantId, String name,
+													 String description, String category, byte flags) {
+		return new MenuSearchIndex.Document(itemId, restaurantId, name, description, category,
+				(byte) (flags | MenuSearchIndex.AVAILABLE));
+	}
+}
@@ -0,0 +1,70 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.Restaurant;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestaurantGeoIndexTests {
+
+	@Test
+	void matchesBruteForceNearestNeighbours() {
+		RestaurantGeoIndex index = new RestaurantGeoIndex();
+		SplittableRandom random = new SplittableRandom(7);
+		List<Restaurant> restaurants = IntStream.range(1, 5001)
+				.mapToObj(i -> restaurant(i, i % 3 == 0 ? "Indian" : "Italian",
+						12.9 + random.nextDouble() * 0.3, 77.5 + random.nextDouble() * 0.3))
+				.toList();
+		index.load(restaurants);
+
+		double lat = 13.0, lon = 77.6;
+		List<Long> expected = restaurants.stream()
+				.filter(r -> r.getCuisine().equals("Indian"))
+				.filter(r -> distanceKm(lat, lon, r) <= 8)
+				.sorted(Comparator.comparingDouble(r -> distanceKm(lat, lon, r)))
+				.limit(25)
+				.map(Restaurant::getId)
+				.toList();
+
+		List<RestaurantGeoIndex.Hit> hits = index.nearest(lat, lon, 8, "indian", 25);
+		assertEquals(expected, hits.stream().map(RestaurantGeoIndex.Hit::restaurantId).toList());
+		assertTrue(hits.get(24).distanceKm() >= hits.get(0).distanceKm());
+	}
+
+	@Test
+	void findsNeighboursAcrossTheAntimeridianAndForgetsRemovedRestaurants() {
+		RestaurantGeoIndex index = new RestaurantGeoIndex();
+		index.upsert(restaurant(1, "Fijian", -17.0, 179.99));
+		index.upsert(restaurant(2, "Fijian", -17.0, -179.99));
+		index.upsert(restaurant(3, "Fijian", -17.5, 179.0));
+
+		assertEquals(List.of(2L, 1L), index.nearest(-17.0, -179.995, 5, null, 10).stream()
+				.map(RestaurantGeoIndex.Hit::restaurantId).toList());
+
+		index.remove(2);
+		index.upsert(restaurant(1, "Fijian", null, null));
+		assertTrue(index.nearest(-17.0, -179.995, 5, null, 10).isEmpty());
+		assertEquals(1, index.size());
+	}
+
+	private static Restaurant restaurant(long id, String cuisine, Double latitude, Double longitude) {
+		Restaurant restaurant = new Restaurant("Restaurant " + id, "1 Main Street", cuisine, "555-0100", "09:00-22:00");
+		restaurant.setId(id);
+		restaurant.setLatitude(latitude);
+		restaurant.setLongitude(longitude);
+		return restaurant;
+	}
+
+	private static double distanceKm(double lat, double lon, Restaurant restaurant) {
+		double dLat = Math.toRadians(restaurant.getLatitude() - lat);
+		double dLon = Math.toRadians(restaurant.getLongitude() - lon);
+		double a = Math.pow(Math.sin(dLat / 2), 2) + Math.cos(Math.toRadians(lat))
+				* Math.cos(Math.toRadians(restaurant.getLatitude())) * Math.pow(Math.sin(dLon / 2), 2);
+		return 2 * 6371.0088 * Math.asin(Math.sqrt(a));
+	}
+}
@@ -0,0 +1,72 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.RestaurantHoursException;
+import com.examly.springapp.entity.RestaurantOpeningInterval;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestaurantHoursIndexTests {
+
+	// 2024-01-01 is a Monday
+	private static final LocalDate MONDAY = LocalDate.of(2024, 1, 1);
+
+	@Test
+	void tracksTransitionsInsideTheHourAndPastMidnight() {
+		RestaurantHoursIndex index = new RestaurantHoursIndex();
+		index.upsert(1, List.of(interval(DayOfWeek.MONDAY, "11:30", "14:45"), interval(DayOfWeek.MONDAY, "18:00", "01:15")),
+				List.of());
+		index.upsert(2, List.of(interval(DayOfWeek.SUNDAY, "20:00", "02:00")), List.of());
+
+		assertFalse(index.isOpen(1, at(MONDAY, "11:29")));
+		assertTrue(index.isOpen(1, at(MONDAY, "11:30")));
+		assertTrue(index.isOpen(1, at(MONDAY, "14:44")));
+		assertFalse(index.isOpen(1, at(MONDAY, "14:45")));
+		assertTrue(index.isOpen(1, at(MONDAY.plusDays(1), "01:14")));
+		assertFalse(index.isOpen(1, at(MONDAY.plusDays(1), "01:15")));
+
+		// Sunday night wraps into Monday morning of the next week
+		assertTrue(index.isOpen(2, at(MONDAY, "01:59")));
+		assertFalse(index.isOpen(2, at(MONDAY, "02:00")));
+
+		RestaurantHoursIndex.OpenSet open = index.openAt(at(MONDAY, "12:00"));
+		assertEquals(1, open.size());
+		assertArrayEquals(new long[] {1}, open.restaurantIds());
+	}
+
+	@Test
+	void exceptionsOverrideTheWeeklyHoursForTheirDate() {
+		RestaurantHoursIndex index = new RestaurantHoursIndex();
+		List<RestaurantOpeningInterval> daily = List.of(DayOfWeek.values()).stream()
+				.map(day -> interval(day, "09:00", "21:00"))
+				.toList();
+		index.upsert(1, daily, List.of(new RestaurantHoursException(MONDAY, null, null, "New Year")));
+		index.upsert(2, daily, List.of(new RestaurantHoursException(MONDAY, LocalTime.of(12, 0), LocalTime.MIDNIGHT, "Late start")));
+
+		assertFalse(index.isOpen(1, at(MONDAY, "10:00")));
+		assertTrue(index.isOpen(1, at(MONDAY.plusDays(7), "10:00")));
+		assertFalse(index.isOpen(2, at(MONDAY, "10:00")));
+		assertTrue(index.isOpen(2, at(MONDAY, "23:30")));
+
+		index.upsert(1, daily, List.of());
+		assertTrue(index.isOpen(1, at(MONDAY, "10:00")));
+
+		index.remove(2);
+		assertFalse(index.isOpen(2, at(MONDAY, "23:30")));
+		assertEquals(1, index.size());
+	}
+
+	private static RestaurantOpeningInterval interval(DayOfWeek day, String open, String close) {
+		return new RestaurantOpeningInterval(day, LocalTime.parse(open), LocalTime.parse(close));
+	}
+
+	private static LocalDateTime at(LocalDate date, String time) {
+		return date.atTime(LocalTime.parse(time));
+	}
+}
@@ -0,0 +1,113 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.Restaurant;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestaurantRankingIndexTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 4, 12, 0);
+
+	@Test
+	void bayesianAverageFavoursWellRatedRestaurantsWithManyRatings() {
+		RestaurantRankingIndex index = new RestaurantRankingIndex();
+		for (long id = 1; id <= 4; id++) {
+			index.upsert(restaurant(id, id % 2 == 0 ? "Indian" : "Thai"));
+		}
+		index.updateRating(1, 1, 5);
+		index.updateRating(2, 100, 450);
+		index.updateRating(4, 100, 200);
+
+		assertEquals(List.of(2L, 1L, 3L, 4L), ids(index.top(RestaurantRankingIndex.Ranking.RATING, null, 10, NOW)));
+		assertEquals(List.of(2L, 4L), ids(index.top(RestaurantRankingIndex.Ranking.RATING, "indian", 10, NOW)));
+		assertEquals(List.of(), index.top(RestaurantRankingIndex.Ranking.RATING, "Mexican", 10, NOW));
+
+		index.upsert(restaurant(2, "Thai"));
+		index.remove(1);
+		assertEquals(List.of(2L, 3L), ids(index.top(RestaurantRankingIndex.Ranking.RATING, "Thai", 10, NOW)));
+	}
+
+	@Test
+	void pagesByPlainAverageThenRatingCountThenId() {
+		RestaurantRankingIndex index = new RestaurantRankingIndex();
+		for (long id = 1; id <= 5; id++) {
+			index.upsert(restaurant(id, "Thai"));
+		}
+		index.updateRating(1, 2, 8);
+		index.updateRating(2, 1, 4);
+		index.updateRating(3, 4, 16);
+		index.updateRating(5, 1, 5);
+
+		long[] candidates = {4, 3, 2, 1, 5, 6};
+		assertArrayEquals(new long[] {5, 3, 1, 2, 4, 6}, index.pageByRating(candidates, true, 0, 10));
+		assertArrayEquals(new long[] {4, 6, 2, 1}, index.pageByRating(candidates, false, 0, 4));
+		assertArrayEquals(new long[] {1, 2}, index.pageByRating(candidates, true, 2, 2));
+		assertArrayEquals(new long[0], index.pageByRating(candidates, true, 6, 2));
+	}
+
+	@Test
+	void trendingDecaysOlderOrders() {
+		RestaurantRankingIndex index = new RestaurantRankingIndex();
+		index.upsert(restaurant(1, "Indian"));
+		index.upsert(restaurant(2, "Indian"));
+		index.upsert(restaurant(3, "Indian"));
+		for (int i = 0; i < 3; i++) {
+			index.recordOrder(1, i, NOW.minusDays(3));
+		}
+		index.recordOrder(2, 10, NOW);
+
+		List<RestaurantRankingIndex.Hit> hits = index.top(RestaurantRankingIndex.Ranking.TRENDING, null, 10, NOW);
+		assertEquals(List.of(2L, 1L), ids(hits));
+		assertEquals(1.0, hits.get(0).score(), 1e-9);
+		assertEquals(3.0 / 8, hits.get(1).score(), 1e-9);
+	}
+
+	@Test
+	void servesTheExactTopAfterEvictionsAndRemovals() {
+		RestaurantRankingIndex index = new RestaurantRankingIndex();
+		Random random = new Random(42);
+		Map<Long, Double> expected = new HashMap<>();
+		Set<Long> removed = new HashSet<>();
+		for (long id = 1; id <= 1000; id++) {
+			index.upsert(restaurant(id, "Cuisine " + id % 3));
+		}
+		for (int order = 0; order < 20_000; order++) {
+			long id = 1 + random.nextInt(1000);
+			LocalDateTime at = NOW.minusMinutes(random.nextInt(7 * 24 * 60));
+			index.recordOrder(id, order, at);
+			if (!removed.contains(id)) {
+				expected.merge(id, Math.pow(2, -Duration.between(at, NOW).toSeconds() / 3600.0 / 24), Double::sum);
+			}
+			if (order % 500 == 499) {
+				for (Long best : ids(index.top(RestaurantRankingIndex.Ranking.TRENDING, null, 3, NOW))) {
+					index.remove(best);
+					expected.remove(best);
+					removed.add(best);
+				}
+			}
+		}
+
+		List<Long> top = ids(index.top(RestaurantRankingIndex.Ranking.TRENDING, null, 100, NOW));
+		List<Long> bruteForce = expected.entrySet().stream()
+				.sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+				.limit(100)
+				.map(Map.Entry::getKey)
+				.toList();
+		assertEquals(bruteForce, top);
+	}
+
+	private static List<Long> ids(List<RestaurantRankingIndex.Hit> hits) {
+		return hits.stream().map(RestaurantRankingIndex.Hit::restaurantId).toList();
+	}
+
+	private static Restaurant restaurant(long id, String cuisine) {
+		Restaurant restaurant = new Restaurant("Restaurant " + id, "1 Main Street", cuisine, "555-0100", "09:00-22:00");
+		restaurant.setId(id);
+		return restaurant;
+	}
+}
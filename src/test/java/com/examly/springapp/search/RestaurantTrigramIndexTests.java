@@ -0,0 +1,109 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.entity.Restaurant;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestaurantTrigramIndexTests {
+
+	@Test
+	void matchesSubstringsOfNameOrCuisineInRequestedOrder() {
+		RestaurantTrigramIndex index = new RestaurantTrigramIndex();
+		index.upsert(restaurant(1, "Pizza Palace", "Italian"));
+		index.upsert(restaurant(2, "Spice Route", "Indian"));
+		index.upsert(restaurant(3, "Napoli Pizzeria", "Italian"));
+		index.upsert(restaurant(4, "Biryani House", "Indian"));
+
+		assertArrayEquals(new long[] {3, 1}, index.searchAll("izz", RestaurantTrigramIndex.Order.NAME, false));
+		assertArrayEquals(new long[] {1, 3}, index.searchAll("pizz", RestaurantTrigramIndex.Order.RELEVANCE, false));
+		assertArrayEquals(new long[] {4, 2}, index.searchAll("indian", RestaurantTrigramIndex.Order.NAME, false));
+		assertArrayEquals(new long[] {2, 1}, index.searchAll("ce", RestaurantTrigramIndex.Order.ID, true));
+
+		RestaurantTrigramIndex.Hits page = index.search("i", RestaurantTrigramIndex.Order.ID, false, 1, 2);
+		assertEquals(4, page.total());
+		assertArrayEquals(new long[] {2, 3}, page.restaurantIds());
+	}
+
+	@Test
+	void fallsBackToSimilarNamesWhenNothingContainsTheTerm() {
+		RestaurantTrigramIndex index = new RestaurantTrigramIndex();
+		index.upsert(restaurant(1, "Pizza Palace", "Italian"));
+		index.upsert(restaurant(2, "Spice Route", "Indian"));
+
+		assertArrayEquals(new long[] {1}, index.searchAll("pizaa", RestaurantTrigramIndex.Order.RELEVANCE, false));
+		assertArrayEquals(new long[] {2}, index.searchAll("spcie route", RestaurantTrigramIndex.Order.RELEVANCE, false));
+		assertEquals(0, index.searchAll("sushi", RestaurantTrigramIndex.Order.NAME, false).length);
+	}
+
+	@Test
+	void updatesAndRemovalsAreVisibleImmediately() {
+		RestaurantTrigramIndex index = new RestaurantTrigramIndex();
+		index.upsert(restaurant(1, "Dosa Corner", "South Indian"));
+		index.upsert(restaurant(1, "Idli Corner", "South Indian"));
+
+		assertEquals(0, index.searchAll("dosa", RestaurantTrigramIndex.Order.NAME, false).length);
+		assertArrayEquals(new long[] {1}, index.searchAll("idli", RestaurantTrigramIndex.Order.NAME, false));
+
+		index.remove(1);
+		assertEquals(0, index.size());
+		assertEquals(0, index.searchAll("corner", RestaurantTrigramIndex.Order.NAME, false).length);
+	}
+
+	@Test
+	void selectsAndOrdersOnlyTheGivenRestaurants() {
+		RestaurantTrigramIndex index = new RestaurantTrigramIndex();
+		index.upsert(restaurant(1, "Pizza Palace", "Italian"));
+		index.upsert(restaurant(2, "Spice Route", "Indian"));
+		index.upsert(restaurant(3, "Napoli Pizzeria", "Italian"));
+		index.upsert(restaurant(4, "Biryani House", "Indian"));
+		index.remove(2);
+
+		// 2 is gone and 9 was never indexed
+		RestaurantTrigramIndex.Hits hits = index.select(new long[] {9, 4, 2, 1, 3}, null,
+				RestaurantTrigramIndex.Order.NAME, false, 0, 10);
+		assertEquals(3, hits.total());
+		assertArrayEquals(new long[] {4, 3, 1}, hits.restaurantIds());
+
+		hits = index.select(new long[] {4, 1, 3}, "italian", RestaurantTrigramIndex.Order.ID, true, 1, 10);
+		assertEquals(2, hits.total());
+		assertArrayEquals(new long[] {1}, hits.restaurantIds());
+	}
+
+	@Test
+	void pagesAgreeWithTheFullOrdering() {
+		RestaurantTrigramIndex index = new RestaurantTrigramIndex();
+		Random random = new Random(11);
+		String[] words = {"Pizza", "Curry", "Noodle", "Grill", "Taco", "Sushi"};
+		String[] cuisines = {"Italian", "Indian", "Thai", "Mexican"};
+		for (long id = 1; id <= 300; id++) {
+			// Few distinct names, so most of the ordering comes down to the ID tiebreak
+			index.upsert(restaurant(id, words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)],
+					cuisines[random.nextInt(cuisines.length)]));
+		}
+
+		for (String query : new String[] {"", "i", "pizza", "piza gril"}) {
+			for (RestaurantTrigramIndex.Order order : RestaurantTrigramIndex.Order.values()) {
+				for (boolean descending : new boolean[] {false, true}) {
+					long[] all = index.searchAll(query, order, descending);
+					for (int offset : new int[] {0, 7, 150, Math.max(0, all.length - 3), all.length + 5}) {
+						RestaurantTrigramIndex.Hits page = index.search(query, order, descending, offset, 10);
+						int from = Math.min(offset, all.length);
+						assertEquals(all.length, page.total());
+						assertArrayEquals(Arrays.copyOfRange(all, from, Math.min(from + 10, all.length)), page.restaurantIds(),
+								query + " " + order + " " + descending + " " + offset);
+					}
+				}
+			}
+		}
+	}
+
+	private static Restaurant restaurant(long id, String name, String cuisine) {
+		Restaurant restaurant = new Restaurant(name, "1 Main Street", cuisine, "555-0100", "09:00-22:00");
+		restaurant.setId(id);
+		return restaurant;
+	}
+}
@@ -0,0 +1,153 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.FeedbackPage;
+import com.examly.springapp.entity.Feedback;
+import com.examly.springapp.entity.RatingSummary;
+import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class FeedbackServiceTests {
+
+	@Autowired
+	private FeedbackService feedbackService;
+
+	@Autowired
+	private RestaurantService restaurantService;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void ratingSummaryFollowsSubmitsAndDeletes() {
+		User user = userService.createUser(new User("rating_user", "rating@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Rating Diner", "1 Rating Street", "Indian", "555-0200", "9-5"));
+
+		Feedback five = feedbackService.submitFeedback(new Feedback("Wonderful biryani", 5, restaurant, user));
+		feedbackService.submitFeedback(new Feedback("Decent but slow", 3, restaurant, user));
+		feedbackService.submitFeedback(new Feedback("Cold food again", 1, restaurant, user));
+
+		RatingSummary summary = feedbackService.getRatingSummary(restaurant.getId());
+		assertEquals(3, summary.getRatingCount());
+		assertEquals(3.0, summary.getAverageRating(), 1e-9);
+		assertArrayEquals(new long[] {1, 0, 1, 0, 1}, summary.getHistogram());
+
+		assertTrue(feedbackService.deleteFeedback(five.getId()));
+		assertFalse(feedbackService.deleteFeedback(five.getId()));
+		summary = feedbackService.getRatingSummary(restaurant.getId());
+		assertEquals(2, summary.getRatingCount());
+		assertEquals(2.0, summary.getAverageRating(), 1e-9);
+		assertArrayEquals(new long[] {1, 0, 1, 0, 0}, summary.getHistogram());
+	}
+
+	@Test
+	void submitFeedbackRejectsInvalidInput() {
+		User user = userService.createUser(new User("invalid_user", "invalid@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Invalid Diner", "2 Rating Street", "Thai", "555-0201", "9-5"));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> feedbackService.submitFeedback(new Feedback("Far too many stars", 6, restaurant, user)));
+		assertThrows(IllegalArgumentException.class,
+				() -> feedbackService.submitFeedback(new Feedback("Short", 4, restaurant, user)));
+		assertEquals(0, feedbackService.getRatingSummary(restaurant.getId()).getRatingCount());
+	}
+
+	@Test
+	void feedbackPagesByKeysetNewestFirst() {
+		User user = userService.createUser(new User("paging_user", "paging@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Paging Diner", "3 Rating Street", "Mexican", "555-0202", "9-5"));
+		for (int i = 1; i <= 5; i++) {
+			feedbackService.submitFeedback(new Feedback("Review number " + i, i, restaurant, user));
+		}
+
+		FeedbackPage first = feedbackService.getFeedbackForRestaurant(restaurant.getId(), null, 2);
+		assertEquals(List.of("Review number 5", "Review number 4"),
+				first.items().stream().map(Feedback::getContent).toList());
+		assertEquals(first.items().get(1).getId(), first.nextCursor());
+
+		FeedbackPage second = feedbackService.getFeedbackForRestaurant(restaurant.getId(), first.nextCursor(), 2);
+		FeedbackPage last = feedbackService.getFeedbackForRestaurant(restaurant.getId(), second.nextCursor(), 2);
+		assertEquals(List.of("Review number 1"), last.items().stream().map(Feedback::getContent).toList());
+		assertNull(last.nextCursor());
+	}
+
+	@Test
+	void restaurantsSortByStoredAverageRating() {
+		User user = userService.createUser(new User("sorting_user", "sorting@example.com", "secret1"));
+		Restaurant good = restaurantService.registerRestaurant(
+				new Restaurant("Good Place", "4 Rating Street", "Ethiopian", "555-0203", "9-5"));
+		Restaurant best = restaurantService.registerRestaurant(
+				new Restaurant("Best Place", "5 Rating Street", "Ethiopian", "555-0204", "9-5"));
+		Restaurant unrated = restaurantService.registerRestaurant(
+				new Restaurant("New Place", "6 Rating Street", "Ethiopian", "555-0205", "9-5"));
+		feedbackService.submitFeedback(new Feedback("Pretty good injera", 4, good, user));
+		feedbackService.submitFeedback(new Feedback("The best injera in town", 5, best, user));
+
+		List<Long> ids = restaurantService.filterByCuisine("Ethiopian", 0, 10, "rating", "desc", false)
+				.getContent().stream().map(Restaurant::getId).toList();
+		assertEquals(List.of(best.getId(), good.getId(), unrated.getId()), ids);
+
+		// Searches sort by rating from memory and must agree with the table
+		assertEquals(ids, restaurantService.searchRestaurants("ethiopian", 0, 10, "rating", "desc", false)
+				.getContent().stream().map(Restaurant::getId).toList());
+	}
+
+	@Test
+	void topRatedRankingFollowsCommittedFeedback() {
+		User user = userService.createUser(new User("ranking_user", "ranking@example.com", "secret1"));
+		Restaurant first = restaurantService.registerRestaurant(
+				new Restaurant("First Place", "7 Rating Street", "Peruvian", "555-0206", "9-5"));
+		Restaurant second = restaurantService.registerRestaurant(
+				new Restaurant("Second Place", "8 Rating Street", "Peruvian", "555-0207", "9-5"));
+		feedbackService.submitFeedback(new Feedback("Lovely ceviche, will return", 5, second, user));
+		feedbackService.submitFeedback(new Feedback("Bland and overpriced", 1, first, user));
+
+		List<Long> ids = restaurantService.getRankedRestaurants("rating", "peruvian", 10).stream()
+				.map(ranked -> ranked.restaurant().getId()).toList();
+		assertEquals(List.of(second.getId(), first.getId()), ids);
+		assertThrows(IllegalArgumentException.class, () -> restaurantService.getRankedRestaurants("spicy", null, 10));
+	}
+
+	@Test
+	void deletingAUserTakesTheirRatingsOut() {
+		User leaving = userService.createUser(new User("leaving_user", "leaving@example.com", "secret1"));
+		User staying = userService.createUser(new User("staying_user", "staying@example.com", "secret1"));
+		Restaurant loved = restaurantService.registerRestaurant(
+				new Restaurant("Loved Place", "9 Rating Street", "Georgian", "555-0208", "9-5"));
+		Restaurant liked = restaurantService.registerRestaurant(
+				new Restaurant("Liked Place", "10 Rating Street", "Georgian", "555-0209", "9-5"));
+		feedbackService.submitFeedback(new Feedback("Khachapuri to die for", 5, loved, leaving));
+		feedbackService.submitFeedback(new Feedback("Still the best khinkali", 5, loved, leaving));
+		feedbackService.submitFeedback(new Feedback("Decent khinkali overall", 2, loved, staying));
+		feedbackService.submitFeedback(new Feedback("Nice wine list, friendly", 4, liked, staying));
+		feedbackService.submitFeedback(new Feedback("Nice enough but not special", 3, liked, leaving));
+		assertEquals(List.of(loved.getId(), liked.getId()), rankedIds("georgian"));
+
+		assertTrue(userService.deleteUser(leaving.getId()));
+
+		RatingSummary lovedSummary = feedbackService.getRatingSummary(loved.getId());
+		assertEquals(1, lovedSummary.getRatingCount());
+		assertEquals(2.0, lovedSummary.getAverageRating(), 1e-9);
+		assertArrayEquals(new long[] {0, 1, 0, 0, 0}, lovedSummary.getHistogram());
+		RatingSummary likedSummary = feedbackService.getRatingSummary(liked.getId());
+		assertEquals(1, likedSummary.getRatingCount());
+		assertEquals(4.0, likedSummary.getAverageRating(), 1e-9);
+		assertArrayEquals(new long[] {0, 0, 0, 1, 0}, likedSummary.getHistogram());
+		assertEquals(List.of(liked.getId(), loved.getId()), rankedIds("georgian"));
+	}
+
+	private List<Long> rankedIds(String cuisine) {
+		return restaurantService.getRankedRestaurants("rating", cuisine, 10).stream()
+				.map(ranked -> ranked.restaurant().getId()).toList();
+	}
+}
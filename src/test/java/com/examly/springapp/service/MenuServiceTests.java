@@ -0,0 +1,39 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.entity.MenuItem;
+import com.examly.springapp.entity.Restaurant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class MenuServiceTests {
+
+	@Autowired
+	private MenuService menuService;
+
+	@Autowired
+	private RestaurantService restaurantService;
+
+	@Test
+	void searchMenuItemsValidatesThePage() {
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Paging Diner", "1 Paging Street", "Italian", "555-0800", "9-5"));
+		menuService.addMenuItem(new MenuItem("Pagination Pasta", 9.0, "Mains", restaurant));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> menuService.searchMenuItems("pagination", null, null, null, null, -1, 10));
+		assertThrows(IllegalArgumentException.class,
+				() -> menuService.searchMenuItems("pagination", null, null, null, null, 0, 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> menuService.searchMenuItems("pagination", null, null, null, null, 0, 101));
+
+		// An offset past Integer.MAX_VALUE is an empty page, not an overflow
+		Page<MenuItem> far = menuService.searchMenuItems("pagination", null, null, null, null, Integer.MAX_VALUE / 10, 100);
+		assertTrue(far.getContent().isEmpty());
+		assertEquals(1, far.getTotalElements());
+	}
+}
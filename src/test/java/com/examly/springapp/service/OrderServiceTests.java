@@ -0,0 +1,231 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.analytics.CuisineRevenue;
+import com.examly.springapp.analytics.OrderAnalytics;
+import com.examly.springapp.analytics.OrderColumnStore;
+import com.examly.springapp.analytics.OrderSnapshotExporter;
+import com.examly.springapp.analytics.TopItemsBackfill;
+import com.examly.springapp.analytics.TopItemsTracker;
+import com.examly.springapp.analytics.TopMenuItem;
+import com.examly.springapp.entity.*;
+import com.examly.springapp.repository.OrderItemRepository;
+import com.examly.springapp.repository.OrderRepository;
+import com.examly.springapp.repository.RestaurantRepository;
+import com.examly.springapp.search.RecommendedMenuItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OrderServiceTests {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private MenuService menuService;
+
+	@Autowired
+	private RestaurantService restaurantService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private RestaurantRepository restaurantRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderItemRepository orderItemRepository;
+
+	@Autowired
+	private OrderSnapshotExporter orderSnapshotExporter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private AnalyticsService analyticsService;
+
+	@Test
+	void createOrderPricesItemsFromCurrentMenuVersion() {
+		User user = userService.createUser(new User("snapshot_user", "snapshot@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Snapshot Diner", "1 Snapshot Street", "Indian", "555-0100", "9-5"));
+		MenuItem dosa = menuService.addMenuItem(new MenuItem("Masala Dosa", 120.0, "Mains", restaurant));
+
+		OrderEntity first = orderService.createOrder(newOrder(user, restaurant, dosa, 2));
+		assertEquals(240.0, first.getTotalAmount());
+		assertEquals("Masala Dosa", first.getOrderItems().get(0).getItemNameAtOrderTime());
+
+		dosa.setPrice(150.0);
+		dosa.setName("Ghee Masala Dosa");
+		menuService.updateMenuItem(dosa.getId(), dosa);
+		assertEquals(2L, restaurantRepository.findById(restaurant.getId()).orElseThrow().getMenuVersion());
+
+		OrderEntity second = orderService.createOrder(newOrder(user, restaurant, dosa, 1));
+		assertEquals(150.0, second.getTotalAmount());
+		assertEquals("Ghee Masala Dosa", second.getOrderItems().get(0).getItemNameAtOrderTime());
+	}
+
+	@Test
+	void createOrderRejectsItemsFromAnotherRestaurant() {
+		User user = userService.createUser(new User("foreign_user", "foreign@example.com", "secret1"));
+		Restaurant home = restaurantService.registerRestaurant(
+				new Restaurant("Home Kitchen", "2 Home Street", "Italian", "555-0101", "9-5"));
+		Restaurant other = restaurantService.registerRestaurant(
+				new Restaurant("Other Kitchen", "3 Other Street", "Thai", "555-0102", "9-5"));
+		MenuItem curry = menuService.addMenuItem(new MenuItem("Green Curry", 90.0, "Mains", other));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> orderService.createOrder(newOrder(user, home, curry, 1)));
+	}
+
+	@Test
+	void deliveryEstimatesLearnFromDeliveredOrders() {
+		User user = userService.createUser(new User("eta_user", "eta@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Express Grill", "5 Express Street", "Grill", "555-0104", "9-5"));
+		MenuItem burger = menuService.addMenuItem(new MenuItem("Burger", 8.0, "Mains", restaurant));
+
+		for (int i = 0; i < 3; i++) {
+			OrderEntity order = orderService.createOrder(newOrder(user, restaurant, burger, 1));
+			assertTrue(order.getEstimatedDeliveryTime().isAfter(order.getOrderDate()));
+			OrderEntity confirmed = orderService.updateOrderStatus(order.getId(), OrderStatus.CONFIRMED).orElseThrow();
+			assertNotNull(confirmed.getConfirmedAt());
+			assertFalse(confirmed.getEstimatedDeliveryTime().isBefore(confirmed.getConfirmedAt()));
+			orderService.updateOrderStatus(order.getId(), OrderStatus.DELIVERED);
+		}
+
+		// Every earlier order was delivered within moments of being placed
+		OrderEntity next = orderService.createOrder(newOrder(user, restaurant, burger, 1));
+		assertTrue(next.getEstimatedDeliveryTime().isBefore(next.getOrderDate().plusMinutes(1)));
+	}
+
+	@Test
+	void deliveredOrdersReachAnalyticsOnceExported() throws IOException {
+		User user = userService.createUser(new User("analytics_user", "analytics@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Columnar Kitchen", "6 Columnar Street", "Ethiopian", "555-0105", "9-5"));
+		MenuItem injera = menuService.addMenuItem(new MenuItem("Injera Platter", 15.0, "Mains", restaurant));
+
+		for (int i = 0; i < 2; i++) {
+			OrderEntity order = orderService.createOrder(newOrder(user, restaurant, injera, 2));
+			orderService.updateOrderStatus(order.getId(), OrderStatus.DELIVERED);
+		}
+		orderService.cancelOrder(orderService.createOrder(newOrder(user, restaurant, injera, 1)).getId());
+		assertTrue(analyticsService.getRevenueByCuisine(null, null).stream()
+				.noneMatch(revenue -> revenue.cuisine().equals("Ethiopian")));
+
+		assertTrue(orderSnapshotExporter.export(LocalDateTime.now().plusSeconds(1)) >= 3);
+		CuisineRevenue ethiopian = analyticsService.getRevenueByCuisine(null, null).stream()
+				.filter(revenue -> revenue.cuisine().equals("Ethiopian"))
+				.findFirst().orElseThrow();
+		assertEquals(2, ethiopian.orders());
+		assertEquals(60.0, ethiopian.revenue(), 1e-9);
+		assertThrows(IllegalArgumentException.class,
+				() -> analyticsService.getTopItems(null, null, 0));
+	}
+
+	@Test
+	void redeliveringAnOrderDoesNotExportItAgain(@TempDir Path directory) throws IOException {
+		User user = userService.createUser(new User("redelivery_user", "redelivery@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Redelivery Kitchen", "7 Columnar Street", "Eritrean", "555-0106", "9-5"));
+		MenuItem zigni = menuService.addMenuItem(new MenuItem("Zigni", 14.0, "Mains", restaurant));
+		OrderEntity order = orderService.createOrder(newOrder(user, restaurant, zigni, 1));
+		orderService.updateOrderStatus(order.getId(), OrderStatus.DELIVERED);
+		// Backdated, so the first export's cutoff can lie behind the clock without waiting for it
+		LocalDateTime delivered = LocalDateTime.now().minusMinutes(10).truncatedTo(ChronoUnit.SECONDS);
+		jdbcTemplate.update("UPDATE orders SET actual_delivery_time = ? WHERE id = ?", delivered, order.getId());
+
+		// A store of its own, whatever watermark the shared one was left at
+		OrderColumnStore store = new OrderColumnStore(directory.toString());
+		OrderSnapshotExporter exporter = new OrderSnapshotExporter(orderRepository, orderItemRepository, store);
+		exporter.export(delivered.plusMinutes(1));
+		assertEquals(delivered, orderService.updateOrderStatus(order.getId(), OrderStatus.DELIVERED)
+				.orElseThrow().getActualDeliveryTime());
+		exporter.export(LocalDateTime.now().plusSeconds(1));
+
+		CuisineRevenue eritrean = new OrderAnalytics(store).revenueByCuisine(null, null).stream()
+				.filter(revenue -> revenue.cuisine().equals("Eritrean"))
+				.findFirst().orElseThrow();
+		assertEquals(1, eritrean.orders());
+		assertEquals(14.0, eritrean.revenue(), 1e-9);
+	}
+
+	@Test
+	void committedOrdersFeedMenuRecommendations() {
+		User user = userService.createUser(new User("pairing_user", "pairing@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Pairing Cafe", "4 Pairing Street", "Cafe", "555-0103", "9-5"));
+		MenuItem coffee = menuService.addMenuItem(new MenuItem("Flat White", 4.0, "Drinks", restaurant));
+		MenuItem croissant = menuService.addMenuItem(new MenuItem("Croissant", 3.0, "Bakery", restaurant));
+		MenuItem muffin = menuService.addMenuItem(new MenuItem("Muffin", 3.5, "Bakery", restaurant));
+
+		orderService.createOrder(newOrder(user, restaurant, coffee, 1, croissant));
+		orderService.createOrder(newOrder(user, restaurant, coffee, 2, croissant));
+		orderService.createOrder(newOrder(user, restaurant, coffee, 1, muffin));
+
+		List<RecommendedMenuItem> recommendations = menuService.getRecommendations(coffee.getId(), 10);
+		assertEquals(List.of("Croissant", "Muffin"),
+				recommendations.stream().map(recommended -> recommended.menuItem().getName()).toList());
+		assertEquals(2, recommendations.get(0).orderCount());
+		assertEquals(2.0 / 3, recommendations.get(0).confidence(), 1e-9);
+	}
+
+	@Test
+	void bestSellingItemsMatchLiveCountsAndTheBackfill() {
+		User user = userService.createUser(new User("bestseller_user", "bestseller@example.com", "secret1"));
+		Restaurant restaurant = restaurantService.registerRestaurant(
+				new Restaurant("Bestseller Grill", "5 Bestseller Street", "Grill", "555-0104", "9-5"));
+		MenuItem burger = menuService.addMenuItem(new MenuItem("Burger", 9.0, "Mains", restaurant));
+		MenuItem fries = menuService.addMenuItem(new MenuItem("Fries", 3.0, "Sides", restaurant));
+
+		orderService.createOrder(newOrder(user, restaurant, burger, 1, fries));
+		orderService.createOrder(newOrder(user, restaurant, fries, 3));
+
+		List<TopMenuItem> live = restaurantService.getTopItems(restaurant.getId(), "week", 10);
+		assertEquals(List.of("Fries", "Burger"), live.stream().map(item -> item.menuItem().getName()).toList());
+		assertEquals(4, live.get(0).quantity());
+
+		TopItemsTracker rebuilt = new TopItemsTracker();
+		new TopItemsBackfill(restaurantRepository, orderRepository, orderItemRepository, rebuilt).backfill();
+		assertEquals(List.of(new TopItemsTracker.TopItem(fries.getId(), 4, 0), new TopItemsTracker.TopItem(burger.getId(), 1, 0)),
+				rebuilt.top(restaurant.getId(), TopItemsTracker.Window.DAY, 10));
+		assertThrows(IllegalArgumentException.class, () -> restaurantService.getTopItems(restaurant.getId(), "year", 10));
+	}
+
+	private static OrderEntity newOrder(User user, Restaurant restaurant, MenuItem menuItem, int quantity,
+										MenuItem... extras) {
+		OrderEntity order = new OrderEntity(user, restaurant, "10 Delivery Lane");
+		order.setPaymentStatus("PAID");
+		List<OrderItem> items = new ArrayList<>();
+		items.add(orderItem(menuItem, quantity));
+		for (MenuItem extra : extras) {
+			items.add(orderItem(extra, 1));
+		}
+		order.setOrderItems(items);
+		return order;
+	}
+
+	private static OrderItem orderItem(MenuItem menuItem, int quantity) {
+		OrderItem item = new OrderItem();
+		item.setMenuItem(menuItem);
+		item.setQuantity(quantity);
+		return item;
+	}
+}
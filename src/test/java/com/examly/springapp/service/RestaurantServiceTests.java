@@ -0,0 +1,71 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.entity.Restaurant;
+import com.examly.springapp.jdbc.QueryStats;
+import com.examly.springapp.jdbc.QueryTracer;
+import com.examly.springapp.repository.RestaurantRepository;
+import com.examly.springapp.search.FacetedPage;
+import com.examly.springapp.search.RestaurantTrigramIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RestaurantServiceTests {
+
+	@Autowired
+	private RestaurantService restaurantService;
+
+	@Autowired
+	private RestaurantRepository restaurantRepository;
+
+	@Autowired
+	private RestaurantTrigramIndex restaurantTrigramIndex;
+
+	@Autowired
+	private QueryTracer queryTracer;
+
+	@Test
+	void largeSearchesSortedByPhoneNumberOnlyLoadThePage() {
+		List<Restaurant> restaurants = new ArrayList<>();
+		for (int i = 0; i < 1200; i++) {
+			// Phone numbers run against the insertion order, so sorting by them is visible
+			restaurants.add(new Restaurant("Scanwise Bistro " + i, i + " Scanwise Road", "Fusion",
+					String.format("555-%04d", (i * 7919) % 10000), "9-5"));
+		}
+		restaurants = restaurantRepository.saveAll(restaurants);
+		restaurantTrigramIndex.load(restaurants);
+		try {
+			queryTracer.reset();
+			FacetedPage<Restaurant> page = restaurantService.searchRestaurants("scanwise", 3, 5, "phoneNumber", "desc", false);
+
+			List<String> expected = restaurants.stream()
+					.map(Restaurant::getPhoneNumber)
+					.sorted(Comparator.reverseOrder())
+					.skip(15)
+					.limit(5)
+					.toList();
+			assertEquals(expected, page.getContent().stream().map(Restaurant::getPhoneNumber).toList());
+			assertEquals(1200, page.getTotalElements());
+			// The index orders the matches, so SQL only loads the five restaurants by ID. The tracer also
+			// sees background work such as the outbox relay, hence the filter
+			List<String> restaurantStatements = queryTracer.snapshot().stream()
+					.map(QueryStats::fingerprint)
+					.filter(fingerprint -> fingerprint.contains("from restaurants"))
+					.toList();
+			assertFalse(restaurantStatements.isEmpty());
+			for (String fingerprint : restaurantStatements) {
+				assertFalse(fingerprint.contains("order by"), fingerprint);
+			}
+		} finally {
+			restaurants.forEach(restaurant -> restaurantTrigramIndex.remove(restaurant.getId()));
+			restaurantRepository.deleteAllInBatch(restaurants);
+		}
+	}
+}